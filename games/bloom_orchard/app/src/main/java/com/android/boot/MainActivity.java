@@ -11,6 +11,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.android.boot.audio.SoundController;
 import com.android.boot.core.GameSession;
 import com.android.boot.core.GameState;
+import com.android.boot.core.OfflineProgress;
 import com.android.boot.ui.GameView;
 import com.android.boot.ui.UiOverlayController;
 import com.android.boot.ui.panel.AchievementPanelController;
@@ -18,6 +19,7 @@ import com.android.boot.ui.panel.CodexPanelController;
 import com.android.boot.ui.panel.DailyTaskPanelController;
 import com.android.boot.ui.panel.LoginRewardPanelController;
 import com.android.boot.ui.panel.MenuPanelController;
+import com.android.boot.ui.panel.OfflineSummaryPanelController;
 import com.android.boot.ui.panel.OrderPanelController;
 import com.android.boot.ui.panel.StoragePanelController;
 
@@ -40,6 +42,7 @@ public class MainActivity extends AppCompatActivity {
         TextView resultBody = findViewById(R.id.tv_result_body);
         UiOverlayController overlay = new UiOverlayController(coins, level, timer, menuOverlay, pauseOverlay, resultOverlay, resultBody);
         gameView.bind(session, overlay);
+        gameView.bindOffline(new OfflineProgress(session.store), new OfflineSummaryPanelController(this));
 
         SoundController sound = new SoundController();
         MenuPanelController menu = new MenuPanelController(this);
@@ -125,7 +128,12 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onPause() {
         super.onPause();
-        session.progression.save();
-        session.storage.save();
+        session.store.flushAndWait();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        session.store.close();
     }
 }
@@ -3,24 +3,61 @@ package com.android.boot.core;
 import android.content.Context;
 import android.content.SharedPreferences;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
-public class AchievementManager {
-    private final SharedPreferences pref;
+public class AchievementManager implements SaveStore.Section {
+    private final SaveStore store;
     public final List<String> names = new ArrayList<>();
+    private final Set<String> unlocked = new HashSet<>();
 
-    public AchievementManager(Context context) {
-        pref = context.getSharedPreferences("ach", Context.MODE_PRIVATE);
+    public AchievementManager(SaveStore store) {
+        this.store = store;
         String[] all = {"First Seed","Ten Green Plots","Hundred Harvests","Combo Apprentice","Combo Master","Bloom Collector","Rare Blossom","Golden Farmer","Beauty Specialist","Orchard Tycoon","Perfect Watering I","Perfect Watering II","Fertilizer Expert","Rain Chaser","Sun Blessing","Full Catalog Bronze","Full Catalog Silver","Full Catalog Gold","First Order","Premium Supplier","Festival Merchant","Storage Keeper","Big Barn","Open Horizon","Land Baron","Seven Days Warmup","Week Crown","Rainbow Witness","Golden Harvest Day","Petal Dancer","Perfect Orchard","Master Curator"};
         for (String it : all) {
             names.add(it);
         }
+        store.register(this);
     }
 
-    public boolean unlock(String key) {
-        if (pref.getBoolean(key, false)) return false;
-        pref.edit().putBoolean(key, true).apply();
+    public synchronized boolean unlock(String key) {
+        if (!unlocked.add(key)) return false;
+        store.markDirty(this);
         return true;
     }
+
+    @Override
+    public int sectionId() {
+        return SaveStore.SECTION_ACHIEVEMENTS;
+    }
+
+    @Override
+    public void write(DataOutputStream out) throws IOException {
+        out.writeShort(unlocked.size());
+        for (String key : unlocked) {
+            out.writeUTF(key);
+        }
+    }
+
+    @Override
+    public void read(DataInputStream in, int version) throws IOException {
+        unlocked.clear();
+        int n = in.readUnsignedShort();
+        for (int i = 0; i < n; i++) {
+            unlocked.add(in.readUTF());
+        }
+    }
+
+    @Override
+    public void importLegacy(Context context) {
+        SharedPreferences pref = context.getSharedPreferences("ach", Context.MODE_PRIVATE);
+        for (String key : names) {
+            if (pref.getBoolean(key, false)) unlocked.add(key);
+        }
+    }
 }
@@ -3,16 +3,85 @@ package com.android.boot.core;
 import android.content.Context;
 import android.content.SharedPreferences;
 
-public class CodexManager {
-    private final SharedPreferences pref;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
-    public CodexManager(Context context) {
-        pref = context.getSharedPreferences("codex", Context.MODE_PRIVATE);
+public class CodexManager implements SaveStore.Section {
+    public static class Entry {
+        public int count;
+        public int best;
+        public String weather = "";
     }
 
-    public void onHarvest(String cropId, int beauty, String weather) {
-        int total = pref.getInt(cropId + "_count", 0) + 1;
-        int best = Math.max(pref.getInt(cropId + "_best", 0), beauty);
-        pref.edit().putInt(cropId + "_count", total).putInt(cropId + "_best", best).putString(cropId + "_weather", weather).apply();
+    private final SaveStore store;
+    public final Map<String, Entry> entries = new HashMap<>();
+
+    public CodexManager(SaveStore store) {
+        this.store = store;
+        store.register(this);
+    }
+
+    public synchronized void onHarvest(String cropId, int beauty, String weather) {
+        Entry e = entry(cropId);
+        e.count++;
+        e.best = Math.max(e.best, beauty);
+        e.weather = weather;
+        store.markDirty(this);
+    }
+
+    private Entry entry(String cropId) {
+        Entry e = entries.get(cropId);
+        if (e == null) {
+            e = new Entry();
+            entries.put(cropId, e);
+        }
+        return e;
+    }
+
+    @Override
+    public int sectionId() {
+        return SaveStore.SECTION_CODEX;
+    }
+
+    @Override
+    public void write(DataOutputStream out) throws IOException {
+        out.writeShort(entries.size());
+        for (Map.Entry<String, Entry> it : entries.entrySet()) {
+            out.writeUTF(it.getKey());
+            out.writeInt(it.getValue().count);
+            out.writeInt(it.getValue().best);
+            out.writeUTF(it.getValue().weather);
+        }
+    }
+
+    @Override
+    public void read(DataInputStream in, int version) throws IOException {
+        entries.clear();
+        int n = in.readUnsignedShort();
+        for (int i = 0; i < n; i++) {
+            Entry e = entry(in.readUTF());
+            e.count = in.readInt();
+            e.best = in.readInt();
+            e.weather = in.readUTF();
+        }
+    }
+
+    @Override
+    public void importLegacy(Context context) {
+        SharedPreferences pref = context.getSharedPreferences("codex", Context.MODE_PRIVATE);
+        for (Map.Entry<String, ?> it : pref.getAll().entrySet()) {
+            String key = it.getKey();
+            Object value = it.getValue();
+            if (key.endsWith("_count") && value instanceof Integer) {
+                entry(key.substring(0, key.length() - 6)).count = (Integer) value;
+            } else if (key.endsWith("_best") && value instanceof Integer) {
+                entry(key.substring(0, key.length() - 5)).best = (Integer) value;
+            } else if (key.endsWith("_weather") && value instanceof String) {
+                entry(key.substring(0, key.length() - 8)).weather = (String) value;
+            }
+        }
     }
 }
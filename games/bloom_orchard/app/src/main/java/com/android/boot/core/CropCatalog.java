@@ -3,12 +3,14 @@ package com.android.boot.core;
 import android.graphics.Color;
 
 import com.android.boot.entity.CropType;
+import com.android.boot.entity.Fertilizer;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class CropCatalog {
     private final List<CropType> crops = new ArrayList<>();
+    private final CropEffects effects;
 
     public CropCatalog() {
         add("carrot","Carrot","Root",1,8,24,1,"YIELD",18,9,"common",62,2,"root",new String[]{"#8A6A45","#6BBE45","#FF8F2E","#FFA94D"},"fruit");
@@ -35,10 +37,15 @@ public class CropCatalog {
         add("bell_pepper","Bell Pepper","Fruit",5,30,68,3,"YIELD",72,30,"rare",85,4,"fruit",new String[]{"#544634","#57A24D","#D65E46","#F1725B"},"fruit");
         add("lotus","Lotus","Flower",8,52,102,4,"BEAUTY",118,45,"legend",108,6,"flower",new String[]{"#5A4F63","#529E68","#C18CEB","#D9A5F6"},"flower");
         add("crystal_melon","Crystal Melon","Mythic",9,60,120,4,"RARE",140,50,"legend",120,6,"myth",new String[]{"#4A5674","#49A58C","#6BC8E0","#8EE7FF"},"fruit");
+        effects = new CropEffects(crops);
     }
 
     private void add(String id, String n, String c, int u, int s, float g, int w, String f, int sv, int xp, String r, float b, int y, String t, String[] colors, String shape) {
-        crops.add(new CropType(id, n, c, u, s, g, w, f, sv, xp, r, b, y, t, new int[]{Color.parseColor(colors[0]), Color.parseColor(colors[1]), Color.parseColor(colors[2]), Color.parseColor(colors[3])}, shape));
+        crops.add(new CropType(crops.size(), id, n, c, u, s, g, w, Fertilizer.valueOf(f), sv, xp, r, b, y, t, new int[]{Color.parseColor(colors[0]), Color.parseColor(colors[1]), Color.parseColor(colors[2]), Color.parseColor(colors[3])}, shape));
+    }
+
+    public CropEffects effects() {
+        return effects;
     }
 
     public List<CropType> all() {
@@ -1,28 +1,103 @@
 package com.android.boot.core;
 
+import android.os.Looper;
+import android.view.Choreographer;
+
 import com.android.boot.ui.GameView;
 
-public class GameLoopThread extends Thread {
+public class GameLoopThread extends Thread implements Choreographer.FrameCallback {
+    public enum Mode {
+        VSYNC,
+        DEADLINE
+    }
+
+    public static final float SIM_DT = 1f / 30f;
+    private static final int MAX_STEPS_PER_FRAME = 5;
+    private static final long DEFAULT_FRAME_NANOS = 16_666_667L;
+
     private final GameView gameView;
+    private final Mode mode;
+    private final long frameNanos;
     private volatile boolean running;
+    private volatile Looper looper;
+    private volatile int droppedFrames;
+    private long lastFrameNanos;
+    private float accumulator;
 
     public GameLoopThread(GameView gameView) {
+        this(gameView, Mode.VSYNC, 60f);
+    }
+
+    public GameLoopThread(GameView gameView, Mode mode, float refreshRate) {
         this.gameView = gameView;
+        this.mode = mode;
+        this.frameNanos = refreshRate > 1f ? (long) (1_000_000_000L / refreshRate) : DEFAULT_FRAME_NANOS;
     }
 
     public void setRunning(boolean running) {
         this.running = running;
+        Looper l = looper;
+        if (!running && l != null) l.quit();
+    }
+
+    public int getDroppedFrames() {
+        return droppedFrames;
     }
 
     @Override
     public void run() {
-        long last = System.nanoTime();
+        if (mode == Mode.VSYNC) {
+            Looper.prepare();
+            looper = Looper.myLooper();
+            if (!running) return;
+            Choreographer.getInstance().postFrameCallback(this);
+            Looper.loop();
+        } else {
+            runDeadline();
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) return;
+        advance(frameTimeNanos);
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    private void runDeadline() {
+        long deadline = System.nanoTime();
         while (running) {
             long now = System.nanoTime();
-            float dt = (now - last) / 1000000000f;
-            last = now;
-            if (dt > 0.05f) dt = 0.05f;
-            gameView.step(dt);
+            advance(now);
+            deadline += frameNanos;
+            if (now - deadline > frameNanos) deadline = now + frameNanos;
+            long wait = deadline - System.nanoTime();
+            if (wait > 0) {
+                try {
+                    Thread.sleep(wait / 1_000_000L, (int) (wait % 1_000_000L));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void advance(long now) {
+        if (lastFrameNanos == 0L) {
+            lastFrameNanos = now;
+            gameView.render(1f);
+            return;
+        }
+        long delta = now - lastFrameNanos;
+        lastFrameNanos = now;
+        if (delta > frameNanos + frameNanos / 2) {
+            droppedFrames += (int) ((delta + frameNanos / 2) / frameNanos) - 1;
+        }
+        accumulator += Math.min(delta / 1_000_000_000f, SIM_DT * MAX_STEPS_PER_FRAME);
+        while (accumulator >= SIM_DT) {
+            gameView.update(SIM_DT);
+            accumulator -= SIM_DT;
         }
+        gameView.render(accumulator / SIM_DT);
     }
 }
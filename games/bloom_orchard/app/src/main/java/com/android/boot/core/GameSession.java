@@ -4,6 +4,7 @@ import android.content.Context;
 
 import com.android.boot.entity.CropPlot;
 import com.android.boot.entity.CropType;
+import com.android.boot.entity.Fertilizer;
 import com.android.boot.entity.FloatingText;
 
 import java.util.ArrayList;
@@ -19,6 +20,7 @@ public class GameSession {
     public final LoginRewardManager login;
     public final AchievementManager achievements;
     public final WeatherManager weather;
+    public final SaveStore store;
     public final List<CropPlot> plots = new ArrayList<>();
     public final List<FloatingText> texts = new ArrayList<>();
     public GameState state = GameState.MENU;
@@ -27,15 +29,20 @@ public class GameSession {
     public int bestBeauty;
 
     public GameSession(Context context) {
+        this(new SaveStore(context), new WeatherManager());
+    }
+
+    GameSession(SaveStore store, WeatherManager weather) {
         cropCatalog = new CropCatalog();
-        progression = new ProgressionManager(context);
-        storage = new StorageManager(context);
-        orders = new OrderManager(context);
-        codex = new CodexManager(context);
-        tasks = new TaskManager(context);
-        login = new LoginRewardManager(context);
-        achievements = new AchievementManager(context);
-        weather = new WeatherManager();
+        this.store = store;
+        progression = new ProgressionManager(store);
+        storage = new StorageManager(store);
+        orders = new OrderManager(store);
+        codex = new CodexManager(store);
+        tasks = new TaskManager(store);
+        login = new LoginRewardManager(store);
+        achievements = new AchievementManager(store);
+        this.weather = weather;
         int total = 36;
         int unlocked = progression.expansionTier == 0 ? 12 : progression.expansionTier == 1 ? 20 : progression.expansionTier == 2 ? 30 : 36;
         for (int i = 0; i < total; i++) {
@@ -54,21 +61,20 @@ public class GameSession {
     }
 
     public void update(float dt) {
+        storePrevious();
         if (state != GameState.PLAYING) return;
         sessionLeft -= dt;
         if (sessionLeft <= 0f) {
             state = GameState.GAME_OVER;
-            progression.save();
-            storage.save();
+            store.flushNow();
             return;
         }
         weather.update(dt);
         float weatherMul = weather.state.growthBoost;
         for (CropPlot p : plots) {
             if (!p.unlocked || p.crop == null || p.mature) continue;
-            float grow = dt / p.crop.baseGrowTimeSec;
-            if (p.watered > 0) grow *= 1.2f;
-            if ("YIELD".equals(p.fertilizer)) grow *= 1.06f;
+            // The loop always steps at SIM_DT; any other step falls back to the per-second rate.
+            float grow = dt == GameLoopThread.SIM_DT ? p.growthPerStep : p.growthPerSec * dt;
             p.growth += grow * weatherMul;
             p.sway += dt;
             p.sparkle += dt * 2f;
@@ -85,32 +91,53 @@ public class GameSession {
         }
     }
 
+    // Called whenever crop, water or fertilizer change on a planted plot.
+    private void refreshEffects(CropPlot p) {
+        CropEffects effects = cropCatalog.effects();
+        p.growthPerSec = effects.growthPerSec(p.crop, p.watered > 0, p.fertilizer);
+        p.growthPerStep = effects.growthPerStep(p.crop, p.watered > 0, p.fertilizer);
+    }
+
+    private void storePrevious() {
+        for (CropPlot p : plots) {
+            p.prevGrowth = p.growth;
+            p.prevSway = p.sway;
+        }
+        for (FloatingText t : texts) {
+            t.prevY = t.y;
+        }
+    }
+
     public void plant(CropPlot p, CropType crop) {
         if (!p.unlocked || !p.isEmpty()) return;
         if (!progression.spend(crop.seedCost)) return;
         p.crop = crop;
         p.growth = 0f;
+        p.prevGrowth = 0f;
         p.mature = false;
         p.watered = 0;
-        p.fertilizer = "NONE";
+        p.fertilizer = Fertilizer.NONE;
+        refreshEffects(p);
     }
 
     public void water(CropPlot p) {
         if (p.crop == null || p.mature) return;
         p.watered++;
         p.growth = Math.min(1f, p.growth + 0.14f);
+        refreshEffects(p);
     }
 
-    public void fertilizer(CropPlot p, String type) {
+    public void fertilizer(CropPlot p, Fertilizer type) {
         if (p.crop == null || p.mature) return;
         p.fertilizer = type;
+        refreshEffects(p);
     }
 
     public void harvest(CropPlot p) {
         if (p.crop == null || !p.mature) return;
         float beauty = p.crop.matureBeautyBase;
         beauty += p.watered * 4f;
-        if (p.crop.fertilizerAffinity.equals(p.fertilizer)) beauty += 10f;
+        if (p.crop.fertilizerAffinity == p.fertilizer) beauty += 10f;
         beauty *= weather.state.beautyBoost;
         int beautyInt = (int) beauty;
         bestBeauty = Math.max(bestBeauty, beautyInt);
@@ -123,9 +150,10 @@ public class GameSession {
         spawnText("+" + coinReward + "c B" + beautyInt, 60 + p.index * 6, 180 + p.index * 4);
         p.crop = null;
         p.growth = 0f;
+        p.prevGrowth = 0f;
         p.mature = false;
         p.watered = 0;
-        p.fertilizer = "NONE";
+        p.fertilizer = Fertilizer.NONE;
         achievements.unlock("First Seed");
     }
 
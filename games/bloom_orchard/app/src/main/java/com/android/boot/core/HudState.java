@@ -0,0 +1,51 @@
+package com.android.boot.core;
+
+// What the HUD shows, captured from the session once per frame on the game thread. Every
+// field carries a version that only moves when its value does, so readers on either thread
+// can keep the versions they last drew and redo just the widgets whose field moved.
+public class HudState {
+    public static final int COINS = 0;
+    public static final int LEVEL = 1;
+    public static final int COMBO = 2;
+    public static final int SECONDS_LEFT = 3;
+    public static final int STATE = 4;
+    public static final int BEST_BEAUTY = 5;
+    public static final int WEATHER = 6;
+    public static final int FIELD_COUNT = 7;
+
+    private final int[] values = new int[FIELD_COUNT];
+    private final int[] versions = new int[FIELD_COUNT];
+
+    // Returns true when any field changed since the last capture.
+    public synchronized boolean capture(GameSession s) {
+        boolean changed = set(COINS, s.progression.coins);
+        changed |= set(LEVEL, s.progression.level);
+        changed |= set(COMBO, s.combo);
+        changed |= set(SECONDS_LEFT, (int) s.sessionLeft);
+        changed |= set(STATE, s.state.ordinal());
+        changed |= set(BEST_BEAUTY, s.bestBeauty);
+        changed |= set(WEATHER, s.weather.state.ordinal());
+        return changed;
+    }
+
+    private boolean set(int field, int value) {
+        if (values[field] == value && versions[field] != 0) return false;
+        values[field] = value;
+        versions[field]++;
+        return true;
+    }
+
+    public synchronized int value(int field) {
+        return values[field];
+    }
+
+    public synchronized int version(int field) {
+        return versions[field];
+    }
+
+    // Copies a consistent view for the UI thread.
+    public synchronized void copyTo(int[] outValues, int[] outVersions) {
+        System.arraycopy(values, 0, outValues, 0, FIELD_COUNT);
+        System.arraycopy(versions, 0, outVersions, 0, FIELD_COUNT);
+    }
+}
@@ -3,31 +3,58 @@ package com.android.boot.core;
 import android.content.Context;
 import android.content.SharedPreferences;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 
-public class LoginRewardManager {
-    private final SharedPreferences pref;
+public class LoginRewardManager implements SaveStore.Section {
+    private final SaveStore store;
+    private String last = "";
+    private int day = 1;
 
-    public LoginRewardManager(Context context) {
-        pref = context.getSharedPreferences("login", Context.MODE_PRIVATE);
+    public LoginRewardManager(SaveStore store) {
+        this.store = store;
+        store.register(this);
     }
 
-    public int claimableDay() {
+    public synchronized int claimableDay() {
         String today = new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(new Date());
-        String last = pref.getString("last", "");
-        int day = pref.getInt("day", 1);
         if (!today.equals(last)) {
             return day;
         }
         return 0;
     }
 
-    public void claim() {
-        String today = new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(new Date());
-        int day = pref.getInt("day", 1);
+    public synchronized void claim() {
+        last = new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(new Date());
         day = day >= 7 ? 1 : day + 1;
-        pref.edit().putString("last", today).putInt("day", day).apply();
+        store.markDirty(this);
+    }
+
+    @Override
+    public int sectionId() {
+        return SaveStore.SECTION_LOGIN;
+    }
+
+    @Override
+    public void write(DataOutputStream out) throws IOException {
+        out.writeUTF(last);
+        out.writeInt(day);
+    }
+
+    @Override
+    public void read(DataInputStream in, int version) throws IOException {
+        last = in.readUTF();
+        day = in.readInt();
+    }
+
+    @Override
+    public void importLegacy(Context context) {
+        SharedPreferences pref = context.getSharedPreferences("login", Context.MODE_PRIVATE);
+        last = pref.getString("last", "");
+        day = pref.getInt("day", 1);
     }
 }
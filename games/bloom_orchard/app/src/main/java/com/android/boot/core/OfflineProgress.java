@@ -0,0 +1,160 @@
+package com.android.boot.core;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.android.boot.entity.CropPlot;
+import com.android.boot.entity.FloatingText;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+public class OfflineProgress implements SaveStore.Section {
+    public static final float DEFAULT_HORIZON_SEC = 8f * 3600f;
+    public static final float MAX_HORIZON_SEC = 7f * 24f * 3600f;
+    private static final float MIN_AWAY_SEC = 1f;
+
+    public static class Summary {
+        public float awaySec;
+        public float appliedSec;
+        public boolean capped;
+        public int cropsMatured;
+        public int weatherChanges;
+        public String weather;
+    }
+
+    private final SaveStore store;
+    private long stoppedAt;
+    private float horizonSec;
+
+    public OfflineProgress(SaveStore store) {
+        this(store, DEFAULT_HORIZON_SEC);
+    }
+
+    public OfflineProgress(SaveStore store, float horizonSec) {
+        this.store = store;
+        setHorizonSec(horizonSec);
+        store.register(this);
+    }
+
+    public void setHorizonSec(float horizonSec) {
+        this.horizonSec = Math.max(0f, Math.min(MAX_HORIZON_SEC, horizonSec));
+    }
+
+    public float getHorizonSec() {
+        return horizonSec;
+    }
+
+    // Runs on the UI thread, so the write is only queued; MainActivity.onPause waits for the file.
+    public synchronized void markStopped(long nowMillis) {
+        stoppedAt = nowMillis;
+        store.markDirty(this);
+        store.flushNow();
+    }
+
+    // Catches the session up on the time since markStopped and clears the stamp. Returns null
+    // when there is nothing to report.
+    public Summary resume(GameSession s, long nowMillis) {
+        long stamp;
+        synchronized (this) {
+            stamp = stoppedAt;
+            if (stamp <= 0L) return null;
+            stoppedAt = 0L;
+            store.markDirty(this);
+        }
+        s.tasks.ensureDaily();
+        float away = Math.max(0L, nowMillis - stamp) / 1000f;
+        if (away < MIN_AWAY_SEC) return null;
+        Summary summary = new Summary();
+        summary.awaySec = away;
+        summary.appliedSec = Math.min(away, horizonSec);
+        summary.capped = away > horizonSec;
+        // Crops only grow while a round is running, as in GameSession.update; a paused round stays
+        // paused. The round clock itself is not spent offline.
+        if (s.state == GameState.PLAYING) {
+            advance(s, summary.appliedSec, summary);
+        }
+        summary.weather = s.weather.state.name();
+        return summary.cropsMatured > 0 || summary.weatherChanges > 0 ? summary : null;
+    }
+
+    // Same result as stepping the farm part of GameSession.update over the span, without frames:
+    // weather is constant between rolls, so each plot grows linearly inside a cycle. Once nothing
+    // is growing the weathers in between can no longer be seen, so only the last one is rolled.
+    public static void advance(GameSession s, float seconds, Summary summary) {
+        float left = seconds;
+        while (left > 0f) {
+            float span = Math.min(left, s.weather.remaining());
+            int growing = growPlots(s, span, s.weather.state.growthBoost, summary);
+            left -= span;
+            if (left <= 0f) {
+                s.weather.update(span);
+            } else if (growing > 0) {
+                s.weather.nextCycle();
+                if (summary != null) summary.weatherChanges++;
+            } else {
+                int rolls = (int) Math.ceil(left / WeatherManager.CYCLE_SEC);
+                s.weather.nextCycle();
+                s.weather.update(left - (rolls - 1) * WeatherManager.CYCLE_SEC);
+                if (summary != null) summary.weatherChanges += rolls;
+                left = 0f;
+            }
+        }
+        for (CropPlot p : s.plots) {
+            p.prevGrowth = p.growth;
+            p.prevSway = p.sway;
+        }
+        for (FloatingText t : s.texts) {
+            if (t.life > 0f) {
+                float used = Math.min(t.life, seconds);
+                t.life -= used;
+                t.y -= used * 24f;
+            }
+            t.prevY = t.y;
+        }
+    }
+
+    // Returns how many plots are still growing afterwards.
+    private static int growPlots(GameSession s, float span, float weatherMul, Summary summary) {
+        int growing = 0;
+        for (CropPlot p : s.plots) {
+            if (!p.unlocked || p.crop == null || p.mature) continue;
+            float rate = p.growthPerSec * weatherMul;
+            float needed = (1f - p.growth) / rate;
+            float used = Math.min(span, needed);
+            p.sway += used;
+            p.sparkle += used * 2f;
+            if (needed <= span) {
+                p.growth = 1f;
+                p.mature = true;
+                if (summary != null) summary.cropsMatured++;
+            } else {
+                p.growth += rate * span;
+                growing++;
+            }
+        }
+        return growing;
+    }
+
+    @Override
+    public int sectionId() {
+        return SaveStore.SECTION_OFFLINE;
+    }
+
+    @Override
+    public void write(DataOutputStream out) throws IOException {
+        out.writeLong(stoppedAt);
+    }
+
+    @Override
+    public void read(DataInputStream in, int version) throws IOException {
+        stoppedAt = in.readLong();
+    }
+
+    @Override
+    public void importLegacy(Context context) {
+        SharedPreferences pref = context.getSharedPreferences("offline", Context.MODE_PRIVATE);
+        stoppedAt = pref.getLong("stoppedAt", 0L);
+    }
+}
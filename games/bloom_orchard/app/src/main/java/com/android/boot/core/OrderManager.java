@@ -5,21 +5,26 @@ import android.content.SharedPreferences;
 
 import com.android.boot.entity.OrderData;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
-public class OrderManager {
-    private final SharedPreferences pref;
+public class OrderManager implements SaveStore.Section {
+    private final SaveStore store;
     private final Random random = new Random();
     public final List<OrderData> activeOrders = new ArrayList<>();
+    private long lastRefresh;
 
-    public OrderManager(Context context) {
-        pref = context.getSharedPreferences("orders", Context.MODE_PRIVATE);
+    public OrderManager(SaveStore store) {
+        this.store = store;
+        store.register(this);
         refresh();
     }
 
-    public void refresh() {
+    public synchronized void refresh() {
         activeOrders.clear();
         String[] tiers = {"common", "premium", "festival"};
         for (int i = 0; i < 3; i++) {
@@ -32,6 +37,28 @@ public class OrderManager {
             order.beautyTokens = 1 + i;
             activeOrders.add(order);
         }
-        pref.edit().putLong("lastRefresh", System.currentTimeMillis() + random.nextInt(1000)).apply();
+        lastRefresh = System.currentTimeMillis() + random.nextInt(1000);
+        store.markDirty(this);
+    }
+
+    @Override
+    public int sectionId() {
+        return SaveStore.SECTION_ORDERS;
+    }
+
+    @Override
+    public void write(DataOutputStream out) throws IOException {
+        out.writeLong(lastRefresh);
+    }
+
+    @Override
+    public void read(DataInputStream in, int version) throws IOException {
+        lastRefresh = in.readLong();
+    }
+
+    @Override
+    public void importLegacy(Context context) {
+        SharedPreferences pref = context.getSharedPreferences("orders", Context.MODE_PRIVATE);
+        lastRefresh = pref.getLong("lastRefresh", 0L);
     }
 }
@@ -3,39 +3,70 @@ package com.android.boot.core;
 import android.content.Context;
 import android.content.SharedPreferences;
 
-public class ProgressionManager {
-    private final SharedPreferences pref;
-    public int coins;
-    public int level;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+public class ProgressionManager implements SaveStore.Section {
+    private final SaveStore store;
+    public int coins = 120;
+    public int level = 1;
     public int xp;
     public int expansionTier;
-    public int storageCapacity;
-
-    public ProgressionManager(Context context) {
-        pref = context.getSharedPreferences("progress", Context.MODE_PRIVATE);
-        coins = pref.getInt("coins", 120);
-        level = pref.getInt("level", 1);
-        xp = pref.getInt("xp", 0);
-        expansionTier = pref.getInt("expansion", 0);
-        storageCapacity = pref.getInt("storageCap", 40);
+    public int storageCapacity = 40;
+
+    public ProgressionManager(SaveStore store) {
+        this.store = store;
+        store.register(this);
     }
 
-    public void addReward(int addCoins, int addXp) {
+    public synchronized void addReward(int addCoins, int addXp) {
         coins += addCoins;
         xp += addXp;
         while (xp >= level * 120) {
             xp -= level * 120;
             level++;
         }
+        store.markDirty(this);
     }
 
-    public boolean spend(int cost) {
+    public synchronized boolean spend(int cost) {
         if (coins < cost) return false;
         coins -= cost;
+        store.markDirty(this);
         return true;
     }
 
-    public void save() {
-        pref.edit().putInt("coins", coins).putInt("level", level).putInt("xp", xp).putInt("expansion", expansionTier).putInt("storageCap", storageCapacity).apply();
+    @Override
+    public int sectionId() {
+        return SaveStore.SECTION_PROGRESS;
+    }
+
+    @Override
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(coins);
+        out.writeInt(level);
+        out.writeInt(xp);
+        out.writeInt(expansionTier);
+        out.writeInt(storageCapacity);
+    }
+
+    @Override
+    public void read(DataInputStream in, int version) throws IOException {
+        coins = in.readInt();
+        level = in.readInt();
+        xp = in.readInt();
+        expansionTier = in.readInt();
+        storageCapacity = in.readInt();
+    }
+
+    @Override
+    public void importLegacy(Context context) {
+        SharedPreferences pref = context.getSharedPreferences("progress", Context.MODE_PRIVATE);
+        coins = pref.getInt("coins", coins);
+        level = pref.getInt("level", level);
+        xp = pref.getInt("xp", xp);
+        expansionTier = pref.getInt("expansion", expansionTier);
+        storageCapacity = pref.getInt("storageCap", storageCapacity);
     }
 }
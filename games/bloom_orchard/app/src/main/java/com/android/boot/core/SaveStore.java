@@ -0,0 +1,259 @@
+package com.android.boot.core;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Write-behind save file shared by every manager. Managers keep their state in memory and call
+// markDirty after a change; one background thread writes the file at most every FLUSH_DELAY_MS,
+// or right away on flushNow. Only dirty sections are serialized again, the rest reuse their
+// last bytes. onPause waits for the file with flushAndWait, so an activity recreated right after
+// reads what this one saved; onDestroy closes the store, which stops its writer thread. File
+// layout: magic, schema version, section count, then per section its id, payload length and
+// payload, so a reader can skip sections it does not know.
+public class SaveStore {
+    public interface Section {
+        int sectionId();
+
+        // Called on the writer thread while holding the section's monitor.
+        void write(DataOutputStream out) throws IOException;
+
+        void read(DataInputStream in, int version) throws IOException;
+
+        // Pulls state from the SharedPreferences used before the save file existed.
+        void importLegacy(Context context);
+    }
+
+    public static final int SECTION_PROGRESS = 1;
+    public static final int SECTION_STORAGE = 2;
+    public static final int SECTION_CODEX = 3;
+    public static final int SECTION_ACHIEVEMENTS = 4;
+    public static final int SECTION_LOGIN = 5;
+    public static final int SECTION_TASKS = 6;
+    public static final int SECTION_ORDERS = 7;
+    public static final int SECTION_OFFLINE = 8;
+
+    private static final String TAG = "SaveStore";
+    private static final String FILE_NAME = "orchard.sav";
+    private static final int MAGIC = 0x424F5356;
+    private static final int SCHEMA_VERSION = 1;
+    private static final long FLUSH_DELAY_MS = 3000L;
+    private static final long FLUSH_WAIT_MS = 2000L;
+
+    private final Context context;
+    private final File file;
+    private final Map<Integer, byte[]> loaded = new HashMap<>();
+    private final boolean hadFile;
+    private int fileVersion = SCHEMA_VERSION;
+    private final List<Section> sections = new ArrayList<>();
+    private final List<byte[]> cached = new ArrayList<>();
+    private final List<Boolean> dirty = new ArrayList<>();
+    private boolean flushPending;
+    private volatile Thread writerThread;
+    private final ScheduledThreadPoolExecutor writer = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "save-writer");
+        t.setDaemon(true);
+        writerThread = t;
+        return t;
+    });
+
+    public SaveStore(Context context) {
+        this(context, new File(context.getFilesDir(), FILE_NAME));
+    }
+
+    // A store without a context skips the legacy import; tests use it with a temporary file.
+    SaveStore(Context context, File file) {
+        this.context = context;
+        this.file = file;
+        writer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        hadFile = file.exists();
+        if (hadFile) load();
+    }
+
+    // Fills the section from the save file, or from legacy prefs on the first run after an update.
+    public synchronized void register(Section section) {
+        sections.add(section);
+        byte[] data = loaded.remove(section.sectionId());
+        cached.add(data);
+        dirty.add(data == null);
+        if (data != null) {
+            try {
+                section.read(new DataInputStream(new ByteArrayInputStream(data)), fileVersion);
+            } catch (IOException e) {
+                Log.w(TAG, "section " + section.sectionId() + " unreadable, using defaults", e);
+                dirty.set(dirty.size() - 1, true);
+            }
+        } else if (!hadFile && context != null) {
+            section.importLegacy(context);
+        }
+        if (dirty.get(dirty.size() - 1)) scheduleFlush(FLUSH_DELAY_MS);
+    }
+
+    public synchronized void markDirty(Section section) {
+        int i = sections.indexOf(section);
+        if (i < 0 || dirty.get(i)) return;
+        dirty.set(i, true);
+        scheduleFlush(FLUSH_DELAY_MS);
+    }
+
+    // Writes pending changes as soon as the writer thread is free; does not block the caller.
+    public void flushNow() {
+        synchronized (this) {
+            if (!writer.isShutdown()) {
+                writer.execute(this::flush);
+                return;
+            }
+        }
+        flush();
+    }
+
+    // Writes pending changes and waits up to FLUSH_WAIT_MS for the file to land.
+    public void flushAndWait() {
+        Future<?> done;
+        synchronized (this) {
+            done = writer.isShutdown() ? null : writer.submit(this::flush);
+        }
+        if (done == null) {
+            flush();
+            return;
+        }
+        try {
+            done.get(FLUSH_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            Log.w(TAG, "save did not finish", e);
+        }
+    }
+
+    // Final flush, then stops the writer thread. After this nothing is written in the background:
+    // markDirty only records the change and flushNow writes on the calling thread.
+    public void close() {
+        flushAndWait();
+        synchronized (this) {
+            writer.shutdown();
+        }
+        try {
+            writer.awaitTermination(FLUSH_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The thread the executor last started, or null before the first write. For tests.
+    Thread writerThread() {
+        return writerThread;
+    }
+
+    private void scheduleFlush(long delayMs) {
+        if (flushPending || writer.isShutdown()) return;
+        flushPending = true;
+        writer.schedule(this::flush, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        Section[] toWrite;
+        byte[][] bytes;
+        boolean[] stale;
+        synchronized (this) {
+            flushPending = false;
+            if (!dirty.contains(Boolean.TRUE)) return;
+            int n = sections.size();
+            toWrite = sections.toArray(new Section[n]);
+            bytes = cached.toArray(new byte[n][]);
+            stale = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                stale[i] = dirty.get(i);
+                dirty.set(i, false);
+            }
+        }
+        try {
+            ByteArrayOutputStream section = new ByteArrayOutputStream(256);
+            for (int i = 0; i < toWrite.length; i++) {
+                if (!stale[i]) continue;
+                section.reset();
+                DataOutputStream out = new DataOutputStream(section);
+                synchronized (toWrite[i]) {
+                    toWrite[i].write(out);
+                }
+                out.flush();
+                bytes[i] = section.toByteArray();
+            }
+            synchronized (this) {
+                for (int i = 0; i < bytes.length; i++) {
+                    cached.set(i, bytes[i]);
+                }
+            }
+            writeFile(toWrite, bytes);
+        } catch (IOException e) {
+            Log.w(TAG, "save failed, retrying", e);
+            synchronized (this) {
+                for (int i = 0; i < stale.length; i++) {
+                    if (stale[i]) dirty.set(i, true);
+                }
+                scheduleFlush(FLUSH_DELAY_MS);
+            }
+        }
+    }
+
+    private void writeFile(Section[] toWrite, byte[][] bytes) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+            out.writeInt(MAGIC);
+            out.writeShort(SCHEMA_VERSION);
+            int count = 0;
+            for (byte[] b : bytes) {
+                if (b != null) count++;
+            }
+            out.writeShort(count);
+            for (int i = 0; i < toWrite.length; i++) {
+                if (bytes[i] == null) continue;
+                out.writeShort(toWrite[i].sectionId());
+                out.writeInt(bytes[i].length);
+                out.write(bytes[i]);
+            }
+            out.flush();
+            fos.getFD().sync();
+        }
+        if (!tmp.renameTo(file)) throw new IOException("rename to " + file + " failed");
+    }
+
+    private void load() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IOException("not a save file");
+            fileVersion = in.readUnsignedShort();
+            if (fileVersion > SCHEMA_VERSION) throw new IOException("save from a newer version " + fileVersion);
+            int count = in.readUnsignedShort();
+            for (int i = 0; i < count; i++) {
+                int id = in.readUnsignedShort();
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                loaded.put(id, data);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "ignoring " + file, e);
+            loaded.clear();
+            fileVersion = SCHEMA_VERSION;
+        }
+    }
+}
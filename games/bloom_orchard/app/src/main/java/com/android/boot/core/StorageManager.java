@@ -3,40 +3,72 @@ package com.android.boot.core;
 import android.content.Context;
 import android.content.SharedPreferences;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
-public class StorageManager {
-    private final SharedPreferences pref;
+public class StorageManager implements SaveStore.Section {
+    private final SaveStore store;
     public final Map<String, Integer> items = new HashMap<>();
     public int used;
 
-    public StorageManager(Context context) {
-        pref = context.getSharedPreferences("storage", Context.MODE_PRIVATE);
-        used = pref.getInt("used", 0);
+    public StorageManager(SaveStore store) {
+        this.store = store;
+        store.register(this);
     }
 
-    public boolean add(String cropId, int amount, int cap) {
+    public synchronized boolean add(String cropId, int amount, int cap) {
         if (used + amount > cap) return false;
         items.put(cropId, items.containsKey(cropId) ? items.get(cropId) + amount : amount);
         used += amount;
+        store.markDirty(this);
         return true;
     }
 
-    public boolean consume(String cropId, int amount) {
+    public synchronized boolean consume(String cropId, int amount) {
         int have = items.containsKey(cropId) ? items.get(cropId) : 0;
         if (have < amount) return false;
         items.put(cropId, have - amount);
         used -= amount;
+        store.markDirty(this);
         return true;
     }
 
-    public void save() {
-        SharedPreferences.Editor e = pref.edit();
-        e.putInt("used", used);
+    @Override
+    public int sectionId() {
+        return SaveStore.SECTION_STORAGE;
+    }
+
+    @Override
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(used);
+        out.writeShort(items.size());
         for (Map.Entry<String, Integer> it : items.entrySet()) {
-            e.putInt("i_" + it.getKey(), it.getValue());
+            out.writeUTF(it.getKey());
+            out.writeInt(it.getValue());
+        }
+    }
+
+    @Override
+    public void read(DataInputStream in, int version) throws IOException {
+        used = in.readInt();
+        items.clear();
+        int n = in.readUnsignedShort();
+        for (int i = 0; i < n; i++) {
+            items.put(in.readUTF(), in.readInt());
+        }
+    }
+
+    @Override
+    public void importLegacy(Context context) {
+        SharedPreferences pref = context.getSharedPreferences("storage", Context.MODE_PRIVATE);
+        used = pref.getInt("used", 0);
+        for (Map.Entry<String, ?> it : pref.getAll().entrySet()) {
+            if (it.getKey().startsWith("i_") && it.getValue() instanceof Integer) {
+                items.put(it.getKey().substring(2), (Integer) it.getValue());
+            }
         }
-        e.apply();
     }
 }
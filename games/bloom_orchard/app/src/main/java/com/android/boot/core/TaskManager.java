@@ -5,31 +5,36 @@ import android.content.SharedPreferences;
 
 import com.android.boot.entity.DailyTask;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 
-public class TaskManager {
-    private final SharedPreferences pref;
+public class TaskManager implements SaveStore.Section {
+    private final SaveStore store;
     public final List<DailyTask> tasks = new ArrayList<>();
+    private String date = "";
 
-    public TaskManager(Context context) {
-        pref = context.getSharedPreferences("tasks", Context.MODE_PRIVATE);
+    public TaskManager(SaveStore store) {
+        this.store = store;
+        store.register(this);
         ensureDaily();
     }
 
-    private void ensureDaily() {
+    public synchronized void ensureDaily() {
         String today = new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(new Date());
-        String last = pref.getString("date", "");
-        if (!today.equals(last)) {
+        if (!today.equals(date)) {
             tasks.clear();
             add("plant", "Plant 8 crops", 8, 100, 40);
             add("harvest", "Harvest 5 flowers", 5, 120, 45);
             add("orders", "Complete 2 orders", 2, 140, 60);
             add("combo", "Reach combo 6", 6, 90, 35);
-            pref.edit().putString("date", today).apply();
+            date = today;
+            store.markDirty(this);
         }
     }
 
@@ -42,4 +47,25 @@ public class TaskManager {
         t.rewardXp = xp;
         tasks.add(t);
     }
+
+    @Override
+    public int sectionId() {
+        return SaveStore.SECTION_TASKS;
+    }
+
+    @Override
+    public void write(DataOutputStream out) throws IOException {
+        out.writeUTF(date);
+    }
+
+    @Override
+    public void read(DataInputStream in, int version) throws IOException {
+        date = in.readUTF();
+    }
+
+    @Override
+    public void importLegacy(Context context) {
+        SharedPreferences pref = context.getSharedPreferences("tasks", Context.MODE_PRIVATE);
+        date = pref.getString("date", "");
+    }
 }
@@ -5,23 +5,48 @@ import com.android.boot.entity.WeatherState;
 import java.util.Random;
 
 public class WeatherManager {
-    private final Random random = new Random();
+    public static final float CYCLE_SEC = 20f;
+    private final Random random;
     public WeatherState state = WeatherState.CLEAR;
     private float timer;
 
+    public WeatherManager() {
+        this(new Random());
+    }
+
+    // Seeded weather for tests that compare two runs.
+    WeatherManager(Random random) {
+        this.random = random;
+    }
+
     public void update(float dt) {
         timer += dt;
-        if (timer > 20f) {
-            timer = 0f;
-            int roll = random.nextInt(100);
-            if (roll < 30) state = WeatherState.CLEAR;
-            else if (roll < 50) state = WeatherState.CLOUDY;
-            else if (roll < 70) state = WeatherState.LIGHT_RAIN;
-            else if (roll < 84) state = WeatherState.SUNNY_BURST;
-            else if (roll < 90) state = WeatherState.RAINBOW_DEW;
-            else if (roll < 95) state = WeatherState.GOLDEN_SUN;
-            else if (roll < 98) state = WeatherState.MOONLIT_MIST;
-            else state = WeatherState.PETAL_WIND;
+        if (timer > CYCLE_SEC) {
+            timer -= CYCLE_SEC;
+            roll();
         }
     }
+
+    // Seconds the current weather has left before the next roll.
+    public float remaining() {
+        return Math.max(0f, CYCLE_SEC - timer);
+    }
+
+    // Ends the current cycle now and rolls the next weather, for catching up without frames.
+    public void nextCycle() {
+        timer = 0f;
+        roll();
+    }
+
+    private void roll() {
+        int roll = random.nextInt(100);
+        if (roll < 30) state = WeatherState.CLEAR;
+        else if (roll < 50) state = WeatherState.CLOUDY;
+        else if (roll < 70) state = WeatherState.LIGHT_RAIN;
+        else if (roll < 84) state = WeatherState.SUNNY_BURST;
+        else if (roll < 90) state = WeatherState.RAINBOW_DEW;
+        else if (roll < 95) state = WeatherState.GOLDEN_SUN;
+        else if (roll < 98) state = WeatherState.MOONLIT_MIST;
+        else state = WeatherState.PETAL_WIND;
+    }
 }
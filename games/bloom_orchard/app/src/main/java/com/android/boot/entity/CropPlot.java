@@ -5,16 +5,22 @@ public class CropPlot {
     public boolean unlocked;
     public CropType crop;
     public float growth;
+    public float prevGrowth;
     public int watered;
-    public String fertilizer;
+    public Fertilizer fertilizer;
     public boolean mature;
+    // Base growth for the current crop, water and fertilizer, before weather.
+    public float growthPerSec;
+    // The same for one GameLoopThread.SIM_DT step.
+    public float growthPerStep;
     public float sway;
+    public float prevSway;
     public float sparkle;
 
     public CropPlot(int index, boolean unlocked) {
         this.index = index;
         this.unlocked = unlocked;
-        fertilizer = "NONE";
+        fertilizer = Fertilizer.NONE;
     }
 
     public boolean isEmpty() {
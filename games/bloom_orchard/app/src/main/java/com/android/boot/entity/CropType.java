@@ -1,6 +1,7 @@
 package com.android.boot.entity;
 
 public class CropType {
+    public final int index;
     public final String id;
     public final String displayName;
     public final String category;
@@ -8,7 +9,7 @@ public class CropType {
     public final int seedCost;
     public final float baseGrowTimeSec;
     public final int waterNeed;
-    public final String fertilizerAffinity;
+    public final Fertilizer fertilizerAffinity;
     public final int sellValue;
     public final int xpValue;
     public final String rarity;
@@ -18,7 +19,8 @@ public class CropType {
     public final int[] stageColors;
     public final String shapeStyle;
 
-    public CropType(String id, String displayName, String category, int unlockLevel, int seedCost, float baseGrowTimeSec, int waterNeed, String fertilizerAffinity, int sellValue, int xpValue, String rarity, float matureBeautyBase, int storageYield, String orderTags, int[] stageColors, String shapeStyle) {
+    public CropType(int index, String id, String displayName, String category, int unlockLevel, int seedCost, float baseGrowTimeSec, int waterNeed, Fertilizer fertilizerAffinity, int sellValue, int xpValue, String rarity, float matureBeautyBase, int storageYield, String orderTags, int[] stageColors, String shapeStyle) {
+        this.index = index;
         this.id = id;
         this.displayName = displayName;
         this.category = category;
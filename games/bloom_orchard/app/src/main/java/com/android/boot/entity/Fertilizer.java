@@ -0,0 +1,14 @@
+package com.android.boot.entity;
+
+public enum Fertilizer {
+    NONE(1f),
+    YIELD(1.06f),
+    BEAUTY(1f),
+    RARE(1f);
+
+    public final float growthBoost;
+
+    Fertilizer(float growthBoost) {
+        this.growthBoost = growthBoost;
+    }
+}
@@ -3,12 +3,14 @@ package com.android.boot.entity;
 public class FloatingText {
     public float x;
     public float y;
+    public float prevY;
     public String text;
     public float life;
 
     public void set(float x, float y, String text) {
         this.x = x;
         this.y = y;
+        this.prevY = y;
         this.text = text;
         this.life = 1f;
     }
@@ -4,6 +4,7 @@ import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.util.AttributeSet;
+import android.view.Display;
 
 import androidx.core.content.ContextCompat;
 
@@ -12,47 +13,105 @@ import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import com.android.boot.core.GameLoopThread;
 import com.android.boot.core.GameSession;
+import com.android.boot.core.HudState;
+import com.android.boot.core.OfflineProgress;
 import com.android.boot.entity.CropPlot;
 import com.android.boot.entity.CropType;
+import com.android.boot.entity.Fertilizer;
+import com.android.boot.entity.FloatingText;
+import com.android.boot.entity.WeatherState;
 import com.android.boot.fx.ParticleSystem;
+import com.android.boot.ui.panel.OfflineSummaryPanelController;
 
 public class GameView extends SurfaceView implements SurfaceHolder.Callback {
+    private static final WeatherState[] WEATHERS = WeatherState.values();
     private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final HudState hud = new HudState();
+    private final AtomicBoolean hudSyncPending = new AtomicBoolean();
+    private final char[] weatherLabel = new char[64];
+    private int weatherLabelLength;
+    private int weatherLabelVersion = -1;
+    private int colorBackground;
+    private int colorPlot;
+    private int colorPlotLocked;
+    private int colorAccent;
+    private int colorText;
+    private int colorMature;
     private GameLoopThread loop;
+    private GameLoopThread.Mode loopMode = GameLoopThread.Mode.VSYNC;
     private GameSession session;
     private UiOverlayController overlay;
     private ParticleSystem particles;
+    private OfflineProgress offline;
+    private OfflineSummaryPanelController offlineSummary;
     private int selectedTool;
+    private final Runnable hudSync = () -> {
+        hudSyncPending.set(false);
+        overlay.sync(hud);
+    };
 
     public GameView(Context context, AttributeSet attrs) {
         super(context, attrs);
         getHolder().addCallback(this);
     }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        Context c = getContext();
+        colorBackground = ContextCompat.getColor(c, R.color.cst_bg_alt);
+        colorPlot = ContextCompat.getColor(c, R.color.cst_success);
+        colorPlotLocked = ContextCompat.getColor(c, R.color.cst_text_muted);
+        colorAccent = ContextCompat.getColor(c, R.color.cst_warning);
+        colorText = ContextCompat.getColor(c, R.color.cst_text_primary);
+        colorMature = ContextCompat.getColor(c, R.color.cst_text_on_primary);
+    }
+
     public void bind(GameSession session, UiOverlayController overlay) {
         this.session = session;
         this.overlay = overlay;
         this.particles = new ParticleSystem();
     }
 
-    public void step(float dt) {
+    public void bindOffline(OfflineProgress offline, OfflineSummaryPanelController summary) {
+        this.offline = offline;
+        this.offlineSummary = summary;
+    }
+
+    public void setLoopMode(GameLoopThread.Mode mode) {
+        loopMode = mode;
+    }
+
+    public int getDroppedFrames() {
+        return loop != null ? loop.getDroppedFrames() : 0;
+    }
+
+    public void update(float dt) {
         if (session == null) return;
         session.update(dt);
         particles.update(dt);
+    }
+
+    public void render(float alpha) {
+        if (session == null) return;
+        boolean hudChanged = hud.capture(session);
         Canvas canvas = null;
         try {
             canvas = getHolder().lockCanvas();
-            if (canvas != null) drawWorld(canvas);
+            if (canvas != null) drawWorld(canvas, alpha);
         } finally {
             if (canvas != null) getHolder().unlockCanvasAndPost(canvas);
         }
-        post(() -> overlay.sync(session));
+        // One message at most in flight; a sync that runs late still reads the newest capture.
+        if (hudChanged && hudSyncPending.compareAndSet(false, true)) post(hudSync);
     }
 
-    private void drawWorld(Canvas canvas) {
-        canvas.drawColor(ContextCompat.getColor(getContext(), R.color.cst_bg_alt));
+    private void drawWorld(Canvas canvas, float alpha) {
+        canvas.drawColor(colorBackground);
         int cols = 6;
         int rows = 6;
         float w = getWidth() / (float) cols;
@@ -64,36 +123,56 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
             float x = c * w;
             float y = 120f + r * h;
             paint.setStyle(Paint.Style.FILL);
-            paint.setColor(p.unlocked ? ContextCompat.getColor(getContext(), R.color.cst_success) : ContextCompat.getColor(getContext(), R.color.cst_text_muted));
+            paint.setColor(p.unlocked ? colorPlot : colorPlotLocked);
             canvas.drawRoundRect(x + 6, y + 6, x + w - 6, y + h - 6, 16, 16, paint);
             if (p.crop != null) {
-                drawCrop(canvas, p, x + w * 0.5f, y + h * 0.5f, Math.min(w, h) * 0.24f);
+                float growth = p.prevGrowth + (p.growth - p.prevGrowth) * alpha;
+                float sway = p.prevSway + (p.sway - p.prevSway) * alpha;
+                drawCrop(canvas, p, growth, sway, x + w * 0.5f, y + h * 0.5f, Math.min(w, h) * 0.24f);
             }
         }
-        paint.setColor(ContextCompat.getColor(getContext(), R.color.cst_warning));
+        paint.setColor(colorAccent);
         particles.draw(canvas, paint);
         paint.setTextSize(34f);
-        paint.setColor(ContextCompat.getColor(getContext(), R.color.cst_text_primary));
-        canvas.drawText("Weather " + session.weather.state.name() + " Beauty " + session.bestBeauty, 20, 90, paint);
+        paint.setColor(colorText);
+        updateWeatherLabel();
+        canvas.drawText(weatherLabel, 0, weatherLabelLength, 20, 90, paint);
         for (int i = 0; i < session.texts.size(); i++) {
-            if (session.texts.get(i).life > 0f) {
-                paint.setAlpha((int) (255 * session.texts.get(i).life));
-                canvas.drawText(session.texts.get(i).text, session.texts.get(i).x, session.texts.get(i).y, paint);
+            FloatingText t = session.texts.get(i);
+            if (t.life > 0f) {
+                paint.setAlpha((int) (255 * t.life));
+                canvas.drawText(t.text, t.x, t.prevY + (t.y - t.prevY) * alpha, paint);
             }
         }
         paint.setAlpha(255);
     }
 
-    private void drawCrop(Canvas canvas, CropPlot p, float cx, float cy, float rad) {
+    private void updateWeatherLabel() {
+        // Both versions only grow, so their sum moves whenever either field does.
+        int version = hud.version(HudState.WEATHER) + hud.version(HudState.BEST_BEAUTY);
+        if (version == weatherLabelVersion) return;
+        weatherLabelVersion = version;
+        String weather = WEATHERS[hud.value(HudState.WEATHER)].name();
+        int n = 0;
+        "Weather ".getChars(0, 8, weatherLabel, n);
+        n += 8;
+        weather.getChars(0, weather.length(), weatherLabel, n);
+        n += weather.length();
+        " Beauty ".getChars(0, 8, weatherLabel, n);
+        n += 8;
+        weatherLabelLength = UiOverlayController.putInt(weatherLabel, n, hud.value(HudState.BEST_BEAUTY));
+    }
+
+    private void drawCrop(Canvas canvas, CropPlot p, float growth, float sway, float cx, float cy, float rad) {
         CropType t = p.crop;
-        int stage = (int) (p.growth * 3.99f);
+        int stage = (int) (growth * 3.99f);
         paint.setColor(t.stageColors[Math.min(stage, 3)]);
         if ("flower".equals(t.shapeStyle)) {
             for (int i = 0; i < 6; i++) {
-                float a = (float) (i * Math.PI / 3f + p.sway * 0.3f);
+                float a = (float) (i * Math.PI / 3f + sway * 0.3f);
                 canvas.drawCircle(cx + (float) Math.cos(a) * rad * 0.7f, cy + (float) Math.sin(a) * rad * 0.7f, rad * (0.35f + 0.08f * stage), paint);
             }
-            paint.setColor(ContextCompat.getColor(getContext(), R.color.cst_warning));
+            paint.setColor(colorAccent);
             canvas.drawCircle(cx, cy, rad * 0.35f, paint);
         } else {
             canvas.drawCircle(cx, cy, rad * (0.5f + 0.15f * stage), paint);
@@ -101,7 +180,7 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
             canvas.drawRect(cx - rad * 0.1f, cy - rad * 1.1f, cx + rad * 0.1f, cy, paint);
         }
         if (p.mature) {
-            paint.setColor(ContextCompat.getColor(getContext(), R.color.cst_text_on_primary));
+            paint.setColor(colorMature);
             canvas.drawCircle(cx + rad * 0.25f, cy - rad * 0.2f, rad * 0.15f, paint);
         }
     }
@@ -128,7 +207,7 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
         } else if (selectedTool == 1) {
             session.water(p);
         } else if (selectedTool == 2) {
-            session.fertilizer(p, "BEAUTY");
+            session.fertilizer(p, Fertilizer.BEAUTY);
         }
         return true;
     }
@@ -139,7 +218,13 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
 
     @Override
     public void surfaceCreated(SurfaceHolder holder) {
-        loop = new GameLoopThread(this);
+        if (offline != null && session != null) {
+            OfflineProgress.Summary summary = offline.resume(session, System.currentTimeMillis());
+            if (summary != null && offlineSummary != null) offlineSummary.show(summary);
+        }
+        Display display = getDisplay();
+        float refreshRate = display != null ? display.getRefreshRate() : 60f;
+        loop = new GameLoopThread(this, loopMode, refreshRate);
         loop.setRunning(true);
         loop.start();
     }
@@ -161,5 +246,6 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
                 }
             }
         }
+        if (offline != null) offline.markStopped(System.currentTimeMillis());
     }
 }
@@ -3,12 +3,14 @@ package com.android.boot.ui;
 import android.view.View;
 import android.widget.TextView;
 
-import com.android.boot.core.GameSession;
 import com.android.boot.core.GameState;
-
-import java.util.Locale;
+import com.android.boot.core.HudState;
 
 public class UiOverlayController {
+    private static final int STATE_MENU = GameState.MENU.ordinal();
+    private static final int STATE_PAUSED = GameState.PAUSED.ordinal();
+    private static final int STATE_GAME_OVER = GameState.GAME_OVER.ordinal();
+
     private final TextView coins;
     private final TextView level;
     private final TextView timer;
@@ -16,6 +18,13 @@ public class UiOverlayController {
     private final View pauseOverlay;
     private final View resultOverlay;
     private final TextView resultBody;
+    private final int[] values = new int[HudState.FIELD_COUNT];
+    private final int[] versions = new int[HudState.FIELD_COUNT];
+    private final int[] shown = new int[HudState.FIELD_COUNT];
+    private final char[] coinsText = new char[12];
+    private final char[] levelText = new char[40];
+    private final char[] timerText = new char[16];
+    private final char[] resultText = new char[64];
 
     public UiOverlayController(TextView coins, TextView level, TextView timer, View menuOverlay, View pauseOverlay, View resultOverlay, TextView resultBody) {
         this.coins = coins;
@@ -25,16 +34,85 @@ public class UiOverlayController {
         this.pauseOverlay = pauseOverlay;
         this.resultOverlay = resultOverlay;
         this.resultBody = resultBody;
+        for (int i = 0; i < shown.length; i++) {
+            shown[i] = -1;
+        }
+    }
+
+    // Runs on the UI thread and touches only the widgets whose fields moved since the last call.
+    public void sync(HudState hud) {
+        hud.copyTo(values, versions);
+        boolean coinsChanged = changed(HudState.COINS);
+        boolean levelChanged = changed(HudState.LEVEL);
+        boolean comboChanged = changed(HudState.COMBO);
+        boolean stateChanged = changed(HudState.STATE);
+        boolean beautyChanged = changed(HudState.BEST_BEAUTY);
+        if (coinsChanged) {
+            coins.setText(coinsText, 0, putInt(coinsText, 0, values[HudState.COINS]));
+        }
+        if (levelChanged || comboChanged) {
+            int n = putText(levelText, 0, "Lv ");
+            n = putInt(levelText, n, values[HudState.LEVEL]);
+            n = putText(levelText, n, " Combo ");
+            n = putInt(levelText, n, values[HudState.COMBO]);
+            level.setText(levelText, 0, n);
+        }
+        if (changed(HudState.SECONDS_LEFT)) {
+            int t = Math.max(0, values[HudState.SECONDS_LEFT]);
+            int n = putPadded(timerText, 0, t / 60);
+            timerText[n++] = ':';
+            n = putPadded(timerText, n, t % 60);
+            timer.setText(timerText, 0, n);
+        }
+        int state = values[HudState.STATE];
+        if (stateChanged) {
+            menuOverlay.setVisibility(state == STATE_MENU ? View.VISIBLE : View.GONE);
+            pauseOverlay.setVisibility(state == STATE_PAUSED ? View.VISIBLE : View.GONE);
+            resultOverlay.setVisibility(state == STATE_GAME_OVER ? View.VISIBLE : View.GONE);
+        }
+        if (state == STATE_GAME_OVER && (stateChanged || coinsChanged || comboChanged || beautyChanged)) {
+            int n = putText(resultText, 0, "Coins ");
+            n = putInt(resultText, n, values[HudState.COINS]);
+            n = putText(resultText, n, "\nCombo ");
+            n = putInt(resultText, n, values[HudState.COMBO]);
+            n = putText(resultText, n, "\nBest beauty ");
+            n = putInt(resultText, n, values[HudState.BEST_BEAUTY]);
+            resultBody.setText(resultText, 0, n);
+        }
+    }
+
+    private boolean changed(int field) {
+        if (shown[field] == versions[field]) return false;
+        shown[field] = versions[field];
+        return true;
+    }
+
+    private static int putText(char[] buf, int pos, String text) {
+        text.getChars(0, text.length(), buf, pos);
+        return pos + text.length();
+    }
+
+    private static int putPadded(char[] buf, int pos, int value) {
+        if (value < 10) buf[pos++] = '0';
+        return putInt(buf, pos, value);
     }
 
-    public void sync(GameSession s) {
-        coins.setText(String.valueOf(s.progression.coins));
-        level.setText("Lv " + s.progression.level + " Combo " + s.combo);
-        int t = (int) s.sessionLeft;
-        timer.setText(String.format(Locale.US, "%02d:%02d", t / 60, t % 60));
-        menuOverlay.setVisibility(s.state == GameState.MENU ? View.VISIBLE : View.GONE);
-        pauseOverlay.setVisibility(s.state == GameState.PAUSED ? View.VISIBLE : View.GONE);
-        resultOverlay.setVisibility(s.state == GameState.GAME_OVER ? View.VISIBLE : View.GONE);
-        resultBody.setText(String.format(Locale.US, "Coins %d\nCombo %d\nBest beauty %d", s.progression.coins, s.combo, s.bestBeauty));
+    static int putInt(char[] buf, int pos, int value) {
+        long v = value;
+        if (v < 0) {
+            buf[pos++] = '-';
+            v = -v;
+        }
+        int end = pos;
+        long rest = v;
+        do {
+            end++;
+            rest /= 10;
+        } while (rest != 0);
+        for (int i = end - 1; i >= pos; i--) {
+            buf[i] = (char) ('0' + v % 10);
+            v /= 10;
+        }
+        return end;
     }
 }
@@ -0,0 +1,19 @@
+package com.android.boot.ui.panel;
+
+import android.content.Context;
+import android.widget.Toast;
+
+import com.android.boot.core.OfflineProgress;
+
+import java.util.Locale;
+
+public class OfflineSummaryPanelController {
+    private final Context context;
+    public OfflineSummaryPanelController(Context context) { this.context = context; }
+    public void show(OfflineProgress.Summary s) {
+        int minutes = (int) (s.appliedSec / 60f);
+        String away = minutes >= 60 ? String.format(Locale.US, "%dh %02dm", minutes / 60, minutes % 60) : minutes + "m";
+        String text = "While away " + away + (s.capped ? " (max)" : "") + ": " + s.cropsMatured + " crops ready, weather " + s.weather;
+        Toast.makeText(context, text, Toast.LENGTH_LONG).show();
+    }
+}
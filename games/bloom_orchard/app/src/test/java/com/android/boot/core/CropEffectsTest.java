@@ -0,0 +1,105 @@
+package com.android.boot.core;
+
+import static org.junit.Assert.assertEquals;
+
+import com.android.boot.entity.CropPlot;
+import com.android.boot.entity.CropType;
+import com.android.boot.entity.Fertilizer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+// The growth table must reproduce the per-tick formula GameSession used before it, bit for bit.
+public class CropEffectsTest {
+    private static final float DT = GameLoopThread.SIM_DT;
+
+    private File dir;
+    private SaveStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("effects").toFile();
+        store = new SaveStore(null, new File(dir, "orchard.sav"));
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) f.delete();
+        }
+        dir.delete();
+    }
+
+    // One plot's growth for a tick, as the original GameSession.update worked it out.
+    private static float legacyGrowth(CropType crop, boolean watered, Fertilizer fertilizer, float dt, float weatherMul) {
+        float grow = dt / crop.baseGrowTimeSec;
+        if (watered) grow *= 1.2f;
+        if ("YIELD".equals(fertilizer.name())) grow *= 1.06f;
+        return grow * weatherMul;
+    }
+
+    @Test
+    public void tableMatchesLegacyFormula() {
+        CropCatalog catalog = new CropCatalog();
+        CropEffects effects = catalog.effects();
+        for (CropType crop : catalog.all()) {
+            for (Fertilizer fertilizer : Fertilizer.values()) {
+                for (int w = 0; w < 2; w++) {
+                    float expected = legacyGrowth(crop, w == 1, fertilizer, DT, 1f);
+                    float actual = effects.growthPerStep(crop, w == 1, fertilizer);
+                    assertEquals(crop.id + " " + fertilizer + " watered " + w,
+                            Float.floatToIntBits(expected), Float.floatToIntBits(actual));
+                }
+            }
+        }
+    }
+
+    // Plants every crop, switches fertilizer and waters partway through, and replays each tick with
+    // the old formula alongside.
+    @Test
+    public void plotsGrowAsBeforeThroughPlantWaterAndFertilize() {
+        GameSession s = new GameSession(store, new WeatherManager(new Random(25)));
+        s.start();
+        s.sessionLeft = Float.MAX_VALUE;
+        Fertilizer[] fertilizers = Fertilizer.values();
+        for (CropType crop : s.cropCatalog.all()) {
+            for (int f = 0; f < fertilizers.length; f++) {
+                CropPlot p = s.plots.get(0);
+                s.progression.addReward(crop.seedCost, 0);
+                s.plant(p, crop);
+                assertEquals(crop.id, crop, p.crop);
+                float growth = 0f;
+                boolean watered = false;
+                Fertilizer fertilizer = Fertilizer.NONE;
+                int tick = 0;
+                while (!p.mature) {
+                    if (tick == 20) {
+                        fertilizer = fertilizers[f];
+                        s.fertilizer(p, fertilizer);
+                    }
+                    if (tick == 45) {
+                        watered = true;
+                        growth = Math.min(1f, growth + 0.14f);
+                        s.water(p);
+                    }
+                    s.update(DT);
+                    if (growth < 1f) {
+                        growth += legacyGrowth(crop, watered, fertilizer, DT, s.weather.state.growthBoost);
+                    }
+                    String at = crop.id + " " + fertilizers[f] + " tick " + tick;
+                    assertEquals(at, Float.floatToIntBits(Math.min(growth, 1f)), Float.floatToIntBits(p.growth));
+                    tick++;
+                }
+                s.harvest(p);
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.android.boot.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.android.boot.entity.CropPlot;
+import com.android.boot.entity.CropType;
+import com.android.boot.entity.Fertilizer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// OfflineProgress.advance jumps from weather change to weather change; these runs step the same
+// farm frame by frame through GameSession.update and expect the same crops, growth and weather.
+public class OfflineProgressTest {
+    private static final float DT = GameLoopThread.SIM_DT;
+    private static final int PLOTS = 36;
+
+    private File dir;
+    private final List<SaveStore> stores = new ArrayList<>();
+    private final List<int[]> combos = new ArrayList<>();
+    private float[] starts;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("offline").toFile();
+        int crops = new CropCatalog().all().size();
+        for (int c = 0; c < crops; c++) {
+            for (int f = 0; f < Fertilizer.values().length; f++) {
+                for (int w = 0; w < 2; w++) {
+                    combos.add(new int[]{c, f, w});
+                }
+            }
+        }
+        Random random = new Random(1);
+        starts = new float[combos.size()];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = i % 3 == 0 ? 0f : random.nextFloat() * 0.9f;
+        }
+    }
+
+    @After
+    public void tearDown() {
+        for (SaveStore store : stores) store.close();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) f.delete();
+        }
+        dir.delete();
+    }
+
+    // Plants combos[from..from + 35] with a seeded weather that is t0 seconds into its cycle.
+    private GameSession farm(long seed, int from, float t0) {
+        SaveStore store = new SaveStore(null, new File(dir, "s" + stores.size() + ".sav"));
+        stores.add(store);
+        WeatherManager weather = new WeatherManager(new Random(seed));
+        weather.update(t0);
+        GameSession s = new GameSession(store, weather);
+        s.state = GameState.PLAYING;
+        s.sessionLeft = Float.MAX_VALUE;
+        List<CropType> crops = s.cropCatalog.all();
+        Fertilizer[] fertilizers = Fertilizer.values();
+        for (int i = 0; i < PLOTS; i++) {
+            CropPlot p = s.plots.get(i);
+            p.unlocked = true;
+            int k = from + i;
+            if (k >= combos.size()) continue;
+            int[] c = combos.get(k);
+            p.crop = crops.get(c[0]);
+            p.fertilizer = fertilizers[c[1]];
+            p.watered = c[2];
+            p.growthPerSec = s.cropCatalog.effects().growthPerSec(p.crop, p.watered > 0, p.fertilizer);
+            p.growthPerStep = s.cropCatalog.effects().growthPerStep(p.crop, p.watered > 0, p.fertilizer);
+            p.growth = starts[k];
+            p.prevGrowth = p.growth;
+        }
+        return s;
+    }
+
+    private void compare(float away, int seeds) {
+        int frames = Math.round(away / DT);
+        for (int from = 0; from < combos.size(); from += PLOTS) {
+            for (int seed = 1; seed <= seeds; seed++) {
+                float t0 = seed * 6.5f;
+                GameSession stepped = farm(seed, from, t0);
+                GameSession caughtUp = farm(seed, from, t0);
+                for (int f = 0; f < frames; f++) {
+                    stepped.update(DT);
+                }
+                OfflineProgress.advance(caughtUp, frames * DT, null);
+                String run = "away " + away + "s, plots from " + from + ", seed " + seed;
+                assertEquals(run, stepped.weather.remaining(), caughtUp.weather.remaining(), 0.01f);
+                if (growing(stepped)) {
+                    assertEquals(run, stepped.weather.state, caughtUp.weather.state);
+                }
+                for (int i = 0; i < PLOTS; i++) {
+                    CropPlot a = stepped.plots.get(i);
+                    CropPlot b = caughtUp.plots.get(i);
+                    if (a.crop == null) continue;
+                    String plot = run + ", " + a.crop.id + " " + a.fertilizer + (a.watered > 0 ? " watered" : "");
+                    if (a.mature != b.mature) {
+                        // Frames only notice maturity on the next step, so the unripe side may be
+                        // at most one frame's growth short.
+                        float frameGrowth = a.growthPerSec * stepped.weather.state.growthBoost * DT * 1.35f;
+                        float growth = a.mature ? b.growth : a.growth;
+                        assertTrue(plot + ": growth " + growth, 1f - growth <= frameGrowth);
+                    } else {
+                        // Sway stops on the frame a crop ripens, up to one frame late, and the
+                        // frame sums drift a little in float.
+                        assertEquals(plot, a.growth, b.growth, 0.0002f);
+                        assertEquals(plot, a.sway, b.sway, DT * 1.25f);
+                    }
+                }
+            }
+        }
+    }
+
+    // Once nothing grows, advance rolls only the last of the idle weather cycles, so the weather
+    // itself is only comparable while some plot is still growing.
+    private static boolean growing(GameSession s) {
+        for (CropPlot p : s.plots) {
+            if (p.crop != null && !p.mature) return true;
+        }
+        return false;
+    }
+
+    @Test
+    public void shortAbsencesMatchFrameStepping() {
+        compare(0.5f, 3);
+        compare(5f, 3);
+        compare(37f, 3);
+    }
+
+    @Test
+    public void longAbsencesMatchFrameStepping() {
+        compare(300f, 2);
+        compare(1800f, 1);
+        compare(3600f, 1);
+    }
+
+    @Test
+    public void summaryCountsMaturedCropsAndWeather() {
+        GameSession s = farm(4, 0, 0f);
+        OfflineProgress.Summary summary = new OfflineProgress.Summary();
+        OfflineProgress.advance(s, 8f * 3600f, summary);
+        int planted = 0;
+        for (CropPlot p : s.plots) {
+            if (p.crop == null) continue;
+            planted++;
+            assertTrue(p.mature);
+            assertEquals(1f, p.growth, 0f);
+        }
+        assertEquals(planted, summary.cropsMatured);
+        assertEquals((int) Math.ceil(8f * 3600f / WeatherManager.CYCLE_SEC), summary.weatherChanges, 1);
+    }
+
+    // GameSession.update grows nothing while paused, so a paused farm comes back as it was left.
+    @Test
+    public void pausedRoundDoesNotGrowWhileAway() {
+        GameSession paused = farm(2, 0, 0f);
+        paused.state = GameState.PAUSED;
+        float[] before = new float[PLOTS];
+        for (int i = 0; i < PLOTS; i++) before[i] = paused.plots.get(i).growth;
+        OfflineProgress offline = new OfflineProgress(paused.store);
+        offline.markStopped(1_000L);
+        assertNull(offline.resume(paused, 1_000L + 3_600_000L));
+        assertEquals(GameState.PAUSED, paused.state);
+        for (int i = 0; i < PLOTS; i++) {
+            assertEquals(Float.floatToIntBits(before[i]), Float.floatToIntBits(paused.plots.get(i).growth));
+        }
+
+        GameSession playing = farm(2, 0, 0f);
+        offline = new OfflineProgress(playing.store);
+        offline.markStopped(1_000L);
+        OfflineProgress.Summary summary = offline.resume(playing, 1_000L + 3_600_000L);
+        assertNotNull(summary);
+        assertTrue(summary.cropsMatured > 0);
+    }
+}
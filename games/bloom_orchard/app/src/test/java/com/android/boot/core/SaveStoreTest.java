@@ -0,0 +1,171 @@
+package com.android.boot.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+public class SaveStoreTest {
+    private File dir;
+    private File file;
+
+    private static final class Counter implements SaveStore.Section {
+        final int id;
+        int value;
+
+        Counter(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int sectionId() {
+            return id;
+        }
+
+        @Override
+        public void write(DataOutputStream out) throws IOException {
+            out.writeInt(value);
+        }
+
+        @Override
+        public void read(DataInputStream in, int version) throws IOException {
+            value = in.readInt();
+        }
+
+        @Override
+        public void importLegacy(Context context) {
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("savestore").toFile();
+        file = new File(dir, "orchard.sav");
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) f.delete();
+        }
+        dir.delete();
+    }
+
+    private SaveStore saved(int progress, int storage) {
+        SaveStore store = new SaveStore(null, file);
+        Counter a = new Counter(SaveStore.SECTION_PROGRESS);
+        Counter b = new Counter(SaveStore.SECTION_STORAGE);
+        store.register(a);
+        store.register(b);
+        a.value = progress;
+        b.value = storage;
+        store.markDirty(a);
+        store.markDirty(b);
+        store.flushAndWait();
+        return store;
+    }
+
+    private int[] reload() {
+        SaveStore store = new SaveStore(null, file);
+        Counter a = new Counter(SaveStore.SECTION_PROGRESS);
+        Counter b = new Counter(SaveStore.SECTION_STORAGE);
+        store.register(a);
+        store.register(b);
+        store.close();
+        return new int[]{a.value, b.value};
+    }
+
+    @Test
+    public void sectionsRoundTripThroughTheFile() {
+        saved(41, 7).close();
+        int[] values = reload();
+        assertEquals(41, values[0]);
+        assertEquals(7, values[1]);
+    }
+
+    @Test
+    public void onlyDirtySectionsChangeOnDisk() {
+        SaveStore store = new SaveStore(null, file);
+        Counter a = new Counter(SaveStore.SECTION_PROGRESS);
+        Counter b = new Counter(SaveStore.SECTION_STORAGE);
+        store.register(a);
+        store.register(b);
+        store.flushAndWait();
+        a.value = 5;
+        b.value = 9;
+        store.markDirty(a);
+        store.flushAndWait();
+        store.close();
+        int[] values = reload();
+        assertEquals(5, values[0]);
+        assertEquals(0, values[1]);
+    }
+
+    // A crash between writing the temporary file and the rename leaves the last full save in place.
+    @Test
+    public void crashBeforeRenameKeepsTheLastSave() throws IOException {
+        saved(12, 3).close();
+        Files.write(new File(file.getPath() + ".tmp").toPath(), new byte[]{0x42, 0x4F});
+        int[] values = reload();
+        assertEquals(12, values[0]);
+        assertEquals(3, values[1]);
+    }
+
+    @Test
+    public void truncatedFileFallsBackToDefaults() throws IOException {
+        saved(12, 3).close();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 2);
+        }
+        int[] values = reload();
+        assertEquals(0, values[0]);
+        assertEquals(0, values[1]);
+
+        saved(8, 2).close();
+        values = reload();
+        assertEquals(8, values[0]);
+        assertEquals(2, values[1]);
+    }
+
+    @Test
+    public void closeStopsTheWriterThread() throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            SaveStore store = saved(i, i);
+            Thread writer = store.writerThread();
+            assertTrue(writer.isAlive());
+            store.close();
+            // The executor reports termination just before its worker thread returns.
+            writer.join(2000L);
+            assertFalse(writer.isAlive());
+        }
+    }
+
+    // The surface can be torn down after onDestroy; a flush on a closed store writes inline.
+    @Test
+    public void closedStoreStillSavesOnFlush() {
+        SaveStore store = new SaveStore(null, file);
+        Counter a = new Counter(SaveStore.SECTION_PROGRESS);
+        Counter b = new Counter(SaveStore.SECTION_STORAGE);
+        store.register(a);
+        store.register(b);
+        store.close();
+        a.value = 77;
+        store.markDirty(a);
+        store.flushNow();
+        assertTrue(file.exists());
+        assertEquals(77, reload()[0]);
+    }
+}
@@ -30,6 +30,8 @@ public class MainActivity extends Activity {
     private Button btnScout;
     private Button btnArmy;
     private FrameBindings bindings;
+    private final BronzeWorld.StatusSnapshot shown = new BronzeWorld.StatusSnapshot();
+    private boolean shownValid;
     private final Runnable uiTicker = new Runnable() {
         @Override
         public void run() {
@@ -106,25 +108,60 @@ public class MainActivity extends Activity {
     }
 
     private void updateUi(BronzeWorld.StatusSnapshot snapshot) {
-        tvFood.setText("Food " + snapshot.food);
-        tvWood.setText("Wood " + snapshot.wood);
-        tvStone.setText("Stone " + snapshot.stone);
-        tvPop.setText("Pop " + snapshot.population + "/" + snapshot.populationCap);
-        tvTimer.setText(snapshot.timeLabel);
-        tvAlert.setText(snapshot.alert);
-        tvObjective.setText(snapshot.objective);
-        tvHint.setText(snapshot.hint);
-        btnBuild.setText(snapshot.buildLabel);
-        btnTrain.setText(snapshot.trainLabel);
-        btnUpgrade.setText(snapshot.upgradeLabel);
-        btnScout.setText(snapshot.scoutLabel);
-        btnArmy.setText(snapshot.armyLabel);
-        bindings.resultTitle.setText(snapshot.resultTitle);
-        bindings.resultBody.setText(snapshot.resultBody);
-        bindings.menuOverlay.setVisibility(snapshot.state == BronzeState.MENU ? View.VISIBLE : View.GONE);
-        bindings.pauseOverlay.setVisibility(snapshot.state == BronzeState.PAUSED ? View.VISIBLE : View.GONE);
-        boolean showResult = snapshot.state == BronzeState.GAME_OVER || snapshot.state == BronzeState.VICTORY;
-        bindings.resultOverlay.setVisibility(showResult ? View.VISIBLE : View.GONE);
+        boolean all = !shownValid;
+        if (all || snapshot.food != shown.food) {
+            tvFood.setText("Food " + snapshot.food);
+        }
+        if (all || snapshot.wood != shown.wood) {
+            tvWood.setText("Wood " + snapshot.wood);
+        }
+        if (all || snapshot.stone != shown.stone) {
+            tvStone.setText("Stone " + snapshot.stone);
+        }
+        if (all || snapshot.population != shown.population || snapshot.populationCap != shown.populationCap) {
+            tvPop.setText("Pop " + snapshot.population + "/" + snapshot.populationCap);
+        }
+        if (all || snapshot.seconds != shown.seconds) {
+            tvTimer.setText(BronzeWorld.formatTime(snapshot.seconds));
+        }
+        if (all || snapshot.alert != shown.alert) {
+            tvAlert.setText(snapshot.alert);
+        }
+        if (all || snapshot.hallHp != shown.hallHp || snapshot.lateObjective != shown.lateObjective) {
+            tvObjective.setText(BronzeWorld.objectiveText(snapshot.hallHp, snapshot.lateObjective));
+        }
+        if (all || snapshot.hint != shown.hint) {
+            tvHint.setText(snapshot.hint);
+        }
+        if (all || snapshot.buildPlan != shown.buildPlan) {
+            btnBuild.setText("Build " + snapshot.buildPlan.shortLabel);
+        }
+        if (all || snapshot.trainPlan != shown.trainPlan) {
+            btnTrain.setText("Train " + snapshot.trainPlan.shortLabel);
+        }
+        if (all || snapshot.upgrade != shown.upgrade) {
+            btnUpgrade.setText("Tech " + snapshot.upgrade.shortLabel);
+        }
+        if (all) {
+            btnScout.setText("Scout");
+        }
+        if (all || snapshot.army != shown.army) {
+            btnArmy.setText("Army " + snapshot.army);
+        }
+        if (all || snapshot.resultTitle != shown.resultTitle) {
+            bindings.resultTitle.setText(snapshot.resultTitle);
+        }
+        if (all || snapshot.resultBody != shown.resultBody) {
+            bindings.resultBody.setText(snapshot.resultBody);
+        }
+        if (all || snapshot.state != shown.state) {
+            bindings.menuOverlay.setVisibility(snapshot.state == BronzeState.MENU ? View.VISIBLE : View.GONE);
+            bindings.pauseOverlay.setVisibility(snapshot.state == BronzeState.PAUSED ? View.VISIBLE : View.GONE);
+            boolean showResult = snapshot.state == BronzeState.GAME_OVER || snapshot.state == BronzeState.VICTORY;
+            bindings.resultOverlay.setVisibility(showResult ? View.VISIBLE : View.GONE);
+        }
+        shown.copyFrom(snapshot);
+        shownValid = true;
     }
 
     private static class FrameBindings {
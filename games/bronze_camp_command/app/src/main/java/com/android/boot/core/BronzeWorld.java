@@ -22,6 +22,7 @@ public class BronzeWorld {
     public float dragRight;
     public float dragBottom;
     public boolean dragActive;
+    private final FlowFieldService flow = new FlowFieldService();
     private int buildPlanIndex;
     private int trainPlanIndex;
     private int upgradeIndex;
@@ -47,6 +48,7 @@ public class BronzeWorld {
         resources.clear();
         effects.clear();
         obelisks.clear();
+        flow.clear();
         food = 120;
         wood = 110;
         stone = 45;
@@ -75,9 +77,9 @@ public class BronzeWorld {
         resources.add(new ResourceNode(ResourceType.FOOD, 820f, 135f, 240));
         resources.add(new ResourceNode(ResourceType.WOOD, 955f, 390f, 260));
         resources.add(new ResourceNode(ResourceType.STONE, 720f, 590f, 220));
-        buildings.add(new Building(BuildingType.TOWN_HUT, 150f, 350f, true));
-        buildings.add(new Building(BuildingType.CHIEF_HALL, 1110f, 345f, false));
-        buildings.add(new Building(BuildingType.ENEMY_BARRACKS, 1030f, 500f, false));
+        addBuilding(new Building(BuildingType.TOWN_HUT, 150f, 350f, true));
+        addBuilding(new Building(BuildingType.CHIEF_HALL, 1110f, 345f, false));
+        addBuilding(new Building(BuildingType.ENEMY_BARRACKS, 1030f, 500f, false));
         obelisks.add(new Obelisk(610f, 235f));
         obelisks.add(new Obelisk(620f, 470f));
         addUnit(UnitType.VILLAGER, 225f, 320f, true);
@@ -115,6 +117,7 @@ public class BronzeWorld {
     }
 
     public void update(float dt) {
+        flow.applyPendingEdits();
         if (state != BronzeState.PLAYING) {
             return;
         }
@@ -284,26 +287,27 @@ public class BronzeWorld {
         hint = count + " combat units selected.";
     }
 
-    public StatusSnapshot snapshot() {
-        StatusSnapshot snapshot = new StatusSnapshot();
+    public void publishStatus(StatusChannel channel) {
+        StatusSnapshot snapshot = channel.writeBuffer();
         snapshot.state = state;
         snapshot.food = food;
         snapshot.wood = wood;
         snapshot.stone = stone;
         snapshot.population = population();
         snapshot.populationCap = populationCap;
-        snapshot.timeLabel = formatTime(matchTime);
+        snapshot.seconds = (int) matchTime;
+        Building enemyHall = findType(BuildingType.CHIEF_HALL, false);
+        snapshot.hallHp = enemyHall == null ? 0 : Math.max(0, enemyHall.hp);
+        snapshot.lateObjective = matchTime >= 180f;
+        snapshot.buildPlan = currentBuildPlan();
+        snapshot.trainPlan = currentTrainPlan();
+        snapshot.upgrade = UpgradeType.values()[upgradeIndex % UpgradeType.values().length];
+        snapshot.army = combatCount();
         snapshot.alert = alert;
-        snapshot.objective = objectiveText();
         snapshot.hint = hint;
-        snapshot.buildLabel = "Build " + currentBuildPlan().shortLabel;
-        snapshot.trainLabel = "Train " + currentTrainPlan().shortLabel;
-        snapshot.upgradeLabel = "Tech " + UpgradeType.values()[upgradeIndex % UpgradeType.values().length].shortLabel;
-        snapshot.scoutLabel = "Scout";
-        snapshot.armyLabel = "Army " + combatCount();
         snapshot.resultTitle = resultTitle;
         snapshot.resultBody = resultBody;
-        return snapshot;
+        channel.publish();
     }
 
     public float screenToWorldX(float sx) {
@@ -352,7 +356,9 @@ public class BronzeWorld {
     }
 
     private void updateUnits(float dt) {
-        for (Unit unit : units) {
+        flow.indexUnits(units);
+        for (int i = 0; i < units.size(); i++) {
+            Unit unit = units.get(i);
             if (!unit.alive) {
                 continue;
             }
@@ -378,10 +384,20 @@ public class BronzeWorld {
             float dist = (float) Math.sqrt(dx * dx + dy * dy);
             if (dist > 4f) {
                 float speed = unit.type.speed;
-                unit.x += dx / dist * speed * dt;
-                unit.y += dy / dist * speed * dt;
-                unit.facing = dx >= 0f ? 1 : -1;
+                float mx = dx / dist;
+                float my = dy / dist;
+                if (dist > FlowFieldService.CELL) {
+                    int dir = flow.fieldFor(unit.targetX, unit.targetY).directionAt(unit.x, unit.y);
+                    if (dir >= 0) {
+                        mx = FlowFieldService.DIR_X[dir];
+                        my = FlowFieldService.DIR_Y[dir];
+                    }
+                }
+                unit.x += mx * speed * dt;
+                unit.y += my * speed * dt;
+                unit.facing = mx >= 0f ? 1 : -1;
                 unit.walkPhase += dt * 8f;
+                flow.moveUnit(i, unit);
             }
         }
         for (Building building : buildings) {
@@ -397,6 +413,7 @@ public class BronzeWorld {
         for (int i = buildings.size() - 1; i >= 0; i--) {
             Building building = buildings.get(i);
             if (building.hp <= 0 && building.type != BuildingType.TOWN_HUT && building.type != BuildingType.CHIEF_HALL) {
+                flow.removeObstacle(building.x, building.y, building.type.w, building.type.h);
                 buildings.remove(i);
             }
         }
@@ -544,7 +561,7 @@ public class BronzeWorld {
             return;
         }
         spend(type.foodCost, type.woodCost, type.stoneCost);
-        buildings.add(new Building(type, x, y, true));
+        addBuilding(new Building(type, x, y, true));
         if (type == BuildingType.TOWN_HUT) {
             populationCap += 6;
         }
@@ -593,7 +610,12 @@ public class BronzeWorld {
         }
     }
 
-    private Unit addUnit(UnitType type, float x, float y, boolean player) {
+    private void addBuilding(Building building) {
+        buildings.add(building);
+        flow.addObstacle(building.x, building.y, building.type.w, building.type.h);
+    }
+
+    Unit addUnit(UnitType type, float x, float y, boolean player) {
         Unit unit = new Unit(type, x, y, player);
         units.add(unit);
         return unit;
@@ -663,33 +685,11 @@ public class BronzeWorld {
     }
 
     private Unit nearestEnemyUnit(Unit unit) {
-        Unit best = null;
-        float bestDist = Float.MAX_VALUE;
-        for (Unit other : units) {
-            if (other.player != unit.player && other.alive) {
-                float d = distance(unit.x, unit.y, other.x, other.y);
-                if (d < bestDist && d < unit.type.aggroRange) {
-                    bestDist = d;
-                    best = other;
-                }
-            }
-        }
-        return best;
+        return flow.nearestUnit(units, unit.x, unit.y, !unit.player, unit.type.aggroRange);
     }
 
     private Unit nearestPlayerUnit(float x, float y) {
-        Unit best = null;
-        float bestDist = Float.MAX_VALUE;
-        for (Unit unit : units) {
-            if (unit.player && unit.alive) {
-                float d = distance(x, y, unit.x, unit.y);
-                if (d < bestDist) {
-                    bestDist = d;
-                    best = unit;
-                }
-            }
-        }
-        return best;
+        return flow.nearestUnit(units, x, y, true, Float.MAX_VALUE);
     }
 
     private Building nearestEnemyBuilding(Unit unit) {
@@ -850,13 +850,11 @@ public class BronzeWorld {
         return count;
     }
 
-    private String objectiveText() {
-        Building enemyHall = findType(BuildingType.CHIEF_HALL, false);
-        int hp = enemyHall == null ? 0 : Math.max(0, enemyHall.hp);
-        if (matchTime < 180f) {
-            return "Destroy Chief Hall " + hp + " HP or prepare to hold both Obelisks.";
+    public static String objectiveText(int hallHp, boolean late) {
+        if (!late) {
+            return "Destroy Chief Hall " + hallHp + " HP or prepare to hold both Obelisks.";
         }
-        return "Destroy Chief Hall " + hp + " HP or hold both Obelisks now.";
+        return "Destroy Chief Hall " + hallHp + " HP or hold both Obelisks now.";
     }
 
     private int scoreStars() {
@@ -877,9 +875,8 @@ public class BronzeWorld {
         return (float) Math.sqrt(dx * dx + dy * dy);
     }
 
-    private static String formatTime(float seconds) {
-        int total = (int) seconds;
-        return String.format(Locale.US, "%d:%02d", total / 60, total % 60);
+    public static String formatTime(int seconds) {
+        return String.format(Locale.US, "%d:%02d", seconds / 60, seconds % 60);
     }
 
     public enum ResourceType {
@@ -1093,16 +1090,36 @@ public class BronzeWorld {
         public int stone;
         public int population;
         public int populationCap;
-        public String timeLabel;
+        public int seconds;
+        public int hallHp;
+        public boolean lateObjective;
+        public BuildingType buildPlan;
+        public UnitType trainPlan;
+        public UpgradeType upgrade;
+        public int army;
         public String alert;
-        public String objective;
         public String hint;
-        public String buildLabel;
-        public String trainLabel;
-        public String upgradeLabel;
-        public String scoutLabel;
-        public String armyLabel;
         public String resultTitle;
         public String resultBody;
+
+        public void copyFrom(StatusSnapshot other) {
+            state = other.state;
+            food = other.food;
+            wood = other.wood;
+            stone = other.stone;
+            population = other.population;
+            populationCap = other.populationCap;
+            seconds = other.seconds;
+            hallHp = other.hallHp;
+            lateObjective = other.lateObjective;
+            buildPlan = other.buildPlan;
+            trainPlan = other.trainPlan;
+            upgrade = other.upgrade;
+            army = other.army;
+            alert = other.alert;
+            hint = other.hint;
+            resultTitle = other.resultTitle;
+            resultBody = other.resultBody;
+        }
     }
 }
@@ -0,0 +1,530 @@
+package com.android.boot.core;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class FlowFieldService {
+    public static final float CELL = 32f;
+    public static final int COLS = 40;
+    public static final int ROWS = 23;
+    public static final float[] DIR_X = new float[8];
+    public static final float[] DIR_Y = new float[8];
+    private static final int CELLS = COLS * ROWS;
+    private static final int MAX_FIELDS = 24;
+    private static final int INF = Integer.MAX_VALUE;
+    private static final int[] DC = {1, 1, 0, -1, -1, -1, 0, 1};
+    private static final int[] DR = {0, 1, 1, 1, 0, -1, -1, -1};
+    private static final int[] STEP = {10, 14, 10, 14, 10, 14, 10, 14};
+    private static final int EDIT_CLEAR = 0;
+    private static final int EDIT_ADD = 1;
+    private static final int EDIT_REMOVE = 2;
+    private static final int EDIT_STRIDE = 5;
+
+    static {
+        for (int d = 0; d < 8; d++) {
+            float len = (float) Math.sqrt(DC[d] * DC[d] + DR[d] * DR[d]);
+            DIR_X[d] = DC[d] / len;
+            DIR_Y[d] = DR[d] / len;
+        }
+    }
+
+    private final int[] blockers = new int[CELLS];
+    private final FlowField[] fields = new FlowField[MAX_FIELDS];
+    private int fieldCount;
+    private long useClock;
+    private final int[] heapCell = new int[CELLS * 16];
+    private final int[] heapCost = new int[CELLS * 16];
+    private int heapSize;
+    private final int[] changed = new int[CELLS];
+    private final int[] queue = new int[CELLS];
+    private final boolean[] invalid = new boolean[CELLS];
+    private final int[] unitHead = new int[CELLS * 2];
+    private int[] unitNext = new int[64];
+    private int[] unitCell = new int[64];
+    // Obstacle edits may come from the UI thread (a tap placing a building), while the fields
+    // and the scratch arrays above belong to the game thread. Edits are queued here and the
+    // game thread applies them in applyPendingEdits before it touches any field.
+    private final Object editLock = new Object();
+    private float[] pendingEdits = new float[EDIT_STRIDE * 16];
+    private int pendingCount;
+    private float[] applyingEdits = new float[EDIT_STRIDE * 16];
+
+    public static class FlowField {
+        final int[] cost = new int[CELLS];
+        final byte[] dir = new byte[CELLS];
+        int goal;
+        int goalC0;
+        int goalR0;
+        int goalC1 = -1;
+        int goalR1 = -1;
+        long lastUsed;
+
+        public int directionAt(float x, float y) {
+            return dir[cellOf(x, y)];
+        }
+
+        public int costAt(float x, float y) {
+            return cost[cellOf(x, y)];
+        }
+    }
+
+    public void clear() {
+        queueEdit(EDIT_CLEAR, 0f, 0f, 0f, 0f);
+    }
+
+    public void addObstacle(float x, float y, float w, float h) {
+        queueEdit(EDIT_ADD, x, y, w, h);
+    }
+
+    public void removeObstacle(float x, float y, float w, float h) {
+        queueEdit(EDIT_REMOVE, x, y, w, h);
+    }
+
+    // Game thread only. Applies queued clear/add/remove edits in the order they were made.
+    public void applyPendingEdits() {
+        float[] edits;
+        int count;
+        synchronized (editLock) {
+            count = pendingCount;
+            if (count == 0) {
+                return;
+            }
+            edits = pendingEdits;
+            pendingEdits = applyingEdits;
+            applyingEdits = edits;
+            pendingCount = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            int at = i * EDIT_STRIDE;
+            int kind = (int) edits[at];
+            if (kind == EDIT_CLEAR) {
+                Arrays.fill(blockers, 0);
+                fieldCount = 0;
+            } else if (kind == EDIT_ADD) {
+                applyAdd(edits[at + 1], edits[at + 2], edits[at + 3], edits[at + 4]);
+            } else {
+                applyRemove(edits[at + 1], edits[at + 2], edits[at + 3], edits[at + 4]);
+            }
+        }
+    }
+
+    private void queueEdit(int kind, float x, float y, float w, float h) {
+        synchronized (editLock) {
+            int at = pendingCount * EDIT_STRIDE;
+            if (at + EDIT_STRIDE > pendingEdits.length) {
+                pendingEdits = Arrays.copyOf(pendingEdits, pendingEdits.length * 2);
+            }
+            pendingEdits[at] = kind;
+            pendingEdits[at + 1] = x;
+            pendingEdits[at + 2] = y;
+            pendingEdits[at + 3] = w;
+            pendingEdits[at + 4] = h;
+            pendingCount++;
+        }
+    }
+
+    private void applyAdd(float x, float y, float w, float h) {
+        int n = 0;
+        int c0 = col(x - w * 0.5f + CELL * 0.5f);
+        int c1 = col(x + w * 0.5f - CELL * 0.5f);
+        int r0 = row(y - h * 0.5f + CELL * 0.5f);
+        int r1 = row(y + h * 0.5f - CELL * 0.5f);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * COLS + c;
+                if (blockers[cell]++ == 0) {
+                    changed[n++] = cell;
+                }
+            }
+        }
+        if (n == 0) {
+            return;
+        }
+        for (int i = 0; i < fieldCount; i++) {
+            if (goalFootprintChanged(fields[i], n)) {
+                rebuild(fields[i]);
+            } else {
+                repairBlocked(fields[i], n);
+            }
+        }
+    }
+
+    private void applyRemove(float x, float y, float w, float h) {
+        int n = 0;
+        int c0 = col(x - w * 0.5f + CELL * 0.5f);
+        int c1 = col(x + w * 0.5f - CELL * 0.5f);
+        int r0 = row(y - h * 0.5f + CELL * 0.5f);
+        int r1 = row(y + h * 0.5f - CELL * 0.5f);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * COLS + c;
+                if (blockers[cell] > 0 && --blockers[cell] == 0) {
+                    changed[n++] = cell;
+                }
+            }
+        }
+        if (n == 0) {
+            return;
+        }
+        for (int i = 0; i < fieldCount; i++) {
+            if (goalFootprintChanged(fields[i], n)) {
+                rebuild(fields[i]);
+            } else {
+                repairFreed(fields[i], n);
+            }
+        }
+    }
+
+    public FlowField fieldFor(float goalX, float goalY) {
+        int goal = cellOf(goalX, goalY);
+        useClock++;
+        for (int i = 0; i < fieldCount; i++) {
+            if (fields[i].goal == goal) {
+                fields[i].lastUsed = useClock;
+                return fields[i];
+            }
+        }
+        FlowField field;
+        if (fieldCount < MAX_FIELDS) {
+            if (fields[fieldCount] == null) {
+                fields[fieldCount] = new FlowField();
+            }
+            field = fields[fieldCount++];
+        } else {
+            field = fields[0];
+            for (int i = 1; i < fieldCount; i++) {
+                if (fields[i].lastUsed < field.lastUsed) {
+                    field = fields[i];
+                }
+            }
+        }
+        field.goal = goal;
+        field.lastUsed = useClock;
+        rebuild(field);
+        return field;
+    }
+
+    public void indexUnits(List<BronzeWorld.Unit> units) {
+        int count = units.size();
+        if (unitNext.length < count) {
+            unitNext = new int[Math.max(count, unitNext.length * 2)];
+            unitCell = new int[unitNext.length];
+        }
+        Arrays.fill(unitHead, -1);
+        for (int i = 0; i < count; i++) {
+            BronzeWorld.Unit unit = units.get(i);
+            int slot = bucket(unit.x, unit.y, unit.player);
+            unitCell[i] = slot;
+            unitNext[i] = unitHead[slot];
+            unitHead[slot] = i;
+        }
+    }
+
+    public void moveUnit(int index, BronzeWorld.Unit unit) {
+        int slot = bucket(unit.x, unit.y, unit.player);
+        int old = unitCell[index];
+        if (slot == old) {
+            return;
+        }
+        int prev = -1;
+        for (int it = unitHead[old]; it >= 0; it = unitNext[it]) {
+            if (it == index) {
+                if (prev < 0) {
+                    unitHead[old] = unitNext[it];
+                } else {
+                    unitNext[prev] = unitNext[it];
+                }
+                break;
+            }
+            prev = it;
+        }
+        unitCell[index] = slot;
+        unitNext[index] = unitHead[slot];
+        unitHead[slot] = index;
+    }
+
+    public BronzeWorld.Unit nearestUnit(List<BronzeWorld.Unit> units, float x, float y, boolean player, float range) {
+        int cx = col(x);
+        int cy = row(y);
+        int side = player ? 1 : 0;
+        int best = -1;
+        float bestDist = Float.MAX_VALUE;
+        for (int ring = 0; ring <= Math.max(COLS, ROWS); ring++) {
+            float bound = (ring - 1) * CELL;
+            if (bound >= range || (best >= 0 && bound > 0f && bestDist < bound)) {
+                break;
+            }
+            int c0 = cx - ring;
+            int c1 = cx + ring;
+            int r0 = cy - ring;
+            int r1 = cy + ring;
+            for (int r = Math.max(0, r0); r <= Math.min(ROWS - 1, r1); r++) {
+                int step = (r == r0 || r == r1) ? 1 : Math.max(1, c1 - c0);
+                for (int c = c0; c <= c1; c += step) {
+                    if (c < 0 || c >= COLS) {
+                        continue;
+                    }
+                    for (int it = unitHead[(r * COLS + c) * 2 + side]; it >= 0; it = unitNext[it]) {
+                        BronzeWorld.Unit other = units.get(it);
+                        if (!other.alive) {
+                            continue;
+                        }
+                        float dx = x - other.x;
+                        float dy = y - other.y;
+                        float d = (float) Math.sqrt(dx * dx + dy * dy);
+                        if (d < range && (d < bestDist || (d == bestDist && it < best))) {
+                            bestDist = d;
+                            best = it;
+                        }
+                    }
+                }
+            }
+        }
+        return best >= 0 ? units.get(best) : null;
+    }
+
+    private void rebuild(FlowField field) {
+        field.goalC1 = -1;
+        field.goalR1 = -1;
+        if (blockers[field.goal] > 0) {
+            markGoalFootprint(field);
+        }
+        Arrays.fill(field.cost, INF);
+        Arrays.fill(field.dir, (byte) -1);
+        field.cost[field.goal] = 0;
+        heapSize = 0;
+        push(field.goal, 0);
+        propagate(field);
+    }
+
+    private void markGoalFootprint(FlowField field) {
+        int gc = field.goal % COLS;
+        int gr = field.goal / COLS;
+        int c0 = gc;
+        int c1 = gc;
+        int r0 = gr;
+        int r1 = gr;
+        while (c0 > 0 && blockers[gr * COLS + c0 - 1] > 0) c0--;
+        while (c1 < COLS - 1 && blockers[gr * COLS + c1 + 1] > 0) c1++;
+        while (r0 > 0 && blockers[(r0 - 1) * COLS + gc] > 0) r0--;
+        while (r1 < ROWS - 1 && blockers[(r1 + 1) * COLS + gc] > 0) r1++;
+        field.goalC0 = c0;
+        field.goalC1 = c1;
+        field.goalR0 = r0;
+        field.goalR1 = r1;
+    }
+
+    private boolean passable(FlowField field, int cell) {
+        if (blockers[cell] == 0) {
+            return true;
+        }
+        int c = cell % COLS;
+        int r = cell / COLS;
+        return c >= field.goalC0 && c <= field.goalC1 && r >= field.goalR0 && r <= field.goalR1;
+    }
+
+    private boolean canStep(FlowField field, int c, int r, int d) {
+        int nc = c + DC[d];
+        int nr = r + DR[d];
+        if (nc < 0 || nc >= COLS || nr < 0 || nr >= ROWS || !passable(field, nr * COLS + nc)) {
+            return false;
+        }
+        if ((d & 1) == 1) {
+            return passable(field, r * COLS + nc) && passable(field, nr * COLS + c);
+        }
+        return true;
+    }
+
+    private void propagate(FlowField field) {
+        int[] cost = field.cost;
+        while (heapSize > 0) {
+            int cell = heapCell[0];
+            int k = heapCost[0];
+            pop();
+            if (k > cost[cell]) {
+                continue;
+            }
+            int c = cell % COLS;
+            int r = cell / COLS;
+            for (int d = 0; d < 8; d++) {
+                if (!canStep(field, c, r, d)) {
+                    continue;
+                }
+                int n = (r + DR[d]) * COLS + c + DC[d];
+                int nk = k + STEP[d];
+                if (nk < cost[n]) {
+                    cost[n] = nk;
+                    field.dir[n] = (byte) ((d + 4) & 7);
+                    push(n, nk);
+                }
+            }
+        }
+    }
+
+    private boolean goalFootprintChanged(FlowField field, int n) {
+        if (field.goalC1 < 0 && blockers[field.goal] == 0) {
+            return false;
+        }
+        int gc = field.goal % COLS;
+        int gr = field.goal / COLS;
+        for (int i = 0; i < n; i++) {
+            if (changed[i] % COLS == gc || changed[i] / COLS == gr) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void repairBlocked(FlowField field, int n) {
+        int[] cost = field.cost;
+        byte[] dir = field.dir;
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < n; i++) {
+            int cell = changed[i];
+            if (!passable(field, cell) && cost[cell] != INF) {
+                invalid[cell] = true;
+                queue[tail++] = cell;
+            }
+        }
+        while (head < tail) {
+            int cell = queue[head++];
+            boolean blocked = !passable(field, cell);
+            int c = cell % COLS;
+            int r = cell / COLS;
+            for (int d = 0; d < 8; d++) {
+                int nc = c + DC[d];
+                int nr = r + DR[d];
+                if (nc < 0 || nc >= COLS || nr < 0 || nr >= ROWS) {
+                    continue;
+                }
+                int nb = nr * COLS + nc;
+                if (invalid[nb] || cost[nb] == INF) {
+                    continue;
+                }
+                int nd = dir[nb];
+                if (nd < 0) {
+                    continue;
+                }
+                boolean child = nc + DC[nd] == c && nr + DR[nd] == r;
+                boolean cutsCorner = blocked && (nd & 1) == 1 && !child
+                        && (nc + DC[nd] == c && nr == r || nc == c && nr + DR[nd] == r);
+                if (child || cutsCorner) {
+                    invalid[nb] = true;
+                    queue[tail++] = nb;
+                }
+            }
+        }
+        heapSize = 0;
+        for (int i = 0; i < tail; i++) {
+            int cell = queue[i];
+            cost[cell] = INF;
+            dir[cell] = -1;
+        }
+        for (int i = 0; i < tail; i++) {
+            int cell = queue[i];
+            invalid[cell] = false;
+            if (!passable(field, cell)) {
+                continue;
+            }
+            int c = cell % COLS;
+            int r = cell / COLS;
+            for (int d = 0; d < 8; d++) {
+                if (!canStep(field, c, r, d)) {
+                    continue;
+                }
+                int nb = (r + DR[d]) * COLS + c + DC[d];
+                if (cost[nb] != INF && cost[nb] + STEP[d] < cost[cell]) {
+                    cost[cell] = cost[nb] + STEP[d];
+                    dir[cell] = (byte) d;
+                }
+            }
+            if (cost[cell] != INF) {
+                push(cell, cost[cell]);
+            }
+        }
+        propagate(field);
+    }
+
+    private void repairFreed(FlowField field, int n) {
+        int[] cost = field.cost;
+        heapSize = 0;
+        for (int i = 0; i < n; i++) {
+            int cell = changed[i];
+            int c = cell % COLS;
+            int r = cell / COLS;
+            for (int d = 0; d < 8; d++) {
+                int nc = c + DC[d];
+                int nr = r + DR[d];
+                if (nc < 0 || nc >= COLS || nr < 0 || nr >= ROWS) {
+                    continue;
+                }
+                int nb = nr * COLS + nc;
+                if (cost[nb] != INF) {
+                    push(nb, cost[nb]);
+                }
+            }
+        }
+        propagate(field);
+    }
+
+    private void push(int cell, int k) {
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (heapCost[parent] <= k) {
+                break;
+            }
+            heapCell[i] = heapCell[parent];
+            heapCost[i] = heapCost[parent];
+            i = parent;
+        }
+        heapCell[i] = cell;
+        heapCost[i] = k;
+    }
+
+    private void pop() {
+        int last = --heapSize;
+        if (last == 0) {
+            return;
+        }
+        int cell = heapCell[last];
+        int k = heapCost[last];
+        int i = 0;
+        while (true) {
+            int child = i * 2 + 1;
+            if (child >= last) {
+                break;
+            }
+            if (child + 1 < last && heapCost[child + 1] < heapCost[child]) {
+                child++;
+            }
+            if (heapCost[child] >= k) {
+                break;
+            }
+            heapCell[i] = heapCell[child];
+            heapCost[i] = heapCost[child];
+            i = child;
+        }
+        heapCell[i] = cell;
+        heapCost[i] = k;
+    }
+
+    private static int bucket(float x, float y, boolean player) {
+        return cellOf(x, y) * 2 + (player ? 1 : 0);
+    }
+
+    private static int cellOf(float x, float y) {
+        return row(y) * COLS + col(x);
+    }
+
+    private static int col(float x) {
+        int c = (int) Math.floor(x / CELL);
+        return c < 0 ? 0 : (c >= COLS ? COLS - 1 : c);
+    }
+
+    private static int row(float y) {
+        int r = (int) Math.floor(y / CELL);
+        return r < 0 ? 0 : (r >= ROWS ? ROWS - 1 : r);
+    }
+}
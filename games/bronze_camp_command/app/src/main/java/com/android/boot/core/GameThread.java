@@ -10,16 +10,18 @@ public class GameThread extends Thread {
     private final BronzeWorld world;
     private final GameRenderer renderer;
     private final TonePlayer tonePlayer;
+    private final StatusChannel status;
     private volatile boolean running;
     private long lastNs;
     private int width;
     private int height;
 
-    public GameThread(SurfaceHolder holder, BronzeWorld world, GameRenderer renderer, TonePlayer tonePlayer) {
+    public GameThread(SurfaceHolder holder, BronzeWorld world, GameRenderer renderer, TonePlayer tonePlayer, StatusChannel status) {
         this.holder = holder;
         this.world = world;
         this.renderer = renderer;
         this.tonePlayer = tonePlayer;
+        this.status = status;
     }
 
     public void setRunning(boolean running) {
@@ -42,6 +44,7 @@ public class GameThread extends Thread {
                 dt = 0.05f;
             }
             world.update(dt);
+            world.publishStatus(status);
             tonePlayer.syncState(world.state, world.matchTime);
             if (world.shouldPlayWarning()) {
                 tonePlayer.warning();
@@ -0,0 +1,32 @@
+package com.android.boot.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StatusChannel {
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;
+
+    private final BronzeWorld.StatusSnapshot[] buffers = {
+            new BronzeWorld.StatusSnapshot(),
+            new BronzeWorld.StatusSnapshot(),
+            new BronzeWorld.StatusSnapshot()
+    };
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;
+    private int front = 2;
+
+    public BronzeWorld.StatusSnapshot writeBuffer() {
+        return buffers[back];
+    }
+
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    public BronzeWorld.StatusSnapshot latest() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return buffers[front];
+    }
+}
@@ -10,10 +10,12 @@ import com.android.boot.audio.TonePlayer;
 import com.android.boot.core.BronzeWorld;
 import com.android.boot.core.GameRenderer;
 import com.android.boot.core.GameThread;
+import com.android.boot.core.StatusChannel;
 
 public class GameView extends SurfaceView implements SurfaceHolder.Callback {
     private final BronzeWorld world = new BronzeWorld();
     private final GameRenderer renderer = new GameRenderer();
+    private final StatusChannel status = new StatusChannel();
     private final TonePlayer tonePlayer;
     private GameThread thread;
     private float downX;
@@ -25,10 +27,11 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
         tonePlayer = new TonePlayer(context);
         getHolder().addCallback(this);
         setFocusable(true);
+        world.publishStatus(status);
     }
 
     public BronzeWorld.StatusSnapshot snapshot() {
-        return world.snapshot();
+        return status.latest();
     }
 
     public void cycleBuildPlan() {
@@ -89,7 +92,7 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
 
     public void onHostResume() {
         if (thread == null && getHolder().getSurface().isValid()) {
-            thread = new GameThread(getHolder(), world, renderer, tonePlayer);
+            thread = new GameThread(getHolder(), world, renderer, tonePlayer, status);
             thread.setSize(getWidth(), getHeight());
             thread.setRunning(true);
             thread.start();
@@ -105,7 +108,7 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
     public void surfaceCreated(SurfaceHolder holder) {
         renderer.ensureAssets(getContext().getAssets());
         if (thread == null) {
-            thread = new GameThread(holder, world, renderer, tonePlayer);
+            thread = new GameThread(holder, world, renderer, tonePlayer, status);
             thread.setRunning(true);
             thread.setSize(getWidth(), getHeight());
             thread.start();
@@ -0,0 +1,72 @@
+package com.android.boot.core;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+// Per-tick cost of a full BronzeWorld.update in a seeded two-sided melee, the numbers quoted
+// for the flow-field change. Run with ./gradlew :app:testDebugUnitTest --tests '*BronzeWorldBenchmarkTest'.
+public class BronzeWorldBenchmarkTest {
+    private static final int WARMUP_TICKS = 200;
+    private static final int TICKS = 2000;
+
+    @Test
+    public void perTickCost() {
+        for (int count : new int[]{50, 200, 500}) {
+            BronzeWorld world = melee(count);
+            for (int i = 0; i < WARMUP_TICKS; i++) {
+                tick(world);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < TICKS; i++) {
+                tick(world);
+            }
+            double us = (System.nanoTime() - start) / 1000.0 / TICKS;
+            System.out.println(String.format(Locale.US, "%d units: %.1f us/tick", count, us));
+            assertTrue(world.units.size() >= count / 2);
+        }
+    }
+
+    @Test
+    public void fieldRebuildCost() {
+        FlowFieldService flow = new FlowFieldService();
+        Random r = new Random(5);
+        for (int i = 0; i < 12; i++) {
+            flow.addObstacle(200f + r.nextFloat() * 880f, 80f + r.nextFloat() * 560f, 64f, 64f);
+        }
+        flow.applyPendingEdits();
+        int goals = 2000;
+        long start = System.nanoTime();
+        for (int i = 0; i < goals; i++) {
+            // More distinct goals than the cache holds, so every lookup is a miss.
+            flow.fieldFor((i * 7 % 40) * FlowFieldService.CELL + 1f, (i * 3 % 23) * FlowFieldService.CELL + 1f);
+        }
+        double us = (System.nanoTime() - start) / 1000.0 / goals;
+        System.out.println(String.format(Locale.US, "field rebuild on cache miss: %.1f us", us));
+    }
+
+    private static BronzeWorld melee(int count) {
+        BronzeWorld world = new BronzeWorld();
+        world.startGame();
+        Random r = new Random(1);
+        for (int i = world.units.size(); i < count; i++) {
+            boolean player = i % 2 == 0;
+            BronzeWorld.Unit unit = world.addUnit(player ? BronzeWorld.UnitType.MILITIA : BronzeWorld.UnitType.RAIDER,
+                    player ? 200f + r.nextFloat() * 300f : 800f + r.nextFloat() * 300f, 100f + r.nextFloat() * 500f, player);
+            unit.targetX = player ? 1110f : 150f;
+            unit.targetY = 345f;
+            unit.hp = 100000;
+        }
+        return world;
+    }
+
+    private static void tick(BronzeWorld world) {
+        world.update(1f / 60f);
+        if (world.state != BronzeState.PLAYING) {
+            world.state = BronzeState.PLAYING;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.android.boot.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class FlowFieldServiceTest {
+    private static final int[] DC = {1, 1, 0, -1, -1, -1, 0, 1};
+    private static final int[] DR = {0, 1, 1, 1, 0, -1, -1, -1};
+    private static final int[] STEP = {10, 14, 10, 14, 10, 14, 10, 14};
+
+    @Test
+    public void incrementalRepairMatchesFullRebuild() {
+        Random r = new Random(3);
+        for (int t = 0; t < 60; t++) {
+            FlowFieldService flow = new FlowFieldService();
+            List<float[]> obstacles = new ArrayList<>();
+            float[][] goals = new float[6][];
+            for (int g = 0; g < goals.length; g++) {
+                goals[g] = new float[]{r.nextFloat() * 1280f, r.nextFloat() * 720f};
+                flow.fieldFor(goals[g][0], goals[g][1]);
+            }
+            for (int step = 0; step < 12; step++) {
+                if (obstacles.isEmpty() || r.nextFloat() < 0.6f) {
+                    float[] o = {r.nextFloat() * 1280f, r.nextFloat() * 720f, 54f + r.nextFloat() * 70f, 60f + r.nextFloat() * 40f};
+                    obstacles.add(o);
+                    flow.addObstacle(o[0], o[1], o[2], o[3]);
+                } else {
+                    float[] o = obstacles.remove(r.nextInt(obstacles.size()));
+                    flow.removeObstacle(o[0], o[1], o[2], o[3]);
+                }
+                flow.applyPendingEdits();
+                FlowFieldService ref = new FlowFieldService();
+                for (float[] o : obstacles) {
+                    ref.addObstacle(o[0], o[1], o[2], o[3]);
+                }
+                ref.applyPendingEdits();
+                for (float[] goal : goals) {
+                    FlowFieldService.FlowField repaired = flow.fieldFor(goal[0], goal[1]);
+                    FlowFieldService.FlowField rebuilt = ref.fieldFor(goal[0], goal[1]);
+                    assertArrayEquals("run " + t + " step " + step, rebuilt.cost, repaired.cost);
+                    assertParentsConsistent(repaired);
+                }
+            }
+        }
+    }
+
+    private static void assertParentsConsistent(FlowFieldService.FlowField field) {
+        for (int c = 0; c < field.cost.length; c++) {
+            int d = field.dir[c];
+            if (d < 0) {
+                continue;
+            }
+            int next = (c / FlowFieldService.COLS + DR[d]) * FlowFieldService.COLS + c % FlowFieldService.COLS + DC[d];
+            assertEquals("cell " + c, field.cost[c], field.cost[next] + STEP[d]);
+        }
+    }
+
+    @Test
+    public void obstacleEditsWaitForTheGameThread() {
+        FlowFieldService flow = new FlowFieldService();
+        FlowFieldService.FlowField field = flow.fieldFor(1100f, 345f);
+        int before = field.costAt(640f, 345f);
+        flow.addObstacle(640f, 345f, 200f, 200f);
+        assertEquals(before, field.costAt(640f, 345f));
+        flow.applyPendingEdits();
+        assertEquals(Integer.MAX_VALUE, field.costAt(640f, 345f));
+        flow.removeObstacle(640f, 345f, 200f, 200f);
+        flow.applyPendingEdits();
+        assertEquals(before, field.costAt(640f, 345f));
+    }
+
+    @Test
+    public void nearestUnitMatchesLinearScan() {
+        Random r = new Random(3);
+        BronzeWorld.UnitType[] types = BronzeWorld.UnitType.values();
+        for (int t = 0; t < 100; t++) {
+            FlowFieldService flow = new FlowFieldService();
+            List<BronzeWorld.Unit> units = new ArrayList<>();
+            int n = 1 + r.nextInt(400);
+            for (int i = 0; i < n; i++) {
+                BronzeWorld.Unit u = new BronzeWorld.Unit(types[r.nextInt(types.length)], r.nextFloat() * 1300f - 10f, r.nextFloat() * 740f - 10f, r.nextBoolean());
+                u.alive = r.nextFloat() < 0.9f;
+                units.add(u);
+            }
+            flow.indexUnits(units);
+            for (int i = 0; i < n; i++) {
+                BronzeWorld.Unit q = units.get(i);
+                float range = r.nextBoolean() ? q.type.aggroRange : Float.MAX_VALUE;
+                BronzeWorld.Unit best = null;
+                float bestDist = Float.MAX_VALUE;
+                for (BronzeWorld.Unit o : units) {
+                    if (o.player != q.player && o.alive) {
+                        float dx = q.x - o.x;
+                        float dy = q.y - o.y;
+                        float d = (float) Math.sqrt(dx * dx + dy * dy);
+                        if (d < bestDist && d < range) {
+                            bestDist = d;
+                            best = o;
+                        }
+                    }
+                }
+                assertSame("run " + t + " unit " + i, best, flow.nearestUnit(units, q.x, q.y, !q.player, range));
+                q.x += r.nextFloat() * 40f - 20f;
+                q.y += r.nextFloat() * 40f - 20f;
+                flow.moveUnit(i, q);
+            }
+        }
+    }
+}
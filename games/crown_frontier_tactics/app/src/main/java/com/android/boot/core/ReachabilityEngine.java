@@ -0,0 +1,233 @@
+package com.android.boot.core;
+
+import java.util.Arrays;
+
+// Dijkstra over a width x height board with per-terrain step costs. Cells are packed as
+// x * height + y, so sorted results follow the same column-major order as a nested x/y scan.
+// All buffers are reused between searches; visited and threat sets are generation stamped.
+public class ReachabilityEngine {
+    public static final int BLOCKED_COST = 99;
+
+    private static final int[] STEP_X = {1, -1, 0, 0};
+    private static final int[] STEP_Y = {0, 0, 1, -1};
+
+    private int width;
+    private int height;
+    private int cells;
+    private int[] terrain = new int[0];
+    private int[] occupied = new int[0];
+    private int[] visited = new int[0];
+    private int[] threat = new int[0];
+    private int[] dist = new int[0];
+    private int[] heap = new int[0];
+    private int[] result = new int[0];
+    private int[] threatCells = new int[0];
+    private int occupiedStamp;
+    private int visitStamp;
+    private int threatStamp;
+    private int resultCount;
+    private int threatCount;
+
+    public void reset(int width, int height) {
+        this.width = width;
+        this.height = height;
+        cells = width * height;
+        if (terrain.length < cells) {
+            terrain = new int[cells];
+            occupied = new int[cells];
+            visited = new int[cells];
+            threat = new int[cells];
+            dist = new int[cells];
+            heap = new int[cells * 4];
+            result = new int[cells];
+            threatCells = new int[cells];
+        } else {
+            Arrays.fill(occupied, 0);
+            Arrays.fill(visited, 0);
+            Arrays.fill(threat, 0);
+        }
+        occupiedStamp = 1;
+        visitStamp = 1;
+        threatStamp = 1;
+        resultCount = 0;
+        threatCount = 0;
+    }
+
+    public void setTerrain(int x, int y, int terrainId) {
+        terrain[x * height + y] = terrainId;
+    }
+
+    public void clearOccupied() {
+        occupiedStamp = nextStamp(occupiedStamp, occupied);
+    }
+
+    public void markOccupied(int x, int y) {
+        occupied[x * height + y] = occupiedStamp;
+    }
+
+    // Finds every cell whose cheapest path from (sx, sy) costs at most move. Occupied cells
+    // other than the start block movement, and steps with cost >= BLOCKED_COST are never taken.
+    // When rangeMax > 0 each reached cell also marks the cells within [rangeMin, rangeMax]
+    // Manhattan distance as threatened. Returns the number of reachable cells.
+    public int search(int sx, int sy, int move, int[] costByTerrain, int rangeMin, int rangeMax) {
+        visitStamp = nextStamp(visitStamp, visited);
+        resultCount = 0;
+        threatCount = 0;
+        if (sx < 0 || sy < 0 || sx >= width || sy >= height) {
+            return 0;
+        }
+        int start = sx * height + sy;
+        int size = 0;
+        visited[start] = visitStamp;
+        dist[start] = 0;
+        heap[size++] = start;
+        while (size > 0) {
+            int top = heap[0];
+            int cell = top & 0xFFFF;
+            int d = top >>> 16;
+            size = pop(size);
+            if (d != dist[cell]) {
+                continue;
+            }
+            result[resultCount++] = cell;
+            int cx = cell / height;
+            int cy = cell - cx * height;
+            for (int i = 0; i < 4; i++) {
+                int nx = cx + STEP_X[i];
+                int ny = cy + STEP_Y[i];
+                if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
+                    continue;
+                }
+                int next = nx * height + ny;
+                if (occupied[next] == occupiedStamp && next != start) {
+                    continue;
+                }
+                int cost = costByTerrain[terrain[next]];
+                int nd = d + cost;
+                if (cost >= BLOCKED_COST || nd > move) {
+                    continue;
+                }
+                if (visited[next] != visitStamp || nd < dist[next]) {
+                    visited[next] = visitStamp;
+                    dist[next] = nd;
+                    size = push(size, (nd << 16) | next);
+                }
+            }
+        }
+        Arrays.sort(result, 0, resultCount);
+        if (rangeMax > 0) {
+            expandThreat(rangeMin, rangeMax);
+        }
+        return resultCount;
+    }
+
+    public int resultCount() {
+        return resultCount;
+    }
+
+    public int resultCell(int index) {
+        return result[index];
+    }
+
+    public int cellX(int cell) {
+        return cell / height;
+    }
+
+    public int cellY(int cell) {
+        return cell % height;
+    }
+
+    public boolean isReachable(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height && visited[x * height + y] == visitStamp;
+    }
+
+    public int costTo(int x, int y) {
+        return isReachable(x, y) ? dist[x * height + y] : -1;
+    }
+
+    public int threatCount() {
+        return threatCount;
+    }
+
+    public int threatCell(int index) {
+        return threatCells[index];
+    }
+
+    public boolean isThreatened(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height && threat[x * height + y] == threatStamp;
+    }
+
+    private void expandThreat(int rangeMin, int rangeMax) {
+        threatStamp = nextStamp(threatStamp, threat);
+        for (int i = 0; i < resultCount; i++) {
+            int cell = result[i];
+            int cx = cell / height;
+            int cy = cell - cx * height;
+            int x0 = Math.max(0, cx - rangeMax);
+            int x1 = Math.min(width - 1, cx + rangeMax);
+            for (int x = x0; x <= x1; x++) {
+                int span = rangeMax - Math.abs(x - cx);
+                int y0 = Math.max(0, cy - span);
+                int y1 = Math.min(height - 1, cy + span);
+                for (int y = y0; y <= y1; y++) {
+                    if (Math.abs(x - cx) + Math.abs(y - cy) < rangeMin) {
+                        continue;
+                    }
+                    int target = x * height + y;
+                    if (threat[target] != threatStamp) {
+                        threat[target] = threatStamp;
+                        threatCells[threatCount++] = target;
+                    }
+                }
+            }
+        }
+    }
+
+    private int push(int size, int key) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        int i = size;
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (heap[parent] <= key) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = key;
+        return size + 1;
+    }
+
+    private int pop(int size) {
+        int last = heap[--size];
+        int i = 0;
+        while (true) {
+            int child = i * 2 + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        if (size > 0) {
+            heap[i] = last;
+        }
+        return size;
+    }
+
+    private static int nextStamp(int stamp, int[] marks) {
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(marks, 0);
+            return 1;
+        }
+        return stamp + 1;
+    }
+}
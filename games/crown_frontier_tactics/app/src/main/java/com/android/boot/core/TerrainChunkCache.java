@@ -0,0 +1,181 @@
+package com.android.boot.core;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.RectF;
+
+import java.util.Arrays;
+
+// Caches a static board layer as square chunks of CHUNK_CELLS x CHUNK_CELLS cells.
+// Only chunks on screen hold a bitmap; a slot is reused once its chunk scrolls away.
+// Chunks are re-rendered only after invalidateCell/invalidateAll or when they get a slot.
+public class TerrainChunkCache {
+    public interface CellPainter {
+        void paintCell(Canvas canvas, int x, int y, float left, float top, float size);
+    }
+
+    public static final int CHUNK_CELLS = 4;
+
+    private final CellPainter painter;
+    private final RectF dst = new RectF();
+    private int cols;
+    private int rows;
+    private int chunkCols;
+    private int chunkRows;
+    private int cellPx;
+    private boolean[] dirty = new boolean[0];
+    private int[] chunkSlot = new int[0];
+    private Bitmap[] slotBitmaps = new Bitmap[0];
+    private Canvas[] slotCanvases = new Canvas[0];
+    private int[] slotChunk = new int[0];
+    private int[] slotFrame = new int[0];
+    private int frame;
+    private int renderedChunks;
+
+    public TerrainChunkCache(CellPainter painter) {
+        this.painter = painter;
+    }
+
+    public void configure(int cols, int rows, float cellSize) {
+        int px = Math.max(1, Math.round(cellSize));
+        if (cols == this.cols && rows == this.rows && px == cellPx) {
+            return;
+        }
+        release();
+        this.cols = cols;
+        this.rows = rows;
+        cellPx = px;
+        chunkCols = (cols + CHUNK_CELLS - 1) / CHUNK_CELLS;
+        chunkRows = (rows + CHUNK_CELLS - 1) / CHUNK_CELLS;
+        int chunks = chunkCols * chunkRows;
+        dirty = new boolean[chunks];
+        chunkSlot = new int[chunks];
+        Arrays.fill(chunkSlot, -1);
+    }
+
+    public void invalidateCell(int x, int y) {
+        if (x < 0 || y < 0 || x >= cols || y >= rows) {
+            return;
+        }
+        // Neighbouring chunks paint this cell in their apron as well.
+        int cx0 = Math.max(0, x - 1) / CHUNK_CELLS;
+        int cx1 = Math.min(cols - 1, x + 1) / CHUNK_CELLS;
+        int cy0 = Math.max(0, y - 1) / CHUNK_CELLS;
+        int cy1 = Math.min(rows - 1, y + 1) / CHUNK_CELLS;
+        for (int cx = cx0; cx <= cx1; cx++) {
+            for (int cy = cy0; cy <= cy1; cy++) {
+                dirty[cx * chunkRows + cy] = true;
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        Arrays.fill(dirty, true);
+    }
+
+    public int getRenderedChunks() {
+        return renderedChunks;
+    }
+
+    // Blits the chunks overlapping [startX, endX) x [startY, endY); originX/Y is where cell (0, 0) lands.
+    public void draw(Canvas canvas, float originX, float originY, float cellSize, int startX, int startY, int endX, int endY) {
+        if (cols == 0 || endX <= startX || endY <= startY) {
+            return;
+        }
+        frame++;
+        int cx0 = startX / CHUNK_CELLS;
+        int cy0 = startY / CHUNK_CELLS;
+        int cx1 = (endX - 1) / CHUNK_CELLS;
+        int cy1 = (endY - 1) / CHUNK_CELLS;
+        float chunkSize = CHUNK_CELLS * cellSize;
+        canvas.save();
+        canvas.clipRect(originX + startX * cellSize, originY + startY * cellSize, originX + endX * cellSize, originY + endY * cellSize);
+        for (int cx = cx0; cx <= cx1; cx++) {
+            for (int cy = cy0; cy <= cy1; cy++) {
+                int chunk = cx * chunkRows + cy;
+                int slot = acquire(chunk);
+                if (dirty[chunk]) {
+                    render(slot, cx, cy);
+                    dirty[chunk] = false;
+                }
+                float left = originX + cx * chunkSize;
+                float top = originY + cy * chunkSize;
+                dst.set(left, top, left + chunkSize, top + chunkSize);
+                canvas.drawBitmap(slotBitmaps[slot], null, dst, null);
+            }
+        }
+        canvas.restore();
+    }
+
+    public void release() {
+        for (int i = 0; i < slotBitmaps.length; i++) {
+            if (slotBitmaps[i] != null) {
+                slotBitmaps[i].recycle();
+            }
+        }
+        slotBitmaps = new Bitmap[0];
+        slotCanvases = new Canvas[0];
+        slotChunk = new int[0];
+        slotFrame = new int[0];
+        Arrays.fill(chunkSlot, -1);
+        Arrays.fill(dirty, true);
+        cols = 0;
+        rows = 0;
+        cellPx = 0;
+    }
+
+    private int acquire(int chunk) {
+        int slot = chunkSlot[chunk];
+        if (slot >= 0) {
+            slotFrame[slot] = frame;
+            return slot;
+        }
+        for (int i = 0; i < slotChunk.length; i++) {
+            if (slotFrame[i] != frame) {
+                slot = i;
+                break;
+            }
+        }
+        if (slot < 0) {
+            slot = grow();
+        }
+        if (slotChunk[slot] >= 0) {
+            chunkSlot[slotChunk[slot]] = -1;
+        }
+        slotChunk[slot] = chunk;
+        slotFrame[slot] = frame;
+        chunkSlot[chunk] = slot;
+        dirty[chunk] = true;
+        return slot;
+    }
+
+    private int grow() {
+        int slot = slotBitmaps.length;
+        int size = CHUNK_CELLS * cellPx;
+        slotBitmaps = Arrays.copyOf(slotBitmaps, slot + 1);
+        slotCanvases = Arrays.copyOf(slotCanvases, slot + 1);
+        slotChunk = Arrays.copyOf(slotChunk, slot + 1);
+        slotFrame = Arrays.copyOf(slotFrame, slot + 1);
+        slotBitmaps[slot] = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        slotCanvases[slot] = new Canvas(slotBitmaps[slot]);
+        slotChunk[slot] = -1;
+        return slot;
+    }
+
+    private void render(int slot, int cx, int cy) {
+        slotBitmaps[slot].eraseColor(0);
+        Canvas target = slotCanvases[slot];
+        int x0 = cx * CHUNK_CELLS;
+        int y0 = cy * CHUNK_CELLS;
+        // Cells are painted in board order with a one-cell apron so strokes that straddle a
+        // chunk edge overlap exactly as they do when the whole board is drawn in one pass.
+        int x1 = Math.min(cols, x0 + CHUNK_CELLS + 1);
+        int y1 = Math.min(rows, y0 + CHUNK_CELLS + 1);
+        for (int x = Math.max(0, x0 - 1); x < x1; x++) {
+            for (int y = Math.max(0, y0 - 1); y < y1; y++) {
+                painter.paintCell(target, x, y, (x - x0) * cellPx, (y - y0) * cellPx, cellPx);
+            }
+        }
+        renderedChunks++;
+    }
+}
@@ -21,10 +21,13 @@ import androidx.core.content.ContextCompat;
 
 import com.android.boot.R;
 import com.android.boot.audio.GameAudio;
+import com.android.boot.core.ReachabilityEngine;
+import com.android.boot.core.TerrainChunkCache;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -94,9 +97,10 @@ public class GameView extends View {
         public final ObjectiveType objectiveType;
         public final int surviveTurns;
         public final int patternId;
+        public final AiProfile aiProfile;
 
         public ChapterDefinition(int index, String title, String region, String objectiveLabel, String briefing,
-                                 int width, int height, ObjectiveType objectiveType, int surviveTurns, int patternId) {
+                                 int width, int height, ObjectiveType objectiveType, int surviveTurns, int patternId, AiProfile aiProfile) {
             this.index = index;
             this.title = title;
             this.region = region;
@@ -107,6 +111,25 @@ public class GameView extends View {
             this.objectiveType = objectiveType;
             this.surviveTurns = surviveTurns;
             this.patternId = patternId;
+            this.aiProfile = aiProfile;
+        }
+    }
+
+    public static final class AiProfile {
+        public final boolean lookahead;
+        public final long stepBudgetNanos;
+        public final int maxDepth;
+        public final int beamWidth;
+        public final float exposureWeight;
+        public final float counterWeight;
+
+        public AiProfile(boolean lookahead, int stepBudgetMs, int maxDepth, int beamWidth, float exposureWeight, float counterWeight) {
+            this.lookahead = lookahead;
+            this.stepBudgetNanos = stepBudgetMs * 1000000L;
+            this.maxDepth = Math.max(1, Math.min(AI_MAX_DEPTH, maxDepth));
+            this.beamWidth = Math.max(1, beamWidth);
+            this.exposureWeight = exposureWeight;
+            this.counterWeight = counterWeight;
         }
     }
 
@@ -212,13 +235,51 @@ public class GameView extends View {
     }
 
     private static final class ActionPlan {
+        Unit unit;
         int moveX;
         int moveY;
         Unit target;
         float score;
         boolean capture;
         boolean heal;
-    }
+        int damage;
+        int counter;
+        int savedX;
+        int savedY;
+        int savedHp;
+        int savedTargetHp;
+        int savedOwner;
+        boolean savedTargetDefeated;
+
+        ActionPlan reset() {
+            unit = null;
+            moveX = 0;
+            moveY = 0;
+            target = null;
+            score = 0f;
+            capture = false;
+            heal = false;
+            damage = 0;
+            counter = 0;
+            return this;
+        }
+
+        void copyFrom(ActionPlan other) {
+            unit = other.unit;
+            moveX = other.moveX;
+            moveY = other.moveY;
+            target = other.target;
+            score = other.score;
+            capture = other.capture;
+            heal = other.heal;
+            damage = other.damage;
+            counter = other.counter;
+        }
+    }
+
+    private static final int AI_MAX_DEPTH = 4;
+    // Part of each step budget kept back for unwinding an aborted pass.
+    private static final long AI_UNWIND_NANOS = 250000L;
 
     private final Handler handler = new Handler(Looper.getMainLooper());
     private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
@@ -232,6 +293,14 @@ public class GameView extends View {
     private final HashMap<String, Bitmap> bitmaps = new HashMap<>();
     private final HashMap<TerrainType, String> terrainAssetKeys = new HashMap<>();
     private final int[][] cardinal = new int[][]{{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private final ReachabilityEngine reach = new ReachabilityEngine();
+    private final TerrainType[] terrainTypes = TerrainType.values();
+    private final int[] moveCosts = new int[terrainTypes.length];
+    private final int[] advanceTarget = new int[2];
+    private final ActionPlan greedyPlan = new ActionPlan();
+    private final ActionPlan lookaheadPlan = new ActionPlan();
+    private final ActionPlan[][] planPool = new ActionPlan[AI_MAX_DEPTH][];
+    private final TerrainChunkCache terrainCache = new TerrainChunkCache(this::paintTerrainCell);
     private final Runnable ticker = new Runnable() {
         @Override
         public void run() {
@@ -294,26 +363,38 @@ public class GameView extends View {
     private int villagesCaptured;
     private int battleHighlights;
     private int touchSlop;
+    private long aiDeadline;
+    private boolean aiAborted;
+    private int aiRootBest;
     private String hintText = "Open the atlas to begin the march.";
     private String objectiveText = "";
 
     public GameView(Context context) {
         super(context);
-        init();
+        init(true);
     }
 
     public GameView(Context context, AttributeSet attrs) {
         super(context, attrs);
-        init();
+        init(true);
+    }
+
+    // Without assets the view skips the bitmaps and touch configuration, so chapters, boards and
+    // the enemy AI can run in plain JVM unit tests.
+    GameView(Context context, boolean loadAssets) {
+        super(context);
+        init(loadAssets);
     }
 
-    private void init() {
+    private void init(boolean loadAssets) {
         setFocusable(true);
         setFocusableInTouchMode(true);
-        touchSlop = ViewConfiguration.get(getContext()).getScaledTouchSlop();
         seedTerrainAssetKeys();
         buildChapters();
-        loadSharedBitmaps();
+        if (loadAssets) {
+            touchSlop = ViewConfiguration.get(getContext()).getScaledTouchSlop();
+            loadSharedBitmaps();
+        }
         reachable = new boolean[1][1];
         attackable = new boolean[1][1];
         sendHud();
@@ -492,6 +573,102 @@ public class GameView extends View {
         }
     }
 
+    int unitCount() {
+        return units.size();
+    }
+
+    int unitX(int index) {
+        return units.get(index).x;
+    }
+
+    int unitY(int index) {
+        return units.get(index).y;
+    }
+
+    int unitMove(int index) {
+        return units.get(index).move;
+    }
+
+    boolean unitDefeated(int index) {
+        return units.get(index).defeated;
+    }
+
+    void placeUnit(int index, int x, int y) {
+        Unit unit = units.get(index);
+        unit.x = x;
+        unit.y = y;
+    }
+
+    // Step cost per terrain ordinal for the unit, as the reachability search sees it.
+    int[] unitMoveCosts(int index) {
+        int[] costs = new int[terrainTypes.length];
+        for (int i = 0; i < terrainTypes.length; i++) {
+            costs[i] = movementCost(units.get(index), terrainTypes[i]);
+        }
+        return costs;
+    }
+
+    int terrainAt(int x, int y) {
+        return tiles[x][y].terrain.ordinal();
+    }
+
+    // The move overlay shown when the unit is selected.
+    boolean[][] reachableFor(int index) {
+        computeReachable(units.get(index));
+        return reachable;
+    }
+
+    boolean inEnemyTurn() {
+        return aiTurn;
+    }
+
+    // Runs the lookahead search for the next enemy action without carrying it out.
+    boolean searchEnemyPlan() {
+        return chooseLookaheadPlan(currentChapter.aiProfile) != null;
+    }
+
+    // Carries out one enemy action, as the frame ticker does between animations.
+    void stepEnemy() {
+        executeEnemyStep();
+    }
+
+    // Every tile and unit field the search may touch, in board order.
+    byte[] boardState() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            for (int x = 0; x < tiles.length; x++) {
+                for (int y = 0; y < tiles[x].length; y++) {
+                    Tile tile = tiles[x][y];
+                    out.writeInt(tile.terrain.ordinal());
+                    out.writeInt(tile.owner);
+                    out.writeFloat(tile.pulse);
+                }
+            }
+            out.writeInt(units.size());
+            for (int i = 0; i < units.size(); i++) {
+                Unit unit = units.get(i);
+                out.writeInt(unit.x);
+                out.writeInt(unit.y);
+                out.writeInt(unit.hp);
+                out.writeBoolean(unit.moved);
+                out.writeBoolean(unit.acted);
+                out.writeBoolean(unit.defeated);
+                out.writeFloat(unit.renderX);
+                out.writeFloat(unit.renderY);
+                out.writeInt(unit.faceX);
+                out.writeInt(unit.faceY);
+                out.writeInt(unit.auraTurns);
+                out.writeInt(unit.kills);
+            }
+            out.writeInt(gold);
+            out.writeInt(enemyGold);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
     @Override
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
@@ -505,6 +682,7 @@ public class GameView extends View {
     protected void onDetachedFromWindow() {
         attached = false;
         handler.removeCallbacks(ticker);
+        terrainCache.release();
         super.onDetachedFromWindow();
     }
 
@@ -526,7 +704,6 @@ public class GameView extends View {
             return;
         }
         drawTiles(canvas);
-        drawStructures(canvas);
         drawHighlights(canvas);
         drawUnits(canvas);
         drawBoardFrame(canvas);
@@ -685,7 +862,8 @@ public class GameView extends View {
                 int height = 11 + regionIndex + (local == 4 ? 2 : 0);
                 String objectiveLabel = buildObjectiveLabel(objectiveType, surviveTurns);
                 String briefing = buildBriefing(regions[regionIndex], titles[regionIndex][local], objectiveType, surviveTurns, regionIndex, local);
-                chapters.add(new ChapterDefinition(index, titles[regionIndex][local], regions[regionIndex], objectiveLabel, briefing, width, height, objectiveType, surviveTurns, local + regionIndex * 2));
+                AiProfile aiProfile = new AiProfile(true, 8, 2 + regionIndex / 2, 3 + regionIndex / 3, 0.3f + regionIndex * 0.06f, 1.5f);
+                chapters.add(new ChapterDefinition(index, titles[regionIndex][local], regions[regionIndex], objectiveLabel, briefing, width, height, objectiveType, surviveTurns, local + regionIndex * 2, aiProfile));
             }
         }
     }
@@ -743,6 +921,13 @@ public class GameView extends View {
         carveRoadNet(chapter);
         placeStructures(chapter);
         populateUnits(chapter);
+        reach.reset(chapter.width, chapter.height);
+        for (int x = 0; x < chapter.width; x++) {
+            for (int y = 0; y < chapter.height; y++) {
+                reach.setTerrain(x, y, tiles[x][y].terrain.ordinal());
+            }
+        }
+        terrainCache.invalidateAll();
         objectiveText = chapter.objectiveLabel;
         recomputeBoardBounds();
         sendHud();
@@ -1090,12 +1275,24 @@ public class GameView extends View {
     }
 
     private void executeEnemyStep() {
-        Unit unit = nextEnemyUnit();
-        if (unit == null) {
-            finishEnemyTurn();
-            return;
+        Unit unit;
+        ActionPlan plan;
+        AiProfile profile = currentChapter == null ? null : currentChapter.aiProfile;
+        if (profile != null && profile.lookahead && difficultyIndex > 0) {
+            plan = chooseLookaheadPlan(profile);
+            if (plan == null) {
+                finishEnemyTurn();
+                return;
+            }
+            unit = plan.unit;
+        } else {
+            unit = nextEnemyUnit();
+            if (unit == null) {
+                finishEnemyTurn();
+                return;
+            }
+            plan = chooseEnemyPlan(unit);
         }
-        ActionPlan plan = chooseEnemyPlan(unit);
         if (plan == null) {
             unit.acted = true;
             unit.moved = true;
@@ -1126,20 +1323,30 @@ public class GameView extends View {
 
     private ActionPlan chooseEnemyPlan(Unit unit) {
         ActionPlan best = null;
-        ArrayList<int[]> reachableCells = computeReachableCells(unit);
-        for (int i = 0; i < reachableCells.size(); i++) {
-            int[] cell = reachableCells.get(i);
+        int cellCount = runReachability(unit);
+        boolean anyThreatened = false;
+        for (int j = 0; j < units.size(); j++) {
+            Unit target = units.get(j);
+            if (target.ally != unit.ally && !target.defeated && reach.isThreatened(target.x, target.y)) {
+                anyThreatened = true;
+                break;
+            }
+        }
+        for (int i = 0; anyThreatened && i < cellCount; i++) {
+            int cell = reach.resultCell(i);
+            int cx = reach.cellX(cell);
+            int cy = reach.cellY(cell);
             for (int j = 0; j < units.size(); j++) {
                 Unit target = units.get(j);
-                if (target.ally == unit.ally || target.defeated) {
+                if (target.ally == unit.ally || target.defeated || !reach.isThreatened(target.x, target.y)) {
                     continue;
                 }
-                if (canAttack(unit, target, cell[0], cell[1])) {
-                    float score = attackScore(unit, target, cell[0], cell[1]);
+                if (canAttack(unit, target, cx, cy)) {
+                    float score = attackScore(unit, target, cx, cy);
                     if (best == null || score > best.score) {
-                        best = new ActionPlan();
-                        best.moveX = cell[0];
-                        best.moveY = cell[1];
+                        best = greedyPlan.reset();
+                        best.moveX = cx;
+                        best.moveY = cy;
                         best.target = target;
                         best.score = score;
                     }
@@ -1147,15 +1354,17 @@ public class GameView extends View {
             }
         }
         if (unit.healer) {
-            for (int i = 0; i < reachableCells.size(); i++) {
-                int[] cell = reachableCells.get(i);
-                Unit target = bestHealFromCell(unit, cell[0], cell[1]);
+            for (int i = 0; i < cellCount; i++) {
+                int cell = reach.resultCell(i);
+                int cx = reach.cellX(cell);
+                int cy = reach.cellY(cell);
+                Unit target = bestHealFromCell(unit, cx, cy);
                 if (target != null) {
                     float score = 30f + (target.maxHp - target.hp) * 3f;
                     if (best == null || score > best.score) {
-                        best = new ActionPlan();
-                        best.moveX = cell[0];
-                        best.moveY = cell[1];
+                        best = greedyPlan.reset();
+                        best.moveX = cx;
+                        best.moveY = cy;
                         best.target = target;
                         best.heal = true;
                         best.score = score;
@@ -1166,18 +1375,20 @@ public class GameView extends View {
         if (best != null) {
             return best;
         }
-        for (int i = 0; i < reachableCells.size(); i++) {
-            int[] cell = reachableCells.get(i);
-            Tile tile = getTile(cell[0], cell[1]);
+        for (int i = 0; i < cellCount; i++) {
+            int cell = reach.resultCell(i);
+            int cx = reach.cellX(cell);
+            int cy = reach.cellY(cell);
+            Tile tile = getTile(cx, cy);
             if (tile != null && tile.capturable && tile.owner != -1 && unit.canCapture) {
                 float score = captureScore(tile);
                 if (difficultyIndex == 2) {
                     score += 10f;
                 }
                 if (best == null || score > best.score) {
-                    best = new ActionPlan();
-                    best.moveX = cell[0];
-                    best.moveY = cell[1];
+                    best = greedyPlan.reset();
+                    best.moveX = cx;
+                    best.moveY = cy;
                     best.capture = true;
                     best.score = score;
                 }
@@ -1186,21 +1397,281 @@ public class GameView extends View {
         if (best != null) {
             return best;
         }
-        int[] targetTile = chooseAdvanceTarget(unit);
-        if (targetTile == null) {
+        if (!chooseAdvanceTarget(unit)) {
             return null;
         }
-        int[] move = chooseAdvanceCell(unit, reachableCells, targetTile[0], targetTile[1]);
-        if (move == null) {
+        int move = chooseAdvanceCell(unit, cellCount, advanceTarget[0], advanceTarget[1]);
+        if (move < 0) {
             return null;
         }
-        best = new ActionPlan();
-        best.moveX = move[0];
-        best.moveY = move[1];
+        best = greedyPlan.reset();
+        best.moveX = reach.cellX(move);
+        best.moveY = reach.cellY(move);
         best.score = 1f;
         return best;
     }
 
+    // Iterative deepening over sequences of enemy actions. Each depth lets one more unit act on
+    // the state left by the previous ones, so focus fire and counter damage are seen. Depth 1
+    // always completes; deeper passes stop at the profile's step budget and are discarded
+    // unless they finish.
+    private ActionPlan chooseLookaheadPlan(AiProfile profile) {
+        aiDeadline = System.nanoTime() + profile.stepBudgetNanos - AI_UNWIND_NANOS;
+        boolean found = false;
+        for (int depth = 1; depth <= profile.maxDepth; depth++) {
+            aiAborted = false;
+            aiRootBest = -1;
+            searchPlans(profile, 0, depth);
+            if (aiAborted) {
+                break;
+            }
+            if (aiRootBest < 0) {
+                return null;
+            }
+            lookaheadPlan.copyFrom(planPool[0][aiRootBest]);
+            found = true;
+            if (System.nanoTime() >= aiDeadline) {
+                break;
+            }
+        }
+        return found ? lookaheadPlan : null;
+    }
+
+    private float searchPlans(AiProfile profile, int depth, int maxDepth) {
+        if (depth >= maxDepth) {
+            return 0f;
+        }
+        int count = 0;
+        for (int i = 0; i < units.size(); i++) {
+            Unit unit = units.get(i);
+            if (unit.ally || unit.defeated || unit.acted) {
+                continue;
+            }
+            if (depth > 0 && System.nanoTime() >= aiDeadline) {
+                aiAborted = true;
+                return 0f;
+            }
+            count = collectCandidates(profile, unit, depth, count);
+            if (aiAborted) {
+                return 0f;
+            }
+        }
+        if (count == 0) {
+            return 0f;
+        }
+        ActionPlan[] row = planPool[depth];
+        float best = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            ActionPlan plan = row[i];
+            applyPlan(plan);
+            float value = plan.score + searchPlans(profile, depth + 1, maxDepth);
+            undoPlan(plan);
+            if (aiAborted) {
+                return 0f;
+            }
+            if (value > best) {
+                best = value;
+                if (depth == 0) {
+                    aiRootBest = i;
+                }
+            }
+        }
+        return best;
+    }
+
+    private int collectCandidates(AiProfile profile, Unit unit, int depth, int offset) {
+        int beam = profile.beamWidth;
+        ensurePlanPool(depth, offset + beam);
+        ActionPlan[] row = planPool[depth];
+        int kept = 0;
+        int cellCount = runReachability(unit);
+        boolean hasAdvance = chooseAdvanceTarget(unit);
+        int homeX = unit.x;
+        int homeY = unit.y;
+        float bestAdvance = Float.NEGATIVE_INFINITY;
+        float bestAdvanceScore = 0f;
+        int advanceCell = -1;
+        for (int i = 0; i < cellCount; i++) {
+            // A unit can have dozens of cells to score, so deeper passes also stop between cells.
+            if (depth > 0 && System.nanoTime() >= aiDeadline) {
+                aiAborted = true;
+                break;
+            }
+            int cell = reach.resultCell(i);
+            int cx = reach.cellX(cell);
+            int cy = reach.cellY(cell);
+            unit.x = cx;
+            unit.y = cy;
+            float risk = exposureAt(unit) * profile.exposureWeight;
+            for (int j = 0; j < units.size(); j++) {
+                Unit target = units.get(j);
+                if (target.ally == unit.ally || target.defeated || !reach.isThreatened(target.x, target.y) || !canAttack(unit, target, cx, cy)) {
+                    continue;
+                }
+                int damage = forecastDamage(unit, target, cx, cy);
+                int counter = 0;
+                if (damage < target.hp && canAttack(target, unit, target.x, target.y)) {
+                    counter = Math.max(1, forecastDamage(target, unit, target.x, target.y) - 1);
+                }
+                float score = attackScore(unit, target, cx, cy) - counter * profile.counterWeight - risk;
+                if (counter >= unit.hp) {
+                    score -= 25f;
+                }
+                int slot = offerSlot(row, offset, kept, beam, score);
+                if (slot >= 0) {
+                    kept = Math.min(beam, kept + 1);
+                    ActionPlan plan = fillCandidate(row[offset + slot], unit, cx, cy, score);
+                    plan.target = target;
+                    plan.damage = damage;
+                    plan.counter = counter;
+                }
+            }
+            if (unit.healer) {
+                Unit target = bestHealFromCell(unit, cx, cy);
+                if (target != null) {
+                    float score = 30f + (target.maxHp - target.hp) * 3f - risk;
+                    int slot = offerSlot(row, offset, kept, beam, score);
+                    if (slot >= 0) {
+                        kept = Math.min(beam, kept + 1);
+                        fillCandidate(row[offset + slot], unit, cx, cy, score).target = target;
+                        row[offset + slot].heal = true;
+                    }
+                }
+            }
+            Tile tile = getTile(cx, cy);
+            if (tile != null && tile.capturable && tile.owner != -1 && unit.canCapture) {
+                float score = captureScore(tile) + (difficultyIndex == 2 ? 10f : 0f) - risk;
+                int slot = offerSlot(row, offset, kept, beam, score);
+                if (slot >= 0) {
+                    kept = Math.min(beam, kept + 1);
+                    fillCandidate(row[offset + slot], unit, cx, cy, score).capture = true;
+                }
+            }
+            float advance = hasAdvance ? advanceScore(unit, cx, cy, advanceTarget[0], advanceTarget[1]) - risk * 3f : -risk;
+            if (advanceCell < 0 || advance > bestAdvance) {
+                bestAdvance = advance;
+                bestAdvanceScore = 1f - risk;
+                advanceCell = cell;
+            }
+        }
+        unit.x = homeX;
+        unit.y = homeY;
+        if (advanceCell >= 0 && !aiAborted) {
+            int slot = offerSlot(row, offset, kept, beam, bestAdvanceScore);
+            if (slot >= 0) {
+                kept = Math.min(beam, kept + 1);
+                fillCandidate(row[offset + slot], unit, reach.cellX(advanceCell), reach.cellY(advanceCell), bestAdvanceScore);
+            }
+        }
+        return offset + kept;
+    }
+
+    // Keeps each unit's candidates sorted by score, best first, in row[offset..offset + beam).
+    // Returns the slot for a new candidate, or -1 when it would fall outside the beam.
+    private int offerSlot(ActionPlan[] row, int offset, int kept, int beam, float score) {
+        int slot = kept;
+        while (slot > 0 && row[offset + slot - 1].score < score) {
+            slot--;
+        }
+        if (slot >= beam) {
+            return -1;
+        }
+        int last = Math.min(kept, beam - 1);
+        ActionPlan spare = row[offset + last];
+        for (int k = last; k > slot; k--) {
+            row[offset + k] = row[offset + k - 1];
+        }
+        row[offset + slot] = spare;
+        return slot;
+    }
+
+    private ActionPlan fillCandidate(ActionPlan plan, Unit unit, int x, int y, float score) {
+        plan.reset();
+        plan.unit = unit;
+        plan.moveX = x;
+        plan.moveY = y;
+        plan.score = score;
+        return plan;
+    }
+
+    private void ensurePlanPool(int depth, int size) {
+        ActionPlan[] row = planPool[depth];
+        if (row != null && row.length >= size) {
+            return;
+        }
+        int capacity = Math.max(size, row == null ? 16 : row.length * 2);
+        ActionPlan[] grown = new ActionPlan[capacity];
+        int start = 0;
+        if (row != null) {
+            System.arraycopy(row, 0, grown, 0, row.length);
+            start = row.length;
+        }
+        for (int i = start; i < capacity; i++) {
+            grown[i] = new ActionPlan();
+        }
+        planPool[depth] = grown;
+    }
+
+    // Heaviest hit any opposing unit could land on this cell next turn, ignoring terrain on the way.
+    private int exposureAt(Unit unit) {
+        int worst = 0;
+        for (int i = 0; i < units.size(); i++) {
+            Unit other = units.get(i);
+            if (other.ally == unit.ally || other.defeated) {
+                continue;
+            }
+            int dist = Math.abs(other.x - unit.x) + Math.abs(other.y - unit.y);
+            if (dist > other.move + other.rangeMax) {
+                continue;
+            }
+            worst = Math.max(worst, forecastDamage(other, unit, other.x, other.y));
+        }
+        return worst >= unit.hp ? worst + 15 : worst;
+    }
+
+    private void applyPlan(ActionPlan plan) {
+        Unit unit = plan.unit;
+        plan.savedX = unit.x;
+        plan.savedY = unit.y;
+        plan.savedHp = unit.hp;
+        unit.x = plan.moveX;
+        unit.y = plan.moveY;
+        unit.acted = true;
+        Unit target = plan.target;
+        if (target != null) {
+            plan.savedTargetHp = target.hp;
+            plan.savedTargetDefeated = target.defeated;
+            if (plan.heal) {
+                target.hp = Math.min(target.maxHp, target.hp + 4 + doctrineCommand);
+            } else {
+                target.hp = Math.max(0, target.hp - plan.damage);
+                target.defeated = target.hp == 0;
+                unit.hp = Math.max(0, unit.hp - plan.counter);
+                unit.defeated = unit.hp == 0;
+            }
+        } else if (plan.capture) {
+            Tile tile = tiles[plan.moveX][plan.moveY];
+            plan.savedOwner = tile.owner;
+            tile.owner = -1;
+        }
+    }
+
+    private void undoPlan(ActionPlan plan) {
+        Unit unit = plan.unit;
+        unit.x = plan.savedX;
+        unit.y = plan.savedY;
+        unit.hp = plan.savedHp;
+        unit.defeated = false;
+        unit.acted = false;
+        Unit target = plan.target;
+        if (target != null) {
+            target.hp = plan.savedTargetHp;
+            target.defeated = plan.savedTargetDefeated;
+        } else if (plan.capture) {
+            tiles[plan.moveX][plan.moveY].owner = plan.savedOwner;
+        }
+    }
+
     private Unit nextEnemyUnit() {
         Unit best = null;
         float bestScore = Float.NEGATIVE_INFINITY;
@@ -1252,57 +1723,25 @@ public class GameView extends View {
         if (tiles == null || unit == null) {
             return;
         }
-        ArrayDeque<int[]> queue = new ArrayDeque<>();
-        int[][] bestLeft = new int[tiles.length][tiles[0].length];
-        for (int x = 0; x < tiles.length; x++) {
-            for (int y = 0; y < tiles[x].length; y++) {
-                bestLeft[x][y] = -999;
-            }
-        }
-        queue.add(new int[]{unit.x, unit.y, unit.move});
-        bestLeft[unit.x][unit.y] = unit.move;
-        reachable[unit.x][unit.y] = true;
-        while (!queue.isEmpty()) {
-            int[] entry = queue.removeFirst();
-            int cx = entry[0];
-            int cy = entry[1];
-            int left = entry[2];
-            for (int i = 0; i < cardinal.length; i++) {
-                int nx = cx + cardinal[i][0];
-                int ny = cy + cardinal[i][1];
-                if (!isInsideBoard(nx, ny)) {
-                    continue;
-                }
-                if (getUnitAt(nx, ny) != null && !(nx == unit.x && ny == unit.y)) {
-                    continue;
-                }
-                int cost = movementCost(unit, tiles[nx][ny].terrain);
-                int nextLeft = left - cost;
-                if (cost >= 99 || nextLeft < 0) {
-                    continue;
-                }
-                if (nextLeft > bestLeft[nx][ny]) {
-                    bestLeft[nx][ny] = nextLeft;
-                    reachable[nx][ny] = true;
-                    queue.addLast(new int[]{nx, ny, nextLeft});
-                }
-            }
+        int count = runReachability(unit);
+        for (int i = 0; i < count; i++) {
+            int cell = reach.resultCell(i);
+            reachable[reach.cellX(cell)][reach.cellY(cell)] = true;
         }
     }
 
-    private ArrayList<int[]> computeReachableCells(Unit unit) {
-        computeReachable(unit);
-        ArrayList<int[]> cells = new ArrayList<>();
-        for (int x = 0; x < reachable.length; x++) {
-            for (int y = 0; y < reachable[x].length; y++) {
-                if (reachable[x][y]) {
-                    if ((x == unit.x && y == unit.y) || getUnitAt(x, y) == null) {
-                        cells.add(new int[]{x, y});
-                    }
-                }
+    private int runReachability(Unit unit) {
+        for (int i = 0; i < terrainTypes.length; i++) {
+            moveCosts[i] = movementCost(unit, terrainTypes[i]);
+        }
+        reach.clearOccupied();
+        for (int i = 0; i < units.size(); i++) {
+            Unit other = units.get(i);
+            if (!other.defeated) {
+                reach.markOccupied(other.x, other.y);
             }
         }
-        return cells;
+        return reach.search(unit.x, unit.y, unit.move, moveCosts, unit.rangeMin, unit.rangeMax);
     }
 
     private void computeAttackTargets(Unit unit) {
@@ -1376,6 +1815,7 @@ public class GameView extends View {
 
     private void captureTile(Unit unit, Tile tile) {
         tile.owner = unit.ally ? 1 : -1;
+        terrainCache.invalidateCell(unit.x, unit.y);
         tile.pulse = 0.55f;
         unit.captureTime = 0.45f;
         if (tile.income > 0 && unit.ally) {
@@ -1534,46 +1974,50 @@ public class GameView extends View {
         return 8f;
     }
 
-    private int[] chooseAdvanceTarget(Unit unit) {
+    private boolean chooseAdvanceTarget(Unit unit) {
         if (currentChapter == null) {
-            return null;
+            return false;
         }
         if (currentChapter.objectiveType == ObjectiveType.CAPTURE_CAPITAL) {
-            return findStructureTile(unit.ally ? -1 : 1, TerrainType.CAPITAL, TerrainType.KEEP);
+            int[] structure = findStructureTile(unit.ally ? -1 : 1, TerrainType.CAPITAL, TerrainType.KEEP);
+            if (structure == null) {
+                return false;
+            }
+            return setAdvanceTarget(structure[0], structure[1]);
         }
         if (currentChapter.objectiveType == ObjectiveType.ESCORT_HEIR && unit.ally) {
-            return new int[]{currentChapter.width - 1, currentChapter.height / 2};
+            return setAdvanceTarget(currentChapter.width - 1, currentChapter.height / 2);
         }
         Unit preferred = unit.ally ? enemyCommander : alliedCommander;
         if (preferred != null && !preferred.defeated) {
-            return new int[]{preferred.x, preferred.y};
+            return setAdvanceTarget(preferred.x, preferred.y);
         }
         for (int x = 0; x < tiles.length; x++) {
             for (int y = 0; y < tiles[x].length; y++) {
                 Tile tile = tiles[x][y];
                 if (tile.capturable && tile.owner != (unit.ally ? 1 : -1)) {
-                    return new int[]{x, y};
+                    return setAdvanceTarget(x, y);
                 }
             }
         }
-        return null;
+        return false;
     }
 
-    private int[] chooseAdvanceCell(Unit unit, ArrayList<int[]> cells, int targetX, int targetY) {
-        int[] best = null;
+    private boolean setAdvanceTarget(int x, int y) {
+        advanceTarget[0] = x;
+        advanceTarget[1] = y;
+        return true;
+    }
+
+    private int chooseAdvanceCell(Unit unit, int cellCount, int targetX, int targetY) {
+        int best = -1;
         float bestScore = Float.NEGATIVE_INFINITY;
-        for (int i = 0; i < cells.size(); i++) {
-            int[] cell = cells.get(i);
-            Tile tile = getTile(cell[0], cell[1]);
-            float score = -distance(cell[0], cell[1], targetX, targetY) * 3f;
-            score += terrainDefense(tile.terrain) * (difficultyIndex == 2 ? 2f : 1f);
-            if (tile.capturable && tile.owner != (unit.ally ? 1 : -1)) {
-                score += captureScore(tile);
-            }
-            if (tile.terrain == TerrainType.HILL && (unit.ranged || unit.healer)) {
-                score += 4f;
-            }
-            if (best == null || score > bestScore) {
+        for (int i = 0; i < cellCount; i++) {
+            int cell = reach.resultCell(i);
+            int cx = reach.cellX(cell);
+            int cy = reach.cellY(cell);
+            float score = advanceScore(unit, cx, cy, targetX, targetY);
+            if (best < 0 || score > bestScore) {
                 best = cell;
                 bestScore = score;
             }
@@ -1581,6 +2025,19 @@ public class GameView extends View {
         return best;
     }
 
+    private float advanceScore(Unit unit, int x, int y, int targetX, int targetY) {
+        Tile tile = getTile(x, y);
+        float score = -distance(x, y, targetX, targetY) * 3f;
+        score += terrainDefense(tile.terrain) * (difficultyIndex == 2 ? 2f : 1f);
+        if (tile.capturable && tile.owner != (unit.ally ? 1 : -1)) {
+            score += captureScore(tile);
+        }
+        if (tile.terrain == TerrainType.HILL && (unit.ranged || unit.healer)) {
+            score += 4f;
+        }
+        return score;
+    }
+
     private Unit bestHealFromCell(Unit healer, int fromX, int fromY) {
         Unit best = null;
         int bestNeed = 0;
@@ -1937,56 +2394,50 @@ public class GameView extends View {
         int startY = Math.max(0, (int) Math.floor(cameraY));
         int endX = Math.min(maxX, (int) Math.ceil(cameraX + boardRect.width() / cellSize) + 1);
         int endY = Math.min(maxY, (int) Math.ceil(cameraY + boardRect.height() / cellSize) + 1);
+        float originX = boardRect.left - cameraX * cellSize;
+        float originY = boardRect.top - cameraY * cellSize;
+        terrainCache.configure(maxX, maxY, cellSize);
+        terrainCache.draw(canvas, originX, originY, cellSize, startX, startY, endX, endY);
         for (int x = startX; x < endX; x++) {
             for (int y = startY; y < endY; y++) {
-                float left = boardRect.left + (x - cameraX) * cellSize;
-                float top = boardRect.top + (y - cameraY) * cellSize;
-                float right = left + cellSize;
-                float bottom = top + cellSize;
-                Tile tile = tiles[x][y];
-                Bitmap terrainBitmap = bitmaps.get(terrainAssetKey(tile.terrain));
-                if (terrainBitmap != null) {
-                    dstRect.set(left, top, right, bottom);
-                    canvas.drawBitmap(terrainBitmap, null, dstRect, null);
-                } else {
-                    paint.setStyle(Paint.Style.FILL);
-                    paint.setColor(terrainColor(tile.terrain));
-                    canvas.drawRect(left, top, right, bottom, paint);
-                }
-                paint.setStyle(Paint.Style.STROKE);
-                paint.setStrokeWidth(dp(1));
-                paint.setColor(adjustAlpha(color(R.color.cst_shadow), 0.25f));
-                canvas.drawRect(left, top, right, bottom, paint);
-                if (tile.pulse > 0f) {
-                    paint.setStyle(Paint.Style.FILL);
-                    paint.setColor(adjustAlpha(tile.owner == 1 ? color(R.color.cst_success) : color(R.color.cst_danger), tile.pulse));
-                    canvas.drawRect(left + dp(3), top + dp(3), right - dp(3), bottom - dp(3), paint);
-                }
-            }
-        }
-    }
-
-    private void drawStructures(Canvas canvas) {
-        int maxX = tiles.length;
-        int maxY = tiles[0].length;
-        for (int x = 0; x < maxX; x++) {
-            for (int y = 0; y < maxY; y++) {
                 Tile tile = tiles[x][y];
-                if (!tile.capturable && tile.terrain != TerrainType.SHRINE) {
+                if (tile.pulse <= 0f) {
                     continue;
                 }
                 float left = boardRect.left + (x - cameraX) * cellSize;
                 float top = boardRect.top + (y - cameraY) * cellSize;
-                float cx = left + cellSize * 0.5f;
-                float cy = top + cellSize * 0.5f;
-                if (rightOutsideBoard(left, top)) {
-                    continue;
+                paint.setStyle(Paint.Style.FILL);
+                paint.setColor(adjustAlpha(tile.owner == 1 ? color(R.color.cst_success) : color(R.color.cst_danger), tile.pulse));
+                canvas.drawRect(left + dp(3), top + dp(3), left + cellSize - dp(3), top + cellSize - dp(3), paint);
+                if (tile.capturable || tile.terrain == TerrainType.SHRINE) {
+                    drawStructureToken(canvas, tile, left + cellSize * 0.5f, top + cellSize * 0.5f, cellSize * 0.78f);
                 }
-                drawStructureToken(canvas, tile, cx, cy, cellSize * 0.78f);
             }
         }
     }
 
+    private void paintTerrainCell(Canvas canvas, int x, int y, float left, float top, float size) {
+        Tile tile = tiles[x][y];
+        float right = left + size;
+        float bottom = top + size;
+        Bitmap terrainBitmap = bitmaps.get(terrainAssetKey(tile.terrain));
+        if (terrainBitmap != null) {
+            dstRect.set(left, top, right, bottom);
+            canvas.drawBitmap(terrainBitmap, null, dstRect, null);
+        } else {
+            paint.setStyle(Paint.Style.FILL);
+            paint.setColor(terrainColor(tile.terrain));
+            canvas.drawRect(left, top, right, bottom, paint);
+        }
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeWidth(dp(1));
+        paint.setColor(adjustAlpha(color(R.color.cst_shadow), 0.25f));
+        canvas.drawRect(left, top, right, bottom, paint);
+        if (tile.capturable || tile.terrain == TerrainType.SHRINE) {
+            drawStructureToken(canvas, tile, left + size * 0.5f, top + size * 0.5f, size * 0.78f);
+        }
+    }
+
     private void drawHighlights(Canvas canvas) {
         if (selectedUnit == null || selectedUnit.defeated || !selectedUnit.ally || paused || aiTurn) {
             return;
@@ -0,0 +1,175 @@
+package com.android.boot.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+public class ReachabilityEngineTest {
+    // Step costs per terrain in GameView.TerrainType order (PLAINS, ROAD, FOREST, HILL, MOUNTAIN,
+    // RIVER, BRIDGE, MARSH, RUINS, SHRINE, VILLAGE, FORT, KEEP, CAPITAL, EXIT), copied from
+    // GameView.movementCost for foot, cavalry, ranger and flying units.
+    private static final int[][] COSTS = {
+            {1, 1, 2, 2, 99, 99, 1, 2, 2, 1, 1, 1, 1, 1, 1},
+            {1, 1, 2, 3, 99, 99, 1, 4, 3, 1, 1, 1, 1, 1, 1},
+            {1, 1, 1, 2, 3, 99, 1, 2, 2, 1, 1, 1, 1, 1, 1},
+            {1, 1, 1, 1, 2, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1}
+    };
+    private static final int[][] CARDINAL = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+    // The BFS GameView.computeReachable ran before the engine replaced it.
+    public static boolean[][] legacyReachable(int[][] terrain, boolean[][] occupied, int sx, int sy, int move, int[] cost) {
+        int w = terrain.length;
+        int h = terrain[0].length;
+        boolean[][] reachable = new boolean[w][h];
+        int[][] bestLeft = new int[w][h];
+        for (int x = 0; x < w; x++) {
+            for (int y = 0; y < h; y++) {
+                bestLeft[x][y] = -999;
+            }
+        }
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        queue.add(new int[]{sx, sy, move});
+        bestLeft[sx][sy] = move;
+        reachable[sx][sy] = true;
+        while (!queue.isEmpty()) {
+            int[] entry = queue.removeFirst();
+            for (int[] step : CARDINAL) {
+                int nx = entry[0] + step[0];
+                int ny = entry[1] + step[1];
+                if (nx < 0 || ny < 0 || nx >= w || ny >= h) {
+                    continue;
+                }
+                if (occupied[nx][ny] && !(nx == sx && ny == sy)) {
+                    continue;
+                }
+                int c = cost[terrain[nx][ny]];
+                int nextLeft = entry[2] - c;
+                if (c >= 99 || nextLeft < 0) {
+                    continue;
+                }
+                if (nextLeft > bestLeft[nx][ny]) {
+                    bestLeft[nx][ny] = nextLeft;
+                    reachable[nx][ny] = true;
+                    queue.addLast(new int[]{nx, ny, nextLeft});
+                }
+            }
+        }
+        return reachable;
+    }
+
+    @Test
+    public void matchesLegacyBfsOnEveryChapterSize() {
+        Random r = new Random(5);
+        ReachabilityEngine engine = new ReachabilityEngine();
+        int searches = 0;
+        // Board sizes follow GameView.buildChapters: six regions of five chapters.
+        for (int region = 0; region < 6; region++) {
+            for (int local = 0; local < 5; local++) {
+                int w = 15 + region * 2 + (local % 2 == 0 ? 1 : 3);
+                int h = 11 + region + (local == 4 ? 2 : 0);
+                for (int round = 0; round < 12; round++) {
+                    int[][] terrain = randomTerrain(r, w, h, round);
+                    engine.reset(w, h);
+                    for (int x = 0; x < w; x++) {
+                        for (int y = 0; y < h; y++) {
+                            engine.setTerrain(x, y, terrain[x][y]);
+                        }
+                    }
+                    boolean[][] occupied = new boolean[w][h];
+                    engine.clearOccupied();
+                    int unitsOnBoard = 4 + r.nextInt(24);
+                    for (int i = 0; i < unitsOnBoard; i++) {
+                        int x = r.nextInt(w);
+                        int y = r.nextInt(h);
+                        occupied[x][y] = true;
+                        engine.markOccupied(x, y);
+                    }
+                    for (int q = 0; q < 10; q++) {
+                        int sx = r.nextInt(w);
+                        int sy = r.nextInt(h);
+                        int move = 2 + r.nextInt(6);
+                        int[] cost = COSTS[r.nextInt(COSTS.length)];
+                        int rangeMin = 1 + r.nextInt(2);
+                        int rangeMax = rangeMin + r.nextInt(3);
+                        int count = engine.search(sx, sy, move, cost, rangeMin, rangeMax);
+                        boolean[][] expected = legacyReachable(terrain, occupied, sx, sy, move, cost);
+                        assertSameCells(expected, engine, count);
+                        assertThreatMatchesScan(expected, engine, rangeMin, rangeMax);
+                        searches++;
+                    }
+                }
+            }
+        }
+        assertTrue(searches > 3000);
+    }
+
+    @Test
+    public void costToIsTheCheapestPath() {
+        ReachabilityEngine engine = new ReachabilityEngine();
+        engine.reset(5, 1);
+        int[] forest = {1, 1, 2};
+        engine.setTerrain(1, 0, 2);
+        engine.setTerrain(2, 0, 2);
+        engine.clearOccupied();
+        engine.search(0, 0, 4, forest, 0, 0);
+        assertEquals(0, engine.costTo(0, 0));
+        assertEquals(2, engine.costTo(1, 0));
+        assertEquals(4, engine.costTo(2, 0));
+        assertEquals(-1, engine.costTo(3, 0));
+    }
+
+    private static int[][] randomTerrain(Random r, int w, int h, int round) {
+        int[][] terrain = new int[w][h];
+        // Alternate open maps with ones dominated by rivers and mountains.
+        int roughness = round % 3;
+        for (int x = 0; x < w; x++) {
+            for (int y = 0; y < h; y++) {
+                int roll = r.nextInt(10);
+                terrain[x][y] = roll < 4 - roughness ? 0 : r.nextInt(COSTS[0].length);
+            }
+        }
+        return terrain;
+    }
+
+    // Results must be the legacy cells in the old x-then-y scan order.
+    private static void assertSameCells(boolean[][] expected, ReachabilityEngine engine, int count) {
+        int i = 0;
+        for (int x = 0; x < expected.length; x++) {
+            for (int y = 0; y < expected[x].length; y++) {
+                assertEquals("cell " + x + "," + y, expected[x][y], engine.isReachable(x, y));
+                if (expected[x][y]) {
+                    int cell = engine.resultCell(i++);
+                    assertEquals(x, engine.cellX(cell));
+                    assertEquals(y, engine.cellY(cell));
+                }
+            }
+        }
+        assertEquals(i, count);
+    }
+
+    private static void assertThreatMatchesScan(boolean[][] reachable, ReachabilityEngine engine, int rangeMin, int rangeMax) {
+        int w = reachable.length;
+        int h = reachable[0].length;
+        int expectedCount = 0;
+        for (int tx = 0; tx < w; tx++) {
+            for (int ty = 0; ty < h; ty++) {
+                boolean hit = false;
+                for (int x = 0; x < w && !hit; x++) {
+                    for (int y = 0; y < h && !hit; y++) {
+                        int d = Math.abs(x - tx) + Math.abs(y - ty);
+                        hit = reachable[x][y] && d >= rangeMin && d <= rangeMax;
+                    }
+                }
+                assertEquals("threat " + tx + "," + ty, hit, engine.isThreatened(tx, ty));
+                if (hit) {
+                    expectedCount++;
+                }
+            }
+        }
+        assertEquals(expectedCount, engine.threatCount());
+    }
+}
@@ -0,0 +1,72 @@
+package com.android.boot.ui;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+// The lookahead search plays candidate actions on the live board and undoes them; these runs
+// check nothing leaks out of a search and that a search keeps to the chapter's step budget.
+public class GameViewAiTest {
+    private static final int TURNS = 8;
+
+    @Test
+    public void searchLeavesTheLiveBoardUntouched() {
+        GameView view = new GameView(null, false);
+        int searches = 0;
+        for (int index = 1; index <= view.getChapters().size(); index++) {
+            view.startChapter(index, 2, 0, 0, 0);
+            for (int turn = 0; turn < TURNS; turn++) {
+                view.endTurn();
+                while (view.inEnemyTurn()) {
+                    byte[] before = view.boardState();
+                    view.searchEnemyPlan();
+                    assertArrayEquals("chapter " + index + " turn " + turn, before, view.boardState());
+                    view.stepEnemy();
+                    searches++;
+                }
+            }
+        }
+        assertTrue(searches > 1000);
+    }
+
+    @Test
+    public void searchKeepsToTheStepBudgetOnTheLargestChapter() {
+        GameView view = new GameView(null, false);
+        GameView.ChapterDefinition largest = null;
+        for (GameView.ChapterDefinition chapter : view.getChapters()) {
+            if (largest == null || chapter.width * chapter.height >= largest.width * largest.height) {
+                largest = chapter;
+            }
+        }
+        long budget = largest.aiProfile.stepBudgetNanos;
+        // Warm the search up first so the timings are not the interpreter's.
+        for (int round = 0; round < 3; round++) {
+            playTurns(view, largest.index, null);
+        }
+        long[] slowest = new long[1];
+        playTurns(view, largest.index, slowest);
+        assertTrue("slowest step " + slowest[0] / 1000 + " us", slowest[0] <= budget);
+    }
+
+    // A search does not change the board, so each step is timed three times and the fastest run
+    // counts; that keeps GC pauses and other threads out of the measurement.
+    private static void playTurns(GameView view, int chapter, long[] slowest) {
+        view.startChapter(chapter, 2, 0, 0, 0);
+        for (int turn = 0; turn < TURNS; turn++) {
+            view.endTurn();
+            while (view.inEnemyTurn()) {
+                long best = Long.MAX_VALUE;
+                for (int run = 0; run < 3; run++) {
+                    long start = System.nanoTime();
+                    view.searchEnemyPlan();
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                if (slowest != null) {
+                    slowest[0] = Math.max(slowest[0], best);
+                }
+                view.stepEnemy();
+            }
+        }
+    }
+}
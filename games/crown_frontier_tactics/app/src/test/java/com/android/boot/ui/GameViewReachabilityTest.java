@@ -0,0 +1,69 @@
+package com.android.boot.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.android.boot.core.ReachabilityEngineTest;
+
+import org.junit.Test;
+
+// Runs the old BFS and the engine over the boards buildBattlefield actually generates, for every
+// unit a chapter deploys.
+public class GameViewReachabilityTest {
+    @Test
+    public void matchesLegacyBfsOnEveryChapterMap() {
+        GameView view = new GameView(null, false);
+        int chapters = view.getChapters().size();
+        assertEquals(30, chapters);
+        int searches = 0;
+        for (int index = 1; index <= chapters; index++) {
+            GameView.ChapterDefinition chapter = view.getChapter(index);
+            view.startChapter(index, 1, 0, 0, 0);
+            int[][] terrain = new int[chapter.width][chapter.height];
+            for (int x = 0; x < chapter.width; x++) {
+                for (int y = 0; y < chapter.height; y++) {
+                    terrain[x][y] = view.terrainAt(x, y);
+                }
+            }
+            boolean[][] occupied = new boolean[chapter.width][chapter.height];
+            for (int i = 0; i < view.unitCount(); i++) {
+                if (!view.unitDefeated(i)) {
+                    occupied[view.unitX(i)][view.unitY(i)] = true;
+                }
+            }
+            for (int i = 0; i < view.unitCount(); i++) {
+                int homeX = view.unitX(i);
+                int homeY = view.unitY(i);
+                // From the deployment cell, then from every free cell of the board.
+                assertSameOverlay(view, terrain, occupied, i, "chapter " + index + " unit " + i);
+                occupied[homeX][homeY] = false;
+                for (int x = 0; x < chapter.width; x++) {
+                    for (int y = 0; y < chapter.height; y++) {
+                        if (occupied[x][y]) {
+                            continue;
+                        }
+                        view.placeUnit(i, x, y);
+                        occupied[x][y] = true;
+                        assertSameOverlay(view, terrain, occupied, i, "chapter " + index + " unit " + i + " at " + x + "," + y);
+                        occupied[x][y] = false;
+                        searches++;
+                    }
+                }
+                view.placeUnit(i, homeX, homeY);
+                occupied[homeX][homeY] = true;
+            }
+        }
+        assertTrue(searches > 100000);
+    }
+
+    private static void assertSameOverlay(GameView view, int[][] terrain, boolean[][] occupied, int unit, String at) {
+        boolean[][] expected = ReachabilityEngineTest.legacyReachable(terrain, occupied,
+                view.unitX(unit), view.unitY(unit), view.unitMove(unit), view.unitMoveCosts(unit));
+        boolean[][] actual = view.reachableFor(unit);
+        for (int x = 0; x < terrain.length; x++) {
+            for (int y = 0; y < terrain[x].length; y++) {
+                assertEquals(at + " cell " + x + "," + y, expected[x][y], actual[x][y]);
+            }
+        }
+    }
+}
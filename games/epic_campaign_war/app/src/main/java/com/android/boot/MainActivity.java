@@ -5,6 +5,7 @@ import android.view.View;
 import android.widget.Button;
 import android.widget.LinearLayout;
 import android.widget.ProgressBar;
+import android.widget.ScrollView;
 import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
@@ -57,7 +58,7 @@ public class MainActivity extends AppCompatActivity implements BattleManager.Bat
         battleManager = gameView.getBattleManager();
         battleManager.setBattleEvents(this);
         View menuOverlay = findViewById(R.id.menu_overlay);
-        View campaignOverlay = findViewById(R.id.campaign_overlay);
+        ScrollView campaignOverlay = findViewById(R.id.campaign_overlay);
         View prepOverlay = findViewById(R.id.prep_overlay);
         View pauseOverlay = findViewById(R.id.pause_overlay);
         View resultOverlay = findViewById(R.id.result_overlay);
@@ -76,7 +77,7 @@ public class MainActivity extends AppCompatActivity implements BattleManager.Bat
 
         LinearLayout chapterList = findViewById(R.id.chapter_list);
         TextView campaignProgressView = findViewById(R.id.txt_campaign_progress);
-        campaignMapController = new CampaignMapController(this, chapterList, campaignProgressView, campaignProgress, battleManager.getChapters(), this::openChapterPrep);
+        campaignMapController = new CampaignMapController(this, campaignOverlay, chapterList, campaignProgressView, campaignProgress, battleManager.getChapters(), this::openChapterPrep);
 
         gameHudController = new GameHudController(
                 battleManager,
@@ -145,7 +146,7 @@ public class MainActivity extends AppCompatActivity implements BattleManager.Bat
         metaState = MetaState.CAMPAIGN_MAP;
         overlayController.showState(metaState);
         overlayController.showHelp(false);
-        campaignMapController.rebuild();
+        campaignMapController.refresh();
     }
 
     private void openChapterPrep(int chapterIndex) {
@@ -160,7 +161,7 @@ public class MainActivity extends AppCompatActivity implements BattleManager.Bat
 
     private void startBattle(int chapterIndex) {
         selectedChapter = chapterIndex;
-        battleManager.startChapter(chapterIndex);
+        battleManager.startChapter(chapterIndex, campaignProgress.getOpeningOath());
         metaState = MetaState.PLAYING;
         overlayController.showState(metaState);
         overlayController.showHelp(false);
@@ -206,6 +207,7 @@ public class MainActivity extends AppCompatActivity implements BattleManager.Bat
     public void onBattleEnded(boolean victory, MatchStats stats) {
         runOnUiThread(() -> {
             metaState = MetaState.GAME_OVER;
+            campaignProgress.setOpeningOath(battleManager.getActiveOath());
             if (victory) {
                 campaignProgress.unlockNextChapter(selectedChapter, battleManager.getChapters().size());
                 resultTitle.setText("Victory");
@@ -219,7 +221,7 @@ public class MainActivity extends AppCompatActivity implements BattleManager.Bat
                     "Stronghold damage: " + stats.strongholdDamage
             );
             overlayController.showState(metaState);
-            campaignMapController.rebuild();
+            campaignMapController.refresh();
             tonePlayer.playHeavy();
         });
     }
@@ -228,6 +230,7 @@ public class MainActivity extends AppCompatActivity implements BattleManager.Bat
     protected void onPause() {
         super.onPause();
         gameView.onPauseView();
+        campaignProgress.flushAndWait();
     }
 
     @Override
@@ -3,52 +3,265 @@ package com.android.boot.core;
 import android.content.Context;
 import android.content.SharedPreferences;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.CRC32;
+
+// Campaign state lives in one small binary file:
+//   int magic 'ECWS' | short version | int payload length | payload | int CRC32 of payload
+// Payload (version 1): byte highest unlocked, byte selected, byte flags (bit 0 muted),
+// long cleared-chapter bitset (bit n = chapter n), byte opening RoyalOath ordinal,
+// int upgrade flags, byte star count n, n star bytes. The game has neither upgrades nor stars
+// yet, so those fields are reserved and carried through unchanged.
+// Setters only update memory and queue a write; the writer encodes the latest state on a
+// background thread and replaces the file through a synced temp file and a rename.
+// MainActivity.onPause waits for that write with flushAndWait.
 public class CampaignProgress {
-    private static final String PREFS = "epic_campaign_war_progress";
-    private static final String KEY_UNLOCKED = "highest_unlocked_chapter";
-    private static final String KEY_SELECTED = "selected_chapter";
-    private static final String KEY_MUTED = "muted";
-    private final SharedPreferences preferences;
+    private static final String LEGACY_PREFS = "epic_campaign_war_progress";
+    private static final String LEGACY_KEY_UNLOCKED = "highest_unlocked_chapter";
+    private static final String LEGACY_KEY_SELECTED = "selected_chapter";
+    private static final String LEGACY_KEY_MUTED = "muted";
+    private static final String LEGACY_KEY_CLEARED = "chapter_cleared_";
+    private static final String SAVE_FILE = "campaign.sav";
+    private static final int MAGIC = 0x45435753;
+    private static final short VERSION = 1;
+    private static final int MAX_CHAPTERS = 63;
+    private static final int FLAG_MUTED = 1;
+    private static final long FLUSH_WAIT_MS = 2000L;
+
+    private final Context context;
+    private final File saveFile;
+    private final File tempFile;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "campaign-save");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final byte[] reservedStars = new byte[MAX_CHAPTERS + 1];
+    private int highestUnlocked = 1;
+    private int selectedChapter = 1;
+    private boolean muted;
+    private long clearedBits;
+    private RoyalOath openingOath = RoyalOath.EMBER;
+    private int upgradeFlags;
+    private boolean writeQueued;
+    private boolean legacyPending;
 
     public CampaignProgress(Context context) {
-        preferences = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        this.context = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+        File dir = context.getFilesDir();
+        saveFile = new File(dir, SAVE_FILE);
+        tempFile = new File(dir, SAVE_FILE + ".tmp");
+        if (!load()) {
+            migrateLegacy();
+        }
     }
 
-    public int getHighestUnlockedChapter() {
-        return Math.max(1, preferences.getInt(KEY_UNLOCKED, 1));
+    public synchronized int getHighestUnlockedChapter() {
+        return Math.max(1, highestUnlocked);
     }
 
-    public void unlockNextChapter(int chapterIndex, int chapterCount) {
+    public synchronized void unlockNextChapter(int chapterIndex, int chapterCount) {
         int next = Math.min(chapterCount, chapterIndex + 1);
-        int current = getHighestUnlockedChapter();
-        if (next > current) {
-            preferences.edit().putInt(KEY_UNLOCKED, next).apply();
+        if (next > getHighestUnlockedChapter()) {
+            highestUnlocked = next;
         }
         setCleared(chapterIndex, true);
     }
 
-    public boolean isCleared(int chapterIndex) {
-        return preferences.getBoolean("chapter_cleared_" + chapterIndex, false);
+    public synchronized boolean isCleared(int chapterIndex) {
+        return validChapter(chapterIndex) && (clearedBits & (1L << chapterIndex)) != 0L;
+    }
+
+    public synchronized void setCleared(int chapterIndex, boolean cleared) {
+        if (!validChapter(chapterIndex)) {
+            return;
+        }
+        if (cleared) {
+            clearedBits |= 1L << chapterIndex;
+        } else {
+            clearedBits &= ~(1L << chapterIndex);
+        }
+        queueWrite();
+    }
+
+    public synchronized RoyalOath getOpeningOath() {
+        return openingOath;
+    }
+
+    public synchronized void setOpeningOath(RoyalOath oath) {
+        if (oath != null && oath != openingOath) {
+            openingOath = oath;
+            queueWrite();
+        }
+    }
+
+    public synchronized int getSelectedChapter() {
+        return Math.max(1, Math.min(selectedChapter, getHighestUnlockedChapter()));
+    }
+
+    public synchronized void setSelectedChapter(int chapterIndex) {
+        if (chapterIndex != selectedChapter) {
+            selectedChapter = chapterIndex;
+            queueWrite();
+        }
+    }
+
+    public synchronized boolean isMuted() {
+        return muted;
     }
 
-    public void setCleared(int chapterIndex, boolean cleared) {
-        preferences.edit().putBoolean("chapter_cleared_" + chapterIndex, cleared).apply();
+    public synchronized void setMuted(boolean muted) {
+        if (muted != this.muted) {
+            this.muted = muted;
+            queueWrite();
+        }
+    }
+
+    private boolean validChapter(int chapterIndex) {
+        return chapterIndex >= 0 && chapterIndex <= MAX_CHAPTERS;
+    }
+
+    // Writes the current state and waits up to FLUSH_WAIT_MS for it to reach the disk, so a
+    // process killed in the background keeps the last result.
+    public void flushAndWait() {
+        try {
+            writer.submit(this::flush).get(FLUSH_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ignored) {
+            // The queued write still runs; the next pause or change tries again.
+        }
     }
 
-    public int getSelectedChapter() {
-        int value = preferences.getInt(KEY_SELECTED, 1);
-        return Math.max(1, Math.min(value, getHighestUnlockedChapter()));
+    private void queueWrite() {
+        if (writeQueued) {
+            return;
+        }
+        writeQueued = true;
+        writer.execute(this::flush);
     }
 
-    public void setSelectedChapter(int chapterIndex) {
-        preferences.edit().putInt(KEY_SELECTED, chapterIndex).apply();
+    private void flush() {
+        byte[] data;
+        boolean dropLegacy;
+        synchronized (this) {
+            writeQueued = false;
+            data = encode();
+            dropLegacy = legacyPending;
+        }
+        if (writeAtomically(data) && dropLegacy) {
+            context.deleteSharedPreferences(LEGACY_PREFS);
+            synchronized (this) {
+                legacyPending = false;
+            }
+        }
     }
 
-    public boolean isMuted() {
-        return preferences.getBoolean(KEY_MUTED, false);
+    private byte[] encode() {
+        try {
+            ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(64);
+            DataOutputStream payload = new DataOutputStream(payloadBytes);
+            payload.writeByte(highestUnlocked);
+            payload.writeByte(selectedChapter);
+            payload.writeByte(muted ? FLAG_MUTED : 0);
+            payload.writeLong(clearedBits);
+            payload.writeByte(openingOath.ordinal());
+            payload.writeInt(upgradeFlags);
+            int starCount = reservedStars.length;
+            while (starCount > 0 && reservedStars[starCount - 1] == 0) {
+                starCount--;
+            }
+            payload.writeByte(starCount);
+            payload.write(reservedStars, 0, starCount);
+            byte[] body = payloadBytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            ByteArrayOutputStream fileBytes = new ByteArrayOutputStream(body.length + 14);
+            DataOutputStream out = new DataOutputStream(fileBytes);
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(body.length);
+            out.write(body);
+            out.writeInt((int) crc.getValue());
+            return fileBytes.toByteArray();
+        } catch (IOException impossible) {
+            throw new IllegalStateException(impossible);
+        }
     }
 
-    public void setMuted(boolean muted) {
-        preferences.edit().putBoolean(KEY_MUTED, muted).apply();
+    private boolean writeAtomically(byte[] data) {
+        try (FileOutputStream out = new FileOutputStream(tempFile)) {
+            out.write(data);
+            out.getFD().sync();
+        } catch (IOException ignored) {
+            return false;
+        }
+        return tempFile.renameTo(saveFile);
+    }
+
+    private synchronized boolean load() {
+        if (!saveFile.isFile()) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(saveFile))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                return false;
+            }
+            int length = in.readInt();
+            if (length <= 0 || length > 1024) {
+                return false;
+            }
+            byte[] body = new byte[length];
+            in.readFully(body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != in.readInt()) {
+                return false;
+            }
+            DataInputStream payload = new DataInputStream(new ByteArrayInputStream(body));
+            highestUnlocked = payload.readUnsignedByte();
+            selectedChapter = payload.readUnsignedByte();
+            muted = (payload.readUnsignedByte() & FLAG_MUTED) != 0;
+            clearedBits = payload.readLong();
+            int oath = payload.readUnsignedByte();
+            openingOath = oath < RoyalOath.values().length ? RoyalOath.values()[oath] : RoyalOath.EMBER;
+            upgradeFlags = payload.readInt();
+            int starCount = Math.min(payload.readUnsignedByte(), reservedStars.length);
+            payload.readFully(reservedStars, 0, starCount);
+            return true;
+        } catch (IOException corrupt) {
+            return false;
+        }
+    }
+
+    // Runs once: the old per-key preferences are read, written out in the binary format and
+    // deleted only after that write has landed.
+    private synchronized void migrateLegacy() {
+        SharedPreferences legacy = context.getSharedPreferences(LEGACY_PREFS, Context.MODE_PRIVATE);
+        if (legacy.getAll().isEmpty()) {
+            return;
+        }
+        highestUnlocked = Math.max(1, Math.min(MAX_CHAPTERS, legacy.getInt(LEGACY_KEY_UNLOCKED, 1)));
+        selectedChapter = Math.max(1, Math.min(MAX_CHAPTERS, legacy.getInt(LEGACY_KEY_SELECTED, 1)));
+        muted = legacy.getBoolean(LEGACY_KEY_MUTED, false);
+        for (int i = 0; i <= MAX_CHAPTERS; i++) {
+            if (legacy.getBoolean(LEGACY_KEY_CLEARED + i, false)) {
+                clearedBits |= 1L << i;
+            }
+        }
+        legacyPending = true;
+        queueWrite();
     }
 }
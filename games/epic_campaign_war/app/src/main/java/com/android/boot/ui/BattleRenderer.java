@@ -0,0 +1,209 @@
+package com.android.boot.ui;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+
+import androidx.core.content.ContextCompat;
+
+import com.android.boot.R;
+import com.android.boot.core.AnimationState;
+import com.android.boot.core.BattleManager;
+import com.android.boot.core.BattlePalette;
+import com.android.boot.entity.BaseCore;
+import com.android.boot.entity.Projectile;
+import com.android.boot.entity.Team;
+import com.android.boot.entity.Unit;
+import com.android.boot.fx.FloatingText;
+import com.android.boot.fx.Particle;
+
+public class BattleRenderer {
+    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF rect = new RectF();
+    private final Path path = new Path();
+    private final DigitAtlas digitAtlas = new DigitAtlas(28f);
+    private final BattlePalette palette;
+    private final int colorAllyBody;
+    private final int colorAllyAccent;
+    private final int colorEnemyBody;
+    private final int colorEnemyAccent;
+    private final int colorAccentTwo;
+    private final int colorText;
+    private final int colorBackground;
+
+    public BattleRenderer(Context context) {
+        palette = new BattlePalette(
+                ContextCompat.getColor(context, R.color.cst_accent),
+                ContextCompat.getColor(context, R.color.cst_accent_2),
+                ContextCompat.getColor(context, R.color.cst_danger),
+                ContextCompat.getColor(context, R.color.cst_warning),
+                ContextCompat.getColor(context, R.color.cst_success));
+        colorAllyBody = ContextCompat.getColor(context, R.color.cst_panel_header_bg);
+        colorAllyAccent = ContextCompat.getColor(context, R.color.cst_accent);
+        colorEnemyBody = ContextCompat.getColor(context, R.color.cst_danger);
+        colorEnemyAccent = ContextCompat.getColor(context, R.color.cst_warning);
+        colorAccentTwo = ContextCompat.getColor(context, R.color.cst_accent_2);
+        colorText = ContextCompat.getColor(context, R.color.cst_text_primary);
+        colorBackground = ContextCompat.getColor(context, R.color.cst_bg_main);
+        paint.setStrokeWidth(context.getResources().getDisplayMetrics().density * 2f);
+    }
+
+    public BattlePalette getPalette() {
+        return palette;
+    }
+
+    public void render(Canvas canvas, BattleManager battle) {
+        if (canvas == null) {
+            return;
+        }
+        float time = battle.getTime();
+        float shakeX = battle.getScreenShake().getOffsetX(time);
+        float shakeY = battle.getScreenShake().getOffsetY(time);
+        canvas.drawColor(colorBackground);
+        canvas.save();
+        canvas.translate(shakeX, shakeY);
+        drawBackdrop(canvas, battle.getWidth(), battle.getHeight());
+        drawBase(canvas, battle.getAllyCastle(), 40f, battle.battleLaneY(), colorAllyBody, colorAllyAccent);
+        drawBase(canvas, battle.getEnemyStronghold(), battle.getWidth() - 130f, battle.battleLaneY(), colorEnemyBody, colorEnemyAccent);
+        for (Unit unit : battle.getAllies()) {
+            drawUnit(canvas, unit, colorAllyBody, colorAllyAccent, Color.argb(75, 103, 245, 255), time);
+        }
+        for (Unit unit : battle.getEnemies()) {
+            drawUnit(canvas, unit, colorEnemyBody, colorEnemyAccent, Color.argb(70, 255, 95, 117), time);
+        }
+        drawProjectiles(canvas, battle);
+        drawParticles(canvas, battle);
+        canvas.restore();
+    }
+
+    private void drawBackdrop(Canvas canvas, int width, int height) {
+        paint.setStyle(Paint.Style.FILL);
+        paint.setColor(Color.argb(255, 9, 17, 31));
+        canvas.drawRect(0f, 0f, width, height, paint);
+        rect.set(0f, height * 0.52f, width, height);
+        paint.setColor(Color.argb(255, 24, 20, 28));
+        canvas.drawRect(rect, paint);
+        paint.setColor(Color.argb(255, 42, 54, 70));
+        for (int i = 0; i < width; i += 120) {
+            canvas.drawRect(i, height * 0.69f, i + 60f, height * 0.71f, paint);
+        }
+        paint.setColor(Color.argb(255, 28, 40, 61));
+        path.reset();
+        path.moveTo(0f, height * 0.52f);
+        path.lineTo(width * 0.15f, height * 0.33f);
+        path.lineTo(width * 0.34f, height * 0.49f);
+        path.lineTo(width * 0.52f, height * 0.27f);
+        path.lineTo(width * 0.72f, height * 0.5f);
+        path.lineTo(width, height * 0.34f);
+        path.lineTo(width, 0f);
+        path.lineTo(0f, 0f);
+        path.close();
+        canvas.drawPath(path, paint);
+        paint.setColor(Color.argb(100, 103, 245, 255));
+        canvas.drawCircle(width * 0.75f, height * 0.2f, 42f, paint);
+    }
+
+    private void drawBase(Canvas canvas, BaseCore baseCore, float baseX, float laneY, int bodyColor, int accentColor) {
+        float y = laneY - 15f;
+        float shake = baseCore.getShake() * 8f;
+        paint.setColor(bodyColor);
+        rect.set(baseX + shake, y - 140f, baseX + 100f + shake, y + 10f);
+        canvas.drawRoundRect(rect, 12f, 12f, paint);
+        rect.set(baseX - 22f + shake, y - 50f, baseX + 122f + shake, y + 24f);
+        canvas.drawRoundRect(rect, 16f, 16f, paint);
+        paint.setColor(accentColor);
+        rect.set(baseX + 34f + shake, y - 162f, baseX + 66f + shake, y - 18f);
+        canvas.drawRoundRect(rect, 10f, 10f, paint);
+        path.reset();
+        path.moveTo(baseX + 66f + shake, y - 146f);
+        path.lineTo(baseX + 118f + shake, y - 126f);
+        path.lineTo(baseX + 66f + shake, y - 102f);
+        path.close();
+        canvas.drawPath(path, paint);
+    }
+
+    private void drawUnit(Canvas canvas, Unit unit, int bodyColor, int accentColor, int glowColor, float time) {
+        float x = unit.getX();
+        float size = unit.getSize();
+        AnimationState animationState = unit.getAnimationState();
+        float pulse = (float) Math.sin(time * 5f + x * 0.02f) * 2f;
+        float lean = animationState == AnimationState.ATTACK ? 6f : animationState == AnimationState.CAST ? 3f : 0f;
+        float move = animationState == AnimationState.MARCH ? (float) Math.sin(time * 8f + x * 0.01f) * 3f : 0f;
+        float direction = unit.getTeam() == Team.ALLY ? 1f : -1f;
+        float baseX = x + unit.getRecoil() * -10f * direction;
+        float baseY = unit.getY() + pulse;
+        paint.setAlpha((int) (255 * unit.getAlpha()));
+        paint.setStyle(Paint.Style.FILL);
+        paint.setColor(glowColor);
+        canvas.drawOval(baseX - size * 0.55f, baseY - size * 1.05f, baseX + size * 0.55f, baseY + size * 0.95f, paint);
+        paint.setColor(bodyColor);
+        rect.set(baseX - size * 0.26f, baseY - size * 0.58f + move, baseX + size * 0.26f, baseY + size * 0.32f + move);
+        canvas.drawRoundRect(rect, size * 0.12f, size * 0.12f, paint);
+        canvas.drawOval(baseX - size * 0.2f, baseY - size * 0.92f + move, baseX + size * 0.2f, baseY - size * 0.5f + move, paint);
+        path.reset();
+        path.moveTo(baseX - size * 0.18f, baseY - size * 0.45f);
+        path.lineTo(baseX - size * 0.48f, baseY + size * 0.1f + move);
+        path.lineTo(baseX - size * 0.3f, baseY + size * 0.18f + move);
+        path.lineTo(baseX - size * 0.08f, baseY - size * 0.08f + move);
+        path.close();
+        canvas.drawPath(path, paint);
+        path.reset();
+        path.moveTo(baseX + size * 0.18f, baseY - size * 0.4f);
+        path.lineTo(baseX + size * 0.48f + lean * direction, baseY + size * 0.12f + move);
+        path.lineTo(baseX + size * 0.28f, baseY + size * 0.22f + move);
+        path.lineTo(baseX + size * 0.1f, baseY - size * 0.02f + move);
+        path.close();
+        canvas.drawPath(path, paint);
+        paint.setColor(accentColor);
+        if (unit.isRanged()) {
+            rect.set(baseX - size * 0.46f * direction, baseY - size * 0.42f, baseX + size * 0.1f * direction, baseY + size * 0.05f);
+            canvas.drawRoundRect(rect, size * 0.08f, size * 0.08f, paint);
+            canvas.drawLine(baseX + size * 0.08f * direction, baseY - size * 0.35f, baseX + size * 0.32f * direction, baseY + size * 0.05f, paint);
+        } else if (unit.isSupport()) {
+            rect.set(baseX + size * 0.16f * direction, baseY - size * 0.78f, baseX + size * 0.24f * direction, baseY + size * 0.1f);
+            canvas.drawRoundRect(rect, size * 0.04f, size * 0.04f, paint);
+            canvas.drawOval(baseX + size * 0.04f * direction, baseY - size * 0.9f, baseX + size * 0.36f * direction, baseY - size * 0.58f, paint);
+        } else {
+            rect.set(baseX + size * 0.12f * direction, baseY - size * 0.65f, baseX + size * 0.2f * direction, baseY + size * 0.15f);
+            canvas.drawRoundRect(rect, size * 0.04f, size * 0.04f, paint);
+            canvas.drawOval(baseX - size * 0.4f * direction, baseY - size * 0.3f, baseX - size * 0.08f * direction, baseY + size * 0.1f, paint);
+        }
+        if (unit.isSiege() || unit.isHero()) {
+            paint.setColor(glowColor);
+            canvas.drawOval(baseX - size * 0.6f, baseY + size * 0.45f, baseX + size * 0.6f, baseY + size * 0.65f, paint);
+        }
+        paint.setAlpha(255);
+    }
+
+    private void drawProjectiles(Canvas canvas, BattleManager battle) {
+        for (Projectile projectile : battle.getProjectiles()) {
+            if (!projectile.active) {
+                continue;
+            }
+            paint.setColor(projectile.magical ? colorAccentTwo : colorText);
+            canvas.drawOval(projectile.x - 10f, projectile.y - 6f, projectile.x + 10f, projectile.y + 6f, paint);
+        }
+    }
+
+    private void drawParticles(Canvas canvas, BattleManager battle) {
+        for (Particle particle : battle.getParticleSystem().getParticles()) {
+            if (particle.active) {
+                paint.setColor(particle.color);
+                paint.setAlpha((int) (255 * Math.max(0f, particle.life)));
+                canvas.drawOval(particle.x - particle.size, particle.y - particle.size, particle.x + particle.size, particle.y + particle.size, paint);
+            }
+        }
+        paint.setAlpha(255);
+        for (FloatingText text : battle.getParticleSystem().getTexts()) {
+            if (text.active) {
+                paint.setColor(text.color);
+                paint.setAlpha((int) (255 * Math.max(0f, text.life)));
+                digitAtlas.drawNumber(canvas, text.value, text.plus, text.x, text.y, paint);
+            }
+        }
+        paint.setAlpha(255);
+    }
+}
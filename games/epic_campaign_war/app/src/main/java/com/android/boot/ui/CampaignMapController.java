@@ -1,95 +1,243 @@
 package com.android.boot.ui;
 
 import android.content.Context;
+import android.os.Trace;
 import android.view.Gravity;
 import android.view.View;
+import android.view.ViewParent;
 import android.widget.Button;
 import android.widget.LinearLayout;
+import android.widget.ScrollView;
 import android.widget.TextView;
 
 import com.android.boot.R;
 import com.android.boot.core.CampaignProgress;
 import com.android.boot.core.ChapterData;
 
+import java.util.ArrayList;
 import java.util.List;
 
+// Keeps a small pool of chapter cards bound to the rows around the scroll position; spacers stand
+// in for the rows above and below, so view count and bind cost do not grow with chapter count.
+// Each card remembers the chapter and node state it shows, and refresh() only touches cards whose
+// lock or clear state differs from what is displayed.
 public class CampaignMapController {
     public interface ChapterSelectionListener {
         void onChapterSelected(int chapterIndex);
     }
 
+    private static final int STATE_LOCKED = 0;
+    private static final int STATE_UNLOCKED = 1;
+    private static final int STATE_CURRENT = 2;
+    private static final int STATE_CLEARED = 3;
+    // Cards bound before the first layout tells us how tall a row is.
+    private static final int UNMEASURED_WINDOW = 6;
+    private static final int OVERSCAN = 1;
+
+    private static class ChapterCard {
+        LinearLayout root;
+        TextView title;
+        TextView subtitle;
+        TextView nodeState;
+        Button startButton;
+        int position = -1;
+        int state = -1;
+    }
+
     private final Context context;
+    private final ScrollView scrollView;
     private final LinearLayout chapterList;
     private final TextView campaignProgressView;
     private final CampaignProgress campaignProgress;
     private final List<ChapterData> chapters;
     private final ChapterSelectionListener listener;
+    private final ArrayList<ChapterCard> cards = new ArrayList<>();
+    private final View topSpacer;
+    private final View bottomSpacer;
+    private final int cardMargin;
+    private int rowStride;
+    private int firstBound = -1;
+    private int boundCount = -1;
+    private int shownHighest = -1;
 
-    public CampaignMapController(Context context, LinearLayout chapterList, TextView campaignProgressView, CampaignProgress campaignProgress, List<ChapterData> chapters, ChapterSelectionListener listener) {
+    public CampaignMapController(Context context, ScrollView scrollView, LinearLayout chapterList, TextView campaignProgressView, CampaignProgress campaignProgress, List<ChapterData> chapters, ChapterSelectionListener listener) {
         this.context = context;
+        this.scrollView = scrollView;
         this.chapterList = chapterList;
         this.campaignProgressView = campaignProgressView;
         this.campaignProgress = campaignProgress;
         this.chapters = chapters;
         this.listener = listener;
+        cardMargin = context.getResources().getDimensionPixelSize(R.dimen.cst_pad_12);
+        topSpacer = new View(context);
+        bottomSpacer = new View(context);
+        chapterList.removeAllViews();
+        chapterList.addView(topSpacer, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, 0));
+        chapterList.addView(bottomSpacer, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, 0));
+        scrollView.setOnScrollChangeListener((v, scrollX, scrollY, oldScrollX, oldScrollY) -> updateWindow());
+        scrollView.addOnLayoutChangeListener((v, left, top, right, bottom, oldLeft, oldTop, oldRight, oldBottom) -> {
+            if (bottom - top != oldBottom - oldTop) {
+                updateWindow();
+            }
+        });
     }
 
-    public void rebuild() {
-        chapterList.removeAllViews();
-        int highest = campaignProgress.getHighestUnlockedChapter();
-        campaignProgressView.setText("Unlocked chapters: " + highest + " / " + chapters.size());
-        for (ChapterData chapter : chapters) {
-            LinearLayout card = new LinearLayout(context);
-            card.setOrientation(LinearLayout.VERTICAL);
-            card.setBackgroundResource(R.drawable.ui_card);
-            int pad = context.getResources().getDimensionPixelSize(R.dimen.cst_pad_12);
-            LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.WRAP_CONTENT);
-            params.bottomMargin = context.getResources().getDimensionPixelSize(R.dimen.cst_pad_12);
-            card.setLayoutParams(params);
-            card.setPadding(pad, pad, pad, pad);
-
-            TextView title = new TextView(context, null, 0, R.style.TextAppearance_Game_Subtitle);
-            title.setText(chapter.chapterName);
-            card.addView(title);
-
-            TextView subtitle = new TextView(context, null, 0, R.style.TextAppearance_Game_Body);
-            subtitle.setText(chapter.subtitle);
-            card.addView(subtitle);
-
-            LinearLayout pathRow = new LinearLayout(context);
-            pathRow.setOrientation(LinearLayout.HORIZONTAL);
-            pathRow.setGravity(Gravity.CENTER_VERTICAL);
-            LinearLayout.LayoutParams rowParams = new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.WRAP_CONTENT);
-            rowParams.topMargin = context.getResources().getDimensionPixelSize(R.dimen.cst_pad_8);
-            pathRow.setLayoutParams(rowParams);
-
-            TextView nodeState = new TextView(context, null, 0, R.style.Widget_Game_Badge);
-            if (campaignProgress.isCleared(chapter.index)) {
-                nodeState.setText("Cleared");
-            } else if (chapter.index <= highest) {
-                nodeState.setText(chapter.index == highest ? "Current Target" : "Unlocked");
+    public void refresh() {
+        Trace.beginSection("CampaignMap.refresh");
+        try {
+            int highest = campaignProgress.getHighestUnlockedChapter();
+            if (highest != shownHighest) {
+                shownHighest = highest;
+                campaignProgressView.setText("Unlocked chapters: " + highest + " / " + chapters.size());
+            }
+            bindWindow();
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    private void updateWindow() {
+        Trace.beginSection("CampaignMap.scroll");
+        try {
+            bindWindow();
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    private void bindWindow() {
+        int total = chapters.size();
+        int first = 0;
+        int count = Math.min(total, UNMEASURED_WINDOW);
+        if (rowStride > 0 && scrollView.getHeight() > 0) {
+            int offset = Math.max(0, scrollView.getScrollY() - listTop());
+            first = Math.min(Math.max(0, offset / rowStride - OVERSCAN), total);
+            count = Math.min(total - first, scrollView.getHeight() / rowStride + 2 + OVERSCAN * 2);
+        }
+        while (cards.size() < count) {
+            cards.add(createCard());
+        }
+        for (int i = 0; i < cards.size(); i++) {
+            ChapterCard card = cards.get(i);
+            if (i < count) {
+                card.root.setVisibility(View.VISIBLE);
+                bind(card, first + i);
             } else {
-                nodeState.setText("Locked");
+                card.root.setVisibility(View.GONE);
             }
-            pathRow.addView(nodeState);
-
-            TextView route = new TextView(context, null, 0, R.style.TextAppearance_Game_Caption);
-            route.setText("  Route node  ->  battle node  ->  stronghold");
-            pathRow.addView(route);
-            card.addView(pathRow);
-
-            Button startButton = new Button(context, null, 0, R.style.Widget_Game_Button_Primary);
-            startButton.setText(chapter.index <= highest ? "Start " + chapter.battleTitle : "Locked");
-            startButton.setEnabled(chapter.index <= highest);
-            LinearLayout.LayoutParams buttonParams = new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.WRAP_CONTENT);
-            buttonParams.topMargin = context.getResources().getDimensionPixelSize(R.dimen.cst_pad_10);
-            startButton.setLayoutParams(buttonParams);
-            startButton.setOnClickListener(v -> {
-                campaignProgress.setSelectedChapter(chapter.index);
-                listener.onChapterSelected(chapter.index);
-            });
-            card.addView(startButton);
-            chapterList.addView(card);
+        }
+        if (first != firstBound || count != boundCount) {
+            firstBound = first;
+            boundCount = count;
+            setSpacerHeight(topSpacer, first * rowStride);
+            setSpacerHeight(bottomSpacer, (total - first - count) * rowStride);
+        }
+    }
+
+    private void bind(ChapterCard card, int position) {
+        ChapterData chapter = chapters.get(position);
+        if (card.position != position) {
+            card.position = position;
+            card.state = -1;
+            card.title.setText(chapter.chapterName);
+            card.subtitle.setText(chapter.subtitle);
+        }
+        int highest = campaignProgress.getHighestUnlockedChapter();
+        int state;
+        if (campaignProgress.isCleared(chapter.index)) {
+            state = STATE_CLEARED;
+        } else if (chapter.index <= highest) {
+            state = chapter.index == highest ? STATE_CURRENT : STATE_UNLOCKED;
+        } else {
+            state = STATE_LOCKED;
+        }
+        if (state == card.state) {
+            return;
+        }
+        card.state = state;
+        if (state == STATE_CLEARED) {
+            card.nodeState.setText("Cleared");
+        } else if (state == STATE_CURRENT) {
+            card.nodeState.setText("Current Target");
+        } else if (state == STATE_UNLOCKED) {
+            card.nodeState.setText("Unlocked");
+        } else {
+            card.nodeState.setText("Locked");
+        }
+        boolean open = chapter.index <= highest;
+        card.startButton.setText(open ? "Start " + chapter.battleTitle : "Locked");
+        card.startButton.setEnabled(open);
+    }
+
+    private ChapterCard createCard() {
+        ChapterCard card = new ChapterCard();
+        card.root = new LinearLayout(context);
+        card.root.setOrientation(LinearLayout.VERTICAL);
+        card.root.setBackgroundResource(R.drawable.ui_card);
+        int pad = context.getResources().getDimensionPixelSize(R.dimen.cst_pad_12);
+        LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.WRAP_CONTENT);
+        params.bottomMargin = cardMargin;
+        card.root.setLayoutParams(params);
+        card.root.setPadding(pad, pad, pad, pad);
+
+        card.title = new TextView(context, null, 0, R.style.TextAppearance_Game_Subtitle);
+        card.root.addView(card.title);
+
+        card.subtitle = new TextView(context, null, 0, R.style.TextAppearance_Game_Body);
+        card.root.addView(card.subtitle);
+
+        LinearLayout pathRow = new LinearLayout(context);
+        pathRow.setOrientation(LinearLayout.HORIZONTAL);
+        pathRow.setGravity(Gravity.CENTER_VERTICAL);
+        LinearLayout.LayoutParams rowParams = new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.WRAP_CONTENT);
+        rowParams.topMargin = context.getResources().getDimensionPixelSize(R.dimen.cst_pad_8);
+        pathRow.setLayoutParams(rowParams);
+
+        card.nodeState = new TextView(context, null, 0, R.style.Widget_Game_Badge);
+        pathRow.addView(card.nodeState);
+
+        TextView route = new TextView(context, null, 0, R.style.TextAppearance_Game_Caption);
+        route.setText("  Route node  ->  battle node  ->  stronghold");
+        pathRow.addView(route);
+        card.root.addView(pathRow);
+
+        card.startButton = new Button(context, null, 0, R.style.Widget_Game_Button_Primary);
+        LinearLayout.LayoutParams buttonParams = new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.WRAP_CONTENT);
+        buttonParams.topMargin = context.getResources().getDimensionPixelSize(R.dimen.cst_pad_10);
+        card.startButton.setLayoutParams(buttonParams);
+        card.startButton.setOnClickListener(v -> {
+            int chapterIndex = chapters.get(card.position).index;
+            campaignProgress.setSelectedChapter(chapterIndex);
+            listener.onChapterSelected(chapterIndex);
+        });
+        card.root.addView(card.startButton);
+        card.root.addOnLayoutChangeListener((v, left, top, right, bottom, oldLeft, oldTop, oldRight, oldBottom) -> {
+            int stride = bottom - top + cardMargin;
+            if (bottom > top && stride > rowStride) {
+                rowStride = stride;
+                v.post(this::updateWindow);
+            }
+        });
+        chapterList.addView(card.root, chapterList.getChildCount() - 1);
+        return card;
+    }
+
+    private int listTop() {
+        int top = 0;
+        View view = chapterList;
+        while (view != null && view != scrollView) {
+            top += view.getTop();
+            ViewParent parent = view.getParent();
+            view = parent instanceof View ? (View) parent : null;
+        }
+        return top;
+    }
+
+    private void setSpacerHeight(View spacer, int height) {
+        LinearLayout.LayoutParams params = (LinearLayout.LayoutParams) spacer.getLayoutParams();
+        if (params.height != height) {
+            params.height = height;
+            spacer.setLayoutParams(params);
         }
     }
 }
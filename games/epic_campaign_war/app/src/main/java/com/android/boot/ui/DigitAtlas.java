@@ -0,0 +1,65 @@
+package com.android.boot.ui;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+// Digits 0-9 and '+' rasterised once into an ALPHA_8 strip with a fixed advance. Alpha bitmaps are
+// tinted with the paint colour, so one atlas serves every number colour, and drawing an int walks
+// its digits without building a String.
+public class DigitAtlas {
+    private static final String GLYPHS = "0123456789+";
+    private static final int PLUS = 10;
+
+    private final Bitmap bitmap;
+    private final Rect src = new Rect();
+    private final RectF dst = new RectF();
+    private final int advance;
+    private final int cellHeight;
+    private final float ascent;
+
+    public DigitAtlas(float textSize) {
+        Paint glyphPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        glyphPaint.setTextSize(textSize);
+        Paint.FontMetrics metrics = glyphPaint.getFontMetrics();
+        float widest = 0f;
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            widest = Math.max(widest, glyphPaint.measureText(GLYPHS, i, i + 1));
+        }
+        advance = (int) Math.ceil(widest);
+        ascent = -metrics.ascent;
+        cellHeight = (int) Math.ceil(metrics.descent - metrics.ascent);
+        bitmap = Bitmap.createBitmap(advance * GLYPHS.length(), cellHeight, Bitmap.Config.ALPHA_8);
+        Canvas atlasCanvas = new Canvas(bitmap);
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            atlasCanvas.drawText(GLYPHS, i, i + 1, i * advance, ascent, glyphPaint);
+        }
+    }
+
+    // Draws a non-negative value with its baseline at y and its left edge at x, like Canvas.drawText would.
+    public void drawNumber(Canvas canvas, int value, boolean plus, float x, float y, Paint paint) {
+        int rest = Math.max(0, value);
+        int digits = 1;
+        for (int scan = rest / 10; scan > 0; scan /= 10) {
+            digits++;
+        }
+        float top = y - ascent;
+        float left = x;
+        if (plus) {
+            drawGlyph(canvas, PLUS, left, top, paint);
+            left += advance;
+        }
+        for (int i = digits - 1; i >= 0; i--) {
+            drawGlyph(canvas, rest % 10, left + i * advance, top, paint);
+            rest /= 10;
+        }
+    }
+
+    private void drawGlyph(Canvas canvas, int glyph, float left, float top, Paint paint) {
+        src.set(glyph * advance, 0, (glyph + 1) * advance, cellHeight);
+        dst.set(left, top, left + advance, top + cellHeight);
+        canvas.drawBitmap(bitmap, src, dst, paint);
+    }
+}
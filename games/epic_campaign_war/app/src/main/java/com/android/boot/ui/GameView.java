@@ -11,11 +11,13 @@ import com.android.boot.core.GameLoopThread;
 
 public class GameView extends SurfaceView implements SurfaceHolder.Callback {
     private final BattleManager battleManager;
+    private final BattleRenderer battleRenderer;
     private GameLoopThread loopThread;
 
     public GameView(Context context, AttributeSet attrs) {
         super(context, attrs);
-        battleManager = new BattleManager(context);
+        battleRenderer = new BattleRenderer(context);
+        battleManager = new BattleManager(battleRenderer.getPalette());
         getHolder().addCallback(this);
         setFocusable(true);
     }
@@ -30,7 +32,7 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
         try {
             canvas = getHolder().lockCanvas();
             if (canvas != null) {
-                battleManager.render(canvas);
+                battleRenderer.render(canvas, battleManager);
             }
         } finally {
             if (canvas != null) {
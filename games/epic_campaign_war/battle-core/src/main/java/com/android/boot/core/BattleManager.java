@@ -1,16 +1,5 @@
 package com.android.boot.core;
 
-import android.content.Context;
-import android.content.res.Resources;
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
-import android.graphics.Path;
-import android.graphics.RectF;
-
-import androidx.core.content.ContextCompat;
-
-import com.android.boot.R;
 import com.android.boot.entity.Archer;
 import com.android.boot.entity.BaseCore;
 import com.android.boot.entity.Behemoth;
@@ -28,8 +17,6 @@ import com.android.boot.entity.Team;
 import com.android.boot.entity.Titan;
 import com.android.boot.entity.Unit;
 import com.android.boot.entity.WarMage;
-import com.android.boot.fx.FloatingText;
-import com.android.boot.fx.Particle;
 import com.android.boot.fx.ParticleSystem;
 import com.android.boot.fx.ScreenShake;
 
@@ -42,10 +29,22 @@ public class BattleManager {
         void onBattleEnded(boolean victory, MatchStats stats);
     }
 
-    private final Context context;
+    public interface TickProfiler {
+        void onSection(int section, long nanos);
+    }
+
+    public static final int SECTION_SPAWN_WAVE = 0;
+    public static final int SECTION_UNITS = 1;
+    public static final int SECTION_SUPPORT_PULSE = 2;
+    public static final int SECTION_PROJECTILES = 3;
+    public static final int SECTION_CLEANUP = 4;
+    public static final int SECTION_COUNT = 5;
+
     private final ArrayList<Unit> allies = new ArrayList<>();
     private final ArrayList<Unit> enemies = new ArrayList<>();
     private final ArrayList<Projectile> projectiles = new ArrayList<>();
+    private final LaneIndex allyLane = new LaneIndex();
+    private final LaneIndex enemyLane = new LaneIndex();
     private final ParticleSystem particleSystem = new ParticleSystem(160, 48);
     private final ScreenShake screenShake = new ScreenShake();
     private final MatchStats matchStats = new MatchStats();
@@ -53,10 +52,10 @@ public class BattleManager {
     private final ArrayList<ChapterData> chapters = new ArrayList<>();
     private final BaseCore allyCastle = new BaseCore(Team.ALLY, 70f, 120f, 1200);
     private final BaseCore enemyStronghold = new BaseCore(Team.ENEMY, 0f, 140f, 1400);
-    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
-    private final RectF rect = new RectF();
-    private final Path path = new Path();
     private BattleEvents battleEvents;
+    private TickProfiler tickProfiler;
+    // Support pulses run inside the units pass; their time is kept here and left out of SECTION_UNITS.
+    private long supportPulseNanos;
     private ChapterData currentChapter;
     private GameState gameState = GameState.MENU;
     private BattlePhase battlePhase = BattlePhase.OPENING;
@@ -75,43 +74,24 @@ public class BattleManager {
     private String statusText = "Form the line";
     private boolean battleResultSent;
     private float hudRefreshTimer;
-    private int colorAllyBody;
-    private int colorAllyAccent;
-    private int colorEnemyBody;
-    private int colorEnemyAccent;
-    private int colorDanger;
-    private int colorSuccess;
-    private int colorWarning;
-    private int colorAccent;
-    private int colorAccentTwo;
-    private int colorText;
-    private int colorBackground;
-
-    public BattleManager(Context context) {
-        this.context = context;
-        loadColors();
+    private final int colorDanger;
+    private final int colorSuccess;
+    private final int colorWarning;
+    private final int colorAccent;
+    private final int colorAccentTwo;
+
+    public BattleManager(BattlePalette palette) {
+        colorDanger = palette.danger;
+        colorSuccess = palette.success;
+        colorWarning = palette.warning;
+        colorAccent = palette.accent;
+        colorAccentTwo = palette.accentTwo;
         buildChapters();
         for (int i = 0; i < 32; i++) {
             projectiles.add(new Projectile());
         }
     }
 
-    private void loadColors() {
-        Resources resources = context.getResources();
-        colorAllyBody = ContextCompat.getColor(context, R.color.cst_panel_header_bg);
-        colorAllyAccent = ContextCompat.getColor(context, R.color.cst_accent);
-        colorEnemyBody = ContextCompat.getColor(context, R.color.cst_danger);
-        colorEnemyAccent = ContextCompat.getColor(context, R.color.cst_warning);
-        colorDanger = ContextCompat.getColor(context, R.color.cst_danger);
-        colorSuccess = ContextCompat.getColor(context, R.color.cst_success);
-        colorWarning = ContextCompat.getColor(context, R.color.cst_warning);
-        colorAccent = ContextCompat.getColor(context, R.color.cst_accent);
-        colorAccentTwo = ContextCompat.getColor(context, R.color.cst_accent_2);
-        colorText = ContextCompat.getColor(context, R.color.cst_text_primary);
-        colorBackground = ContextCompat.getColor(context, R.color.cst_bg_main);
-        paint.setStrokeWidth(resources.getDisplayMetrics().density * 2f);
-    }
-
     private void buildChapters() {
         chapters.add(new ChapterData(1, "Chapter 1: Border Clash", "Border Clash", "Hold the frontier road", "Marauder swarms with light archer cover", "Open with Footmen and Archers, then swap to Ember when melee collisions start", 1400, 4.2f, 1.0f, 1));
         chapters.add(new ChapterData(2, "Chapter 2: Ash Valley", "Ash Valley", "Smoke over the lava trench", "Black Knights and fire cult pressure the line", "Use Ember for impact pushes, then Sanctum to recover after the knight rush", 1600, 3.8f, 1.08f, 2));
@@ -128,15 +108,25 @@ public class BattleManager {
         this.battleEvents = battleEvents;
     }
 
+    public void setTickProfiler(TickProfiler tickProfiler) {
+        this.tickProfiler = tickProfiler;
+    }
+
     public void setViewport(int width, int height) {
         this.width = width;
         this.height = height;
     }
 
     public void startChapter(int chapterIndex) {
+        startChapter(chapterIndex, RoyalOath.EMBER);
+    }
+
+    public void startChapter(int chapterIndex, RoyalOath openingOath) {
         currentChapter = chapters.get(Math.max(0, Math.min(chapterIndex - 1, chapters.size() - 1)));
         allies.clear();
         enemies.clear();
+        allyLane.clear();
+        enemyLane.clear();
         for (Projectile projectile : projectiles) {
             projectile.active = false;
         }
@@ -151,7 +141,7 @@ public class BattleManager {
         statusText = currentChapter.subtitle;
         battleState(GameState.PLAYING);
         battlePhase = BattlePhase.OPENING;
-        activeOath = RoyalOath.EMBER;
+        activeOath = openingOath;
         battleResultSent = false;
         hudRefreshTimer = 0f;
         matchStats.reset();
@@ -201,17 +191,27 @@ public class BattleManager {
         updatePhase();
         enemySpawnTimer -= dt;
         if (enemySpawnTimer <= 0f) {
+            long sectionStart = sectionStart();
             spawnEnemyWave();
+            sectionEnd(SECTION_SPAWN_WAVE, sectionStart);
             enemySpawnTimer = Math.max(1.5f, currentChapter.spawnInterval - chapterPressure * 0.16f);
         }
         float allyFront = frontLine(allies, 160f);
         float enemyFront = frontLine(enemies, width - 170f);
-        updateUnits(allies, enemies, allyFront, enemyFront, dt);
-        updateUnits(enemies, allies, enemyFront, allyFront, dt);
+        long sectionStart = sectionStart();
+        supportPulseNanos = 0L;
+        enemyLane.sync(enemies);
+        updateUnits(allies, enemyLane, allyFront, enemyFront, dt);
+        allyLane.sync(allies);
+        updateUnits(enemies, allyLane, enemyFront, allyFront, dt);
+        enemyLane.sync(enemies);
+        sectionStart = sectionEnd(SECTION_UNITS, sectionStart + supportPulseNanos);
         updateProjectiles(dt);
+        sectionStart = sectionEnd(SECTION_PROJECTILES, sectionStart);
         updateBases(dt);
-        cleanupUnits(allies, true);
-        cleanupUnits(enemies, false);
+        cleanupUnits(allies, allyLane, true);
+        cleanupUnits(enemies, enemyLane, false);
+        sectionEnd(SECTION_CLEANUP, sectionStart);
         particleSystem.update(dt);
         screenShake.update(dt);
         hudRefreshTimer -= dt;
@@ -222,6 +222,20 @@ public class BattleManager {
         checkBattleEnd();
     }
 
+    private long sectionStart() {
+        return tickProfiler != null ? System.nanoTime() : 0L;
+    }
+
+    // Reports the section to the profiler, if any, and returns the start time for the next one.
+    private long sectionEnd(int section, long start) {
+        if (tickProfiler == null) {
+            return 0L;
+        }
+        long now = System.nanoTime();
+        tickProfiler.onSection(section, now - start);
+        return now;
+    }
+
     private void updatePhase() {
         if (time > 95f || enemyStronghold.getHp() < enemyStronghold.getMaxHp() * 0.35f) {
             battlePhase = BattlePhase.FINALE;
@@ -234,21 +248,23 @@ public class BattleManager {
         }
     }
 
-    private void updateUnits(ArrayList<Unit> own, ArrayList<Unit> other, float ownFront, float otherFront, float dt) {
+    private void updateUnits(ArrayList<Unit> own, LaneIndex other, float ownFront, float otherFront, float dt) {
         for (Unit unit : own) {
             Unit target = findTarget(unit, other);
             unit.setOath(activeOath);
             unit.update(dt, target, unit.getTeam() == Team.ALLY ? ownFront : otherFront);
             if (unit.shouldImpact()) {
                 if (unit.isSupport()) {
+                    long sectionStart = sectionStart();
                     applySupportPulse(unit, own);
+                    supportPulseNanos += sectionEnd(SECTION_SUPPORT_PULSE, sectionStart) - sectionStart;
                 } else if (target != null) {
                     float damage = unit.getDamageAgainst(target);
                     target.damage(damage);
                     unit.markImpact();
                     oathPowerMeter.add(4f);
                     particleSystem.spawnBurst(target.getX(), target.getY() - 40f, unit.getTeam() == Team.ALLY ? colorAccent : colorDanger, unit.isSiege() || unit.isHero() ? 12 : 6, unit.isSiege() ? 120f : 80f);
-                    particleSystem.spawnText(target.getX(), target.getY() - 60f, String.valueOf(Math.round(damage)), colorWarning);
+                    particleSystem.spawnNumber(target.getX(), target.getY() - 60f, Math.round(damage), false, colorWarning, target);
                     if (unit.isSiege() || unit.isHero()) {
                         screenShake.trigger(8f, 0.18f);
                     }
@@ -272,7 +288,7 @@ public class BattleManager {
         for (Unit ally : alliesToHeal) {
             if (ally.isAlive() && Math.abs(ally.getX() - unit.getX()) < 120f) {
                 ally.heal(total * 0.25f);
-                particleSystem.spawnText(ally.getX(), ally.getY() - 70f, "+" + Math.round(total * 0.25f), colorSuccess);
+                particleSystem.spawnNumber(ally.getX(), ally.getY() - 70f, Math.round(total * 0.25f), true, colorSuccess, ally);
             }
         }
         particleSystem.spawnBurst(unit.getX(), unit.getY() - 55f, colorSuccess, 9, 70f);
@@ -304,15 +320,13 @@ public class BattleManager {
                 continue;
             }
             projectile.update(dt);
-            ArrayList<Unit> targets = projectile.team == Team.ALLY ? enemies : allies;
-            for (Unit target : targets) {
-                if (target.isAlive() && Math.abs(target.getX() - projectile.x) < target.getSize() * 0.45f) {
-                    target.damage(projectile.damage);
-                    particleSystem.spawnBurst(target.getX(), target.getY() - 52f, projectile.magical ? colorAccentTwo : colorAccent, projectile.magical ? 9 : 5, projectile.magical ? 100f : 70f);
-                    particleSystem.spawnText(target.getX(), target.getY() - 70f, String.valueOf(Math.round(projectile.damage)), projectile.magical ? colorAccentTwo : colorWarning);
-                    projectile.active = false;
-                    break;
-                }
+            LaneIndex targets = projectile.team == Team.ALLY ? enemyLane : allyLane;
+            Unit target = targets.firstHit(projectile.x);
+            if (target != null) {
+                target.damage(projectile.damage);
+                particleSystem.spawnBurst(target.getX(), target.getY() - 52f, projectile.magical ? colorAccentTwo : colorAccent, projectile.magical ? 9 : 5, projectile.magical ? 100f : 70f);
+                particleSystem.spawnNumber(target.getX(), target.getY() - 70f, Math.round(projectile.damage), false, projectile.magical ? colorAccentTwo : colorWarning, target);
+                projectile.active = false;
             }
             if (projectile.x < 0f || projectile.x > width) {
                 projectile.active = false;
@@ -325,7 +339,7 @@ public class BattleManager {
         enemyStronghold.update(dt);
     }
 
-    private void cleanupUnits(ArrayList<Unit> list, boolean alliedList) {
+    private void cleanupUnits(ArrayList<Unit> list, LaneIndex lane, boolean alliedList) {
         for (int i = list.size() - 1; i >= 0; i--) {
             Unit unit = list.get(i);
             if (!unit.isAlive() && unit.getHp() <= 0f && unit.getMaxHp() > 0f && unit.getSize() > 0f && unit.getLabel() != null && unit.getSize() < 1000f) {
@@ -334,26 +348,18 @@ public class BattleManager {
                         matchStats.enemiesDefeated++;
                     }
                     list.remove(i);
+                    lane.remove(unit);
                 }
             }
         }
     }
 
-    private Unit findTarget(Unit unit, ArrayList<Unit> others) {
-        Unit chosen = null;
-        float best = Float.MAX_VALUE;
-        for (Unit other : others) {
-            if (!other.isAlive()) {
-                continue;
-            }
-            float distance = Math.abs(other.getX() - unit.getX());
-            boolean inFront = unit.getTeam() == Team.ALLY ? other.getX() >= unit.getX() - 12f : other.getX() <= unit.getX() + 12f;
-            if (inFront && distance < best) {
-                best = distance;
-                chosen = other;
-            }
+    private Unit findTarget(Unit unit, LaneIndex others) {
+        float x = unit.getX();
+        if (unit.getTeam() == Team.ALLY) {
+            return others.nearest(x, x - 12f, Float.POSITIVE_INFINITY);
         }
-        return chosen;
+        return others.nearest(x, Float.NEGATIVE_INFINITY, x + 12f);
     }
 
     private float frontLine(ArrayList<Unit> list, float fallback) {
@@ -525,7 +531,7 @@ public class BattleManager {
         for (Unit ally : allies) {
             if (ally.isAlive()) {
                 ally.heal(heal);
-                particleSystem.spawnText(ally.getX(), ally.getY() - 72f, "+" + Math.round(heal), colorSuccess);
+                particleSystem.spawnNumber(ally.getX(), ally.getY() - 72f, Math.round(heal), true, colorSuccess, ally);
             }
         }
         particleSystem.spawnBurst(width * 0.3f, battleLaneY() - 80f, colorSuccess, 16, 120f);
@@ -593,111 +599,48 @@ public class BattleManager {
         }
     }
 
-    public void render(Canvas canvas) {
-        if (canvas == null) {
-            return;
-        }
-        float shakeX = screenShake.getOffsetX(time);
-        float shakeY = screenShake.getOffsetY(time);
-        canvas.drawColor(colorBackground);
-        canvas.save();
-        canvas.translate(shakeX, shakeY);
-        drawBackdrop(canvas);
-        drawBases(canvas);
-        for (Unit unit : allies) {
-            unit.draw(canvas, paint, colorAllyBody, colorAllyAccent, Color.argb(75, 103, 245, 255), time);
-        }
-        for (Unit unit : enemies) {
-            unit.draw(canvas, paint, colorEnemyBody, colorEnemyAccent, Color.argb(70, 255, 95, 117), time);
-        }
-        drawProjectiles(canvas);
-        drawParticles(canvas);
-        canvas.restore();
-    }
-
-    private void drawBackdrop(Canvas canvas) {
-        paint.setStyle(Paint.Style.FILL);
-        paint.setColor(Color.argb(255, 9, 17, 31));
-        canvas.drawRect(0f, 0f, width, height, paint);
-        rect.set(0f, height * 0.52f, width, height);
-        paint.setColor(Color.argb(255, 24, 20, 28));
-        canvas.drawRect(rect, paint);
-        paint.setColor(Color.argb(255, 42, 54, 70));
-        for (int i = 0; i < width; i += 120) {
-            canvas.drawRect(i, height * 0.69f, i + 60f, height * 0.71f, paint);
-        }
-        paint.setColor(Color.argb(255, 28, 40, 61));
-        path.reset();
-        path.moveTo(0f, height * 0.52f);
-        path.lineTo(width * 0.15f, height * 0.33f);
-        path.lineTo(width * 0.34f, height * 0.49f);
-        path.lineTo(width * 0.52f, height * 0.27f);
-        path.lineTo(width * 0.72f, height * 0.5f);
-        path.lineTo(width, height * 0.34f);
-        path.lineTo(width, 0f);
-        path.lineTo(0f, 0f);
-        path.close();
-        canvas.drawPath(path, paint);
-        paint.setColor(Color.argb(100, 103, 245, 255));
-        canvas.drawCircle(width * 0.75f, height * 0.2f, 42f, paint);
-    }
-
-    private void drawBases(Canvas canvas) {
-        drawBase(canvas, allyCastle, 40f, colorAllyBody, colorAllyAccent);
-        drawBase(canvas, enemyStronghold, width - 130f, colorEnemyBody, colorEnemyAccent);
-    }
-
-    private void drawBase(Canvas canvas, BaseCore baseCore, float baseX, int bodyColor, int accentColor) {
-        float y = battleLaneY() - 15f;
-        float shake = baseCore.getShake() * 8f;
-        paint.setColor(bodyColor);
-        rect.set(baseX + shake, y - 140f, baseX + 100f + shake, y + 10f);
-        canvas.drawRoundRect(rect, 12f, 12f, paint);
-        rect.set(baseX - 22f + shake, y - 50f, baseX + 122f + shake, y + 24f);
-        canvas.drawRoundRect(rect, 16f, 16f, paint);
-        paint.setColor(accentColor);
-        rect.set(baseX + 34f + shake, y - 162f, baseX + 66f + shake, y - 18f);
-        canvas.drawRoundRect(rect, 10f, 10f, paint);
-        path.reset();
-        path.moveTo(baseX + 66f + shake, y - 146f);
-        path.lineTo(baseX + 118f + shake, y - 126f);
-        path.lineTo(baseX + 66f + shake, y - 102f);
-        path.close();
-        canvas.drawPath(path, paint);
-    }
-
-    private void drawProjectiles(Canvas canvas) {
-        for (Projectile projectile : projectiles) {
-            if (!projectile.active) {
-                continue;
-            }
-            paint.setColor(projectile.magical ? colorAccentTwo : colorText);
-            canvas.drawOval(projectile.x - 10f, projectile.y - 6f, projectile.x + 10f, projectile.y + 6f, paint);
-        }
+    public float battleLaneY() {
+        return height * 0.72f;
     }
 
-    private void drawParticles(Canvas canvas) {
-        for (Particle particle : particleSystem.getParticles()) {
-            if (particle.active) {
-                paint.setColor(particle.color);
-                paint.setAlpha((int) (255 * Math.max(0f, particle.life)));
-                canvas.drawOval(particle.x - particle.size, particle.y - particle.size, particle.x + particle.size, particle.y + particle.size, paint);
-            }
-        }
-        paint.setAlpha(255);
-        paint.setTextSize(28f);
-        for (FloatingText text : particleSystem.getTexts()) {
-            if (text.active) {
-                paint.setColor(text.color);
-                paint.setAlpha((int) (255 * Math.max(0f, text.life)));
-                canvas.drawText(text.text, text.x, text.y, paint);
-            }
-        }
-        paint.setAlpha(255);
+    public int getWidth() {
+        return width;
     }
 
-    private float battleLaneY() {
-        return height * 0.72f;
+    public int getHeight() {
+        return height;
+    }
+
+    public float getTime() {
+        return time;
+    }
+
+    public List<Unit> getAllies() {
+        return allies;
+    }
+
+    public List<Unit> getEnemies() {
+        return enemies;
+    }
+
+    public List<Projectile> getProjectiles() {
+        return projectiles;
+    }
+
+    public ParticleSystem getParticleSystem() {
+        return particleSystem;
+    }
+
+    public ScreenShake getScreenShake() {
+        return screenShake;
+    }
+
+    public BaseCore getAllyCastle() {
+        return allyCastle;
+    }
+
+    public BaseCore getEnemyStronghold() {
+        return enemyStronghold;
     }
 
     public ChapterData getCurrentChapter() {
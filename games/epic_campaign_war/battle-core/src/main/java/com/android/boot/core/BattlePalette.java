@@ -0,0 +1,17 @@
+package com.android.boot.core;
+
+public class BattlePalette {
+    public final int accent;
+    public final int accentTwo;
+    public final int danger;
+    public final int warning;
+    public final int success;
+
+    public BattlePalette(int accent, int accentTwo, int danger, int warning, int success) {
+        this.accent = accent;
+        this.accentTwo = accentTwo;
+        this.danger = danger;
+        this.warning = warning;
+        this.success = success;
+    }
+}
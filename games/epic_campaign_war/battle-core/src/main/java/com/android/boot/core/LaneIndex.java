@@ -0,0 +1,166 @@
+package com.android.boot.core;
+
+import com.android.boot.entity.Unit;
+
+import java.util.Arrays;
+import java.util.List;
+
+// One army kept sorted by lane x. Units appended to the army list are picked up by sync(),
+// which also re-sorts by insertion sort since units only drift a little per tick; removals
+// come from cleanupUnits. Ties are broken by spawn order, which matches the list order, so
+// queries return the same unit a front-to-back scan of the list would.
+public class LaneIndex {
+    private Unit[] units = new Unit[32];
+    private float[] xs = new float[32];
+    private int[] seqs = new int[32];
+    private int count;
+    private int synced;
+    private int nextSeq;
+    private float maxReach;
+
+    public void clear() {
+        Arrays.fill(units, 0, count, null);
+        count = 0;
+        synced = 0;
+        nextSeq = 0;
+        maxReach = 0f;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // Positions are snapshotted here, so call it after the army has moved and before querying it.
+    public void sync(List<Unit> list) {
+        int size = list.size();
+        for (int i = synced; i < size; i++) {
+            append(list.get(i));
+        }
+        synced = size;
+        for (int i = 0; i < count; i++) {
+            xs[i] = units[i].getX();
+        }
+        for (int i = 1; i < count; i++) {
+            Unit unit = units[i];
+            float x = xs[i];
+            int seq = seqs[i];
+            int j = i - 1;
+            while (j >= 0 && (xs[j] > x || (xs[j] == x && seqs[j] > seq))) {
+                units[j + 1] = units[j];
+                xs[j + 1] = xs[j];
+                seqs[j + 1] = seqs[j];
+                j--;
+            }
+            units[j + 1] = unit;
+            xs[j + 1] = x;
+            seqs[j + 1] = seq;
+        }
+    }
+
+    public void remove(Unit unit) {
+        for (int i = 0; i < count; i++) {
+            if (units[i] == unit) {
+                int tail = count - i - 1;
+                System.arraycopy(units, i + 1, units, i, tail);
+                System.arraycopy(xs, i + 1, xs, i, tail);
+                System.arraycopy(seqs, i + 1, seqs, i, tail);
+                units[--count] = null;
+                synced--;
+                return;
+            }
+        }
+    }
+
+    // Closest living unit to x whose position lies in [minX, maxX].
+    public Unit nearest(float x, float minX, float maxX) {
+        int lo = lowerBound(minX);
+        int hi = upperBound(maxX);
+        int split = Math.max(lo, Math.min(hi, lowerBound(x)));
+        int right = split;
+        while (right < hi && !units[right].isAlive()) {
+            right++;
+        }
+        int left = split - 1;
+        while (left >= lo && !units[left].isAlive()) {
+            left--;
+        }
+        float best = Float.MAX_VALUE;
+        if (right < hi) {
+            best = Math.abs(xs[right] - x);
+        }
+        if (left >= lo) {
+            best = Math.min(best, Math.abs(xs[left] - x));
+        }
+        // Distance grows monotonically away from the split, so equal-distance candidates form
+        // a run on each side; among them the earliest spawned wins, as in a list scan.
+        int chosen = -1;
+        for (int i = right; i < hi && Math.abs(xs[i] - x) == best; i++) {
+            if (units[i].isAlive() && (chosen < 0 || seqs[i] < seqs[chosen])) {
+                chosen = i;
+            }
+        }
+        for (int i = left; i >= lo && Math.abs(xs[i] - x) == best; i--) {
+            if (units[i].isAlive() && (chosen < 0 || seqs[i] < seqs[chosen])) {
+                chosen = i;
+            }
+        }
+        return chosen < 0 ? null : units[chosen];
+    }
+
+    // Earliest spawned living unit whose body (size * 0.45 either side) covers x.
+    public Unit firstHit(float x) {
+        int lo = lowerBound(x - maxReach - 1f);
+        int hi = upperBound(x + maxReach + 1f);
+        int chosen = -1;
+        for (int i = lo; i < hi; i++) {
+            Unit unit = units[i];
+            if (unit.isAlive() && Math.abs(xs[i] - x) < unit.getSize() * 0.45f && (chosen < 0 || seqs[i] < seqs[chosen])) {
+                chosen = i;
+            }
+        }
+        return chosen < 0 ? null : units[chosen];
+    }
+
+    private void append(Unit unit) {
+        if (count == units.length) {
+            units = Arrays.copyOf(units, count * 2);
+            xs = Arrays.copyOf(xs, count * 2);
+            seqs = Arrays.copyOf(seqs, count * 2);
+        }
+        units[count] = unit;
+        xs[count] = unit.getX();
+        seqs[count] = nextSeq++;
+        count++;
+        maxReach = Math.max(maxReach, unit.getSize() * 0.45f);
+    }
+
+    // First index whose x is >= value.
+    private int lowerBound(float value) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (xs[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // First index whose x is > value.
+    private int upperBound(float value) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (xs[mid] <= value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -1,10 +1,5 @@
 package com.android.boot.entity;
 
-import android.graphics.Canvas;
-import android.graphics.Paint;
-import android.graphics.Path;
-import android.graphics.RectF;
-
 import com.android.boot.core.AnimationState;
 import com.android.boot.core.RoyalOath;
 
@@ -33,8 +28,6 @@ public class Unit {
     protected float alpha = 1f;
     protected AnimationState animationState = AnimationState.MARCH;
     protected RoyalOath oath = RoyalOath.EMBER;
-    protected final Path path = new Path();
-    protected final RectF rect = new RectF();
 
     public Unit(String label, Team team, boolean ranged, boolean support, boolean siege, boolean hero, float x, float y, float size, float maxHp, float damage, float range, float speed, float cooldown) {
         this.label = label;
@@ -220,58 +213,20 @@ public class Unit {
         return label;
     }
 
+    public float getRecoil() {
+        return recoil;
+    }
+
+    public float getAlpha() {
+        return alpha;
+    }
+
+    public AnimationState getAnimationState() {
+        return animationState;
+    }
+
     public void setPosition(float x, float y) {
         this.x = x;
         this.y = y;
     }
-
-    public void draw(Canvas canvas, Paint paint, int bodyColor, int accentColor, int glowColor, float time) {
-        float pulse = (float) Math.sin(time * 5f + x * 0.02f) * 2f;
-        float lean = animationState == AnimationState.ATTACK ? 6f : animationState == AnimationState.CAST ? 3f : 0f;
-        float move = animationState == AnimationState.MARCH ? (float) Math.sin(time * 8f + x * 0.01f) * 3f : 0f;
-        float direction = team == Team.ALLY ? 1f : -1f;
-        float baseX = x + recoil * -10f * direction;
-        float baseY = y + pulse;
-        paint.setAlpha((int) (255 * alpha));
-        paint.setStyle(Paint.Style.FILL);
-        paint.setColor(glowColor);
-        canvas.drawOval(baseX - size * 0.55f, baseY - size * 1.05f, baseX + size * 0.55f, baseY + size * 0.95f, paint);
-        paint.setColor(bodyColor);
-        rect.set(baseX - size * 0.26f, baseY - size * 0.58f + move, baseX + size * 0.26f, baseY + size * 0.32f + move);
-        canvas.drawRoundRect(rect, size * 0.12f, size * 0.12f, paint);
-        canvas.drawOval(baseX - size * 0.2f, baseY - size * 0.92f + move, baseX + size * 0.2f, baseY - size * 0.5f + move, paint);
-        path.reset();
-        path.moveTo(baseX - size * 0.18f, baseY - size * 0.45f);
-        path.lineTo(baseX - size * 0.48f, baseY + size * 0.1f + move);
-        path.lineTo(baseX - size * 0.3f, baseY + size * 0.18f + move);
-        path.lineTo(baseX - size * 0.08f, baseY - size * 0.08f + move);
-        path.close();
-        canvas.drawPath(path, paint);
-        path.reset();
-        path.moveTo(baseX + size * 0.18f, baseY - size * 0.4f);
-        path.lineTo(baseX + size * 0.48f + lean * direction, baseY + size * 0.12f + move);
-        path.lineTo(baseX + size * 0.28f, baseY + size * 0.22f + move);
-        path.lineTo(baseX + size * 0.1f, baseY - size * 0.02f + move);
-        path.close();
-        canvas.drawPath(path, paint);
-        paint.setColor(accentColor);
-        if (ranged) {
-            rect.set(baseX - size * 0.46f * direction, baseY - size * 0.42f, baseX + size * 0.1f * direction, baseY + size * 0.05f);
-            canvas.drawRoundRect(rect, size * 0.08f, size * 0.08f, paint);
-            canvas.drawLine(baseX + size * 0.08f * direction, baseY - size * 0.35f, baseX + size * 0.32f * direction, baseY + size * 0.05f, paint);
-        } else if (support) {
-            rect.set(baseX + size * 0.16f * direction, baseY - size * 0.78f, baseX + size * 0.24f * direction, baseY + size * 0.1f);
-            canvas.drawRoundRect(rect, size * 0.04f, size * 0.04f, paint);
-            canvas.drawOval(baseX + size * 0.04f * direction, baseY - size * 0.9f, baseX + size * 0.36f * direction, baseY - size * 0.58f, paint);
-        } else {
-            rect.set(baseX + size * 0.12f * direction, baseY - size * 0.65f, baseX + size * 0.2f * direction, baseY + size * 0.15f);
-            canvas.drawRoundRect(rect, size * 0.04f, size * 0.04f, paint);
-            canvas.drawOval(baseX - size * 0.4f * direction, baseY - size * 0.3f, baseX - size * 0.08f * direction, baseY + size * 0.1f, paint);
-        }
-        if (siege || hero) {
-            paint.setColor(glowColor);
-            canvas.drawOval(baseX - size * 0.6f, baseY + size * 0.45f, baseX + size * 0.6f, baseY + size * 0.65f, paint);
-        }
-        paint.setAlpha(255);
-    }
 }
@@ -1,19 +1,25 @@
 package com.android.boot.fx;
 
 public class FloatingText {
+    public static final float LIFE = 1.2f;
+
     public float x;
     public float y;
-    public String text;
+    public int value;
+    public boolean plus;
+    public Object owner;
     public int color;
     public float life;
     public boolean active;
 
-    public void set(float x, float y, String text, int color) {
+    public void set(float x, float y, int value, boolean plus, int color, Object owner) {
         this.x = x;
         this.y = y;
-        this.text = text;
+        this.value = value;
+        this.plus = plus;
         this.color = color;
-        this.life = 1.2f;
+        this.owner = owner;
+        this.life = LIFE;
         this.active = true;
     }
 
@@ -22,6 +28,7 @@ public class FloatingText {
         life -= dt;
         if (life <= 0f) {
             active = false;
+            owner = null;
         }
     }
 }
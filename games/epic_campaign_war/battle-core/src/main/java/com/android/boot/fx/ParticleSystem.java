@@ -1,8 +1,12 @@
 package com.android.boot.fx;
 
 public class ParticleSystem {
+    // A hit only merges into a number spawned less than this long ago.
+    private static final float COALESCE_WINDOW = 0.3f;
+
     private final Particle[] particles;
     private final FloatingText[] texts;
+    private boolean coalesceHits;
 
     public ParticleSystem(int particleCount, int textCount) {
         particles = new Particle[particleCount];
@@ -26,10 +30,24 @@ public class ParticleSystem {
         }
     }
 
-    public void spawnText(float x, float y, String text, int color) {
+    // When enabled, repeated numbers on the same owner in quick succession add up in one label.
+    public void setCoalesceHits(boolean coalesceHits) {
+        this.coalesceHits = coalesceHits;
+    }
+
+    public void spawnNumber(float x, float y, int value, boolean plus, int color, Object owner) {
+        if (coalesceHits && owner != null) {
+            for (FloatingText text : texts) {
+                if (text.active && text.owner == owner && text.plus == plus && text.color == color && text.life > FloatingText.LIFE - COALESCE_WINDOW) {
+                    text.value += value;
+                    text.life = FloatingText.LIFE;
+                    return;
+                }
+            }
+        }
         FloatingText floatingText = nextText();
         if (floatingText != null) {
-            floatingText.set(x, y, text, color);
+            floatingText.set(x, y, value, plus, color, owner);
         }
     }
 
@@ -0,0 +1,465 @@
+package com.android.boot.sim;
+
+import com.android.boot.core.BattleManager;
+import com.android.boot.core.BattlePalette;
+import com.android.boot.core.GameState;
+import com.android.boot.core.MatchStats;
+import com.android.boot.core.RoyalOath;
+import com.android.boot.entity.Unit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Plays BattleManager battles without a view: a commander issues the same calls the HUD buttons
+// make, and the runner reports outcomes plus per-tick and per-section timings. The random
+// commander taps buttons blindly; the scripted one banks mana for a fixed build and times its
+// spells off the lane, and takes chapter 1 at the default viewport and tick.
+// A battle costs its simulated length in ticks (a 200 s battle is 12000 ticks of about 10 us),
+// so sweeps scale by spreading battles over --threads workers, each with its own BattleManager.
+// Results are kept per battle index and folded in order, so the report and outcome hash do not
+// depend on the thread count.
+// Usage: HeadlessBattleRunner [--battles N] [--warmup N] [--seed S] [--chapter C (0 = rotate)]
+//        [--commander random|scripted] [--dt SECONDS] [--max-seconds S] [--width W] [--height H]
+//        [--threads N]
+public class HeadlessBattleRunner {
+    private static final String USAGE = "Usage: HeadlessBattleRunner [--battles N] [--warmup N] [--seed S] [--chapter C (0 = rotate)]\n"
+            + "       [--commander random|scripted] [--dt SECONDS] [--max-seconds S] [--width W] [--height H] [--threads N]";
+    private static final int CHAPTERS = 5;
+    private static final float DECISION_INTERVAL = 0.25f;
+    private static final int HISTOGRAM_MICROS = 20000;
+    private static final int MANA_RESERVE = 90;
+    private static final int OPENING_PAIRS = 3;
+    private static final float CHAIN_STORM_DAMAGE = 34f;
+    private static final int VICTORY = 1;
+    private static final int DEFEAT = 2;
+    private static final int TIMEOUT = 3;
+    private static final String[] SECTION_NAMES = {"spawnEnemyWave", "units", "applySupportPulse", "updateProjectiles", "cleanup"};
+
+    private int battles = 200;
+    private int warmup = 20;
+    private long seed = 1L;
+    private int chapter;
+    private boolean scripted;
+    private float dt = 1f / 60f;
+    private float maxSeconds = 300f;
+    private int width = 1920;
+    private int height = 1080;
+    private int threads = 1;
+
+    // Per battle, filled by whichever worker played it.
+    private int[] chapterOf;
+    private int[] outcome;
+    private float[] elapsedOf;
+    private int[] playerHpOf;
+    private int[] enemyHpOf;
+    private int[] summonedOf;
+    private int[] defeatedOf;
+
+    private final int[] tickHistogram = new int[HISTOGRAM_MICROS + 1];
+    private final long[] sectionNanos = new long[BattleManager.SECTION_COUNT];
+    private final long[] sectionCalls = new long[BattleManager.SECTION_COUNT];
+    private long tickCount;
+    private long tickNanosTotal;
+    private final int[] victories = new int[CHAPTERS + 1];
+    private final int[] defeats = new int[CHAPTERS + 1];
+    private final int[] timeouts = new int[CHAPTERS + 1];
+    private final double[] durationSum = new double[CHAPTERS + 1];
+    private final float[] durationMin = new float[CHAPTERS + 1];
+    private final float[] durationMax = new float[CHAPTERS + 1];
+    private final long[] summoned = new long[CHAPTERS + 1];
+    private final long[] defeated = new long[CHAPTERS + 1];
+    private long outcomeHash = 1125899906842597L;
+
+    public static void main(String[] args) {
+        HeadlessBattleRunner runner = new HeadlessBattleRunner();
+        try {
+            runner.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        runner.run();
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i += 2) {
+            String option = args[i];
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[i + 1];
+            switch (option) {
+                case "--battles":
+                    battles = atLeast(option, Integer.parseInt(value), 1);
+                    break;
+                case "--warmup":
+                    warmup = atLeast(option, Integer.parseInt(value), 0);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--chapter":
+                    chapter = Integer.parseInt(value);
+                    if (chapter < 0 || chapter > CHAPTERS) {
+                        throw new IllegalArgumentException("--chapter must be 0.." + CHAPTERS);
+                    }
+                    break;
+                case "--commander":
+                    if (!value.equals("random") && !value.equals("scripted")) {
+                        throw new IllegalArgumentException("Unknown commander " + value);
+                    }
+                    scripted = value.equals("scripted");
+                    break;
+                case "--dt":
+                    dt = Float.parseFloat(value);
+                    if (!(dt > 0f)) {
+                        throw new IllegalArgumentException("--dt must be positive");
+                    }
+                    break;
+                case "--max-seconds":
+                    maxSeconds = Float.parseFloat(value);
+                    break;
+                case "--width":
+                    width = atLeast(option, Integer.parseInt(value), 1);
+                    break;
+                case "--height":
+                    height = atLeast(option, Integer.parseInt(value), 1);
+                    break;
+                case "--threads":
+                    threads = atLeast(option, Integer.parseInt(value), 1);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + option);
+            }
+        }
+    }
+
+    private static int atLeast(String option, int value, int min) {
+        if (value < min) {
+            throw new IllegalArgumentException(option + " must be at least " + min);
+        }
+        return value;
+    }
+
+    private void run() {
+        chapterOf = new int[battles];
+        outcome = new int[battles];
+        elapsedOf = new float[battles];
+        playerHpOf = new int[battles];
+        enemyHpOf = new int[battles];
+        summonedOf = new int[battles];
+        defeatedOf = new int[battles];
+        int workerCount = Math.min(threads, battles);
+        List<Worker> workers = new ArrayList<>();
+        for (int w = 0; w < workerCount; w++) {
+            workers.add(new Worker());
+        }
+        runAll(workers, Worker::warmUp);
+        AtomicInteger next = new AtomicInteger();
+        long wallStart = System.nanoTime();
+        runAll(workers, worker -> {
+            for (int i = next.getAndIncrement(); i < battles; i = next.getAndIncrement()) {
+                worker.play(i);
+            }
+        });
+        long wallNanos = System.nanoTime() - wallStart;
+        for (Worker worker : workers) {
+            worker.mergeTimings();
+        }
+        tally();
+        report(wallNanos, workerCount);
+    }
+
+    private interface WorkerTask {
+        void run(Worker worker);
+    }
+
+    // The first worker runs on the calling thread, so --threads 1 starts no threads at all.
+    private static void runAll(List<Worker> workers, WorkerTask task) {
+        List<Thread> started = new ArrayList<>();
+        for (int w = 1; w < workers.size(); w++) {
+            Worker worker = workers.get(w);
+            Thread thread = new Thread(() -> task.run(worker), "battle-worker-" + w);
+            thread.start();
+            started.add(thread);
+        }
+        task.run(workers.get(0));
+        for (Thread thread : started) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while waiting for " + thread.getName(), e);
+            }
+        }
+    }
+
+    private void tally() {
+        for (int c = 0; c <= CHAPTERS; c++) {
+            durationMin[c] = Float.MAX_VALUE;
+        }
+        for (int i = 0; i < battles; i++) {
+            int chapterIndex = chapterOf[i];
+            float elapsed = elapsedOf[i];
+            int result = outcome[i];
+            int[] counter = result == VICTORY ? victories : result == DEFEAT ? defeats : timeouts;
+            counter[chapterIndex]++;
+            counter[0]++;
+            for (int c : new int[]{chapterIndex, 0}) {
+                durationSum[c] += elapsed;
+                durationMin[c] = Math.min(durationMin[c], elapsed);
+                durationMax[c] = Math.max(durationMax[c], elapsed);
+                summoned[c] += summonedOf[i];
+                defeated[c] += defeatedOf[i];
+            }
+            outcomeHash = outcomeHash * 31L + result;
+            outcomeHash = outcomeHash * 31L + Float.floatToIntBits(elapsed);
+            outcomeHash = outcomeHash * 31L + playerHpOf[i];
+            outcomeHash = outcomeHash * 31L + enemyHpOf[i];
+        }
+    }
+
+    // One BattleManager with its own timing counters; a worker only ever touches its own battle
+    // and the result slots of the battle indices it took.
+    private final class Worker implements BattleManager.BattleEvents, BattleManager.TickProfiler {
+        private final BattleManager battle = new BattleManager(new BattlePalette(0xFF67F5FF, 0xFFB38CFF, 0xFFFF5F75, 0xFFFFC857, 0xFF5CF2A1));
+        private final int[] tickHistogram = new int[HISTOGRAM_MICROS + 1];
+        private final long[] sectionNanos = new long[BattleManager.SECTION_COUNT];
+        private final long[] sectionCalls = new long[BattleManager.SECTION_COUNT];
+        private long tickCount;
+        private long tickNanosTotal;
+        private boolean recording;
+        private boolean ended;
+        private boolean victory;
+        private MatchStats lastStats;
+        private int scriptedSummons;
+
+        Worker() {
+            battle.setBattleEvents(this);
+            battle.setViewport(width, height);
+        }
+
+        void warmUp() {
+            for (int i = 0; i < warmup; i++) {
+                play(-1 - i);
+            }
+            battle.setTickProfiler(this);
+            recording = true;
+        }
+
+        void play(int index) {
+            int chapterIndex = chapter > 0 ? chapter : 1 + Math.floorMod(index, CHAPTERS);
+            Random random = new Random(seed * 31L + index);
+            if (scripted) {
+                battle.startChapter(chapterIndex, RoyalOath.SANCTUM);
+            } else {
+                battle.startChapter(chapterIndex);
+            }
+            scriptedSummons = 0;
+            ended = false;
+            lastStats = null;
+            float elapsed = 0f;
+            float nextDecision = 0f;
+            while (!ended && elapsed < maxSeconds) {
+                if (elapsed >= nextDecision) {
+                    if (scripted) {
+                        command();
+                    } else {
+                        decide(random);
+                    }
+                    nextDecision += DECISION_INTERVAL;
+                }
+                long start = System.nanoTime();
+                battle.update(dt);
+                long nanos = System.nanoTime() - start;
+                elapsed += dt;
+                if (recording) {
+                    tickCount++;
+                    tickNanosTotal += nanos;
+                    tickHistogram[(int) Math.min(HISTOGRAM_MICROS, nanos / 1000L)]++;
+                }
+                if (battle.getGameState() == GameState.GAME_OVER) {
+                    ended = true;
+                }
+            }
+            if (!recording) {
+                return;
+            }
+            chapterOf[index] = chapterIndex;
+            outcome[index] = !ended ? TIMEOUT : victory ? VICTORY : DEFEAT;
+            elapsedOf[index] = elapsed;
+            playerHpOf[index] = battle.getPlayerHp();
+            enemyHpOf[index] = battle.getEnemyHp();
+            if (ended && lastStats != null) {
+                summonedOf[index] = lastStats.unitsSummoned;
+                defeatedOf[index] = lastStats.enemiesDefeated;
+            }
+        }
+
+        // Called after every worker thread has been joined.
+        void mergeTimings() {
+            HeadlessBattleRunner runner = HeadlessBattleRunner.this;
+            for (int i = 0; i <= HISTOGRAM_MICROS; i++) {
+                runner.tickHistogram[i] += tickHistogram[i];
+            }
+            for (int s = 0; s < BattleManager.SECTION_COUNT; s++) {
+                runner.sectionNanos[s] += sectionNanos[s];
+                runner.sectionCalls[s] += sectionCalls[s];
+            }
+            runner.tickCount += tickCount;
+            runner.tickNanosTotal += tickNanosTotal;
+        }
+
+        // Mirrors a player tapping HUD buttons: the battle rejects actions it cannot afford, as it does for taps.
+        private void decide(Random random) {
+            int roll = random.nextInt(100);
+            if (roll < 14) {
+                battle.summonFootman();
+            } else if (roll < 26) {
+                battle.summonArcher();
+            } else if (roll < 34) {
+                battle.summonKnight();
+            } else if (roll < 40) {
+                battle.summonCleric();
+            } else if (roll < 46) {
+                battle.summonWarMage();
+            } else if (roll < 49) {
+                battle.summonTitan();
+            } else if (roll < 52) {
+                battle.castMeteor();
+            } else if (roll < 55) {
+                battle.castChainStorm();
+            } else if (roll < 58) {
+                battle.castHolySurge();
+            } else if (roll < 61) {
+                battle.triggerHeroSkill();
+            } else if (roll < 63) {
+                RoyalOath[] oaths = RoyalOath.values();
+                battle.switchOath(oaths[random.nextInt(oaths.length)]);
+            }
+        }
+
+        // A deliberate commander. It opens under Sanctum, banks mana and spends it on titan and cleric
+        // pairs, sending one footman after the third pair to take the first blows while the pairs
+        // behind catch up, so the host reaches the enemy spawn as one block. Past mid-lane it turns to
+        // Ember, where two titan blows fell a marauder and the rest of the swing lands on the
+        // stronghold. Chain Storm finishes off stragglers and Holy Surge answers a worn-down line.
+        private void command() {
+            int enemyCount = 0;
+            boolean stragglers = true;
+            for (Unit enemy : battle.getEnemies()) {
+                if (enemy.isAlive()) {
+                    enemyCount++;
+                    stragglers &= enemy.getHp() <= CHAIN_STORM_DAMAGE;
+                }
+            }
+            int wounded = 0;
+            float front = 0f;
+            for (Unit ally : battle.getAllies()) {
+                if (ally.isAlive()) {
+                    front = Math.max(front, ally.getX());
+                    if (ally.getHp() < ally.getMaxHp() * 0.6f) {
+                        wounded++;
+                    }
+                }
+            }
+            if (front > width * 0.7f && battle.getActiveOath() != RoyalOath.EMBER) {
+                battle.switchOath(RoyalOath.EMBER);
+            }
+            if (enemyCount > 0 && enemyCount <= 3 && stragglers) {
+                battle.castChainStorm();
+            }
+            if (wounded >= 3) {
+                battle.castHolySurge();
+            }
+            if (battle.getEnergy() < MANA_RESERVE) {
+                return;
+            }
+            int screen = OPENING_PAIRS * 2;
+            int pairStep = scriptedSummons > screen ? scriptedSummons - 1 : scriptedSummons;
+            boolean summoned;
+            if (scriptedSummons == screen) {
+                summoned = battle.summonFootman();
+            } else if (pairStep % 2 == 0) {
+                summoned = battle.summonTitan();
+            } else {
+                summoned = battle.summonCleric();
+            }
+            if (summoned) {
+                scriptedSummons++;
+            }
+        }
+
+        @Override
+        public void onHudChanged() {
+        }
+
+        @Override
+        public void onBattleEnded(boolean victory, MatchStats stats) {
+            this.victory = victory;
+            lastStats = stats;
+        }
+
+        @Override
+        public void onSection(int section, long nanos) {
+            sectionNanos[section] += nanos;
+            sectionCalls[section]++;
+        }
+    }
+
+    private void report(long wallNanos, int workerCount) {
+        double wallSeconds = wallNanos / 1e9;
+        System.out.println(String.format(Locale.US, "battles=%d seed=%d dt=%.4f viewport=%dx%d threads=%d wall=%.2fs battles/s=%.1f ticks/s=%.0f",
+                battles, seed, dt, width, height, workerCount, wallSeconds, battles / wallSeconds, tickCount / wallSeconds));
+        System.out.println("chapter  battles  win%   loss%  timeout%  avgSec  minSec  maxSec  summoned/b  defeated/b");
+        for (int c = 1; c <= CHAPTERS; c++) {
+            printChapter(String.valueOf(c), c);
+        }
+        printChapter("all", 0);
+        System.out.println(String.format(Locale.US, "tick us: mean=%.2f p50=%d p95=%d p99=%d max=%s",
+                tickCount == 0 ? 0.0 : tickNanosTotal / 1000.0 / tickCount, percentile(0.5), percentile(0.95), percentile(0.99), maxBucket()));
+        System.out.println("section             calls      total ms  us/call  us/tick");
+        for (int s = 0; s < BattleManager.SECTION_COUNT; s++) {
+            System.out.println(String.format(Locale.US, "%-18s %9d %11.1f %8.2f %8.2f", SECTION_NAMES[s], sectionCalls[s], sectionNanos[s] / 1e6,
+                    sectionCalls[s] == 0 ? 0.0 : sectionNanos[s] / 1000.0 / sectionCalls[s], tickCount == 0 ? 0.0 : sectionNanos[s] / 1000.0 / tickCount));
+        }
+        System.out.println(String.format(Locale.US, "outcome hash %016x", outcomeHash));
+    }
+
+    private void printChapter(String label, int c) {
+        int count = victories[c] + defeats[c] + timeouts[c];
+        if (count == 0) {
+            return;
+        }
+        int finished = victories[c] + defeats[c];
+        System.out.println(String.format(Locale.US, "%-8s %7d %6.1f %6.1f %8.1f %7.1f %7.1f %7.1f %11.1f %11.1f", label, count,
+                100.0 * victories[c] / count, 100.0 * defeats[c] / count, 100.0 * timeouts[c] / count,
+                durationSum[c] / count, durationMin[c], durationMax[c],
+                finished == 0 ? 0.0 : (double) summoned[c] / finished, finished == 0 ? 0.0 : (double) defeated[c] / finished));
+    }
+
+    private long percentile(double fraction) {
+        long target = (long) Math.ceil(tickCount * fraction);
+        long seen = 0;
+        for (int i = 0; i <= HISTOGRAM_MICROS; i++) {
+            seen += tickHistogram[i];
+            if (seen >= target && seen > 0) {
+                return i;
+            }
+        }
+        return HISTOGRAM_MICROS;
+    }
+
+    private String maxBucket() {
+        for (int i = HISTOGRAM_MICROS; i >= 0; i--) {
+            if (tickHistogram[i] > 0) {
+                return i == HISTOGRAM_MICROS ? ">=" + i : String.valueOf(i);
+            }
+        }
+        return "0";
+    }
+}
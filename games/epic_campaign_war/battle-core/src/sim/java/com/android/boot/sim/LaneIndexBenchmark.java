@@ -0,0 +1,282 @@
+package com.android.boot.sim;
+
+import com.android.boot.core.LaneIndex;
+import com.android.boot.entity.Archer;
+import com.android.boot.entity.Behemoth;
+import com.android.boot.entity.BlackKnight;
+import com.android.boot.entity.ChaosMage;
+import com.android.boot.entity.Cleric;
+import com.android.boot.entity.CultPriest;
+import com.android.boot.entity.DarkArcher;
+import com.android.boot.entity.Footman;
+import com.android.boot.entity.Knight;
+import com.android.boot.entity.Marauder;
+import com.android.boot.entity.Team;
+import com.android.boot.entity.Titan;
+import com.android.boot.entity.Unit;
+import com.android.boot.entity.WarMage;
+
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+
+// Times the lane-sorted target index against the front-to-back list scans BattleManager used
+// before it, on two crowded armies that drift, die and respawn every tick. Every query is run
+// both ways and must return the same unit; any mismatch is reported and fails the run.
+// Usage: LaneIndexBenchmark [--units N (per side, 0 = 60 and 300)] [--ticks N] [--warmup N] [--seed S]
+public class LaneIndexBenchmark {
+    private static final String USAGE = "Usage: LaneIndexBenchmark [--units N (per side, 0 = 60 and 300)] [--ticks N] [--warmup N] [--seed S]";
+    private static final float LANE_WIDTH = 2400f;
+    private static final float LANE_Y = 780f;
+    private static final int PROBES_PER_TICK = 40;
+
+    private int units;
+    private int ticks = 3000;
+    private int warmup = 500;
+    private long seed = 1L;
+
+    private final ArrayList<Unit> allies = new ArrayList<>();
+    private final ArrayList<Unit> enemies = new ArrayList<>();
+    private final LaneIndex allyLane = new LaneIndex();
+    private final LaneIndex enemyLane = new LaneIndex();
+    private final float[] probes = new float[PROBES_PER_TICK];
+    private Unit[] scanResults = new Unit[0];
+    private Unit[] indexResults = new Unit[0];
+    private long mismatches;
+
+    public static void main(String[] args) {
+        LaneIndexBenchmark benchmark = new LaneIndexBenchmark();
+        try {
+            benchmark.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        int[] sizes = benchmark.units > 0 ? new int[]{benchmark.units} : new int[]{60, 300};
+        System.out.println("units/side  ticks  scan us/tick  index us/tick  speedup  mismatches");
+        long totalMismatches = 0;
+        for (int size : sizes) {
+            totalMismatches += benchmark.run(size);
+        }
+        if (totalMismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i += 2) {
+            String option = args[i];
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[i + 1];
+            switch (option) {
+                case "--units":
+                    units = Integer.parseInt(value);
+                    break;
+                case "--ticks":
+                    ticks = Integer.parseInt(value);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + option);
+            }
+        }
+    }
+
+    private long run(int perSide) {
+        Random random = new Random(seed * 31L + perSide);
+        allies.clear();
+        enemies.clear();
+        allyLane.clear();
+        enemyLane.clear();
+        mismatches = 0;
+        int queries = 2 * perSide + PROBES_PER_TICK;
+        scanResults = new Unit[queries];
+        indexResults = new Unit[queries];
+        long scanNanos = 0;
+        long indexNanos = 0;
+        for (int t = 0; t < warmup + ticks; t++) {
+            step(random, perSide);
+            long start = System.nanoTime();
+            scanAll();
+            long middle = System.nanoTime();
+            indexAll();
+            long end = System.nanoTime();
+            if (t >= warmup) {
+                scanNanos += middle - start;
+                indexNanos += end - middle;
+            }
+            compare(queries);
+        }
+        double scanMicros = scanNanos / 1000.0 / ticks;
+        double indexMicros = indexNanos / 1000.0 / ticks;
+        System.out.println(String.format(Locale.US, "%10d %6d %13.1f %14.1f %7.2fx %11d",
+                perSide, ticks, scanMicros, indexMicros, indexMicros == 0.0 ? 0.0 : scanMicros / indexMicros, mismatches));
+        return mismatches;
+    }
+
+    // Mirrors one BattleManager tick from the index's point of view: the dead are cleaned up,
+    // the armies are topped up, survivors drift along the lane and a few take lethal damage.
+    // Positions snap to whole pixels now and then so equal-distance ties actually occur.
+    private void step(Random random, int perSide) {
+        cleanup(allies, allyLane);
+        cleanup(enemies, enemyLane);
+        while (allies.size() < perSide) {
+            allies.add(ally(random.nextInt(6), 100f + random.nextFloat() * 1200f));
+        }
+        while (enemies.size() < perSide) {
+            enemies.add(enemy(random.nextInt(6), 1100f + random.nextFloat() * 1200f));
+        }
+        drift(allies, random, 1f);
+        drift(enemies, random, -1f);
+        kill(allies, random);
+        kill(enemies, random);
+        for (int i = 0; i < PROBES_PER_TICK; i++) {
+            probes[i] = random.nextFloat() * LANE_WIDTH;
+        }
+    }
+
+    private static void cleanup(ArrayList<Unit> list, LaneIndex lane) {
+        for (int i = list.size() - 1; i >= 0; i--) {
+            Unit unit = list.get(i);
+            if (!unit.isAlive()) {
+                list.remove(i);
+                lane.remove(unit);
+            }
+        }
+    }
+
+    private static void drift(ArrayList<Unit> list, Random random, float direction) {
+        for (Unit unit : list) {
+            float x = unit.getX() + direction * random.nextFloat() * 2.5f - direction * 0.6f;
+            if (random.nextInt(8) == 0) {
+                x = Math.round(x);
+            }
+            unit.setPosition(Math.max(0f, Math.min(LANE_WIDTH, x)), unit.getY());
+        }
+    }
+
+    private static void kill(ArrayList<Unit> list, Random random) {
+        for (Unit unit : list) {
+            if (random.nextInt(60) == 0) {
+                unit.damage(unit.getMaxHp());
+            }
+        }
+    }
+
+    private void scanAll() {
+        int q = 0;
+        for (Unit unit : allies) {
+            scanResults[q++] = scanTarget(unit, enemies);
+        }
+        for (Unit unit : enemies) {
+            scanResults[q++] = scanTarget(unit, allies);
+        }
+        for (int i = 0; i < PROBES_PER_TICK; i++) {
+            scanResults[q++] = scanHit(probes[i], i % 2 == 0 ? enemies : allies);
+        }
+    }
+
+    private void indexAll() {
+        int q = 0;
+        enemyLane.sync(enemies);
+        allyLane.sync(allies);
+        for (Unit unit : allies) {
+            indexResults[q++] = indexTarget(unit, enemyLane);
+        }
+        for (Unit unit : enemies) {
+            indexResults[q++] = indexTarget(unit, allyLane);
+        }
+        for (int i = 0; i < PROBES_PER_TICK; i++) {
+            indexResults[q++] = (i % 2 == 0 ? enemyLane : allyLane).firstHit(probes[i]);
+        }
+    }
+
+    private void compare(int queries) {
+        for (int i = 0; i < queries; i++) {
+            if (scanResults[i] != indexResults[i]) {
+                mismatches++;
+            }
+            scanResults[i] = null;
+            indexResults[i] = null;
+        }
+    }
+
+    // BattleManager.findTarget before the lane index.
+    private static Unit scanTarget(Unit unit, ArrayList<Unit> others) {
+        Unit chosen = null;
+        float best = Float.MAX_VALUE;
+        for (Unit other : others) {
+            if (!other.isAlive()) {
+                continue;
+            }
+            float distance = Math.abs(other.getX() - unit.getX());
+            boolean inFront = unit.getTeam() == Team.ALLY ? other.getX() >= unit.getX() - 12f : other.getX() <= unit.getX() + 12f;
+            if (inFront && distance < best) {
+                best = distance;
+                chosen = other;
+            }
+        }
+        return chosen;
+    }
+
+    // BattleManager.findTarget today.
+    private static Unit indexTarget(Unit unit, LaneIndex others) {
+        float x = unit.getX();
+        if (unit.getTeam() == Team.ALLY) {
+            return others.nearest(x, x - 12f, Float.POSITIVE_INFINITY);
+        }
+        return others.nearest(x, Float.NEGATIVE_INFINITY, x + 12f);
+    }
+
+    // The projectile hit loop in updateProjectiles before the lane index.
+    private static Unit scanHit(float x, ArrayList<Unit> targets) {
+        for (Unit target : targets) {
+            if (target.isAlive() && Math.abs(target.getX() - x) < target.getSize() * 0.45f) {
+                return target;
+            }
+        }
+        return null;
+    }
+
+    private static Unit ally(int kind, float x) {
+        switch (kind) {
+            case 0:
+                return new Footman(x, LANE_Y);
+            case 1:
+                return new Archer(x, LANE_Y);
+            case 2:
+                return new Knight(x, LANE_Y);
+            case 3:
+                return new Cleric(x, LANE_Y);
+            case 4:
+                return new WarMage(x, LANE_Y);
+            default:
+                return new Titan(x, LANE_Y);
+        }
+    }
+
+    private static Unit enemy(int kind, float x) {
+        switch (kind) {
+            case 0:
+                return new Marauder(x, LANE_Y);
+            case 1:
+                return new DarkArcher(x, LANE_Y);
+            case 2:
+                return new BlackKnight(x, LANE_Y);
+            case 3:
+                return new ChaosMage(x, LANE_Y);
+            case 4:
+                return new CultPriest(x, LANE_Y);
+            default:
+                return new Behemoth(x, LANE_Y);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.android.boot.core;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Shader;
+import java.util.Random;
+
+public class BackgroundRenderer {
+  private static final int FAR_DOTS = 220;
+  private static final int NEAR_DOTS = 140;
+  private static final int PATCHES = 35;
+  private static final float PARALLAX = 0.06f;
+  private static final float DRIFT_SPEED = 6f;
+
+  private final Random random = new Random();
+  private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+  private final Paint gradientPaint = new Paint();
+  private final Paint pathPaint = new Paint();
+  private final Paint grassPaintFar = new Paint();
+  private final Paint grassPaintNear = new Paint();
+  private final Paint patchPaint = new Paint();
+  private final float[] nearX = new float[NEAR_DOTS];
+  private final float[] nearY = new float[NEAR_DOTS];
+  private final float[] nearR = new float[NEAR_DOTS];
+
+  private Bitmap cache;
+  private int width;
+  private int height;
+  private volatile long seed = 0x5EEDL;
+  private volatile boolean parallaxEnabled = true;
+  private volatile boolean dirty = true;
+  private float driftX;
+  private float driftY;
+
+  public BackgroundRenderer() {
+    pathPaint.setColor(0x332F3F26);
+    grassPaintFar.setColor(0x33228B22);
+    grassPaintNear.setColor(0x5532A852);
+    patchPaint.setColor(0x332E2E2E);
+  }
+
+  public void setParallaxEnabled(boolean enabled) {
+    if (parallaxEnabled != enabled) {
+      parallaxEnabled = enabled;
+      dirty = true;
+    }
+  }
+
+  public boolean isParallaxEnabled() {
+    return parallaxEnabled;
+  }
+
+  // Takes effect on the next draw, on the render thread, so the cached bitmap is never
+  // recycled while it is being drawn.
+  public void reseed(long seed) {
+    this.seed = seed;
+    dirty = true;
+  }
+
+  public void update(float delta) {
+    driftX += delta * DRIFT_SPEED;
+    driftY += delta * DRIFT_SPEED * 0.35f;
+  }
+
+  public void draw(Canvas canvas, int width, int height, float focusX, float focusY) {
+    if (width <= 0 || height <= 0) {
+      return;
+    }
+    if (dirty || cache == null || this.width != width || this.height != height) {
+      build(width, height);
+    }
+    canvas.drawBitmap(cache, 0f, 0f, bitmapPaint);
+    if (!parallaxEnabled) {
+      return;
+    }
+    driftX = wrap(driftX, width);
+    driftY = wrap(driftY, height);
+    float offsetX = (width * 0.5f - focusX) * PARALLAX + driftX;
+    float offsetY = (height * 0.5f - focusY) * PARALLAX + driftY;
+    for (int i = 0; i < NEAR_DOTS; i++) {
+      float x = wrap(nearX[i] + offsetX, width);
+      float y = wrap(nearY[i] + offsetY, height);
+      canvas.drawCircle(x, y, nearR[i], grassPaintNear);
+    }
+  }
+
+  public void release() {
+    if (cache != null) {
+      cache.recycle();
+      cache = null;
+    }
+  }
+
+  private void build(int width, int height) {
+    release();
+    dirty = false;
+    this.width = width;
+    this.height = height;
+    random.setSeed(seed);
+    cache = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    Canvas canvas = new Canvas(cache);
+
+    gradientPaint.setShader(new LinearGradient(
+        0, 0, 0, height,
+        0xFF102418,
+        0xFF264A2C,
+        Shader.TileMode.CLAMP));
+    canvas.drawRect(0, 0, width, height, gradientPaint);
+
+    float pathWidth = width * 0.35f;
+    float pathCenterX = width * 0.5f;
+    canvas.drawRect(pathCenterX - pathWidth * 0.5f, 0, pathCenterX + pathWidth * 0.5f, height, pathPaint);
+
+    for (int i = 0; i < FAR_DOTS; i++) {
+      float gx = random.nextFloat() * width;
+      float gy = random.nextFloat() * height;
+      canvas.drawCircle(gx, gy, 1.5f + random.nextFloat() * 2.5f, grassPaintFar);
+    }
+    for (int i = 0; i < NEAR_DOTS; i++) {
+      nearX[i] = random.nextFloat() * width;
+      nearY[i] = random.nextFloat() * height;
+      nearR[i] = 2.5f + random.nextFloat() * 3.5f;
+      if (!parallaxEnabled) {
+        canvas.drawCircle(nearX[i], nearY[i], nearR[i], grassPaintNear);
+      }
+    }
+
+    for (int i = 0; i < PATCHES; i++) {
+      float px = random.nextFloat() * width;
+      float py = random.nextFloat() * height;
+      float rw = 14f + random.nextFloat() * 24f;
+      float rh = 6f + random.nextFloat() * 14f;
+      canvas.save();
+      canvas.rotate((random.nextFloat() - 0.5f) * 40f, px, py);
+      canvas.drawRoundRect(px - rw * 0.5f, py - rh * 0.5f,
+          px + rw * 0.5f, py + rh * 0.5f, 4f, 4f, patchPaint);
+      canvas.restore();
+    }
+  }
+
+  private static float wrap(float value, int size) {
+    float r = value % size;
+    return r < 0f ? r + size : r;
+  }
+}
@@ -0,0 +1,226 @@
+package com.android.boot.core;
+
+import java.util.Arrays;
+
+// Fixed-cell broadphase over the arena. The static layer holds boxes (obstacles, placeables)
+// and is rebuilt only when they change; the dynamic layer holds points (enemies) in per-cell
+// linked lists that can be moved without a rebuild. Positions outside the arena clamp to the
+// edge cells. Queries return ids sorted ascending, so callers can keep their array-order loops.
+public class CollisionGrid {
+  public static final float CELL_SIZE = 64f;
+  // Guards against rounding at cell edges; candidates are always tested exactly by the caller.
+  private static final float PAD = 1f;
+
+  private int cols;
+  private int rows;
+  private int[] staticStart = new int[1];
+  private int[] staticItems = new int[0];
+  private int[] cursor = new int[0];
+  private int[] stageIds = new int[16];
+  private int[] stageBounds = new int[64];
+  private int stageCount;
+  private int[] head = new int[0];
+  private int[] next = new int[0];
+  private int[] prev = new int[0];
+  private int[] cellOf = new int[0];
+  private float maxRadius;
+  private int[] result = new int[32];
+  private int resultCount;
+  private int[] seen = new int[0];
+  private int seenStamp;
+
+  public void configure(int width, int height, int dynamicCapacity) {
+    int c = Math.max(1, (int) Math.ceil(width / CELL_SIZE));
+    int r = Math.max(1, (int) Math.ceil(height / CELL_SIZE));
+    if (c != cols || r != rows) {
+      cols = c;
+      rows = r;
+      head = new int[c * r];
+      staticStart = new int[c * r + 1];
+      cursor = new int[c * r];
+      staticItems = new int[0];
+    }
+    if (next.length < dynamicCapacity) {
+      next = new int[dynamicCapacity];
+      prev = new int[dynamicCapacity];
+      cellOf = new int[dynamicCapacity];
+    }
+    clearDynamic();
+  }
+
+  public boolean isConfigured() {
+    return cols > 0;
+  }
+
+  public void beginStatic() {
+    stageCount = 0;
+  }
+
+  public void addStatic(int id, float left, float top, float right, float bottom) {
+    if (stageCount == stageIds.length) {
+      stageIds = Arrays.copyOf(stageIds, stageCount * 2);
+      stageBounds = Arrays.copyOf(stageBounds, stageCount * 8);
+    }
+    int b = stageCount * 4;
+    stageIds[stageCount++] = id;
+    stageBounds[b] = col(left);
+    stageBounds[b + 1] = row(top);
+    stageBounds[b + 2] = col(right);
+    stageBounds[b + 3] = row(bottom);
+    ensureSeen(id);
+  }
+
+  public void endStatic() {
+    Arrays.fill(staticStart, 0);
+    int total = 0;
+    for (int i = 0; i < stageCount; i++) {
+      int b = i * 4;
+      for (int cx = stageBounds[b]; cx <= stageBounds[b + 2]; cx++) {
+        for (int cy = stageBounds[b + 1]; cy <= stageBounds[b + 3]; cy++) {
+          staticStart[cy * cols + cx + 1]++;
+          total++;
+        }
+      }
+    }
+    for (int c = 0; c < cols * rows; c++) {
+      staticStart[c + 1] += staticStart[c];
+    }
+    if (staticItems.length < total) {
+      staticItems = new int[total];
+    }
+    System.arraycopy(staticStart, 0, cursor, 0, cols * rows);
+    for (int i = 0; i < stageCount; i++) {
+      int b = i * 4;
+      for (int cx = stageBounds[b]; cx <= stageBounds[b + 2]; cx++) {
+        for (int cy = stageBounds[b + 1]; cy <= stageBounds[b + 3]; cy++) {
+          staticItems[cursor[cy * cols + cx]++] = stageIds[i];
+        }
+      }
+    }
+  }
+
+  public void clearDynamic() {
+    Arrays.fill(head, -1);
+    Arrays.fill(cellOf, -1);
+    maxRadius = 0f;
+  }
+
+  public void insertDynamic(int id, float x, float y, float radius) {
+    int cell = row(y) * cols + col(x);
+    link(id, cell);
+    if (radius > maxRadius) {
+      maxRadius = radius;
+    }
+  }
+
+  public void moveDynamic(int id, float x, float y) {
+    int cell = row(y) * cols + col(x);
+    if (cellOf[id] == cell) {
+      return;
+    }
+    unlink(id);
+    link(id, cell);
+  }
+
+  public void removeDynamic(int id) {
+    if (cellOf[id] >= 0) {
+      unlink(id);
+    }
+  }
+
+  // Ids of static boxes whose cells overlap [left, right] x [top, bottom].
+  public int queryStatic(float left, float top, float right, float bottom) {
+    resultCount = 0;
+    if (++seenStamp == Integer.MAX_VALUE) {
+      Arrays.fill(seen, 0);
+      seenStamp = 1;
+    }
+    int cx0 = col(left - PAD);
+    int cx1 = col(right + PAD);
+    int cy0 = row(top - PAD);
+    int cy1 = row(bottom + PAD);
+    for (int cy = cy0; cy <= cy1; cy++) {
+      for (int cx = cx0; cx <= cx1; cx++) {
+        int cell = cy * cols + cx;
+        for (int k = staticStart[cell]; k < staticStart[cell + 1]; k++) {
+          int id = staticItems[k];
+          if (seen[id] != seenStamp) {
+            seen[id] = seenStamp;
+            append(id);
+          }
+        }
+      }
+    }
+    Arrays.sort(result, 0, resultCount);
+    return resultCount;
+  }
+
+  // Ids of dynamic points that could lie within range of (x, y) plus the largest inserted radius.
+  public int queryDynamic(float x, float y, float range) {
+    resultCount = 0;
+    float reach = range + maxRadius + PAD;
+    int cx0 = col(x - reach);
+    int cx1 = col(x + reach);
+    int cy0 = row(y - reach);
+    int cy1 = row(y + reach);
+    for (int cy = cy0; cy <= cy1; cy++) {
+      for (int cx = cx0; cx <= cx1; cx++) {
+        for (int id = head[cy * cols + cx]; id >= 0; id = next[id]) {
+          append(id);
+        }
+      }
+    }
+    Arrays.sort(result, 0, resultCount);
+    return resultCount;
+  }
+
+  public int result(int index) {
+    return result[index];
+  }
+
+  private void link(int id, int cell) {
+    int first = head[cell];
+    next[id] = first;
+    prev[id] = -1;
+    if (first >= 0) {
+      prev[first] = id;
+    }
+    head[cell] = id;
+    cellOf[id] = cell;
+  }
+
+  private void unlink(int id) {
+    if (prev[id] >= 0) {
+      next[prev[id]] = next[id];
+    } else {
+      head[cellOf[id]] = next[id];
+    }
+    if (next[id] >= 0) {
+      prev[next[id]] = prev[id];
+    }
+    cellOf[id] = -1;
+  }
+
+  private void append(int id) {
+    if (resultCount == result.length) {
+      result = Arrays.copyOf(result, resultCount * 2);
+    }
+    result[resultCount++] = id;
+  }
+
+  private void ensureSeen(int id) {
+    if (id >= seen.length) {
+      seen = Arrays.copyOf(seen, Math.max(id + 1, seen.length * 2));
+    }
+  }
+
+  private int col(float x) {
+    int c = (int) Math.floor(x / CELL_SIZE);
+    return c < 0 ? 0 : c >= cols ? cols - 1 : c;
+  }
+
+  private int row(float y) {
+    int r = (int) Math.floor(y / CELL_SIZE);
+    return r < 0 ? 0 : r >= rows ? rows - 1 : r;
+  }
+}
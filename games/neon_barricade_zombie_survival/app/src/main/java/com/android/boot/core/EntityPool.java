@@ -0,0 +1,113 @@
+package com.android.boot.core;
+
+// Fixed-capacity pool addressed by slot. Free slots form an intrusive singly linked list
+// threaded through nextFree, so acquire and release are O(1); live slots are kept in a dense
+// list (swap-remove on release) so update and render loops only touch live objects.
+// Releasing while walking the dense list is safe when the walk runs from the end.
+public class EntityPool<T> {
+  public interface Factory<T> {
+    T create();
+  }
+
+  private final Object[] items;
+  private final int[] nextFree;
+  private final int[] live;
+  private final int[] livePos;
+  private int freeHead;
+  private int liveCount;
+  private int highWater;
+  private int saturated;
+
+  public EntityPool(int capacity, Factory<T> factory) {
+    items = new Object[capacity];
+    nextFree = new int[capacity];
+    live = new int[capacity];
+    livePos = new int[capacity];
+    for (int i = 0; i < capacity; i++) {
+      items[i] = factory.create();
+    }
+    clear();
+  }
+
+  public int capacity() {
+    return items.length;
+  }
+
+  @SuppressWarnings("unchecked")
+  public T get(int slot) {
+    return (T) items[slot];
+  }
+
+  // Returns the claimed slot, or -1 when the pool is full.
+  public int acquire() {
+    int slot = freeHead;
+    if (slot < 0) {
+      saturated++;
+      return -1;
+    }
+    freeHead = nextFree[slot];
+    nextFree[slot] = -1;
+    livePos[slot] = liveCount;
+    live[liveCount++] = slot;
+    if (liveCount > highWater) {
+      highWater = liveCount;
+    }
+    return slot;
+  }
+
+  // Releasing a slot that is already free is a no-op.
+  public void release(int slot) {
+    int pos = livePos[slot];
+    if (pos < 0) {
+      return;
+    }
+    int last = live[--liveCount];
+    live[pos] = last;
+    livePos[last] = pos;
+    livePos[slot] = -1;
+    nextFree[slot] = freeHead;
+    freeHead = slot;
+  }
+
+  public boolean isLive(int slot) {
+    return livePos[slot] >= 0;
+  }
+
+  // Frees every slot; afterwards slots are handed out in ascending order.
+  public void clear() {
+    int capacity = items.length;
+    for (int i = 0; i < capacity; i++) {
+      nextFree[i] = i + 1 < capacity ? i + 1 : -1;
+      livePos[i] = -1;
+    }
+    freeHead = capacity > 0 ? 0 : -1;
+    liveCount = 0;
+  }
+
+  public int liveCount() {
+    return liveCount;
+  }
+
+  public int liveSlot(int index) {
+    return live[index];
+  }
+
+  @SuppressWarnings("unchecked")
+  public T liveItem(int index) {
+    return (T) items[live[index]];
+  }
+
+  public int getHighWater() {
+    return highWater;
+  }
+
+  // Number of acquire calls turned away because every slot was live.
+  public int getSaturationCount() {
+    return saturated;
+  }
+
+  public void resetStats() {
+    highWater = liveCount;
+    saturated = 0;
+  }
+}
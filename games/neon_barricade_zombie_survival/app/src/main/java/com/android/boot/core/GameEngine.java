@@ -14,6 +14,7 @@ import com.android.boot.entity.Player;
 import com.android.boot.fx.FloatingText;
 import com.android.boot.fx.Particle;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class GameEngine {
   public interface Listener {
@@ -35,6 +36,7 @@ public class GameEngine {
   private static final int MOD_TANKY = 2;
   private static final int MOD_REGEN = 3;
   private static final int MOD_EXPLODE = 4;
+  private static final float AIM_ASSIST_RANGE = 600f;
 
   private final Random random = new Random();
   private final GameTimer timer = new GameTimer();
@@ -54,17 +56,23 @@ public class GameEngine {
   private final Paint paintText = new Paint();
   private final Paint paintJoystick = new Paint();
   private final Paint paintAim = new Paint();
+  private final Paint obstaclePaint = new Paint();
+  private final Paint obstacleHpPaint = new Paint();
+  private final android.graphics.RectF obstacleRect = new android.graphics.RectF();
+  private final android.graphics.Path obstaclePath = new android.graphics.Path();
+  private final BackgroundRenderer background = new BackgroundRenderer();
+  private final CollisionGrid grid = new CollisionGrid();
 
   private Listener listener;
   private GameState state = GameState.MENU;
   private Player player;
-  private final Enemy[] enemies = new Enemy[MAX_ENEMIES];
-  private final Bullet[] bullets = new Bullet[MAX_BULLETS];
-  private final Pickup[] pickups = new Pickup[MAX_PICKUPS];
-  private final Particle[] particles = new Particle[MAX_PARTICLES];
-  private final FloatingText[] texts = new FloatingText[MAX_TEXTS];
-  private final Obstacle[] obstacles = new Obstacle[MAX_OBSTACLES];
-  private final Placeable[] placeables = new Placeable[MAX_PLACEABLES];
+  private final EntityPool<Enemy> enemies = new EntityPool<>(MAX_ENEMIES, Enemy::new);
+  private final EntityPool<Bullet> bullets = new EntityPool<>(MAX_BULLETS, Bullet::new);
+  private final EntityPool<Pickup> pickups = new EntityPool<>(MAX_PICKUPS, Pickup::new);
+  private final EntityPool<Particle> particles = new EntityPool<>(MAX_PARTICLES, Particle::new);
+  private final EntityPool<FloatingText> texts = new EntityPool<>(MAX_TEXTS, FloatingText::new);
+  private final EntityPool<Obstacle> obstacles = new EntityPool<>(MAX_OBSTACLES, Obstacle::new);
+  private final EntityPool<Placeable> placeables = new EntityPool<>(MAX_PLACEABLES, Placeable::new);
 
   private int width;
   private int height;
@@ -86,6 +94,16 @@ public class GameEngine {
   private int kills;
   private int score;
   private boolean gameOverSent;
+  private volatile boolean staticDirty = true;
+  // Resizes, new runs, skill and placement requests arrive on the UI thread and are applied on
+  // the next update, so the pools are only ever mutated by the game thread.
+  private final AtomicLong pendingSize = new AtomicLong(-1L);
+  private volatile boolean runRequested;
+  private volatile boolean skillRequested;
+  private volatile int pendingPlaceType = -1;
+  private volatile boolean pendingPlaceAtPlayer;
+  private volatile float pendingPlaceX;
+  private volatile float pendingPlaceY;
 
   private Weapon currentWeapon;
   private Weapon[] availableWeapons;
@@ -155,36 +173,19 @@ public class GameEngine {
     paintAim.setColor(context.getColor(R.color.cst_accent));
     paintAim.setStyle(Paint.Style.STROKE);
     paintAim.setStrokeWidth(4f);
-    for (int i = 0; i < MAX_ENEMIES; i++) {
-      enemies[i] = new Enemy();
-    }
-    for (int i = 0; i < MAX_BULLETS; i++) {
-      bullets[i] = new Bullet();
-    }
-    for (int i = 0; i < MAX_PICKUPS; i++) {
-      pickups[i] = new Pickup();
-    }
-    for (int i = 0; i < MAX_PARTICLES; i++) {
-      particles[i] = new Particle();
-    }
-    for (int i = 0; i < MAX_TEXTS; i++) {
-      texts[i] = new FloatingText();
-    }
-    for (int i = 0; i < MAX_OBSTACLES; i++) {
-      obstacles[i] = new Obstacle();
-    }
-    for (int i = 0; i < MAX_PLACEABLES; i++) {
-      placeables[i] = new Placeable();
-    }
+    obstaclePaint.setAntiAlias(true);
+    obstacleHpPaint.setColor(0xFFFF3D5A);
   }
 
   private void initMap() {
     if (width <= 0 || height <= 0) {
       return;
     }
-    for (Obstacle obs : obstacles) {
-      obs.deactivate();
+    for (int i = obstacles.liveCount() - 1; i >= 0; i--) {
+      obstacles.liveItem(i).deactivate();
     }
+    obstacles.clear();
+    background.reseed(random.nextLong());
     int count = 0;
     // Generate wilderness style map: houses, trees, rivers, etc.
     // Generate 1-2 dilapidated wooden houses
@@ -192,7 +193,7 @@ public class GameEngine {
       float x = width * (0.15f + random.nextFloat() * 0.7f);
       float y = height * (0.15f + random.nextFloat() * 0.7f);
       if (Math.abs(x - width * 0.5f) > 120f || Math.abs(y - height * 0.5f) > 120f) {
-        obstacles[count].spawn(x, y, 80f + random.nextFloat() * 40f, 60f + random.nextFloat() * 30f,
+        obstacles.get(obstacles.acquire()).spawn(x, y, 80f + random.nextFloat() * 40f, 60f + random.nextFloat() * 30f,
             Obstacle.TYPE_HOUSE, false, 200f);
         count++;
       }
@@ -203,7 +204,7 @@ public class GameEngine {
       float y = height * (0.1f + random.nextFloat() * 0.8f);
       if (Math.abs(x - width * 0.5f) > 80f || Math.abs(y - height * 0.5f) > 80f) {
         float treeSize = 25f + random.nextFloat() * 20f;
-        obstacles[count].spawn(x, y, treeSize, treeSize * 1.2f,
+        obstacles.get(obstacles.acquire()).spawn(x, y, treeSize, treeSize * 1.2f,
             Obstacle.TYPE_TREE, false, 0f);
         count++;
       }
@@ -215,14 +216,14 @@ public class GameEngine {
         float riverY = height * (0.3f + random.nextFloat() * 0.4f);
         for (int i = 0; i < 6 && count < MAX_OBSTACLES; i++) {
           float riverX = width * (0.1f + i * 0.15f);
-          obstacles[count].spawn(riverX, riverY, 60f, 25f, Obstacle.TYPE_RIVER, false, 0f);
+          obstacles.get(obstacles.acquire()).spawn(riverX, riverY, 60f, 25f, Obstacle.TYPE_RIVER, false, 0f);
           count++;
         }
       } else {
         float riverX = width * (0.3f + random.nextFloat() * 0.4f);
         for (int i = 0; i < 5 && count < MAX_OBSTACLES; i++) {
           float riverY = height * (0.1f + i * 0.18f);
-          obstacles[count].spawn(riverX, riverY, 25f, 60f, Obstacle.TYPE_RIVER, false, 0f);
+          obstacles.get(obstacles.acquire()).spawn(riverX, riverY, 25f, 60f, Obstacle.TYPE_RIVER, false, 0f);
           count++;
         }
       }
@@ -233,10 +234,11 @@ public class GameEngine {
       float y = height * (0.2f + random.nextFloat() * 0.6f);
       if (Math.abs(x - width * 0.5f) > 100f || Math.abs(y - height * 0.5f) > 100f) {
         float rockSize = 20f + random.nextFloat() * 15f;
-        obstacles[count].spawn(x, y, rockSize, rockSize, Obstacle.TYPE_ROCK, false, 0f);
+        obstacles.get(obstacles.acquire()).spawn(x, y, rockSize, rockSize, Obstacle.TYPE_ROCK, false, 0f);
         count++;
       }
     }
+    staticDirty = true;
   }
 
   public void setListener(Listener listener) {
@@ -244,8 +246,14 @@ public class GameEngine {
   }
 
   public void setSize(int width, int height) {
+    pendingSize.set(((long) width << 32) | (height & 0xFFFFFFFFL));
+  }
+
+  private void applySize(int width, int height) {
     this.width = width;
     this.height = height;
+    // The grid's cell counts follow the viewport, so a resize always reconfigures it.
+    staticDirty = true;
     if (player == null) {
       player = new Player(width * 0.5f, height * 0.5f);
     } else {
@@ -258,6 +266,10 @@ public class GameEngine {
   }
 
   public void startNewRun() {
+    runRequested = true;
+  }
+
+  private void beginRun() {
     resetStats();
     if (player == null) {
       player = new Player(width * 0.5f, height * 0.5f);
@@ -310,6 +322,7 @@ public class GameEngine {
   }
 
   public void update(float delta) {
+    applyPendingLifecycle();
     if (state == GameState.MENU || state == GameState.GAME_OVER) {
       return;
     }
@@ -320,11 +333,18 @@ public class GameEngine {
     hitCooldown.update(delta);
     fireCooldown.update(delta);
     skillCooldown.update(delta);
+    background.update(delta);
+    if (staticDirty || !grid.isConfigured()) {
+      rebuildStaticLayer();
+    }
+    applyPendingActions();
+    rebuildEnemyLayer();
 
     updatePlayer(delta);
     updateAutoAim();
     updateSpawning(delta);
     updateEnemies(delta);
+    rebuildEnemyLayer();
     updateBullets(delta);
     updatePickups(delta);
     updatePlaceables(delta);
@@ -365,62 +385,9 @@ public class GameEngine {
   }
 
   private void renderBackground(Canvas canvas) {
-    if (width <= 0 || height <= 0) {
-      return;
-    }
-    // 1. Overall grass background (gradient from dark to light), creating wilderness atmosphere
-    Paint bgPaint = new Paint();
-    android.graphics.LinearGradient grassGradient = new android.graphics.LinearGradient(
-        0, 0, 0, height,
-        0xFF102418, // Darker at top
-        0xFF264A2C, // Lighter at bottom
-        android.graphics.Shader.TileMode.CLAMP);
-    bgPaint.setShader(grassGradient);
-    canvas.drawRect(0, 0, width, height, bgPaint);
-
-    // 2. A slightly brighter "trodden path" in the middle area, making player activity area clearer
-    Paint pathPaint = new Paint();
-    pathPaint.setColor(0x332F3F26);
-    float pathWidth = width * 0.35f;
-    float pathCenterX = width * 0.5f;
-    android.graphics.RectF pathRect = new android.graphics.RectF(
-        pathCenterX - pathWidth * 0.5f, 0,
-        pathCenterX + pathWidth * 0.5f, height);
-    canvas.drawRect(pathRect, pathPaint);
-
-    // 3. Grass texture: layered grass dots for stronger depth perception
-    Paint grassPaintFar = new Paint();
-    grassPaintFar.setColor(0x33228B22);
-    Paint grassPaintNear = new Paint();
-    grassPaintNear.setColor(0x5532A852);
-
-    int countFar = 220;
-    int countNear = 140;
-    for (int i = 0; i < countFar; i++) {
-      float gx = random.nextFloat() * width;
-      float gy = random.nextFloat() * height;
-      canvas.drawCircle(gx, gy, 1.5f + random.nextFloat() * 2.5f, grassPaintFar);
-    }
-    for (int i = 0; i < countNear; i++) {
-      float gx = random.nextFloat() * width;
-      float gy = random.nextFloat() * height;
-      canvas.drawCircle(gx, gy, 2.5f + random.nextFloat() * 3.5f, grassPaintNear);
-    }
-
-    // 4. Small amount of debris and dry grass patches, enhancing wilderness decay feel (not obstacles, just background texture)
-    Paint patchPaint = new Paint();
-    patchPaint.setColor(0x332E2E2E);
-    for (int i = 0; i < 35; i++) {
-      float px = random.nextFloat() * width;
-      float py = random.nextFloat() * height;
-      float rw = 14f + random.nextFloat() * 24f;
-      float rh = 6f + random.nextFloat() * 14f;
-      canvas.save();
-      canvas.rotate((random.nextFloat() - 0.5f) * 40f, px, py);
-      canvas.drawRoundRect(px - rw * 0.5f, py - rh * 0.5f,
-          px + rw * 0.5f, py + rh * 0.5f, 4f, 4f, patchPaint);
-      canvas.restore();
-    }
+    float focusX = player == null ? width * 0.5f : player.x;
+    float focusY = player == null ? height * 0.5f : player.y;
+    background.draw(canvas, width, height, focusX, focusY);
   }
 
   public void applyUpgrade(int index) {
@@ -459,6 +426,41 @@ public class GameEngine {
   }
 
   public void triggerSkill() {
+    skillRequested = true;
+  }
+
+  // Applied before the state checks, because a resize or a new run can arrive from any state.
+  private void applyPendingLifecycle() {
+    long size = pendingSize.getAndSet(-1L);
+    if (size != -1L) {
+      applySize((int) (size >> 32), (int) size);
+    }
+    if (runRequested) {
+      runRequested = false;
+      beginRun();
+    }
+  }
+
+  private void applyPendingActions() {
+    if (skillRequested) {
+      skillRequested = false;
+      performSkill();
+    }
+    int placeType = pendingPlaceType;
+    if (placeType >= 0) {
+      pendingPlaceType = -1;
+      if (pendingPlaceAtPlayer) {
+        placeAtPlayer(placeType);
+      } else {
+        spawnPlaceable(placeType, pendingPlaceX, pendingPlaceY);
+      }
+      if (staticDirty) {
+        rebuildStaticLayer();
+      }
+    }
+  }
+
+  private void performSkill() {
     if (state != GameState.PLAYING) {
       return;
     }
@@ -473,10 +475,8 @@ public class GameEngine {
     skillCooldown.start(skillCooldownSeconds);
     soundManager.playShock();
     float radius = 220f;
-    for (Enemy enemy : enemies) {
-      if (!enemy.active) {
-        continue;
-      }
+    for (int i = 0; i < enemies.liveCount(); i++) {
+      Enemy enemy = enemies.liveItem(i);
       float dx = enemy.x - player.x;
       float dy = enemy.y - player.y;
       float dist = (float) Math.hypot(dx, dy);
@@ -497,6 +497,7 @@ public class GameEngine {
 
   public void release() {
     soundManager.release();
+    background.release();
   }
 
   private void updatePlayer(float delta) {
@@ -522,24 +523,65 @@ public class GameEngine {
     }
   }
 
+  // Obstacles only change on map init, so the static layer is rebuilt lazily at the start of
+  // the next update; placements rebuild it directly.
+  private void rebuildStaticLayer() {
+    staticDirty = false;
+    grid.configure(width, height, MAX_ENEMIES);
+    grid.beginStatic();
+    for (int i = 0; i < obstacles.liveCount(); i++) {
+      int slot = obstacles.liveSlot(i);
+      Obstacle obs = obstacles.get(slot);
+      grid.addStatic(slot, obs.x - obs.width * 0.5f, obs.y - obs.height * 0.5f,
+          obs.x + obs.width * 0.5f, obs.y + obs.height * 0.5f);
+    }
+    for (int i = 0; i < placeables.liveCount(); i++) {
+      int slot = placeables.liveSlot(i);
+      Placeable place = placeables.get(slot);
+      grid.addStatic(MAX_OBSTACLES + slot, place.x - place.width * 0.5f, place.y - place.height * 0.5f,
+          place.x + place.width * 0.5f, place.y + place.height * 0.5f);
+    }
+    grid.endStatic();
+  }
+
+  private void rebuildEnemyLayer() {
+    grid.clearDynamic();
+    for (int i = 0; i < enemies.liveCount(); i++) {
+      int slot = enemies.liveSlot(i);
+      Enemy enemy = enemies.get(slot);
+      grid.insertDynamic(slot, enemy.x, enemy.y, enemy.radius);
+    }
+  }
+
   private boolean checkObstacleCollision(float x, float y, float radius) {
-    for (Obstacle obs : obstacles) {
-      if (!obs.active) continue;
-      if (obs.contains(x, y)) return true;
-      float dx = Math.max(obs.x - obs.width * 0.5f, Math.min(x, obs.x + obs.width * 0.5f)) - x;
-      float dy = Math.max(obs.y - obs.height * 0.5f, Math.min(y, obs.y + obs.height * 0.5f)) - y;
-      if (dx * dx + dy * dy < radius * radius) return true;
-    }
-    for (Placeable place : placeables) {
-      if (!place.active) continue;
-      if (place.contains(x, y)) return true;
-      float dx = Math.max(place.x - place.width * 0.5f, Math.min(x, place.x + place.width * 0.5f)) - x;
-      float dy = Math.max(place.y - place.height * 0.5f, Math.min(y, place.y + place.height * 0.5f)) - y;
-      if (dx * dx + dy * dy < radius * radius) return true;
+    int count = grid.queryStatic(x - radius, y - radius, x + radius, y + radius);
+    for (int i = 0; i < count; i++) {
+      int id = grid.result(i);
+      if (id < MAX_OBSTACLES) {
+        if (blocks(obstacles.get(id), x, y, radius)) return true;
+      } else if (blocks(placeables.get(id - MAX_OBSTACLES), x, y, radius)) {
+        return true;
+      }
     }
     return false;
   }
 
+  private static boolean blocks(Obstacle obs, float x, float y, float radius) {
+    if (!obs.active) return false;
+    if (obs.contains(x, y)) return true;
+    float dx = Math.max(obs.x - obs.width * 0.5f, Math.min(x, obs.x + obs.width * 0.5f)) - x;
+    float dy = Math.max(obs.y - obs.height * 0.5f, Math.min(y, obs.y + obs.height * 0.5f)) - y;
+    return dx * dx + dy * dy < radius * radius;
+  }
+
+  private static boolean blocks(Placeable place, float x, float y, float radius) {
+    if (!place.active) return false;
+    if (place.contains(x, y)) return true;
+    float dx = Math.max(place.x - place.width * 0.5f, Math.min(x, place.x + place.width * 0.5f)) - x;
+    float dy = Math.max(place.y - place.height * 0.5f, Math.min(y, place.y + place.height * 0.5f)) - y;
+    return dx * dx + dy * dy < radius * radius;
+  }
+
   private void updateSpawning(float delta) {
     spawnTimer -= delta;
     eliteTimer -= delta;
@@ -555,10 +597,11 @@ public class GameEngine {
   }
 
   private void spawnEnemy(boolean elite) {
-    Enemy enemy = getInactiveEnemy();
-    if (enemy == null) {
+    int slot = enemies.acquire();
+    if (slot < 0) {
       return;
     }
+    Enemy enemy = enemies.get(slot);
     float x;
     float y;
     int edge = random.nextInt(4);
@@ -606,10 +649,8 @@ public class GameEngine {
   }
 
   private void updateEnemies(float delta) {
-    for (Enemy enemy : enemies) {
-      if (!enemy.active) {
-        continue;
-      }
+    for (int i = 0; i < enemies.liveCount(); i++) {
+      Enemy enemy = enemies.liveItem(i);
       float dx = player.x - enemy.x;
       float dy = player.y - enemy.y;
       float dist = (float) Math.hypot(dx, dy);
@@ -645,29 +686,36 @@ public class GameEngine {
   }
 
   private void updateBullets(float delta) {
-    for (Bullet bullet : bullets) {
-      if (!bullet.active) {
-        continue;
-      }
+    for (int b = bullets.liveCount() - 1; b >= 0; b--) {
+      int slot = bullets.liveSlot(b);
+      Bullet bullet = bullets.get(slot);
       bullet.x += bullet.vx * delta;
       bullet.y += bullet.vy * delta;
       if (bullet.x < -20f || bullet.x > width + 20f || bullet.y < -20f || bullet.y > height + 20f) {
-        bullet.deactivate();
+        releaseBullet(slot);
         continue;
       }
-      for (Obstacle obs : obstacles) {
+      int obstacleCount = grid.queryStatic(bullet.x, bullet.y, bullet.x, bullet.y);
+      for (int i = 0; i < obstacleCount; i++) {
+        int id = grid.result(i);
+        if (id >= MAX_OBSTACLES) continue;
+        Obstacle obs = obstacles.get(id);
         if (!obs.active || !obs.destructible) continue;
         if (obs.contains(bullet.x, bullet.y)) {
           obs.hp -= bullet.damage;
-          bullet.deactivate();
+          releaseBullet(slot);
           if (obs.hp <= 0f) {
             obs.deactivate();
+            obstacles.release(id);
             spawnParticles(obs.x, obs.y, 8);
           }
           continue;
         }
       }
-      for (Enemy enemy : enemies) {
+      int enemyCount = grid.queryDynamic(bullet.x, bullet.y, bullet.radius);
+      for (int i = 0; i < enemyCount; i++) {
+        int id = grid.result(i);
+        Enemy enemy = enemies.get(id);
         if (!enemy.active) {
           continue;
         }
@@ -683,14 +731,15 @@ public class GameEngine {
           float kb = currentWeapon.knockback * knockbackMultiplier;
           enemy.x += nx * kb * 0.1f;
           enemy.y += ny * kb * 0.1f;
+          grid.moveDynamic(id, enemy.x, enemy.y);
           spawnParticles(bullet.x, bullet.y, 2);
           if (bullet.pierce <= 0) {
-            bullet.deactivate();
+            releaseBullet(slot);
           } else {
             bullet.pierce -= 1;
           }
           if (enemy.hp <= 0f) {
-            handleEnemyDeath(enemy);
+            handleEnemyDeath(id);
           }
           break;
         }
@@ -699,10 +748,9 @@ public class GameEngine {
   }
 
   private void updatePickups(float delta) {
-    for (Pickup pickup : pickups) {
-      if (!pickup.active) {
-        continue;
-      }
+    for (int i = pickups.liveCount() - 1; i >= 0; i--) {
+      int slot = pickups.liveSlot(i);
+      Pickup pickup = pickups.get(slot);
       float dx = player.x - pickup.x;
       float dy = player.y - pickup.y;
       float dist = (float) Math.hypot(dx, dy);
@@ -713,17 +761,21 @@ public class GameEngine {
         pickup.y += ny * 280f * delta;
       }
       if (dist < pickup.radius + player.radius) {
-        applyPickup(pickup);
+        applyPickup(slot);
       }
     }
   }
 
   private void updatePlaceables(float delta) {
-    for (Placeable place : placeables) {
-      if (!place.active) continue;
+    for (int p = placeables.liveCount() - 1; p >= 0; p--) {
+      int slot = placeables.liveSlot(p);
+      Placeable place = placeables.get(slot);
       place.cooldownTimer -= delta;
       if (place.type == Placeable.TYPE_MINE) {
-        for (Enemy enemy : enemies) {
+        int count = grid.queryDynamic(place.x, place.y, place.triggerRadius);
+        for (int i = 0; i < count; i++) {
+          int id = grid.result(i);
+          Enemy enemy = enemies.get(id);
           if (!enemy.active) continue;
           float dx = enemy.x - place.x;
           float dy = enemy.y - place.y;
@@ -732,16 +784,19 @@ public class GameEngine {
             enemy.hp -= place.damage;
             spawnParticles(place.x, place.y, 12);
             if (enemy.hp <= 0f) {
-              handleEnemyDeath(enemy);
+              handleEnemyDeath(id);
             }
             place.deactivate();
+            placeables.release(slot);
             break;
           }
         }
       } else if (place.type == Placeable.TYPE_TURRET && place.cooldownTimer <= 0f) {
         Enemy nearest = null;
         float nearestDist = place.triggerRadius;
-        for (Enemy enemy : enemies) {
+        int count = grid.queryDynamic(place.x, place.y, place.triggerRadius);
+        for (int i = 0; i < count; i++) {
+          Enemy enemy = enemies.get(grid.result(i));
           if (!enemy.active) continue;
           float dx = enemy.x - place.x;
           float dy = enemy.y - place.y;
@@ -757,9 +812,9 @@ public class GameEngine {
           float dist = (float) Math.hypot(dx, dy);
           float dirX = dx / dist;
           float dirY = dy / dist;
-          Bullet bullet = getInactiveBullet();
-          if (bullet != null) {
-            bullet.spawn(place.x, place.y, dirX * 600f, dirY * 600f, place.damage, 0, 0xFFFFD700, 5f);
+          int bulletSlot = bullets.acquire();
+          if (bulletSlot >= 0) {
+            bullets.get(bulletSlot).spawn(place.x, place.y, dirX * 600f, dirY * 600f, place.damage, 0, 0xFFFFD700, 5f);
           }
           place.cooldownTimer = place.cooldown;
         }
@@ -768,28 +823,26 @@ public class GameEngine {
   }
 
   private void updateParticles(float delta) {
-    for (Particle particle : particles) {
-      if (!particle.active) {
-        continue;
-      }
+    for (int i = particles.liveCount() - 1; i >= 0; i--) {
+      Particle particle = particles.liveItem(i);
       particle.x += particle.vx * delta;
       particle.y += particle.vy * delta;
       particle.life -= delta;
       if (particle.life <= 0f) {
         particle.deactivate();
+        particles.release(particles.liveSlot(i));
       }
     }
   }
 
   private void updateTexts(float delta) {
-    for (FloatingText text : texts) {
-      if (!text.active) {
-        continue;
-      }
+    for (int i = texts.liveCount() - 1; i >= 0; i--) {
+      FloatingText text = texts.liveItem(i);
       text.y += text.vy * delta;
       text.life -= delta;
       if (text.life <= 0f) {
         text.deactivate();
+        texts.release(texts.liveSlot(i));
       }
     }
   }
@@ -826,14 +879,16 @@ public class GameEngine {
     if (aimAssistEnabled) {
       Enemy nearest = null;
       float nearestDist = Float.MAX_VALUE;
-    for (Enemy enemy : enemies) {
-      if (!enemy.active) {
-        continue;
-      }
-      float dx = enemy.x - player.x;
-      float dy = enemy.y - player.y;
+      int count = grid.queryDynamic(player.x, player.y, AIM_ASSIST_RANGE);
+      for (int i = 0; i < count; i++) {
+        Enemy enemy = enemies.get(grid.result(i));
+        if (!enemy.active) {
+          continue;
+        }
+        float dx = enemy.x - player.x;
+        float dy = enemy.y - player.y;
         float dist = (float) Math.hypot(dx, dy);
-        if (dist < nearestDist && dist < 600f) { // Max aim assist distance 600 pixels
+        if (dist < nearestDist && dist < AIM_ASSIST_RANGE) {
           nearest = enemy;
           nearestDist = dist;
         }
@@ -880,22 +935,29 @@ public class GameEngine {
   }
 
   public void placeItem(int type, float x, float y) {
+    pendingPlaceX = x;
+    pendingPlaceY = y;
+    pendingPlaceAtPlayer = false;
+    pendingPlaceType = type;
+  }
+
+  private void spawnPlaceable(int type, float x, float y) {
     if (type == Placeable.TYPE_WALL && wallItemCount <= 0) {
       return;
     }
     if (type == Placeable.TYPE_MINE && mineItemCount <= 0) {
       return;
     }
-    for (Placeable placeable : placeables) {
-      if (!placeable.active) {
-        placeable.spawn(x, y, type);
-        if (type == Placeable.TYPE_WALL) {
-          wallItemCount--;
-        } else if (type == Placeable.TYPE_MINE) {
-          mineItemCount--;
-        }
-        break;
-      }
+    int slot = placeables.acquire();
+    if (slot < 0) {
+      return;
+    }
+    placeables.get(slot).spawn(x, y, type);
+    staticDirty = true;
+    if (type == Placeable.TYPE_WALL) {
+      wallItemCount--;
+    } else if (type == Placeable.TYPE_MINE) {
+      mineItemCount--;
     }
   }
 
@@ -924,6 +986,11 @@ public class GameEngine {
   }
 
   public void placeItemAtPlayer(int type) {
+    pendingPlaceAtPlayer = true;
+    pendingPlaceType = type;
+  }
+
+  private void placeAtPlayer(int type) {
     float placeDistance = 60f;
     float placeX = player.x + aimDirX * placeDistance;
     float placeY = player.y + aimDirY * placeDistance;
@@ -933,13 +1000,33 @@ public class GameEngine {
     if (checkObstacleCollision(placeX, placeY, 15f)) {
       return;
     }
-    placeItem(type, placeX, placeY);
+    spawnPlaceable(type, placeX, placeY);
   }
 
   public Weapon[] getAvailableWeapons() {
     return availableWeapons;
   }
 
+  // One line per pool: live/capacity, high-water mark and spawns turned away because the pool
+  // was full. Used to tune the MAX_* sizes.
+  public String getPoolStats() {
+    StringBuilder out = new StringBuilder();
+    appendPoolStats(out, "enemies", enemies);
+    appendPoolStats(out, "bullets", bullets);
+    appendPoolStats(out, "pickups", pickups);
+    appendPoolStats(out, "particles", particles);
+    appendPoolStats(out, "texts", texts);
+    appendPoolStats(out, "obstacles", obstacles);
+    appendPoolStats(out, "placeables", placeables);
+    return out.toString();
+  }
+
+  private static void appendPoolStats(StringBuilder out, String name, EntityPool<?> pool) {
+    out.append(name).append(' ').append(pool.liveCount()).append('/').append(pool.capacity())
+        .append(" peak ").append(pool.getHighWater())
+        .append(" full ").append(pool.getSaturationCount()).append('\n');
+  }
+
   private void fireBurst() {
     float baseDamage = currentWeapon.damage * damageMultiplier;
     soundManager.playShoot();
@@ -963,10 +1050,11 @@ public class GameEngine {
   }
 
   private void spawnBullet(float dirX, float dirY, float damage) {
-    Bullet bullet = getInactiveBullet();
-    if (bullet == null) {
+    int slot = bullets.acquire();
+    if (slot < 0) {
       return;
     }
+    Bullet bullet = bullets.get(slot);
     float speed = currentWeapon.bulletSpeed;
     int pierce = currentWeapon.pierce + pierceBonus;
     float radius = currentWeapon.type == Weapon.TYPE_LAUNCHER ? 10f : currentWeapon.type == Weapon.TYPE_SHOTGUN ? 5f : 6f;
@@ -974,8 +1062,11 @@ public class GameEngine {
         dirX * speed, dirY * speed, damage, pierce, currentWeapon.color, radius);
   }
 
-  private void handleEnemyDeath(Enemy enemy) {
+  private void handleEnemyDeath(int slot) {
+    Enemy enemy = enemies.get(slot);
     enemy.deactivate();
+    enemies.release(slot);
+    grid.removeDynamic(slot);
     kills += 1;
     score += enemy.elite ? 60 : 15;
     spawnText(enemy.x, enemy.y, enemy.elite ? "+60" : "+15");
@@ -1016,24 +1107,21 @@ public class GameEngine {
   }
 
   private void spawnWeaponPickup(float x, float y, int weaponType) {
-    for (Pickup pickup : pickups) {
-      if (!pickup.active) {
-        pickup.spawnWeapon(x, y, weaponType);
-        break;
-      }
+    int slot = pickups.acquire();
+    if (slot >= 0) {
+      pickups.get(slot).spawnWeapon(x, y, weaponType);
     }
   }
 
   private void spawnPlaceablePickup(float x, float y, int placeableType) {
-    for (Pickup pickup : pickups) {
-      if (!pickup.active) {
-        pickup.spawnPlaceable(x, y, placeableType);
-        break;
-      }
+    int slot = pickups.acquire();
+    if (slot >= 0) {
+      pickups.get(slot).spawnPlaceable(x, y, placeableType);
     }
   }
 
-  private void applyPickup(Pickup pickup) {
+  private void applyPickup(int slot) {
+    Pickup pickup = pickups.get(slot);
     if (pickup.type == Pickup.TYPE_ENERGY) {
       player.energy = Math.min(player.maxEnergy, player.energy + pickup.value);
     } else if (pickup.type == Pickup.TYPE_COIN) {
@@ -1051,24 +1139,24 @@ public class GameEngine {
       spawnText(pickup.x, pickup.y, "Mine +1");
     }
     pickup.deactivate();
+    pickups.release(slot);
     soundManager.playPickup();
   }
 
   private void spawnPickup(float x, float y, int type, float value) {
-    for (Pickup pickup : pickups) {
-      if (!pickup.active) {
-        pickup.spawn(x, y, type, value);
-        break;
-      }
+    int slot = pickups.acquire();
+    if (slot >= 0) {
+      pickups.get(slot).spawn(x, y, type, value);
     }
   }
 
   private void spawnParticles(float x, float y, int count) {
     for (int i = 0; i < count; i++) {
-      Particle particle = getInactiveParticle();
-      if (particle == null) {
+      int slot = particles.acquire();
+      if (slot < 0) {
         return;
       }
+      Particle particle = particles.get(slot);
       float angle = random.nextFloat() * 6.2831855f;
       float speed = 120f + random.nextFloat() * 120f;
       float vx = (float) Math.cos(angle) * speed;
@@ -1078,39 +1166,15 @@ public class GameEngine {
   }
 
   private void spawnText(float x, float y, String text) {
-    for (FloatingText t : texts) {
-      if (!t.active) {
-        t.spawn(x, y, -30f, 0.8f, text);
-        return;
-      }
+    int slot = texts.acquire();
+    if (slot >= 0) {
+      texts.get(slot).spawn(x, y, -30f, 0.8f, text);
     }
   }
 
-  private Enemy getInactiveEnemy() {
-    for (Enemy enemy : enemies) {
-      if (!enemy.active) {
-        return enemy;
-      }
-    }
-    return null;
-  }
-
-  private Bullet getInactiveBullet() {
-    for (Bullet bullet : bullets) {
-      if (!bullet.active) {
-        return bullet;
-      }
-    }
-    return null;
-  }
-
-  private Particle getInactiveParticle() {
-    for (Particle particle : particles) {
-      if (!particle.active) {
-        return particle;
-      }
-    }
-    return null;
+  private void releaseBullet(int slot) {
+    bullets.get(slot).deactivate();
+    bullets.release(slot);
   }
 
   private void triggerUpgrade() {
@@ -1163,28 +1227,36 @@ public class GameEngine {
     hitCooldown.start(0f);
     skillCooldown.start(0f);
     gameOverSent = false;
+    skillRequested = false;
+    pendingPlaceType = -1;
     clearPools();
   }
 
   private void clearPools() {
-    for (Enemy enemy : enemies) {
-      enemy.deactivate();
+    for (int i = 0; i < enemies.liveCount(); i++) {
+      enemies.liveItem(i).deactivate();
     }
-    for (Bullet bullet : bullets) {
-      bullet.deactivate();
+    for (int i = 0; i < bullets.liveCount(); i++) {
+      bullets.liveItem(i).deactivate();
     }
-    for (Pickup pickup : pickups) {
-      pickup.deactivate();
+    for (int i = 0; i < pickups.liveCount(); i++) {
+      pickups.liveItem(i).deactivate();
     }
-    for (Particle particle : particles) {
-      particle.deactivate();
+    for (int i = 0; i < particles.liveCount(); i++) {
+      particles.liveItem(i).deactivate();
     }
-    for (FloatingText text : texts) {
-      text.deactivate();
+    for (int i = 0; i < texts.liveCount(); i++) {
+      texts.liveItem(i).deactivate();
     }
-    for (Placeable place : placeables) {
-      place.deactivate();
+    for (int i = 0; i < placeables.liveCount(); i++) {
+      placeables.liveItem(i).deactivate();
     }
+    enemies.clear();
+    bullets.clear();
+    pickups.clear();
+    particles.clear();
+    texts.clear();
+    placeables.clear();
     initMap();
   }
 
@@ -1200,10 +1272,8 @@ public class GameEngine {
   }
 
   private void renderEnemies(Canvas canvas) {
-    for (Enemy enemy : enemies) {
-      if (!enemy.active) {
-        continue;
-      }
+    for (int i = 0; i < enemies.liveCount(); i++) {
+      Enemy enemy = enemies.liveItem(i);
       float dx = player.x - enemy.x;
       float dy = player.y - enemy.y;
       float dist = (float) Math.hypot(dx, dy);
@@ -1215,10 +1285,8 @@ public class GameEngine {
   }
 
   private void renderBullets(Canvas canvas) {
-    for (Bullet bullet : bullets) {
-      if (!bullet.active) {
-        continue;
-      }
+    for (int i = 0; i < bullets.liveCount(); i++) {
+      Bullet bullet = bullets.liveItem(i);
       Paint bulletPaint = new Paint();
       bulletPaint.setColor(bullet.color);
       bulletPaint.setAntiAlias(true);
@@ -1235,10 +1303,10 @@ public class GameEngine {
     if (width <= 0 || height <= 0) {
       return;
     }
-    Paint obsPaint = new Paint();
-    obsPaint.setAntiAlias(true);
-    android.graphics.RectF rect = new android.graphics.RectF();
-    for (Obstacle obs : obstacles) {
+    Paint obsPaint = obstaclePaint;
+    android.graphics.RectF rect = obstacleRect;
+    for (int i = 0; i < obstacles.liveCount(); i++) {
+      Obstacle obs = obstacles.liveItem(i);
       if (!obs.active) {
         continue;
       }
@@ -1255,94 +1323,89 @@ public class GameEngine {
           canvas.drawRoundRect(rect, 6f, 6f, obsPaint);
 
           // Roof
-          Paint roofPaint = new Paint(obsPaint);
-          roofPaint.setColor(0xFF5A3A1A);
+          obsPaint.setColor(0xFF5A3A1A);
           float left = obs.x - obs.width * 0.55f;
           float right = obs.x + obs.width * 0.55f;
           float top = obs.y - obs.height * 0.6f;
           float midY = obs.y - obs.height * 0.1f;
-          android.graphics.Path roofPath = new android.graphics.Path();
+          android.graphics.Path roofPath = obstaclePath;
+          roofPath.reset();
           roofPath.moveTo(left, midY);
           roofPath.lineTo(obs.x, top);
           roofPath.lineTo(right, midY);
           roofPath.close();
-          canvas.drawPath(roofPath, roofPaint);
+          canvas.drawPath(roofPath, obsPaint);
 
           // Door
-          Paint doorPaint = new Paint(obsPaint);
-          doorPaint.setColor(0xFF3C2A1A);
+          obsPaint.setColor(0xFF3C2A1A);
           float doorW = obs.width * 0.18f;
           float doorH = obs.height * 0.35f;
           rect.set(obs.x - doorW * 0.5f, obs.y + obs.height * 0.5f - doorH,
               obs.x + doorW * 0.5f, obs.y + obs.height * 0.5f);
-          canvas.drawRoundRect(rect, 3f, 3f, doorPaint);
+          canvas.drawRoundRect(rect, 3f, 3f, obsPaint);
 
           // Windows
-          Paint windowPaint = new Paint(obsPaint);
-          windowPaint.setColor(0xFFB3E6FF);
+          obsPaint.setColor(0xFFB3E6FF);
           float winSize = obs.width * 0.18f;
           rect.set(obs.x - obs.width * 0.3f - winSize * 0.5f, obs.y - winSize * 0.5f,
               obs.x - obs.width * 0.3f + winSize * 0.5f, obs.y + winSize * 0.5f);
-          canvas.drawRoundRect(rect, 3f, 3f, windowPaint);
+          canvas.drawRoundRect(rect, 3f, 3f, obsPaint);
           rect.set(obs.x + obs.width * 0.3f - winSize * 0.5f, obs.y - winSize * 0.5f,
               obs.x + obs.width * 0.3f + winSize * 0.5f, obs.y + winSize * 0.5f);
-          canvas.drawRoundRect(rect, 3f, 3f, windowPaint);
+          canvas.drawRoundRect(rect, 3f, 3f, obsPaint);
           break;
         }
 
         case Obstacle.TYPE_TREE: {
           // Tree: trunk + crown
           // Trunk
-          Paint trunkPaint = new Paint(obsPaint);
-          trunkPaint.setColor(0xFF5A3A1A);
+          obsPaint.setStyle(Paint.Style.FILL);
+          obsPaint.setColor(0xFF5A3A1A);
           float trunkW = obs.width * 0.18f;
           float trunkH = obs.height * 0.5f;
           rect.set(obs.x - trunkW * 0.5f, obs.y + obs.height * 0.5f - trunkH,
               obs.x + trunkW * 0.5f, obs.y + obs.height * 0.5f);
-          canvas.drawRoundRect(rect, 3f, 3f, trunkPaint);
+          canvas.drawRoundRect(rect, 3f, 3f, obsPaint);
 
           // Crown
-          Paint leafPaint = new Paint(obsPaint);
-          leafPaint.setColor(0xFF2E8B57);
+          obsPaint.setColor(0xFF2E8B57);
           float crownR = Math.max(obs.width, obs.height) * 0.35f;
-          canvas.drawCircle(obs.x, obs.y - obs.height * 0.1f, crownR, leafPaint);
-          leafPaint.setColor(0xFF3CB371);
-          canvas.drawCircle(obs.x - crownR * 0.4f, obs.y - obs.height * 0.05f, crownR * 0.7f, leafPaint);
-          canvas.drawCircle(obs.x + crownR * 0.4f, obs.y - obs.height * 0.05f, crownR * 0.6f, leafPaint);
+          canvas.drawCircle(obs.x, obs.y - obs.height * 0.1f, crownR, obsPaint);
+          obsPaint.setColor(0xFF3CB371);
+          canvas.drawCircle(obs.x - crownR * 0.4f, obs.y - obs.height * 0.05f, crownR * 0.7f, obsPaint);
+          canvas.drawCircle(obs.x + crownR * 0.4f, obs.y - obs.height * 0.05f, crownR * 0.6f, obsPaint);
           break;
         }
 
         case Obstacle.TYPE_ROCK: {
           // Rock: irregular gray stone
-          Paint rockPaint = new Paint(obsPaint);
-          rockPaint.setColor(0xFF7F8C8D);
+          obsPaint.setStyle(Paint.Style.FILL);
+          obsPaint.setColor(0xFF7F8C8D);
           rect.set(obs.x - obs.width * 0.5f, obs.y - obs.height * 0.5f,
               obs.x + obs.width * 0.5f, obs.y + obs.height * 0.5f);
-          canvas.drawRoundRect(rect, obs.width * 0.4f, obs.height * 0.4f, rockPaint);
-          rockPaint.setColor(0xFFBDC3C7);
+          canvas.drawRoundRect(rect, obs.width * 0.4f, obs.height * 0.4f, obsPaint);
+          obsPaint.setColor(0xFFBDC3C7);
           canvas.drawCircle(obs.x - obs.width * 0.15f, obs.y - obs.height * 0.15f,
-              Math.min(obs.width, obs.height) * 0.18f, rockPaint);
+              Math.min(obs.width, obs.height) * 0.18f, obsPaint);
           break;
         }
 
         case Obstacle.TYPE_RIVER: {
           // River: blue wide rectangle with gradient, as terrain blocking + decoration
-          Paint riverPaint = new Paint(obsPaint);
-          riverPaint.setStyle(Paint.Style.FILL);
-          riverPaint.setColor(0xFF1E90FF);
+          obsPaint.setStyle(Paint.Style.FILL);
+          obsPaint.setColor(0xFF1E90FF);
           rect.set(obs.x - obs.width * 0.5f, obs.y - obs.height * 0.5f,
               obs.x + obs.width * 0.5f, obs.y + obs.height * 0.5f);
-          canvas.drawRoundRect(rect, obs.height * 0.6f, obs.height * 0.6f, riverPaint);
+          canvas.drawRoundRect(rect, obs.height * 0.6f, obs.height * 0.6f, obsPaint);
 
           // Water surface highlight
-          Paint highlight = new Paint(obsPaint);
-          highlight.setColor(0x66FFFFFF);
+          obsPaint.setColor(0x66FFFFFF);
           float hx1 = rect.left + obs.width * 0.1f;
           float hx2 = rect.right - obs.width * 0.1f;
           float hy = rect.centerY() - obs.height * 0.15f;
-          canvas.drawLine(hx1, hy, hx2, hy, highlight);
+          canvas.drawLine(hx1, hy, hx2, hy, obsPaint);
           hy = rect.centerY() + obs.height * 0.05f;
-          canvas.drawLine(hx1, hy, hx2, hy, highlight);
+          canvas.drawLine(hx1, hy, hx2, hy, obsPaint);
           break;
         }
 
@@ -1359,14 +1422,12 @@ public class GameEngine {
 
       // Draw health bar for destructible objects (houses, crates, rocks, etc.)
       if (obs.destructible && obs.hp < obs.maxHp && obs.maxHp > 0f) {
-        Paint hpPaint = new Paint();
-        hpPaint.setColor(0xFFFF3D5A);
         float hpRatio = Math.max(0f, Math.min(1f, obs.hp / obs.maxHp));
         float barLeft = obs.x - obs.width * 0.5f;
         float barRight = barLeft + obs.width * hpRatio;
         float barTop = obs.y - obs.height * 0.5f - 4f;
         float barBottom = barTop + 2f;
-        canvas.drawRect(barLeft, barTop, barRight, barBottom, hpPaint);
+        canvas.drawRect(barLeft, barTop, barRight, barBottom, obstacleHpPaint);
       }
     }
   }
@@ -1378,8 +1439,8 @@ public class GameEngine {
     Paint placePaint = new Paint();
     placePaint.setAntiAlias(true);
     android.graphics.RectF rect = new android.graphics.RectF();
-    for (Placeable place : placeables) {
-      if (!place.active) continue;
+    for (int i = 0; i < placeables.liveCount(); i++) {
+      Placeable place = placeables.liveItem(i);
       if (place.type == Placeable.TYPE_WALL) {
         placePaint.setColor(0xFF3A4A5A);
         rect.set(place.x - place.width * 0.5f, place.y - place.height * 0.5f,
@@ -1402,10 +1463,8 @@ public class GameEngine {
   private void renderPickups(Canvas canvas) {
     Paint paint = new Paint();
     paint.setAntiAlias(true);
-    for (Pickup pickup : pickups) {
-      if (!pickup.active) {
-        continue;
-      }
+    for (int i = 0; i < pickups.liveCount(); i++) {
+      Pickup pickup = pickups.liveItem(i);
       if (pickup.type == Pickup.TYPE_ENERGY) {
         paint.setColor(paintPickupEnergy.getColor());
         canvas.drawCircle(pickup.x, pickup.y, pickup.radius, paint);
@@ -1434,19 +1493,15 @@ public class GameEngine {
   }
 
   private void renderParticles(Canvas canvas) {
-    for (Particle particle : particles) {
-      if (!particle.active) {
-        continue;
-      }
+    for (int i = 0; i < particles.liveCount(); i++) {
+      Particle particle = particles.liveItem(i);
       canvas.drawCircle(particle.x, particle.y, particle.size, paintParticle);
     }
   }
 
   private void renderTexts(Canvas canvas) {
-    for (FloatingText text : texts) {
-      if (!text.active) {
-        continue;
-      }
+    for (int i = 0; i < texts.liveCount(); i++) {
+      FloatingText text = texts.liveItem(i);
       canvas.drawText(text.text, text.x, text.y, paintText);
     }
   }
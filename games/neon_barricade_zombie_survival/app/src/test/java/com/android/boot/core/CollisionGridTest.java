@@ -0,0 +1,134 @@
+package com.android.boot.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.Test;
+
+// Checks the broadphase against a brute-force overlap scan: every box or point an exact test
+// would hit must come back from the grid, once, in ascending id order.
+public class CollisionGridTest {
+  private static final int WIDTH = 1080;
+  private static final int HEIGHT = 1920;
+  private static final int STATIC_COUNT = 40;
+  private static final int DYNAMIC_COUNT = 120;
+
+  @Test
+  public void staticQueryCoversEveryOverlappingBox() {
+    Random random = new Random(9);
+    for (int run = 0; run < 50; run++) {
+      CollisionGrid grid = new CollisionGrid();
+      grid.configure(WIDTH, HEIGHT, DYNAMIC_COUNT);
+      float[] boxes = new float[STATIC_COUNT * 4];
+      grid.beginStatic();
+      for (int id = 0; id < STATIC_COUNT; id++) {
+        float w = 10f + random.nextFloat() * 150f;
+        float h = 10f + random.nextFloat() * 150f;
+        float x = -40f + random.nextFloat() * (WIDTH + 80f);
+        float y = -40f + random.nextFloat() * (HEIGHT + 80f);
+        boxes[id * 4] = x - w * 0.5f;
+        boxes[id * 4 + 1] = y - h * 0.5f;
+        boxes[id * 4 + 2] = x + w * 0.5f;
+        boxes[id * 4 + 3] = y + h * 0.5f;
+        grid.addStatic(id, boxes[id * 4], boxes[id * 4 + 1], boxes[id * 4 + 2], boxes[id * 4 + 3]);
+      }
+      grid.endStatic();
+      for (int q = 0; q < 200; q++) {
+        float x = -60f + random.nextFloat() * (WIDTH + 120f);
+        float y = -60f + random.nextFloat() * (HEIGHT + 120f);
+        float r = random.nextFloat() * 90f;
+        int count = grid.queryStatic(x - r, y - r, x + r, y + r);
+        assertAscending(grid, count);
+        for (int id = 0; id < STATIC_COUNT; id++) {
+          boolean overlaps = boxes[id * 4] <= x + r && boxes[id * 4 + 2] >= x - r
+              && boxes[id * 4 + 1] <= y + r && boxes[id * 4 + 3] >= y - r;
+          if (overlaps) {
+            assertTrue("box " + id + " missing in run " + run, contains(grid, count, id));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void dynamicQueryCoversEveryPointInRangeAfterMoves() {
+    Random random = new Random(10);
+    CollisionGrid grid = new CollisionGrid();
+    grid.configure(WIDTH, HEIGHT, DYNAMIC_COUNT);
+    float[] xs = new float[DYNAMIC_COUNT];
+    float[] ys = new float[DYNAMIC_COUNT];
+    float[] radii = new float[DYNAMIC_COUNT];
+    boolean[] live = new boolean[DYNAMIC_COUNT];
+    for (int id = 0; id < DYNAMIC_COUNT; id++) {
+      xs[id] = random.nextFloat() * WIDTH;
+      ys[id] = random.nextFloat() * HEIGHT;
+      radii[id] = 12f + random.nextFloat() * 14f;
+      live[id] = true;
+      grid.insertDynamic(id, xs[id], ys[id], radii[id]);
+    }
+    for (int step = 0; step < 300; step++) {
+      for (int id = 0; id < DYNAMIC_COUNT; id++) {
+        if (!live[id]) {
+          continue;
+        }
+        if (random.nextInt(50) == 0) {
+          live[id] = false;
+          grid.removeDynamic(id);
+          continue;
+        }
+        xs[id] += (random.nextFloat() - 0.5f) * 40f;
+        ys[id] += (random.nextFloat() - 0.5f) * 40f;
+        grid.moveDynamic(id, xs[id], ys[id]);
+      }
+      for (int q = 0; q < 20; q++) {
+        float x = random.nextFloat() * WIDTH;
+        float y = random.nextFloat() * HEIGHT;
+        float range = random.nextFloat() * 120f;
+        int count = grid.queryDynamic(x, y, range);
+        assertAscending(grid, count);
+        for (int id = 0; id < DYNAMIC_COUNT; id++) {
+          float dx = xs[id] - x;
+          float dy = ys[id] - y;
+          float reach = range + radii[id];
+          boolean inRange = dx * dx + dy * dy <= reach * reach;
+          if (live[id] && inRange) {
+            assertTrue("point " + id + " missing at step " + step, contains(grid, count, id));
+          }
+          if (!live[id]) {
+            assertFalse("removed point " + id + " returned", contains(grid, count, id));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void reconfigureOnResizeDropsStaleStaticBoxes() {
+    CollisionGrid grid = new CollisionGrid();
+    grid.configure(WIDTH, HEIGHT, DYNAMIC_COUNT);
+    grid.beginStatic();
+    grid.addStatic(3, 900f, 1700f, 1000f, 1800f);
+    grid.endStatic();
+    grid.configure(HEIGHT, WIDTH, DYNAMIC_COUNT);
+    grid.beginStatic();
+    grid.endStatic();
+    assertEquals(0, grid.queryStatic(0f, 0f, HEIGHT, WIDTH));
+  }
+
+  private static void assertAscending(CollisionGrid grid, int count) {
+    for (int i = 1; i < count; i++) {
+      assertTrue(grid.result(i - 1) < grid.result(i));
+    }
+  }
+
+  private static boolean contains(CollisionGrid grid, int count, int id) {
+    for (int i = 0; i < count; i++) {
+      if (grid.result(i) == id) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,193 @@
+package com.android.boot.core;
+
+import java.util.Arrays;
+
+// Pooled units and projectiles for one battle overlay. Live entries are packed into
+// 0..count-1; removing dead units compacts the survivors in order, so indices are only stable
+// until the next removeDeadUnits. Other code refers to a unit by its handle (the id handed out
+// by addUnit); ids are not reused until clear(), and unitByHandle resolves one in O(1).
+// Pools grow when a battle needs more room and are kept for the next battle, so a warmed-up
+// overlay allocates nothing.
+public class BattleArena {
+  public static final int NO_UNIT = 0;
+
+  public static class Unit {
+    public float x;
+    public float y;
+    public float vx;
+    public float vy;
+    public float cooldown;
+    public float dash;
+    public float dashCd;
+    public int side;
+    public int type;
+    public int hp;
+    public int id;
+    public int slot;
+    public boolean positioned;
+    public boolean alive;
+    public boolean isGiant;
+  }
+
+  public static class Projectile {
+    public float sx;
+    public float sy;
+    public float ex;
+    public float ey;
+    public float t;
+    public float life;
+    public int side;
+    public int type;
+    public int targetId;
+    public int color;
+  }
+
+  private Unit[] units = new Unit[0];
+  private int unitCount;
+  private Projectile[] projectiles = new Projectile[0];
+  private int projectileCount;
+  // indexById[id] is the unit's current index, or -1 once it has been removed.
+  private int[] indexById = new int[1];
+  private int nextId = 1;
+
+  public void clear() {
+    unitCount = 0;
+    projectileCount = 0;
+    Arrays.fill(indexById, 0, nextId, -1);
+    nextId = 1;
+  }
+
+  // Sizes the pools for a battle of this many units before it spawns.
+  public void reserve(int unitCapacity, int projectileCapacity) {
+    if (units.length < unitCapacity) {
+      units = grow(units, unitCapacity);
+    }
+    if (projectiles.length < projectileCapacity) {
+      projectiles = grow(projectiles, projectileCapacity);
+    }
+    if (indexById.length < nextId + unitCapacity) {
+      indexById = growIds(nextId + unitCapacity);
+    }
+  }
+
+  public int unitCount() {
+    return unitCount;
+  }
+
+  public Unit unit(int index) {
+    return units[index];
+  }
+
+  // Returns a recycled unit with a fresh id, zeroed state and alive set.
+  public Unit addUnit() {
+    if (unitCount == units.length) {
+      units = grow(units, Math.max(16, units.length * 2));
+    }
+    if (nextId == indexById.length) {
+      indexById = growIds(indexById.length * 2);
+    }
+    Unit u = units[unitCount];
+    u.x = 0f;
+    u.y = 0f;
+    u.vx = 0f;
+    u.vy = 0f;
+    u.cooldown = 0f;
+    u.dash = 0f;
+    u.dashCd = 0f;
+    u.side = 0;
+    u.type = 0;
+    u.hp = 0;
+    u.slot = 0;
+    u.positioned = false;
+    u.alive = true;
+    u.isGiant = false;
+    u.id = nextId++;
+    indexById[u.id] = unitCount;
+    unitCount++;
+    return u;
+  }
+
+  // The unit behind a handle while it is alive, otherwise null.
+  public Unit unitByHandle(int id) {
+    if (id <= NO_UNIT || id >= nextId) {
+      return null;
+    }
+    int index = indexById[id];
+    if (index < 0) {
+      return null;
+    }
+    Unit u = units[index];
+    return u.alive ? u : null;
+  }
+
+  // Drops dead units in one pass. Survivors keep their relative order, so the simulation walks
+  // them in spawn order as the old unit list did; dead entries rotate to the free tail.
+  public void removeDeadUnits() {
+    int write = 0;
+    for (int read = 0; read < unitCount; read++) {
+      Unit u = units[read];
+      if (!u.alive) {
+        indexById[u.id] = -1;
+        continue;
+      }
+      if (write != read) {
+        units[read] = units[write];
+        units[write] = u;
+        indexById[u.id] = write;
+      }
+      write++;
+    }
+    unitCount = write;
+  }
+
+  public int projectileCount() {
+    return projectileCount;
+  }
+
+  public Projectile projectile(int index) {
+    return projectiles[index];
+  }
+
+  // Returns a recycled projectile aimed at no unit; the caller fills in the rest.
+  public Projectile addProjectile() {
+    if (projectileCount == projectiles.length) {
+      projectiles = grow(projectiles, Math.max(16, projectiles.length * 2));
+    }
+    Projectile p = projectiles[projectileCount++];
+    p.t = 0f;
+    p.targetId = NO_UNIT;
+    return p;
+  }
+
+  // Walk from the end when removing while iterating: the last projectile moves into the hole.
+  public void removeProjectile(int index) {
+    int last = --projectileCount;
+    if (index != last) {
+      Projectile gone = projectiles[index];
+      projectiles[index] = projectiles[last];
+      projectiles[last] = gone;
+    }
+  }
+
+  private static Unit[] grow(Unit[] pool, int capacity) {
+    Unit[] bigger = Arrays.copyOf(pool, capacity);
+    for (int i = pool.length; i < capacity; i++) {
+      bigger[i] = new Unit();
+    }
+    return bigger;
+  }
+
+  private static Projectile[] grow(Projectile[] pool, int capacity) {
+    Projectile[] bigger = Arrays.copyOf(pool, capacity);
+    for (int i = pool.length; i < capacity; i++) {
+      bigger[i] = new Projectile();
+    }
+    return bigger;
+  }
+
+  private int[] growIds(int capacity) {
+    int[] bigger = Arrays.copyOf(indexById, capacity);
+    Arrays.fill(bigger, indexById.length, capacity, -1);
+    return bigger;
+  }
+}
@@ -7,9 +7,13 @@ import android.graphics.Path;
 
 import com.android.boot.R;
 import com.android.boot.entity.Prefecture;
-import com.android.boot.fx.Particle;
+import com.android.boot.fx.ParticleBuffer;
 import com.android.boot.ui.GameView;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -30,8 +34,11 @@ public class GameEngine {
   private final Context context;
   private final Random random = new Random();
   private final List<Prefecture> prefectures = new ArrayList<>();
-  private final List<Particle> particles = new ArrayList<>();
-  private final List<LevelData> campaignLevels = new ArrayList<>();
+  // Troop convoys in flight; payload per particle is shield, sword, archer, owner, target id.
+  private final ParticleBuffer particles = new ParticleBuffer(1024, TROOP_STRIDE);
+  private LevelPack campaignPack;
+  private final MapGeometryCache mapGeometryCache = new MapGeometryCache();
+  private final MapPickIndex pickIndex = new MapPickIndex();
 
   // World map size (for camera fitting, background drawing)
   private float worldMapWidth = 0f;
@@ -65,14 +72,61 @@ public class GameEngine {
   private static final int UNIT_COST_GIANT_SWORD = 180;
   private static final int UNIT_COST_GIANT_ARCHER = 190;
 
+  private static final int TROOP_STRIDE = 5;
+
+  // Bump when the city table or the placement rules change so cached geometry is rebuilt.
+  private static final int JAPAN_MAP_LAYOUT_VERSION = 1;
+
+  private static final String[] JAPAN_MAP_NAMES = {
+    "Beijing", "Tianjin", "Shenyang", "Changchun", "Harbin",
+    "Hohhot", "Shijiazhuang", "Taiyuan", "Jinan", "Qingdao",
+    "Zhengzhou", "Xi'an", "Lanzhou", "Urumqi",
+    "Shanghai", "Nanjing", "Hefei", "Hangzhou", "Nanchang", "Fuzhou", "Xiamen",
+    "Wuhan", "Changsha", "Guiyang", "Chongqing", "Chengdu", "Kunming",
+    "Guangzhou", "Shenzhen", "Nanning", "Haikou",
+    // Additional cities
+    "Dalian", "Tangshan", "Baoding", "Handan", "Luoyang",
+    "Xuzhou", "Suzhou", "Wuxi", "Ningbo", "Wenzhou",
+    "Quanzhou", "Shantou", "Zhuhai", "Foshan", "Dongguan",
+    "Guilin", "Liuzhou", "Beihai", "Sanya", "Lhasa"
+  };
+
+  // Coordinates are approximate outline: more in southeast, less in northwest, forming a "China" shape
+  private static final float[] JAPAN_MAP_XS = {
+    0.63f, 0.67f, 0.74f, 0.78f, 0.82f,
+    0.55f, 0.58f, 0.52f, 0.69f, 0.73f,
+    0.60f, 0.54f, 0.40f, 0.25f,
+    0.78f, 0.72f, 0.66f, 0.75f, 0.68f, 0.80f, 0.83f,
+    0.63f, 0.62f, 0.53f, 0.59f, 0.54f, 0.50f,
+    0.70f, 0.74f, 0.58f, 0.76f,
+    
+    0.76f, 0.65f, 0.59f, 0.61f, 0.58f,
+    0.70f, 0.76f, 0.78f, 0.77f, 0.79f,
+    0.81f, 0.72f, 0.75f, 0.73f, 0.76f,
+    0.57f, 0.56f, 0.59f, 0.77f, 0.35f
+  };
+  private static final float[] JAPAN_MAP_YS = {
+    0.20f, 0.23f, 0.18f, 0.15f, 0.12f,
+    0.26f, 0.30f, 0.28f, 0.34f, 0.37f,
+    0.38f, 0.40f, 0.36f, 0.30f,
+    0.42f, 0.40f, 0.44f, 0.46f, 0.50f, 0.52f, 0.56f,
+    0.46f, 0.50f, 0.54f, 0.48f, 0.44f, 0.56f,
+    0.60f, 0.63f, 0.58f, 0.68f,
+    
+    0.19f, 0.29f, 0.31f, 0.35f, 0.37f,
+    0.41f, 0.43f, 0.45f, 0.47f, 0.49f,
+    0.51f, 0.61f, 0.64f, 0.62f, 0.65f,
+    0.55f, 0.57f, 0.60f, 0.70f, 0.42f
+  };
+
   public GameEngine(Context context) {
     this.context = context;
-    buildCampaignLevels();
   }
 
   public void reset() {
     playing = false;
     prefectures.clear();
+    pickIndex.clear();
     particles.clear();
     elapsedTime = 0f;
     resultState = null;
@@ -121,7 +175,8 @@ public class GameEngine {
     reset();
     campaign = true;
     campaignIndex = index;
-    LevelData level = campaignLevels.get(index % campaignLevels.size());
+    LevelPack pack = campaignPack();
+    LevelPack.LevelData level = pack.get(index % pack.size());
     difficulty = level.difficulty;
     loadLevel(level);
     playing = true;
@@ -331,6 +386,9 @@ public class GameEngine {
     if (a == null || b == null) {
       return false;
     }
+    if (pickIndex.covers(a, b)) {
+      return pickIndex.isNeighbor(a, b);
+    }
     if (a.neighbors == null) {
       return false;
     }
@@ -515,7 +573,7 @@ public class GameEngine {
     return processingAiTurn;
   }
 
-  public List<Particle> getParticles() {
+  public ParticleBuffer getParticles() {
     return particles;
   }
 
@@ -659,19 +717,18 @@ public class GameEngine {
   }
 
   private void updateParticles(float delta) {
+    particles.integrate(delta);
+    int[] data = particles.data;
     for (int i = particles.size() - 1; i >= 0; i--) {
-      Particle particle = particles.get(i);
-      particle.x += particle.vx * delta;
-      particle.y += particle.vy * delta;
-      particle.travel += delta;
-      if (particle.travel >= particle.duration) {
-        applyArrival(particle.target, particle.shield, particle.sword, particle.archer, particle.owner);
+      if (particles.age[i] >= particles.life[i]) {
+        int d = i * TROOP_STRIDE;
+        applyArrival(prefectures.get(data[d + 4]), data[d], data[d + 1], data[d + 2], data[d + 3]);
         particles.remove(i);
       }
     }
   }
 
-  private void updateBattles(float delta) {
+  void updateBattles(float delta) {
     float tick = 0.35f;
     for (int i = 0; i < prefectures.size(); i++) {
       Prefecture pref = prefectures.get(i);
@@ -727,8 +784,14 @@ public class GameEngine {
     int toAtkFromSword = Math.max(0, (int) (defDpsSword * dt));
     int toAtkFromShield = Math.max(0, (int) (defDpsShield * dt));
 
-    int[] def = new int[]{defShield, defSword, defArcher};
-    int[] atk = new int[]{atkShield, atkSword, atkArcher};
+    int[] def = target.battleDefWork;
+    int[] atk = target.battleAtkWork;
+    def[0] = defShield;
+    def[1] = defSword;
+    def[2] = defArcher;
+    atk[0] = atkShield;
+    atk[1] = atkSword;
+    atk[2] = atkArcher;
 
     applyDamage(atkTypeArcher(), toDefFromArcher, def);
     applyDamage(atkTypeSword(), toDefFromSword, def);
@@ -1051,8 +1114,19 @@ public class GameEngine {
       float jitter = source.radius * 0.3f;
       float startX = source.x + (float) Math.cos(angle) * jitter;
       float startY = source.y + (float) Math.sin(angle) * jitter;
-      Particle particle = Particle.create(startX, startY, target, pShield, pSword, pArcher, owner);
-      particles.add(particle);
+      float dx = target.x - startX;
+      float dy = target.y - startY;
+      float duration = Math.max(0.2f, (float) Math.sqrt(dx * dx + dy * dy) / 480f);
+      if (particles.size() == particles.capacity()) {
+        particles.grow();
+      }
+      int slot = particles.spawn(startX, startY, dx / duration, dy / duration, duration, Math.max(2f, target.radius * 0.12f), 0);
+      int d = slot * TROOP_STRIDE;
+      particles.data[d] = pShield;
+      particles.data[d + 1] = pSword;
+      particles.data[d + 2] = pArcher;
+      particles.data[d + 3] = owner;
+      particles.data[d + 4] = target.id;
     }
   }
 
@@ -1187,6 +1261,9 @@ public class GameEngine {
   }
 
   private Prefecture findPrefecture(float x, float y) {
+    if (pickIndex.size() == prefectures.size()) {
+      return pickIndex.pick(x, y);
+    }
     for (int i = 0; i < prefectures.size(); i++) {
       Prefecture pref = prefectures.get(i);
       if (pref.containsPoint(x, y)) {
@@ -1229,8 +1306,6 @@ public class GameEngine {
   }
 
   private void buildJapanMap() {
-    // Voronoi
-
     prefectures.clear();
     int screenWidth = context.getResources().getDisplayMetrics().widthPixels;
     int screenHeight = context.getResources().getDisplayMetrics().heightPixels;
@@ -1241,51 +1316,36 @@ public class GameEngine {
     worldMapWidth = mapWidth;
     worldMapHeight = mapHeight;
 
-    // 0~1
-
-    String[] cityNames = {
-      "Beijing", "Tianjin", "Shenyang", "Changchun", "Harbin",
-      "Hohhot", "Shijiazhuang", "Taiyuan", "Jinan", "Qingdao",
-      "Zhengzhou", "Xi'an", "Lanzhou", "Urumqi",
-      "Shanghai", "Nanjing", "Hefei", "Hangzhou", "Nanchang", "Fuzhou", "Xiamen",
-      "Wuhan", "Changsha", "Guiyang", "Chongqing", "Chengdu", "Kunming",
-      "Guangzhou", "Shenzhen", "Nanning", "Haikou",
-      // Additional cities
-      "Dalian", "Tangshan", "Baoding", "Handan", "Luoyang",
-      "Xuzhou", "Suzhou", "Wuxi", "Ningbo", "Wenzhou",
-      "Quanzhou", "Shantou", "Zhuhai", "Foshan", "Dongguan",
-      "Guilin", "Liuzhou", "Beihai", "Sanya", "Lhasa"
-    };
+    MapGeometryCache.Geometry geometry = mapGeometryCache.get(JAPAN_MAP_LAYOUT_VERSION, mapWidth, mapHeight);
+    if (geometry == null) {
+      geometry = buildJapanGeometry(mapWidth, mapHeight);
+      mapGeometryCache.put(geometry);
+    }
 
-    // Coordinates are approximate outline: more in southeast, less in northwest, forming a "China" shape
-    float[] xs = {
-      0.63f, 0.67f, 0.74f, 0.78f, 0.82f,
-      0.55f, 0.58f, 0.52f, 0.69f, 0.73f,
-      0.60f, 0.54f, 0.40f, 0.25f,
-      0.78f, 0.72f, 0.66f, 0.75f, 0.68f, 0.80f, 0.83f,
-      0.63f, 0.62f, 0.53f, 0.59f, 0.54f, 0.50f,
-      0.70f, 0.74f, 0.58f, 0.76f,
-      
-      0.76f, 0.65f, 0.59f, 0.61f, 0.58f,
-      0.70f, 0.76f, 0.78f, 0.77f, 0.79f,
-      0.81f, 0.72f, 0.75f, 0.73f, 0.76f,
-      0.57f, 0.56f, 0.59f, 0.77f, 0.35f
-    };
-    float[] ys = {
-      0.20f, 0.23f, 0.18f, 0.15f, 0.12f,
-      0.26f, 0.30f, 0.28f, 0.34f, 0.37f,
-      0.38f, 0.40f, 0.36f, 0.30f,
-      0.42f, 0.40f, 0.44f, 0.46f, 0.50f, 0.52f, 0.56f,
-      0.46f, 0.50f, 0.54f, 0.48f, 0.44f, 0.56f,
-      0.60f, 0.63f, 0.58f, 0.68f,
-      
-      0.19f, 0.29f, 0.31f, 0.35f, 0.37f,
-      0.41f, 0.43f, 0.45f, 0.47f, 0.49f,
-      0.51f, 0.61f, 0.64f, 0.62f, 0.65f,
-      0.55f, 0.57f, 0.60f, 0.70f, 0.42f
-    };
+    for (int i = 0; i < geometry.size(); i++) {
+      Prefecture pref = new Prefecture(geometry.x[i], geometry.y[i], geometry.radius[i], JAPAN_MAP_NAMES[i], Prefecture.TYPE_PREFECTURE, geometry.polygons[i]);
+      pref.id = i;
+      pref.terrainType = Prefecture.TERRAIN_CITY;
+      pref.neighbors = geometry.neighbors[i];
 
-    int count = Math.min(cityNames.length, xs.length);
+      seedGarrison(pref, 15 + random.nextInt(15));
+      pref.owner = 0;
+      pref.growthRate = 2f + random.nextFloat() * 1.5f;
+      pref.hasAttackedThisTurn = false;  
+      // 3
+      if (i < 3) {
+        pref.owner = 1;
+        pref.goldIncome = 5f + random.nextFloat() * 3f;  
+      }
+      prefectures.add(pref);
+    }
+    pickIndex.build(prefectures);
+  }
+
+  // Places every city in the first free grid cell nearest its outline position and links neighbours.
+  private MapGeometryCache.Geometry buildJapanGeometry(float mapWidth, float mapHeight) {
+    int count = Math.min(JAPAN_MAP_NAMES.length, JAPAN_MAP_XS.length);
+    MapGeometryCache.Geometry geometry = new MapGeometryCache.Geometry(JAPAN_MAP_LAYOUT_VERSION, mapWidth, mapHeight, count);
 
     int cols = 10;
     int rows = 6;
@@ -1297,8 +1357,8 @@ public class GameEngine {
 
     for (int i = 0; i < count; i++) {
       
-      int idealCol = Math.min(cols - 1, Math.max(0, (int) (xs[i] * cols)));
-      int idealRow = Math.min(rows - 1, Math.max(0, (int) (ys[i] * rows)));
+      int idealCol = Math.min(cols - 1, Math.max(0, (int) (JAPAN_MAP_XS[i] * cols)));
+      int idealRow = Math.min(rows - 1, Math.max(0, (int) (JAPAN_MAP_YS[i] * rows)));
 
 
       int bestCol = idealCol;
@@ -1338,36 +1398,19 @@ public class GameEngine {
 
       float radius = Math.min(cellW, cellH) * 0.5f;
 
-      Prefecture pref = new Prefecture(cx, cy, radius, cityNames[i], Prefecture.TYPE_PREFECTURE);
-      pref.id = i;
-      pref.terrainType = Prefecture.TERRAIN_CITY;
-
-
-      pref.polygonVertexCount = 4;
-      pref.polygonPoints = new float[8];
-      pref.polygonPoints[0] = cx - halfW;
-      pref.polygonPoints[1] = cy - halfH;
-      pref.polygonPoints[2] = cx + halfW;
-      pref.polygonPoints[3] = cy - halfH;
-      pref.polygonPoints[4] = cx + halfW;
-      pref.polygonPoints[5] = cy + halfH;
-      pref.polygonPoints[6] = cx - halfW;
-      pref.polygonPoints[7] = cy + halfH;
-
-      seedGarrison(pref, 15 + random.nextInt(15));
-      pref.owner = 0;
-      pref.growthRate = 2f + random.nextFloat() * 1.5f;
-      pref.hasAttackedThisTurn = false;  
-      // 3
-      if (i < 3) {
-        pref.owner = 1;
-        pref.goldIncome = 5f + random.nextFloat() * 3f;  
-      }
-      prefectures.add(pref);
+      geometry.x[i] = cx;
+      geometry.y[i] = cy;
+      geometry.radius[i] = radius;
+      geometry.polygons[i] = new float[] {
+        cx - halfW, cy - halfH,
+        cx + halfW, cy - halfH,
+        cx + halfW, cy + halfH,
+        cx - halfW, cy + halfH
+      };
     }
 
-
-    rebuildNeighbors(Math.min(mapWidth, mapHeight) * 0.12f, 4);
+    geometry.neighbors = MapGeometryCache.linkNearest(geometry.x, geometry.y, Math.min(mapWidth, mapHeight) * 0.12f, 4);
+    return geometry;
   }
   
   private boolean isTooCloseToSeeds(List<float[]> seeds, float x, float y, float minDist) {
@@ -1483,59 +1526,6 @@ public class GameEngine {
     }
   }
 
-  private void rebuildNeighbors(float maxDist, int maxPerNode) {
-    int n = prefectures.size();
-    boolean[][] links = new boolean[n][n];
-    for (int i = 0; i < n; i++) {
-      Prefecture a = prefectures.get(i);
-      for (int k = 0; k < maxPerNode; k++) {
-        int best = -1;
-        float bestD = Float.MAX_VALUE;
-        for (int j = 0; j < n; j++) {
-          if (i == j) {
-            continue;
-          }
-          if (links[i][j]) {
-            continue;
-          }
-          Prefecture b = prefectures.get(j);
-          float dx = b.x - a.x;
-          float dy = b.y - a.y;
-          float d = (float) Math.sqrt(dx * dx + dy * dy);
-          if (d > maxDist) {
-            continue;
-          }
-          if (d < bestD) {
-            bestD = d;
-            best = j;
-          }
-        }
-        if (best >= 0) {
-          links[i][best] = true;
-          links[best][i] = true;
-        }
-      }
-    }
-
-    for (int i = 0; i < n; i++) {
-      int count = 0;
-      for (int j = 0; j < n; j++) {
-        if (links[i][j]) {
-          count++;
-        }
-      }
-      int[] arr = new int[count];
-      int idx = 0;
-      for (int j = 0; j < n; j++) {
-        if (links[i][j]) {
-          arr[idx] = j;
-          idx++;
-        }
-      }
-      prefectures.get(i).neighbors = arr;
-    }
-  }
-
   private void seedGarrison(Prefecture pref, int total) {
     int s = total * 35 / 100;
     int w = total * 45 / 100;
@@ -1576,7 +1566,19 @@ public class GameEngine {
     }
   }
 
-  private void loadLevel(LevelData level) {
+  // The pack is only read the first time a campaign level is started.
+  private LevelPack campaignPack() {
+    if (campaignPack == null) {
+      try (Reader reader = new InputStreamReader(context.getAssets().open(LevelPack.ASSET_PATH), StandardCharsets.UTF_8)) {
+        campaignPack = LevelPack.parse(reader);
+      } catch (IOException e) {
+        throw new IllegalStateException("Cannot read " + LevelPack.ASSET_PATH, e);
+      }
+    }
+    return campaignPack;
+  }
+
+  private void loadLevel(LevelPack.LevelData level) {
     prefectures.clear();
     particles.clear();
     elapsedTime = 0f;
@@ -1592,16 +1594,25 @@ public class GameEngine {
       "Kobe", "Sendai", "Hiroshima", "Chiba", "Saitama", "Niigata", "Shizuoka"
     };
     for (int i = 0; i < level.nodes.size(); i++) {
-      LevelNode spec = level.nodes.get(i);
+      LevelPack.LevelNode spec = level.nodes.get(i);
       String name = i < prefectureNames.length ? prefectureNames[i] : "Prefecture";
-      Prefecture pref = new Prefecture(spec.x * width, spec.y * height, spec.radius * width, name, Prefecture.TYPE_PREFECTURE);
+      float x = spec.x * width;
+      float y = spec.y * height;
+      float radius = spec.radius * width;
+      float[] polygon = new float[spec.outline.length];
+      for (int j = 0; j < polygon.length; j += 2) {
+        polygon[j] = x + spec.outline[j] * radius;
+        polygon[j + 1] = y + spec.outline[j + 1] * radius;
+      }
+      Prefecture pref = new Prefecture(x, y, radius, name, Prefecture.TYPE_PREFECTURE, polygon);
       pref.id = i;
       pref.owner = spec.owner;
       seedGarrison(pref, spec.units);
       pref.growthRate = spec.growth;
+      pref.neighbors = spec.neighbors.clone();
       prefectures.add(pref);
     }
-    rebuildNeighbors(Math.min(width, height) * 0.28f, 3);
+    pickIndex.build(prefectures);
   }
 
   private float randomInterval() {
@@ -1613,240 +1624,4 @@ public class GameEngine {
     }
     return 1.0f + random.nextFloat() * 0.3f;
   }
-
-  private void buildCampaignLevels() {
-    campaignLevels.add(levelOne());
-    campaignLevels.add(levelTwo());
-    campaignLevels.add(levelThree());
-    campaignLevels.add(levelFour());
-    campaignLevels.add(levelFive());
-    campaignLevels.add(levelSix());
-    campaignLevels.add(levelSeven());
-    campaignLevels.add(levelEight());
-    campaignLevels.add(levelNine());
-    campaignLevels.add(levelTen());
-    campaignLevels.add(levelEleven());
-    campaignLevels.add(levelTwelve());
-    campaignLevels.add(levelThirteen());
-    campaignLevels.add(levelFourteen());
-    campaignLevels.add(levelFifteen());
-  }
-
-  private LevelData levelOne() {
-    LevelData level = new LevelData(Difficulty.EASY, 1);
-    level.nodes.add(new LevelNode(0.2f, 0.5f, 0.06f, 1, 24, 2.2f));
-    level.nodes.add(new LevelNode(0.5f, 0.3f, 0.055f, 0, 16, 1.8f));
-    level.nodes.add(new LevelNode(0.5f, 0.7f, 0.055f, 0, 16, 1.8f));
-    level.nodes.add(new LevelNode(0.8f, 0.5f, 0.06f, 2, 24, 2.2f));
-    return level;
-  }
-
-  private LevelData levelTwo() {
-    LevelData level = new LevelData(Difficulty.EASY, 1);
-    level.nodes.add(new LevelNode(0.15f, 0.5f, 0.06f, 1, 26, 2.2f));
-    level.nodes.add(new LevelNode(0.35f, 0.25f, 0.05f, 0, 18, 1.6f));
-    level.nodes.add(new LevelNode(0.35f, 0.75f, 0.05f, 0, 18, 1.6f));
-    level.nodes.add(new LevelNode(0.65f, 0.25f, 0.05f, 0, 18, 1.6f));
-    level.nodes.add(new LevelNode(0.65f, 0.75f, 0.05f, 0, 18, 1.6f));
-    level.nodes.add(new LevelNode(0.85f, 0.5f, 0.06f, 2, 26, 2.2f));
-    return level;
-  }
-
-  private LevelData levelThree() {
-    LevelData level = new LevelData(Difficulty.NORMAL, 2);
-    level.nodes.add(new LevelNode(0.2f, 0.5f, 0.06f, 1, 26, 2.4f));
-    level.nodes.add(new LevelNode(0.5f, 0.2f, 0.05f, 0, 20, 1.8f));
-    level.nodes.add(new LevelNode(0.5f, 0.5f, 0.05f, 0, 20, 1.8f));
-    level.nodes.add(new LevelNode(0.5f, 0.8f, 0.05f, 0, 20, 1.8f));
-    level.nodes.add(new LevelNode(0.8f, 0.35f, 0.06f, 2, 26, 2.4f));
-    level.nodes.add(new LevelNode(0.8f, 0.65f, 0.06f, 3, 26, 2.4f));
-    return level;
-  }
-
-  private LevelData levelFour() {
-    LevelData level = new LevelData(Difficulty.NORMAL, 2);
-    level.nodes.add(new LevelNode(0.15f, 0.5f, 0.06f, 1, 26, 2.4f));
-    level.nodes.add(new LevelNode(0.4f, 0.3f, 0.055f, 0, 22, 1.9f));
-    level.nodes.add(new LevelNode(0.4f, 0.7f, 0.055f, 0, 22, 1.9f));
-    level.nodes.add(new LevelNode(0.6f, 0.3f, 0.055f, 0, 22, 1.9f));
-    level.nodes.add(new LevelNode(0.6f, 0.7f, 0.055f, 0, 22, 1.9f));
-    level.nodes.add(new LevelNode(0.85f, 0.4f, 0.06f, 2, 28, 2.4f));
-    level.nodes.add(new LevelNode(0.85f, 0.6f, 0.06f, 3, 28, 2.4f));
-    return level;
-  }
-
-  private LevelData levelFive() {
-    LevelData level = new LevelData(Difficulty.NORMAL, 2);
-    level.nodes.add(new LevelNode(0.2f, 0.2f, 0.06f, 1, 28, 2.6f));
-    level.nodes.add(new LevelNode(0.2f, 0.8f, 0.055f, 0, 18, 1.7f));
-    level.nodes.add(new LevelNode(0.5f, 0.5f, 0.05f, 0, 22, 2.0f));
-    level.nodes.add(new LevelNode(0.8f, 0.2f, 0.055f, 0, 18, 1.7f));
-    level.nodes.add(new LevelNode(0.8f, 0.8f, 0.06f, 2, 28, 2.6f));
-    level.nodes.add(new LevelNode(0.5f, 0.2f, 0.05f, 3, 24, 2.2f));
-    return level;
-  }
-
-  private LevelData levelSix() {
-    LevelData level = new LevelData(Difficulty.NORMAL, 2);
-    level.nodes.add(new LevelNode(0.15f, 0.5f, 0.06f, 1, 28, 2.6f));
-    level.nodes.add(new LevelNode(0.35f, 0.2f, 0.05f, 0, 20, 1.8f));
-    level.nodes.add(new LevelNode(0.35f, 0.5f, 0.05f, 0, 20, 1.8f));
-    level.nodes.add(new LevelNode(0.35f, 0.8f, 0.05f, 0, 20, 1.8f));
-    level.nodes.add(new LevelNode(0.65f, 0.2f, 0.05f, 0, 20, 1.8f));
-    level.nodes.add(new LevelNode(0.65f, 0.5f, 0.05f, 0, 20, 1.8f));
-    level.nodes.add(new LevelNode(0.65f, 0.8f, 0.05f, 0, 20, 1.8f));
-    level.nodes.add(new LevelNode(0.85f, 0.4f, 0.06f, 2, 30, 2.6f));
-    level.nodes.add(new LevelNode(0.85f, 0.6f, 0.06f, 3, 30, 2.6f));
-    return level;
-  }
-
-  private LevelData levelSeven() {
-    LevelData level = new LevelData(Difficulty.NORMAL, 2);
-    level.nodes.add(new LevelNode(0.2f, 0.5f, 0.06f, 1, 30, 2.6f));
-    level.nodes.add(new LevelNode(0.45f, 0.25f, 0.05f, 0, 22, 1.9f));
-    level.nodes.add(new LevelNode(0.45f, 0.75f, 0.05f, 0, 22, 1.9f));
-    level.nodes.add(new LevelNode(0.55f, 0.5f, 0.05f, 0, 22, 1.9f));
-    level.nodes.add(new LevelNode(0.75f, 0.3f, 0.06f, 2, 30, 2.6f));
-    level.nodes.add(new LevelNode(0.75f, 0.7f, 0.06f, 3, 30, 2.6f));
-    return level;
-  }
-
-  private LevelData levelEight() {
-    LevelData level = new LevelData(Difficulty.HARD, 3);
-    level.nodes.add(new LevelNode(0.18f, 0.5f, 0.06f, 1, 30, 2.7f));
-    level.nodes.add(new LevelNode(0.4f, 0.2f, 0.05f, 0, 22, 1.9f));
-    level.nodes.add(new LevelNode(0.4f, 0.5f, 0.05f, 0, 22, 1.9f));
-    level.nodes.add(new LevelNode(0.4f, 0.8f, 0.05f, 0, 22, 1.9f));
-    level.nodes.add(new LevelNode(0.6f, 0.2f, 0.05f, 0, 22, 1.9f));
-    level.nodes.add(new LevelNode(0.6f, 0.5f, 0.05f, 0, 22, 1.9f));
-    level.nodes.add(new LevelNode(0.6f, 0.8f, 0.05f, 0, 22, 1.9f));
-    level.nodes.add(new LevelNode(0.82f, 0.3f, 0.06f, 2, 32, 2.7f));
-    level.nodes.add(new LevelNode(0.82f, 0.5f, 0.06f, 3, 32, 2.7f));
-    level.nodes.add(new LevelNode(0.82f, 0.7f, 0.06f, 4, 32, 2.7f));
-    return level;
-  }
-
-  private LevelData levelNine() {
-    LevelData level = new LevelData(Difficulty.HARD, 3);
-    level.nodes.add(new LevelNode(0.2f, 0.2f, 0.06f, 1, 32, 2.8f));
-    level.nodes.add(new LevelNode(0.2f, 0.8f, 0.055f, 0, 24, 2.1f));
-    level.nodes.add(new LevelNode(0.5f, 0.2f, 0.055f, 0, 24, 2.1f));
-    level.nodes.add(new LevelNode(0.5f, 0.8f, 0.055f, 0, 24, 2.1f));
-    level.nodes.add(new LevelNode(0.5f, 0.5f, 0.05f, 0, 24, 2.1f));
-    level.nodes.add(new LevelNode(0.8f, 0.2f, 0.06f, 2, 32, 2.8f));
-    level.nodes.add(new LevelNode(0.8f, 0.5f, 0.06f, 3, 32, 2.8f));
-    level.nodes.add(new LevelNode(0.8f, 0.8f, 0.06f, 4, 32, 2.8f));
-    return level;
-  }
-
-  private LevelData levelTen() {
-    LevelData level = new LevelData(Difficulty.HARD, 3);
-    level.nodes.add(new LevelNode(0.2f, 0.5f, 0.06f, 1, 34, 2.9f));
-    level.nodes.add(new LevelNode(0.35f, 0.3f, 0.05f, 0, 26, 2.1f));
-    level.nodes.add(new LevelNode(0.35f, 0.7f, 0.05f, 0, 26, 2.1f));
-    level.nodes.add(new LevelNode(0.5f, 0.5f, 0.05f, 0, 26, 2.1f));
-    level.nodes.add(new LevelNode(0.65f, 0.3f, 0.05f, 0, 26, 2.1f));
-    level.nodes.add(new LevelNode(0.65f, 0.7f, 0.05f, 0, 26, 2.1f));
-    level.nodes.add(new LevelNode(0.8f, 0.3f, 0.06f, 2, 34, 2.9f));
-    level.nodes.add(new LevelNode(0.8f, 0.5f, 0.06f, 3, 34, 2.9f));
-    level.nodes.add(new LevelNode(0.8f, 0.7f, 0.06f, 4, 34, 2.9f));
-    return level;
-  }
-
-  private LevelData levelEleven() {
-    LevelData level = new LevelData(Difficulty.HARD, 3);
-    level.nodes.add(new LevelNode(0.15f, 0.5f, 0.06f, 1, 34, 3.0f));
-    level.nodes.add(new LevelNode(0.35f, 0.2f, 0.05f, 0, 26, 2.2f));
-    level.nodes.add(new LevelNode(0.35f, 0.5f, 0.05f, 0, 26, 2.2f));
-    level.nodes.add(new LevelNode(0.35f, 0.8f, 0.05f, 0, 26, 2.2f));
-    level.nodes.add(new LevelNode(0.55f, 0.3f, 0.05f, 0, 26, 2.2f));
-    level.nodes.add(new LevelNode(0.55f, 0.7f, 0.05f, 0, 26, 2.2f));
-    level.nodes.add(new LevelNode(0.75f, 0.3f, 0.06f, 2, 36, 3.0f));
-    level.nodes.add(new LevelNode(0.75f, 0.7f, 0.06f, 3, 36, 3.0f));
-    level.nodes.add(new LevelNode(0.85f, 0.5f, 0.06f, 4, 36, 3.0f));
-    return level;
-  }
-
-  private LevelData levelTwelve() {
-    LevelData level = new LevelData(Difficulty.HARD, 3);
-    level.nodes.add(new LevelNode(0.2f, 0.2f, 0.06f, 1, 36, 3.1f));
-    level.nodes.add(new LevelNode(0.2f, 0.8f, 0.055f, 0, 28, 2.4f));
-    level.nodes.add(new LevelNode(0.4f, 0.5f, 0.05f, 0, 28, 2.4f));
-    level.nodes.add(new LevelNode(0.6f, 0.5f, 0.05f, 0, 28, 2.4f));
-    level.nodes.add(new LevelNode(0.8f, 0.2f, 0.06f, 2, 36, 3.1f));
-    level.nodes.add(new LevelNode(0.8f, 0.5f, 0.06f, 3, 36, 3.1f));
-    level.nodes.add(new LevelNode(0.8f, 0.8f, 0.06f, 4, 36, 3.1f));
-    return level;
-  }
-
-  private LevelData levelThirteen() {
-    LevelData level = new LevelData(Difficulty.HARD, 3);
-    level.nodes.add(new LevelNode(0.15f, 0.5f, 0.06f, 1, 36, 3.2f));
-    level.nodes.add(new LevelNode(0.35f, 0.25f, 0.05f, 0, 28, 2.4f));
-    level.nodes.add(new LevelNode(0.35f, 0.75f, 0.05f, 0, 28, 2.4f));
-    level.nodes.add(new LevelNode(0.5f, 0.5f, 0.05f, 0, 28, 2.4f));
-    level.nodes.add(new LevelNode(0.7f, 0.3f, 0.06f, 2, 38, 3.2f));
-    level.nodes.add(new LevelNode(0.7f, 0.7f, 0.06f, 3, 38, 3.2f));
-    level.nodes.add(new LevelNode(0.85f, 0.5f, 0.06f, 4, 38, 3.2f));
-    return level;
-  }
-
-  private LevelData levelFourteen() {
-    LevelData level = new LevelData(Difficulty.HARD, 3);
-    level.nodes.add(new LevelNode(0.2f, 0.5f, 0.06f, 1, 38, 3.3f));
-    level.nodes.add(new LevelNode(0.4f, 0.25f, 0.05f, 0, 30, 2.6f));
-    level.nodes.add(new LevelNode(0.4f, 0.5f, 0.05f, 0, 30, 2.6f));
-    level.nodes.add(new LevelNode(0.4f, 0.75f, 0.05f, 0, 30, 2.6f));
-    level.nodes.add(new LevelNode(0.6f, 0.25f, 0.05f, 0, 30, 2.6f));
-    level.nodes.add(new LevelNode(0.6f, 0.5f, 0.05f, 0, 30, 2.6f));
-    level.nodes.add(new LevelNode(0.6f, 0.75f, 0.05f, 0, 30, 2.6f));
-    level.nodes.add(new LevelNode(0.8f, 0.3f, 0.06f, 2, 40, 3.3f));
-    level.nodes.add(new LevelNode(0.8f, 0.5f, 0.06f, 3, 40, 3.3f));
-    level.nodes.add(new LevelNode(0.8f, 0.7f, 0.06f, 4, 40, 3.3f));
-    return level;
-  }
-
-  private LevelData levelFifteen() {
-    LevelData level = new LevelData(Difficulty.HARD, 3);
-    level.nodes.add(new LevelNode(0.15f, 0.5f, 0.06f, 1, 40, 3.4f));
-    level.nodes.add(new LevelNode(0.35f, 0.2f, 0.05f, 0, 32, 2.8f));
-    level.nodes.add(new LevelNode(0.35f, 0.5f, 0.05f, 0, 32, 2.8f));
-    level.nodes.add(new LevelNode(0.35f, 0.8f, 0.05f, 0, 32, 2.8f));
-    level.nodes.add(new LevelNode(0.55f, 0.3f, 0.05f, 0, 32, 2.8f));
-    level.nodes.add(new LevelNode(0.55f, 0.7f, 0.05f, 0, 32, 2.8f));
-    level.nodes.add(new LevelNode(0.75f, 0.2f, 0.06f, 2, 42, 3.4f));
-    level.nodes.add(new LevelNode(0.75f, 0.5f, 0.06f, 3, 42, 3.4f));
-    level.nodes.add(new LevelNode(0.75f, 0.8f, 0.06f, 4, 42, 3.4f));
-    level.nodes.add(new LevelNode(0.9f, 0.5f, 0.06f, 5, 42, 3.4f));
-    return level;
-  }
-
-  private static class LevelData {
-    private final Difficulty difficulty;
-    private final int aiCount;
-    private final List<LevelNode> nodes = new ArrayList<>();
-
-    LevelData(Difficulty difficulty, int aiCount) {
-      this.difficulty = difficulty;
-      this.aiCount = aiCount;
-    }
-  }
-
-  private static class LevelNode {
-    private final float x;
-    private final float y;
-    private final float radius;
-    private final int owner;
-    private final int units;
-    private final float growth;
-
-    LevelNode(float x, float y, float radius, int owner, int units, float growth) {
-      this.x = x;
-      this.y = y;
-      this.radius = radius;
-      this.owner = owner;
-      this.units = units;
-      this.growth = growth;
-    }
-  }
 }
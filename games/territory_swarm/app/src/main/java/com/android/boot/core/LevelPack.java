@@ -0,0 +1,274 @@
+package com.android.boot.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+// Campaign levels as a line-based text asset, so balance changes only touch the pack:
+//   tslp <version> <level count>
+//   level <difficulty> <ai count> <node count>
+//   node <x> <y> <radius> <owner> <units> <growth> | <neighbour ids> | <outline dx dy ...>
+// x and y are fractions of the view width and height, radius a fraction of the width. Owner 0 is
+// neutral, 1 the player and 2..ai count + 1 the AIs. Neighbour links are stored both ways, and
+// the outline is offsets from the centre in units of the radius.
+// Blank lines and lines starting with '#' are ignored. Anything malformed is rejected with its line.
+public final class LevelPack {
+  public static final String ASSET_PATH = "levels/campaign.lvp";
+  private static final String MAGIC = "tslp";
+  private static final int VERSION = 1;
+  private static final int MAX_NODES = 64;
+  private static final int MAX_OWNER = 7;
+
+  private final List<LevelData> levels;
+
+  public LevelPack(List<LevelData> levels) {
+    this.levels = levels;
+  }
+
+  public int size() {
+    return levels.size();
+  }
+
+  public LevelData get(int index) {
+    return levels.get(index);
+  }
+
+  public static LevelPack parse(Reader source) throws IOException {
+    BufferedReader reader = source instanceof BufferedReader ? (BufferedReader) source : new BufferedReader(source);
+    int lineNumber = 0;
+    int levelCount = -1;
+    List<LevelData> levels = new ArrayList<>();
+    LevelData level = null;
+    int expectedNodes = 0;
+    String line;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      line = line.trim();
+      if (line.isEmpty() || line.charAt(0) == '#') {
+        continue;
+      }
+      String[] parts = line.split("\\|", -1);
+      String[] head = parts[0].trim().split("\\s+");
+      if (levelCount < 0) {
+        if (!MAGIC.equals(head[0]) || head.length != 3) {
+          throw error(lineNumber, "expected '" + MAGIC + " <version> <level count>'");
+        }
+        if (parseInt(head[1], lineNumber) != VERSION) {
+          throw error(lineNumber, "unsupported version " + head[1]);
+        }
+        levelCount = parseInt(head[2], lineNumber);
+        if (levelCount <= 0) {
+          throw error(lineNumber, "pack has no levels");
+        }
+        continue;
+      }
+      switch (head[0]) {
+        case "level":
+          if (level != null && level.nodes.size() != expectedNodes) {
+            throw error(lineNumber, "previous level has " + level.nodes.size() + " nodes, expected " + expectedNodes);
+          }
+          if (head.length != 4 || parts.length != 1) {
+            throw error(lineNumber, "expected 'level <difficulty> <ai count> <node count>'");
+          }
+          GameEngine.Difficulty difficulty;
+          try {
+            difficulty = GameEngine.Difficulty.valueOf(head[1]);
+          } catch (IllegalArgumentException e) {
+            throw error(lineNumber, "unknown difficulty " + head[1]);
+          }
+          int aiCount = parseInt(head[2], lineNumber);
+          expectedNodes = parseInt(head[3], lineNumber);
+          if (aiCount < 1 || aiCount > MAX_OWNER - 1) {
+            throw error(lineNumber, "ai count out of range: " + aiCount);
+          }
+          if (expectedNodes < 2 || expectedNodes > MAX_NODES) {
+            throw error(lineNumber, "node count out of range: " + expectedNodes);
+          }
+          level = new LevelData(difficulty, aiCount);
+          levels.add(level);
+          break;
+        case "node":
+          if (level == null) {
+            throw error(lineNumber, "node before any level");
+          }
+          if (level.nodes.size() == expectedNodes) {
+            throw error(lineNumber, "more nodes than the level declares");
+          }
+          if (head.length != 7 || parts.length != 3) {
+            throw error(lineNumber, "expected 'node <x> <y> <radius> <owner> <units> <growth> | <neighbours> | <outline>'");
+          }
+          float x = parseFloat(head[1], lineNumber);
+          float y = parseFloat(head[2], lineNumber);
+          float radius = parseFloat(head[3], lineNumber);
+          int owner = parseInt(head[4], lineNumber);
+          int units = parseInt(head[5], lineNumber);
+          float growth = parseFloat(head[6], lineNumber);
+          if (x < 0f || x > 1f || y < 0f || y > 1f) {
+            throw error(lineNumber, "position outside the map");
+          }
+          if (radius <= 0f || radius > 0.5f) {
+            throw error(lineNumber, "radius out of range: " + radius);
+          }
+          if (owner < 0 || owner > MAX_OWNER) {
+            throw error(lineNumber, "owner out of range: " + owner);
+          }
+          if (owner > level.aiCount + 1) {
+            throw error(lineNumber, "owner " + owner + " has no AI in a level with ai count " + level.aiCount);
+          }
+          if (units < 0 || growth < 0f) {
+            throw error(lineNumber, "negative garrison or growth");
+          }
+          int[] neighbors = parseInts(parts[1], lineNumber);
+          float[] outline = parseFloats(parts[2], lineNumber);
+          if (outline.length < 6 || outline.length % 2 != 0) {
+            throw error(lineNumber, "outline needs at least three dx dy pairs");
+          }
+          level.nodes.add(new LevelNode(x, y, radius, owner, units, growth, neighbors, outline));
+          break;
+        default:
+          throw error(lineNumber, "unknown record '" + head[0] + "'");
+      }
+    }
+    if (levelCount < 0) {
+      throw error(lineNumber, "missing header");
+    }
+    if (level != null && level.nodes.size() != expectedNodes) {
+      throw error(lineNumber, "last level has " + level.nodes.size() + " nodes, expected " + expectedNodes);
+    }
+    if (levels.size() != levelCount) {
+      throw error(lineNumber, "header declares " + levelCount + " levels, found " + levels.size());
+    }
+    for (int i = 0; i < levels.size(); i++) {
+      validateLinks(levels.get(i), i + 1);
+    }
+    return new LevelPack(levels);
+  }
+
+  public void write(Writer out) throws IOException {
+    out.write(MAGIC + " " + VERSION + " " + levels.size() + "\n");
+    for (LevelData level : levels) {
+      out.write("\nlevel " + level.difficulty.name() + " " + level.aiCount + " " + level.nodes.size() + "\n");
+      for (LevelNode node : level.nodes) {
+        StringBuilder line = new StringBuilder("node ");
+        line.append(node.x).append(' ').append(node.y).append(' ').append(node.radius).append(' ')
+          .append(node.owner).append(' ').append(node.units).append(' ').append(node.growth).append(" |");
+        for (int neighbor : node.neighbors) {
+          line.append(' ').append(neighbor);
+        }
+        line.append(" |");
+        for (float value : node.outline) {
+          line.append(' ').append(value);
+        }
+        out.write(line.append('\n').toString());
+      }
+    }
+    out.flush();
+  }
+
+  private static void validateLinks(LevelData level, int levelNumber) {
+    int n = level.nodes.size();
+    boolean[][] links = new boolean[n][n];
+    for (int i = 0; i < n; i++) {
+      for (int j : level.nodes.get(i).neighbors) {
+        if (j < 0 || j >= n || j == i || links[i][j]) {
+          throw new IllegalArgumentException(ASSET_PATH + " level " + levelNumber + ": node " + i + " has a bad neighbour " + j);
+        }
+        links[i][j] = true;
+      }
+    }
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        if (links[i][j] != links[j][i]) {
+          throw new IllegalArgumentException(ASSET_PATH + " level " + levelNumber + ": link " + i + "-" + j + " is one-way");
+        }
+      }
+    }
+  }
+
+  private static int parseInt(String text, int lineNumber) {
+    try {
+      return Integer.parseInt(text);
+    } catch (NumberFormatException e) {
+      throw error(lineNumber, "not an integer: " + text);
+    }
+  }
+
+  private static float parseFloat(String text, int lineNumber) {
+    float value;
+    try {
+      value = Float.parseFloat(text);
+    } catch (NumberFormatException e) {
+      throw error(lineNumber, "not a number: " + text);
+    }
+    if (Float.isNaN(value) || Float.isInfinite(value)) {
+      throw error(lineNumber, "not a finite number: " + text);
+    }
+    return value;
+  }
+
+  private static int[] parseInts(String field, int lineNumber) {
+    String trimmed = field.trim();
+    if (trimmed.isEmpty()) {
+      return new int[0];
+    }
+    String[] tokens = trimmed.split("\\s+");
+    int[] values = new int[tokens.length];
+    for (int i = 0; i < tokens.length; i++) {
+      values[i] = parseInt(tokens[i], lineNumber);
+    }
+    return values;
+  }
+
+  private static float[] parseFloats(String field, int lineNumber) {
+    String trimmed = field.trim();
+    if (trimmed.isEmpty()) {
+      return new float[0];
+    }
+    String[] tokens = trimmed.split("\\s+");
+    float[] values = new float[tokens.length];
+    for (int i = 0; i < tokens.length; i++) {
+      values[i] = parseFloat(tokens[i], lineNumber);
+    }
+    return values;
+  }
+
+  private static IllegalArgumentException error(int lineNumber, String message) {
+    return new IllegalArgumentException(ASSET_PATH + " line " + lineNumber + ": " + message);
+  }
+
+  public static final class LevelData {
+    public final GameEngine.Difficulty difficulty;
+    public final int aiCount;
+    public final List<LevelNode> nodes = new ArrayList<>();
+
+    public LevelData(GameEngine.Difficulty difficulty, int aiCount) {
+      this.difficulty = difficulty;
+      this.aiCount = aiCount;
+    }
+  }
+
+  public static final class LevelNode {
+    public final float x;
+    public final float y;
+    public final float radius;
+    public final int owner;
+    public final int units;
+    public final float growth;
+    public final int[] neighbors;
+    public final float[] outline;
+
+    public LevelNode(float x, float y, float radius, int owner, int units, float growth, int[] neighbors, float[] outline) {
+      this.x = x;
+      this.y = y;
+      this.radius = radius;
+      this.owner = owner;
+      this.units = units;
+      this.growth = growth;
+      this.neighbors = neighbors;
+      this.outline = outline;
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package com.android.boot.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Keeps generated map geometry (centres, polygons, neighbour lists) keyed by layout version and
+// map size, so restarting on the same screen skips placement and the neighbour search. Cached
+// arrays are shared with every Prefecture built from them and must be treated as read-only.
+public class MapGeometryCache {
+  private static final int MAX_ENTRIES = 4;
+
+  public static class Geometry {
+    public final int layoutVersion;
+    public final float mapWidth;
+    public final float mapHeight;
+    public final float[] x;
+    public final float[] y;
+    public final float[] radius;
+    public final float[][] polygons;
+    public int[][] neighbors;
+
+    public Geometry(int layoutVersion, float mapWidth, float mapHeight, int count) {
+      this.layoutVersion = layoutVersion;
+      this.mapWidth = mapWidth;
+      this.mapHeight = mapHeight;
+      x = new float[count];
+      y = new float[count];
+      radius = new float[count];
+      polygons = new float[count][];
+    }
+
+    public int size() {
+      return x.length;
+    }
+  }
+
+  private final List<Geometry> entries = new ArrayList<>();
+
+  public Geometry get(int layoutVersion, float mapWidth, float mapHeight) {
+    for (int i = 0; i < entries.size(); i++) {
+      Geometry g = entries.get(i);
+      if (g.layoutVersion == layoutVersion && g.mapWidth == mapWidth && g.mapHeight == mapHeight) {
+        return g;
+      }
+    }
+    return null;
+  }
+
+  public void put(Geometry geometry) {
+    if (entries.size() >= MAX_ENTRIES) {
+      entries.remove(0);
+    }
+    entries.add(geometry);
+  }
+
+  // Links every node to its maxPerNode nearest nodes within maxDist, in index order, skipping
+  // nodes it is already linked to; ties go to the lower index. Nodes are swept in x order so
+  // only the ones inside the maxDist window are measured. Returns ascending neighbour lists.
+  public static int[][] linkNearest(float[] xs, float[] ys, float maxDist, int maxPerNode) {
+    int n = xs.length;
+    Integer[] boxed = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      boxed[i] = i;
+    }
+    Arrays.sort(boxed, (a, b) -> Float.compare(xs[a], xs[b]));
+    int[] order = new int[n];
+    float[] sortedX = new float[n];
+    for (int i = 0; i < n; i++) {
+      order[i] = boxed[i];
+      sortedX[i] = xs[order[i]];
+    }
+    int words = (n + 63) >>> 6;
+    long[] links = new long[n * words];
+    // A little slack so float rounding at the window edge never drops a pair the exact test keeps.
+    float window = maxDist * 1.001f;
+    int[] bestIndex = new int[maxPerNode];
+    float[] bestDist = new float[maxPerNode];
+    for (int i = 0; i < n; i++) {
+      int found = 0;
+      int from = lowerBound(sortedX, xs[i] - window);
+      for (int s = from; s < n && sortedX[s] <= xs[i] + window; s++) {
+        int j = order[s];
+        if (j == i || (links[i * words + (j >>> 6)] & (1L << j)) != 0L) {
+          continue;
+        }
+        float dx = xs[j] - xs[i];
+        float dy = ys[j] - ys[i];
+        float d = (float) Math.sqrt(dx * dx + dy * dy);
+        if (d > maxDist) {
+          continue;
+        }
+        int slot = found;
+        while (slot > 0 && (d < bestDist[slot - 1] || (d == bestDist[slot - 1] && j < bestIndex[slot - 1]))) {
+          slot--;
+        }
+        if (slot >= maxPerNode) {
+          continue;
+        }
+        int last = Math.min(found, maxPerNode - 1);
+        for (int k = last; k > slot; k--) {
+          bestDist[k] = bestDist[k - 1];
+          bestIndex[k] = bestIndex[k - 1];
+        }
+        bestDist[slot] = d;
+        bestIndex[slot] = j;
+        if (found < maxPerNode) {
+          found++;
+        }
+      }
+      for (int k = 0; k < found; k++) {
+        int j = bestIndex[k];
+        links[i * words + (j >>> 6)] |= 1L << j;
+        links[j * words + (i >>> 6)] |= 1L << i;
+      }
+    }
+    int[][] neighbors = new int[n][];
+    for (int i = 0; i < n; i++) {
+      int count = 0;
+      for (int w = 0; w < words; w++) {
+        count += Long.bitCount(links[i * words + w]);
+      }
+      int[] list = new int[count];
+      int idx = 0;
+      for (int w = 0; w < words; w++) {
+        long bits = links[i * words + w];
+        while (bits != 0L) {
+          list[idx++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+          bits &= bits - 1;
+        }
+      }
+      neighbors[i] = list;
+    }
+    return neighbors;
+  }
+
+  private static int lowerBound(float[] sorted, float value) {
+    int lo = 0;
+    int hi = sorted.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (sorted[mid] < value) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+}
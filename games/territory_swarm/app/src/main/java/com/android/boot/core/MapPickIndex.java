@@ -0,0 +1,202 @@
+package com.android.boot.core;
+
+import com.android.boot.entity.Prefecture;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Built once per loaded map. A coarse grid lists, per cell, the prefectures whose bounding box
+// overlaps it (ascending index, packed into one array), so a touch only runs containsPoint on
+// the few whose box holds the point. Adjacency is a bitset, one row of long words per prefecture.
+public class MapPickIndex {
+  private static final int MAX_CELLS_PER_AXIS = 64;
+
+  private int count;
+  private Prefecture[] items = new Prefecture[0];
+  private float left;
+  private float top;
+  private float right;
+  private float bottom;
+  private float invCellW = 1f;
+  private float invCellH = 1f;
+  private int cols;
+  private int rows;
+  private float[] boxes = new float[0];
+  private int[] cellStart = new int[1];
+  private int[] cellItems = new int[0];
+  private int words;
+  private long[] adjacency = new long[0];
+
+  public void clear() {
+    Arrays.fill(items, 0, count, null);
+    count = 0;
+  }
+
+  public int size() {
+    return count;
+  }
+
+  public void build(List<Prefecture> prefectures) {
+    clear();
+    count = prefectures.size();
+    if (items.length < count) {
+      items = new Prefecture[count];
+    }
+    if (boxes.length < count * 4) {
+      boxes = new float[count * 4];
+    }
+    left = Float.MAX_VALUE;
+    top = Float.MAX_VALUE;
+    right = -Float.MAX_VALUE;
+    bottom = -Float.MAX_VALUE;
+    float sumW = 0f;
+    float sumH = 0f;
+    for (int i = 0; i < count; i++) {
+      Prefecture pref = prefectures.get(i);
+      items[i] = pref;
+      float minX;
+      float minY;
+      float maxX;
+      float maxY;
+      if (pref.polygonPoints == null || pref.polygonPoints.length < 6) {
+        // Padded so rounding in the circle test can never reach outside the box.
+        float r = pref.radius * 1.001f;
+        minX = pref.x - r;
+        minY = pref.y - r;
+        maxX = pref.x + r;
+        maxY = pref.y + r;
+      } else {
+        minX = Float.MAX_VALUE;
+        minY = Float.MAX_VALUE;
+        maxX = -Float.MAX_VALUE;
+        maxY = -Float.MAX_VALUE;
+        for (int k = 0; k < pref.polygonVertexCount; k++) {
+          float x = pref.polygonPoints[k * 2];
+          float y = pref.polygonPoints[k * 2 + 1];
+          minX = Math.min(minX, x);
+          minY = Math.min(minY, y);
+          maxX = Math.max(maxX, x);
+          maxY = Math.max(maxY, y);
+        }
+      }
+      boxes[i * 4] = minX;
+      boxes[i * 4 + 1] = minY;
+      boxes[i * 4 + 2] = maxX;
+      boxes[i * 4 + 3] = maxY;
+      left = Math.min(left, minX);
+      top = Math.min(top, minY);
+      right = Math.max(right, maxX);
+      bottom = Math.max(bottom, maxY);
+      sumW += maxX - minX;
+      sumH += maxY - minY;
+    }
+    buildGrid(sumW, sumH);
+    buildAdjacency();
+  }
+
+  // Same answer as scanning the list for the first prefecture whose containsPoint accepts (x, y).
+  public Prefecture pick(float x, float y) {
+    if (count == 0 || x < left || x > right || y < top || y > bottom) {
+      return null;
+    }
+    int cell = row(y) * cols + col(x);
+    for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+      int i = cellItems[k];
+      int b = i * 4;
+      if (x < boxes[b] || y < boxes[b + 1] || x > boxes[b + 2] || y > boxes[b + 3]) {
+        continue;
+      }
+      if (items[i].containsPoint(x, y)) {
+        return items[i];
+      }
+    }
+    return null;
+  }
+
+  // True when both belong to the indexed map, which is the only case isNeighbor can answer.
+  public boolean covers(Prefecture a, Prefecture b) {
+    return a.id >= 0 && a.id < count && items[a.id] == a && b.id >= 0 && b.id < count && items[b.id] == b;
+  }
+
+  public boolean isNeighbor(Prefecture a, Prefecture b) {
+    return (adjacency[a.id * words + (b.id >>> 6)] & (1L << b.id)) != 0L;
+  }
+
+  private void buildGrid(float sumW, float sumH) {
+    float width = Math.max(1f, right - left);
+    float height = Math.max(1f, bottom - top);
+    // Cells about the size of an average prefecture keep each bucket to a handful of entries.
+    float cellW = count > 0 ? Math.max(1f, sumW / count) : width;
+    float cellH = count > 0 ? Math.max(1f, sumH / count) : height;
+    cols = Math.max(1, Math.min(MAX_CELLS_PER_AXIS, (int) Math.ceil(width / cellW)));
+    rows = Math.max(1, Math.min(MAX_CELLS_PER_AXIS, (int) Math.ceil(height / cellH)));
+    invCellW = cols / width;
+    invCellH = rows / height;
+    int cells = cols * rows;
+    if (cellStart.length < cells + 1) {
+      cellStart = new int[cells + 1];
+    }
+    Arrays.fill(cellStart, 0, cells + 1, 0);
+    for (int pass = 0; pass < 2; pass++) {
+      for (int i = 0; i < count; i++) {
+        int c0 = col(boxes[i * 4]);
+        int r0 = row(boxes[i * 4 + 1]);
+        int c1 = col(boxes[i * 4 + 2]);
+        int r1 = row(boxes[i * 4 + 3]);
+        for (int r = r0; r <= r1; r++) {
+          for (int c = c0; c <= c1; c++) {
+            int cell = r * cols + c;
+            if (pass == 0) {
+              cellStart[cell + 1]++;
+            } else {
+              cellItems[cellStart[cell]++] = i;
+            }
+          }
+        }
+      }
+      if (pass == 0) {
+        for (int cell = 0; cell < cells; cell++) {
+          cellStart[cell + 1] += cellStart[cell];
+        }
+        if (cellItems.length < cellStart[cells]) {
+          cellItems = new int[cellStart[cells]];
+        }
+      } else {
+        // The fill pass advanced every start to the next cell's start; shift them back.
+        for (int cell = cells; cell > 0; cell--) {
+          cellStart[cell] = cellStart[cell - 1];
+        }
+        cellStart[0] = 0;
+      }
+    }
+  }
+
+  private void buildAdjacency() {
+    words = (count + 63) >>> 6;
+    if (adjacency.length < count * words) {
+      adjacency = new long[count * words];
+    }
+    Arrays.fill(adjacency, 0, count * words, 0L);
+    for (int i = 0; i < count; i++) {
+      int[] neighbors = items[i].neighbors;
+      if (neighbors == null) {
+        continue;
+      }
+      for (int j : neighbors) {
+        if (j >= 0 && j < count) {
+          adjacency[i * words + (j >>> 6)] |= 1L << j;
+        }
+      }
+    }
+  }
+
+  private int col(float x) {
+    int c = (int) ((x - left) * invCellW);
+    return c < 0 ? 0 : (c >= cols ? cols - 1 : c);
+  }
+
+  private int row(float y) {
+    int r = (int) ((y - top) * invCellH);
+    return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+  }
+}
@@ -0,0 +1,178 @@
+package com.android.boot.core;
+
+import java.util.Arrays;
+
+// Uniform grid over a rectangle. Items are caller-side indices (0..capacity-1);
+// each cell keeps an intrusive doubly linked list so move() is O(1).
+// Points outside the bounds are clamped into the border cells.
+public class SpatialGrid {
+  public interface Filter {
+    boolean accept(int item);
+  }
+
+  private float left;
+  private float top;
+  private float cellSize = 1f;
+  private float invCell = 1f;
+  private int cols;
+  private int rows;
+  private int[] head = new int[0];
+  private int[] next = new int[0];
+  private int[] prev = new int[0];
+  private int[] cellOf = new int[0];
+  private float[] px = new float[0];
+  private float[] py = new float[0];
+
+  public void reset(float left, float top, float right, float bottom, float cellSize, int capacity) {
+    this.left = left;
+    this.top = top;
+    this.cellSize = Math.max(0.001f, cellSize);
+    this.invCell = 1f / this.cellSize;
+    cols = Math.max(1, (int) Math.ceil((right - left) * invCell));
+    rows = Math.max(1, (int) Math.ceil((bottom - top) * invCell));
+    int cells = cols * rows;
+    if (head.length < cells) {
+      head = new int[cells];
+    }
+    Arrays.fill(head, 0, cells, -1);
+    if (next.length < capacity) {
+      int cap = Math.max(capacity, next.length * 2);
+      next = new int[cap];
+      prev = new int[cap];
+      cellOf = new int[cap];
+      px = new float[cap];
+      py = new float[cap];
+    }
+    Arrays.fill(cellOf, 0, capacity, -1);
+  }
+
+  public void insert(int item, float x, float y) {
+    px[item] = x;
+    py[item] = y;
+    link(item, cellIndex(x, y));
+  }
+
+  public void move(int item, float x, float y) {
+    px[item] = x;
+    py[item] = y;
+    int cell = cellIndex(x, y);
+    int old = cellOf[item];
+    if (old == cell) {
+      return;
+    }
+    if (old >= 0) {
+      unlink(item, old);
+    }
+    link(item, cell);
+  }
+
+  public void remove(int item) {
+    int old = cellOf[item];
+    if (old >= 0) {
+      unlink(item, old);
+    }
+  }
+
+  // Nearest accepted item by squared distance; ties go to the lowest item index,
+  // matching a front-to-back linear scan with a strict "<" comparison.
+  public int nearest(float x, float y, Filter filter) {
+    int cx = col(x);
+    int cy = row(y);
+    int maxRing = Math.max(cols, rows);
+    int best = -1;
+    float bestD = Float.MAX_VALUE;
+    for (int ring = 0; ring <= maxRing; ring++) {
+      if (best >= 0) {
+        // Anything in ring r is at least (r - 1) cells away.
+        float bound = (ring - 1) * cellSize;
+        if (bound > 0f && bestD < bound * bound) {
+          break;
+        }
+      }
+      int c0 = cx - ring;
+      int c1 = cx + ring;
+      int r0 = cy - ring;
+      int r1 = cy + ring;
+      for (int r = Math.max(0, r0); r <= Math.min(rows - 1, r1); r++) {
+        boolean edgeRow = r == r0 || r == r1;
+        int step = edgeRow ? 1 : Math.max(1, c1 - c0);
+        for (int c = c0; c <= c1; c += step) {
+          if (c < 0 || c >= cols) {
+            continue;
+          }
+          for (int it = head[r * cols + c]; it >= 0; it = next[it]) {
+            if (!filter.accept(it)) {
+              continue;
+            }
+            float dx = px[it] - x;
+            float dy = py[it] - y;
+            float d = dx * dx + dy * dy;
+            if (d < bestD || (d == bestD && it < best)) {
+              bestD = d;
+              best = it;
+            }
+          }
+        }
+      }
+    }
+    return best;
+  }
+
+  // Writes every item whose cell overlaps the square [x-radius, x+radius] x [y-radius, y+radius]
+  // into out (sorted ascending) and returns the count. out must hold capacity entries.
+  public int gather(float x, float y, float radius, int[] out) {
+    int c0 = col(x - radius);
+    int c1 = col(x + radius);
+    int r0 = row(y - radius);
+    int r1 = row(y + radius);
+    int n = 0;
+    for (int r = r0; r <= r1; r++) {
+      for (int c = c0; c <= c1; c++) {
+        for (int it = head[r * cols + c]; it >= 0; it = next[it]) {
+          out[n++] = it;
+        }
+      }
+    }
+    Arrays.sort(out, 0, n);
+    return n;
+  }
+
+  private void link(int item, int cell) {
+    int h = head[cell];
+    next[item] = h;
+    prev[item] = -1;
+    if (h >= 0) {
+      prev[h] = item;
+    }
+    head[cell] = item;
+    cellOf[item] = cell;
+  }
+
+  private void unlink(int item, int cell) {
+    int p = prev[item];
+    int n = next[item];
+    if (p >= 0) {
+      next[p] = n;
+    } else {
+      head[cell] = n;
+    }
+    if (n >= 0) {
+      prev[n] = p;
+    }
+    cellOf[item] = -1;
+  }
+
+  private int cellIndex(float x, float y) {
+    return row(y) * cols + col(x);
+  }
+
+  private int col(float x) {
+    int c = (int) Math.floor((x - left) * invCell);
+    return c < 0 ? 0 : (c >= cols ? cols - 1 : c);
+  }
+
+  private int row(float y) {
+    int r = (int) Math.floor((y - top) * invCell);
+    return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+  }
+}
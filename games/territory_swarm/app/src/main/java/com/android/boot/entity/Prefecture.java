@@ -66,6 +66,9 @@ public class Prefecture {
   public int battleDefShieldStart;
   public int battleDefSwordStart;
   public int battleDefArcherStart;
+  // Per-tick troop counts (shield, sword, archer) for the damage pass, reused across ticks
+  public final int[] battleAtkWork = new int[3];
+  public final int[] battleDefWork = new int[3];
   
   // Map skill placement system
   public int placedSkill;  // 0=None, 1=Charge, 2=Arrow Rain, 3=Defense, 4=Retreat
@@ -95,6 +98,17 @@ public class Prefecture {
     this.type = type;
     generatePolygonShape();
   }
+
+  // Adopts a precomputed polygon ([x1, y1, x2, y2, ...]) instead of generating a random one
+  public Prefecture(float x, float y, float radius, String name, int type, float[] polygonPoints) {
+    this.x = x;
+    this.y = y;
+    this.radius = radius;
+    this.name = name;
+    this.type = type;
+    this.polygonPoints = polygonPoints;
+    this.polygonVertexCount = polygonPoints.length / 2;
+  }
   
   // Generate irregular polygon shape (similar to real map regions)
   private void generatePolygonShape() {
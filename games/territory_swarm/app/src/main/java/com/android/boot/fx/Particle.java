@@ -1,41 +0,0 @@
-package com.android.boot.fx;
-
-import com.android.boot.entity.Prefecture;
-
-public class Particle {
-  public float x;
-  public float y;
-  public float vx;
-  public float vy;
-  public float duration;
-  public float travel;
-  public float radius;
-  public int shield;
-  public int sword;
-  public int archer;
-  public int owner;
-  public Prefecture target;
-
-  private Particle() {
-  }
-
-  public static Particle create(float startX, float startY, Prefecture target, int shield, int sword, int archer, int owner) {
-    Particle particle = new Particle();
-    particle.x = startX;
-    particle.y = startY;
-    particle.target = target;
-    particle.shield = shield;
-    particle.sword = sword;
-    particle.archer = archer;
-    particle.owner = owner;
-    float dx = target.x - startX;
-    float dy = target.y - startY;
-    float dist = (float) Math.sqrt(dx * dx + dy * dy);
-    particle.duration = Math.max(0.2f, dist / 480f);
-    particle.vx = dx / particle.duration;
-    particle.vy = dy / particle.duration;
-    particle.radius = Math.max(2f, target.radius * 0.12f);
-    particle.travel = 0f;
-    return particle;
-  }
-}
@@ -0,0 +1,127 @@
+package com.android.boot.fx;
+
+// Fixed-capacity particles stored as parallel arrays: slot i is x[i], y[i], vx[i], ... and its
+// payload ints data[i * stride .. i * stride + stride - 1]. Live particles are packed into
+// 0..size()-1; remove() moves the last one into the hole, so walk from the end when removing.
+public class ParticleBuffer {
+  public final int stride;
+  public float[] x;
+  public float[] y;
+  public float[] vx;
+  public float[] vy;
+  public float[] age;
+  public float[] life;
+  public float[] size;
+  public int[] color;
+  public int[] data;
+  private int count;
+
+  public ParticleBuffer(int capacity, int stride) {
+    this.stride = stride;
+    allocate(capacity);
+  }
+
+  public int size() {
+    return count;
+  }
+
+  public int capacity() {
+    return x.length;
+  }
+
+  public boolean isEmpty() {
+    return count == 0;
+  }
+
+  public void clear() {
+    count = 0;
+  }
+
+  // Returns the new slot, or -1 when the buffer is full.
+  public int spawn(float px, float py, float pvx, float pvy, float lifetime, float radius, int argb) {
+    if (count == x.length) {
+      return -1;
+    }
+    int i = count++;
+    x[i] = px;
+    y[i] = py;
+    vx[i] = pvx;
+    vy[i] = pvy;
+    age[i] = 0f;
+    life[i] = lifetime;
+    size[i] = radius;
+    color[i] = argb;
+    return i;
+  }
+
+  public void remove(int i) {
+    int last = --count;
+    if (i == last) {
+      return;
+    }
+    x[i] = x[last];
+    y[i] = y[last];
+    vx[i] = vx[last];
+    vy[i] = vy[last];
+    age[i] = age[last];
+    life[i] = life[last];
+    size[i] = size[last];
+    color[i] = color[last];
+    if (stride > 0) {
+      System.arraycopy(data, last * stride, data, i * stride, stride);
+    }
+  }
+
+  // Moves every particle and ages it; callers then drop the ones with age >= life.
+  public void integrate(float dt) {
+    for (int i = 0; i < count; i++) {
+      x[i] += vx[i] * dt;
+      y[i] += vy[i] * dt;
+      age[i] += dt;
+    }
+  }
+
+  public void removeExpired() {
+    for (int i = count - 1; i >= 0; i--) {
+      if (age[i] >= life[i]) {
+        remove(i);
+      }
+    }
+  }
+
+  // For buffers whose particles must never be dropped; visual effects should stay fixed-size.
+  public void grow() {
+    int old = x.length;
+    float[] ox = x;
+    float[] oy = y;
+    float[] ovx = vx;
+    float[] ovy = vy;
+    float[] oage = age;
+    float[] olife = life;
+    float[] osize = size;
+    int[] ocolor = color;
+    int[] odata = data;
+    allocate(Math.max(16, old * 2));
+    System.arraycopy(ox, 0, x, 0, count);
+    System.arraycopy(oy, 0, y, 0, count);
+    System.arraycopy(ovx, 0, vx, 0, count);
+    System.arraycopy(ovy, 0, vy, 0, count);
+    System.arraycopy(oage, 0, age, 0, count);
+    System.arraycopy(olife, 0, life, 0, count);
+    System.arraycopy(osize, 0, size, 0, count);
+    System.arraycopy(ocolor, 0, color, 0, count);
+    System.arraycopy(odata, 0, data, 0, count * stride);
+  }
+
+  private void allocate(int capacity) {
+    x = new float[capacity];
+    y = new float[capacity];
+    vx = new float[capacity];
+    vy = new float[capacity];
+    age = new float[capacity];
+    life = new float[capacity];
+    size = new float[capacity];
+    color = new int[capacity];
+    data = new int[capacity * stride];
+  }
+}
@@ -0,0 +1,80 @@
+package com.android.boot.fx;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+// Collects stroked circles as triangle rings with per-vertex colour and draws them all with one
+// drawVertices call. Rings past the capacity are dropped for that frame.
+public class RingBatch {
+  private static final int SEGMENTS = 16;
+  private static final float[] COS = new float[SEGMENTS];
+  private static final float[] SIN = new float[SEGMENTS];
+
+  static {
+    for (int s = 0; s < SEGMENTS; s++) {
+      double angle = Math.PI * 2.0 * s / SEGMENTS;
+      COS[s] = (float) Math.cos(angle);
+      SIN[s] = (float) Math.sin(angle);
+    }
+  }
+
+  private final int capacity;
+  private final float[] verts;
+  private final int[] colors;
+  private final short[] indices;
+  private int rings;
+
+  public RingBatch(int capacity) {
+    // Vertex indices are shorts, so one batch tops out just under 32768 / (2 * SEGMENTS) rings.
+    this.capacity = Math.min(capacity, Short.MAX_VALUE / (SEGMENTS * 2));
+    verts = new float[this.capacity * SEGMENTS * 4];
+    colors = new int[this.capacity * SEGMENTS * 2];
+    indices = new short[this.capacity * SEGMENTS * 6];
+    for (int r = 0; r < this.capacity; r++) {
+      int base = r * SEGMENTS * 2;
+      int k = r * SEGMENTS * 6;
+      for (int s = 0; s < SEGMENTS; s++) {
+        int inner = base + s * 2;
+        int outer = inner + 1;
+        int nextInner = base + ((s + 1) % SEGMENTS) * 2;
+        int nextOuter = nextInner + 1;
+        indices[k++] = (short) inner;
+        indices[k++] = (short) outer;
+        indices[k++] = (short) nextOuter;
+        indices[k++] = (short) inner;
+        indices[k++] = (short) nextOuter;
+        indices[k++] = (short) nextInner;
+      }
+    }
+  }
+
+  public void reset() {
+    rings = 0;
+  }
+
+  public void add(float cx, float cy, float radius, float strokeWidth, int argb) {
+    if (rings == capacity) {
+      return;
+    }
+    float inner = Math.max(0f, radius - strokeWidth * 0.5f);
+    float outer = radius + strokeWidth * 0.5f;
+    int v = rings * SEGMENTS * 4;
+    int c = rings * SEGMENTS * 2;
+    for (int s = 0; s < SEGMENTS; s++) {
+      verts[v++] = cx + COS[s] * inner;
+      verts[v++] = cy + SIN[s] * inner;
+      verts[v++] = cx + COS[s] * outer;
+      verts[v++] = cy + SIN[s] * outer;
+      colors[c++] = argb;
+      colors[c++] = argb;
+    }
+    rings++;
+  }
+
+  public void draw(Canvas canvas, Paint paint) {
+    if (rings == 0) {
+      return;
+    }
+    canvas.drawVertices(Canvas.VertexMode.TRIANGLES, rings * SEGMENTS * 4, verts, 0, null, 0, colors, 0, indices, 0, rings * SEGMENTS * 6, paint);
+  }
+}
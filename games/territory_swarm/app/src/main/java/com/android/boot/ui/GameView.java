@@ -19,13 +19,18 @@ import android.view.SurfaceView;
 
 import com.android.boot.BgmPlayer;
 import com.android.boot.R;
+import com.android.boot.core.BattleArena;
+import com.android.boot.core.BattleArena.Projectile;
+import com.android.boot.core.BattleArena.Unit;
 import com.android.boot.core.GameEngine;
+import com.android.boot.core.SpatialGrid;
 import com.android.boot.entity.Prefecture;
-import com.android.boot.fx.Particle;
+import com.android.boot.fx.ParticleBuffer;
+import com.android.boot.fx.RingBatch;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Callback {
   public enum GameState {
@@ -1078,48 +1083,11 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
     private static final int TYPE_SWORD = 1;
     private static final int TYPE_ARCHER = 2;
 
-    private static class Unit {
-      float x;
-      float y;
-      float vx;
-      float vy;
-      float cooldown;
-      float dash;
-      float dashCd;
-      int side;
-      int type;
-      int hp;
-      int id;
-      int slot;
-      boolean positioned;
-      boolean alive;
-      boolean isGiant;  
-    }
-
-    private static class Fx {
-      float x;
-      float y;
-      float t;
-      float life;
-      int color;
-    }
-
-    private static class Projectile {
-      float sx;
-      float sy;
-      float ex;
-      float ey;
-      float t;
-      float life;
-      int side;
-      int type;
-      int targetId;
-      int color;
-    }
-
-    private final ArrayList<Unit> units = new ArrayList<>();
-    private final ArrayList<Fx> fxs = new ArrayList<>();
-    private final ArrayList<Projectile> projectiles = new ArrayList<>();
+    private final BattleArena arena = new BattleArena();
+    private final ParticleBuffer fxs = new ParticleBuffer(256, 0);
+    private final RingBatch fxRings = new RingBatch(256);
+    private final RectF barBack = new RectF();
+    private final RectF barFill = new RectF();
     private int atkS;
     private int atkW;
     private int atkA;
@@ -1128,7 +1096,6 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
     private int defA;
     private float dens;
     private float time;
-    private int nextId;
     
     
     public static final int SKILL_NONE = 0;
@@ -1143,6 +1110,9 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
     private int defActiveSkill = SKILL_NONE;
     private float atkSkillDuration = 0f;
     private float defSkillDuration = 0f;
+    // Skill taps arrive on the UI thread; update() picks them up on the game thread so the
+    // skill effects never touch the grid or the arena while a tick is walking them.
+    private final AtomicIntegerArray pendingSkill = new AtomicIntegerArray(2);
     
     
     public static final int COMMAND_NONE = 0;
@@ -1157,15 +1127,27 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
     private float cannonCooldown = 0f;
     private Prefecture battleTarget;
 
+    // Spatial index over units (item = index in the arena), rebuilt at the start of each tick
+    // and kept in sync as units move so queries match the linear scans exactly.
+    private final SpatialGrid grid = new SpatialGrid();
+    private final RectF indexArea = new RectF();
+    private boolean indexAreaValid;
+    private float indexCell;
+    private int[] neighborBuf = new int[64];
+    private int querySide;
+    private final SpatialGrid.Filter enemyFilter = item -> {
+      Unit u = arena.unit(item);
+      return u.alive && u.side != querySide;
+    };
+
     void initFrom(Prefecture target, float dens, Random rnd) {
       this.dens = dens;
       time = 0f;
-      nextId = 1;
-      units.clear();
+      arena.clear();
       fxs.clear();
-      projectiles.clear();
       battleTarget = target;
       cannonCooldown = 0f;
+      indexAreaValid = false;
       
       
       atkSkillCooldown = 0f;
@@ -1174,6 +1156,8 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
       defActiveSkill = SKILL_NONE;
       atkSkillDuration = 0f;
       defSkillDuration = 0f;
+      pendingSkill.set(SIDE_ATK, SKILL_NONE);
+      pendingSkill.set(SIDE_DEF, SKILL_NONE);
       atkCommand = COMMAND_NONE;
       defCommand = COMMAND_NONE;
 
@@ -1207,44 +1191,59 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
       // 0
       int defGS = 0, defGW = 0, defGA = 0;
 
-
+      // Every archer may have an arrow in flight and an Arrow Rain volley on top of it.
+      int total = atkS + atkW + atkA + atkGS + atkGW + atkGA + defS + defW + defA;
+      arena.reserve(total, total * 2 + 8);
       spawnSide(SIDE_ATK, atkS, atkW, atkA, atkGS, atkGW, atkGA, rnd);
       spawnSide(SIDE_DEF, defS, defW, defA, defGS, defGW, defGA, rnd);
     }
     
-    boolean useSkill(int side, int skill) {
+    // Queues the skill for the next update(); a second tap before then replaces the first.
+    void useSkill(int side, int skill) {
+      pendingSkill.set(side, skill);
+    }
+
+    private void applyPendingSkill(int side) {
+      int skill = pendingSkill.getAndSet(side, SKILL_NONE);
+      if (skill != SKILL_NONE) {
+        startSkill(side, skill);
+      }
+    }
+
+    private void startSkill(int side, int skill) {
       if (side == SIDE_ATK) {
         if (atkSkillCooldown > 0f || atkActiveSkill != SKILL_NONE) {
-          return false;
+          return;
         }
         atkActiveSkill = skill;
         atkSkillCooldown = 8f;  // 8
         atkSkillDuration = 3f;  // 3
         
         triggerSkillEffect(side, skill);
-        return true;
       } else {
         if (defSkillCooldown > 0f || defActiveSkill != SKILL_NONE) {
-          return false;
+          return;
         }
         defActiveSkill = skill;
         defSkillCooldown = 8f;
         defSkillDuration = 3f;
         
         triggerSkillEffect(side, skill);
-        return true;
       }
     }
     
     private void triggerSkillEffect(int side, int skill) {
       if (skill == SKILL_ARROW_RAIN) {
-
-        for (int i = 0; i < units.size(); i++) {
-          Unit u = units.get(i);
+        boolean indexed = indexAreaValid;
+        if (indexed) {
+          rebuildIndex(indexArea, indexCell);
+        }
+        for (int i = 0; i < arena.unitCount(); i++) {
+          Unit u = arena.unit(i);
           if (!u.alive || u.side != side || u.type != TYPE_ARCHER) {
             continue;
           }
-          Unit enemy = findNearestEnemy(u);
+          Unit enemy = indexed ? findNearestEnemy(u) : findNearestEnemyLinear(u);
           if (enemy != null) {
             float dx = enemy.x - u.x;
             float dy = enemy.y - u.y;
@@ -1257,8 +1256,8 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
         }
       } else if (skill == SKILL_RETREAT) {
         // HP
-        for (int i = 0; i < units.size(); i++) {
-          Unit u = units.get(i);
+        for (int i = 0; i < arena.unitCount(); i++) {
+          Unit u = arena.unit(i);
           if (!u.alive || u.side != side) {
             continue;
           }
@@ -1293,8 +1292,8 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
       int aGS = 0, aGW = 0, aGA = 0, dGS = 0, dGW = 0, dGA = 0;
       int prevOwner = target.owner;
       int attackerOwner = target.battleAttackerOwner;
-      for (int i = 0; i < units.size(); i++) {
-        Unit u = units.get(i);
+      for (int i = 0; i < arena.unitCount(); i++) {
+        Unit u = arena.unit(i);
         if (!u.alive) {
           continue;
         }
@@ -1391,6 +1390,8 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
     }
 
     void update(float dt, RectF area, Random rnd) {
+      applyPendingSkill(SIDE_ATK);
+      applyPendingSkill(SIDE_DEF);
       time += dt;
       float midX = area.centerX();
       float midY = area.centerY();
@@ -1433,8 +1434,8 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
           
           Unit target = null;
           float bestDist = Float.MAX_VALUE;
-          for (int i = 0; i < units.size(); i++) {
-            Unit u = units.get(i);
+          for (int i = 0; i < arena.unitCount(); i++) {
+            Unit u = arena.unit(i);
             if (!u.alive || u.side != SIDE_ATK) {
               continue;
             }
@@ -1448,7 +1449,7 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
           }
           if (target != null && bestDist < 200f * dens) {
             
-            Projectile cannon = new Projectile();
+            Projectile cannon = arena.addProjectile();
             cannon.sx = midX;
             cannon.sy = midY;
             cannon.ex = target.x;
@@ -1458,15 +1459,14 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
             cannon.side = SIDE_DEF;
             cannon.type = TYPE_ARCHER;
             cannon.color = getResources().getColor(R.color.cst_warning);
-            projectiles.add(cannon);
             cannonCooldown = 3.0f + rnd.nextFloat() * 1.0f;
             addHitFx(target.x, target.y, TYPE_ARCHER, rnd);
           }
         }
       }
 
-      for (int i = 0; i < units.size(); i++) {
-        Unit u = units.get(i);
+      for (int i = 0; i < arena.unitCount(); i++) {
+        Unit u = arena.unit(i);
         if (!u.alive) {
           continue;
         }
@@ -1474,9 +1474,10 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
           placeUnit(u, area, rnd);
         }
       }
+      rebuildIndex(area, minSep);
 
-      for (int i = 0; i < units.size(); i++) {
-        Unit u = units.get(i);
+      for (int i = 0; i < arena.unitCount(); i++) {
+        Unit u = arena.unit(i);
         if (!u.alive) {
           continue;
         }
@@ -1571,16 +1572,21 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
           u.dash = 0.12f;
           u.dashCd = 1.10f;
         }
-
+        grid.move(i, u.x, u.y);
       }
 
-      for (int i = 0; i < units.size(); i++) {
-        Unit a = units.get(i);
+      // Pairwise separation over grid neighbours, visited in the same (i, j > i) order as
+      // the full scan; after each push the candidate list is re-gathered around a's new spot.
+      for (int i = 0; i < arena.unitCount(); i++) {
+        Unit a = arena.unit(i);
         if (!a.alive) {
           continue;
         }
-        for (int j = i + 1; j < units.size(); j++) {
-          Unit b = units.get(j);
+        int n = grid.gather(a.x, a.y, minSep, neighborBuf);
+        int k = skipTo(neighborBuf, n, i);
+        while (k < n) {
+          int j = neighborBuf[k++];
+          Unit b = arena.unit(j);
           if (!b.alive) {
             continue;
           }
@@ -1599,12 +1605,16 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
             a.y -= ny * push;
             b.x += nx * push;
             b.y += ny * push;
+            grid.move(i, a.x, a.y);
+            grid.move(j, b.x, b.y);
+            n = grid.gather(a.x, a.y, minSep, neighborBuf);
+            k = skipTo(neighborBuf, n, j);
           }
         }
       }
 
-      for (int i = 0; i < units.size(); i++) {
-        Unit u = units.get(i);
+      for (int i = 0; i < arena.unitCount(); i++) {
+        Unit u = arena.unit(i);
         if (!u.alive) {
           continue;
         }
@@ -1613,17 +1623,13 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
       }
 
       // HP
-      for (int i = units.size() - 1; i >= 0; i--) {
-        if (!units.get(i).alive) {
-          units.remove(i);
-        }
-      }
+      arena.removeDeadUnits();
 
-      for (int i = projectiles.size() - 1; i >= 0; i--) {
-        Projectile p = projectiles.get(i);
+      for (int i = arena.projectileCount() - 1; i >= 0; i--) {
+        Projectile p = arena.projectile(i);
         p.t += dt;
         if (p.t >= p.life) {
-          Unit target = findAliveById(p.targetId);
+          Unit target = arena.unitByHandle(p.targetId);
           if (target != null) {
             boolean blocked = applyProjectileHit(p, target, rnd);
             if (blocked) {
@@ -1632,19 +1638,14 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
               addHitFx(target.x, target.y, TYPE_ARCHER, rnd);
             }
           }
-          projectiles.remove(i);
+          arena.removeProjectile(i);
         }
       }
 
-      for (int i = fxs.size() - 1; i >= 0; i--) {
-        Fx fx = fxs.get(i);
-        fx.t += dt;
-        if (fx.t >= fx.life) {
-          fxs.remove(i);
-        }
-      }
+      fxs.integrate(dt);
+      fxs.removeExpired();
 
-      if (units.isEmpty()) {
+      if (arena.unitCount() == 0) {
         float jitter = 6f * dens;
         addHitFx(midX + (rnd.nextFloat() - 0.5f) * jitter, midY + (rnd.nextFloat() - 0.5f) * jitter, TYPE_SWORD, rnd);
       }
@@ -1652,8 +1653,8 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
 
     void draw(Canvas canvas, RectF area, GameView view, int atkColor, int defColor, float alpha) {
       float r = 5.2f * dens;
-      for (int i = 0; i < projectiles.size(); i++) {
-        Projectile p = projectiles.get(i);
+      for (int i = 0; i < arena.projectileCount(); i++) {
+        Projectile p = arena.projectile(i);
         float t = p.t / Math.max(0.001f, p.life);
         float x = p.sx + (p.ex - p.sx) * t;
         float y = quadAtLocal(p.sy, (p.sy + p.ey) * 0.5f - 50f * dens, p.ey, t);
@@ -1661,8 +1662,8 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
         view.battleDotPaint.setAlpha((int) (220f * alpha));
         canvas.drawCircle(x, y, 2.2f * dens, view.battleDotPaint);
       }
-      for (int i = 0; i < units.size(); i++) {
-        Unit u = units.get(i);
+      for (int i = 0; i < arena.unitCount(); i++) {
+        Unit u = arena.unit(i);
         if (!u.alive) {
           continue;
         }
@@ -1680,28 +1681,26 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
           float barH = r * 0.35f;
           float bx = u.x - barW * 0.5f;
           float by = u.y - r * 2.4f;
-          RectF back = new RectF(bx, by, bx + barW, by + barH);
-          RectF fill = new RectF(bx, by, bx + barW * frac, by + barH);
+          barBack.set(bx, by, bx + barW, by + barH);
+          barFill.set(bx, by, bx + barW * frac, by + barH);
           view.battleBarTrackPaint.setAlpha((int) (180f * alpha));
-          canvas.drawRoundRect(back, barH, barH, view.battleBarTrackPaint);
+          canvas.drawRoundRect(barBack, barH, barH, view.battleBarTrackPaint);
           int hpCol = u.type == TYPE_SHIELD ? view.getResources().getColor(R.color.cst_accent)
               : (u.type == TYPE_SWORD ? view.getResources().getColor(R.color.cst_warning) : view.getResources().getColor(R.color.cst_accent_2));
           view.battleBarFillPaint.setColor(hpCol);
           view.battleBarFillPaint.setAlpha((int) (220f * alpha));
-          canvas.drawRoundRect(fill, barH, barH, view.battleBarFillPaint);
+          canvas.drawRoundRect(barFill, barH, barH, view.battleBarFillPaint);
         }
       }
 
+      fxRings.reset();
+      float stroke = view.battleFxPaint.getStrokeWidth();
       for (int i = 0; i < fxs.size(); i++) {
-        Fx fx = fxs.get(i);
-        float p = fx.t / Math.max(0.001f, fx.life);
-        int a = (int) (160f * alpha * (1f - p));
-        view.battleFxPaint.setColor(fx.color);
-        view.battleFxPaint.setAlpha(a);
-        canvas.drawCircle(fx.x, fx.y, (10f * dens + 26f * dens * p), view.battleFxPaint);
-        view.battleFxPaint.setColor(view.getResources().getColor(R.color.cst_text_primary));
-        view.battleFxPaint.setAlpha(160);
+        float p = fxs.age[i] / Math.max(0.001f, fxs.life[i]);
+        int a = Math.max(0, Math.min(255, (int) (160f * alpha * (1f - p))));
+        fxRings.add(fxs.x[i], fxs.y[i], 10f * dens + 26f * dens * p, stroke, (a << 24) | (fxs.color[i] & 0x00FFFFFF));
       }
+      fxRings.draw(canvas, view.battleFxPaint);
     }
 
     private void spawnSide(int side, int s, int w, int a, int gs, int gw, int ga, Random rnd) {
@@ -1709,28 +1708,28 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
 
       int totalSpawned = 0;
       for (int i = 0; i < s; i++) {
-        units.add(makeUnit(side, TYPE_SHIELD, false, rnd, totalSpawned));
+        makeUnit(side, TYPE_SHIELD, false, rnd, totalSpawned);
         totalSpawned++;
       }
       for (int i = 0; i < w; i++) {
-        units.add(makeUnit(side, TYPE_SWORD, false, rnd, totalSpawned));
+        makeUnit(side, TYPE_SWORD, false, rnd, totalSpawned);
         totalSpawned++;
       }
       for (int i = 0; i < a; i++) {
-        units.add(makeUnit(side, TYPE_ARCHER, false, rnd, totalSpawned));
+        makeUnit(side, TYPE_ARCHER, false, rnd, totalSpawned);
         totalSpawned++;
       }
       
       for (int i = 0; i < gs; i++) {
-        units.add(makeUnit(side, TYPE_SHIELD, true, rnd, totalSpawned));
+        makeUnit(side, TYPE_SHIELD, true, rnd, totalSpawned);
         totalSpawned++;
       }
       for (int i = 0; i < gw; i++) {
-        units.add(makeUnit(side, TYPE_SWORD, true, rnd, totalSpawned));
+        makeUnit(side, TYPE_SWORD, true, rnd, totalSpawned);
         totalSpawned++;
       }
       for (int i = 0; i < ga; i++) {
-        units.add(makeUnit(side, TYPE_ARCHER, true, rnd, totalSpawned));
+        makeUnit(side, TYPE_ARCHER, true, rnd, totalSpawned);
         totalSpawned++;
       }
       
@@ -1740,13 +1739,10 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
     }
 
     private Unit makeUnit(int side, int type, boolean isGiant, Random rnd, int slot) {
-      Unit u = new Unit();
+      Unit u = arena.addUnit();
       u.side = side;
       u.type = type;
       u.isGiant = isGiant;
-      u.alive = true;
-      u.positioned = false;
-      u.id = nextId++;
       u.slot = slot;
       // HP
       if (isGiant) {
@@ -1760,11 +1756,42 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
       return u;
     }
 
+    private void rebuildIndex(RectF area, float cell) {
+      indexArea.set(area);
+      indexAreaValid = true;
+      indexCell = cell;
+      int count = arena.unitCount();
+      grid.reset(area.left, area.top, area.right, area.bottom, cell, count);
+      if (neighborBuf.length < count) {
+        neighborBuf = new int[Math.max(count, neighborBuf.length * 2)];
+      }
+      for (int i = 0; i < count; i++) {
+        Unit u = arena.unit(i);
+        if (u.alive) {
+          grid.insert(i, u.x, u.y);
+        }
+      }
+    }
+
+    private int skipTo(int[] sorted, int n, int after) {
+      int k = 0;
+      while (k < n && sorted[k] <= after) {
+        k++;
+      }
+      return k;
+    }
+
     private Unit findNearestEnemy(Unit me) {
+      querySide = me.side;
+      int idx = grid.nearest(me.x, me.y, enemyFilter);
+      return idx >= 0 ? arena.unit(idx) : null;
+    }
+
+    private Unit findNearestEnemyLinear(Unit me) {
       Unit best = null;
       float bestD = Float.MAX_VALUE;
-      for (int i = 0; i < units.size(); i++) {
-        Unit u = units.get(i);
+      for (int i = 0; i < arena.unitCount(); i++) {
+        Unit u = arena.unit(i);
         if (!u.alive || u.side == me.side) {
           continue;
         }
@@ -1780,27 +1807,17 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
     }
 
     private void addHitFx(float x, float y, int type, Random rnd) {
-      Fx fx = new Fx();
-      fx.x = x;
-      fx.y = y;
-      fx.t = 0f;
-      fx.life = 0.22f + rnd.nextFloat() * 0.12f;
-      fx.color = type == TYPE_ARCHER ? Color.WHITE : (type == TYPE_SWORD ? Color.WHITE : Color.WHITE);
-      fxs.add(fx);
+      float life = 0.22f + rnd.nextFloat() * 0.12f;
+      fxs.spawn(x, y, 0f, 0f, life, 0f, type == TYPE_ARCHER ? Color.WHITE : (type == TYPE_SWORD ? Color.WHITE : Color.WHITE));
     }
 
     private void addBlockFx(float x, float y, Random rnd) {
-      Fx fx = new Fx();
-      fx.x = x;
-      fx.y = y;
-      fx.t = 0f;
-      fx.life = 0.16f + rnd.nextFloat() * 0.08f;
-      fx.color = Color.WHITE;
-      fxs.add(fx);
+      float life = 0.16f + rnd.nextFloat() * 0.08f;
+      fxs.spawn(x, y, 0f, 0f, life, 0f, Color.WHITE);
     }
 
     private void fireArrow(Unit archer, Unit target, float dist, float arrowSpeed, float maxLife) {
-      Projectile p = new Projectile();
+      Projectile p = arena.addProjectile();
       p.sx = archer.x;
       p.sy = archer.y;
       p.ex = target.x;
@@ -1811,17 +1828,6 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
       p.type = TYPE_ARCHER;
       p.targetId = target.id;
       p.color = Color.WHITE;
-      projectiles.add(p);
-    }
-
-    private Unit findAliveById(int id) {
-      for (int i = 0; i < units.size(); i++) {
-        Unit u = units.get(i);
-        if (u.alive && u.id == id) {
-          return u;
-        }
-      }
-      return null;
     }
 
     private boolean applyHit(Unit attacker, Unit target, Random rnd) {
@@ -2392,13 +2398,12 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
 
   private void drawParticles(Canvas canvas) {
 
-    // List<Particle> particles = engine.getParticles();
+    // ParticleBuffer particles = engine.getParticles();
     // for (int i = 0; i < particles.size(); i++) {
-    // Particle particle = particles.get(i);
     // paint.setShader(null);
     // paint.setStyle(Paint.Style.FILL);
-    // paint.setColor(engine.getOwnerParticleColor(particle.owner));
-    // canvas.drawCircle(particle.x, particle.y, particle.radius, paint);
+    // paint.setColor(engine.getOwnerParticleColor(particles.data[i * 5 + 3]));
+    // canvas.drawCircle(particles.x[i], particles.y[i], particles.size[i], paint);
     // }
   }
 
@@ -0,0 +1,51 @@
+package com.android.boot.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class BattleArenaTest {
+  @Test
+  public void removeDeadUnitsKeepsSurvivorsInSpawnOrder() {
+    BattleArena arena = new BattleArena();
+    int[] ids = new int[12];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = arena.addUnit().id;
+    }
+    for (int i : new int[] {0, 3, 4, 9, 11}) {
+      arena.unitByHandle(ids[i]).alive = false;
+    }
+    arena.removeDeadUnits();
+    int[] survivors = {1, 2, 5, 6, 7, 8, 10};
+    assertEquals(survivors.length, arena.unitCount());
+    for (int i = 0; i < survivors.length; i++) {
+      BattleArena.Unit u = arena.unit(i);
+      assertEquals(ids[survivors[i]], u.id);
+      assertSame(u, arena.unitByHandle(u.id));
+    }
+    assertNull(arena.unitByHandle(ids[0]));
+    assertNull(arena.unitByHandle(ids[11]));
+
+    // Recycled entries come back at the end, after every survivor.
+    int late = arena.addUnit().id;
+    assertEquals(late, arena.unit(survivors.length).id);
+    assertEquals(ids[survivors[survivors.length - 1]], arena.unit(survivors.length - 1).id);
+  }
+
+  @Test
+  public void removeDeadUnitsHandlesAllDeadAndNoneDead() {
+    BattleArena arena = new BattleArena();
+    for (int i = 0; i < 5; i++) {
+      arena.addUnit();
+    }
+    arena.removeDeadUnits();
+    assertEquals(5, arena.unitCount());
+    for (int i = 0; i < 5; i++) {
+      arena.unit(i).alive = false;
+    }
+    arena.removeDeadUnits();
+    assertEquals(0, arena.unitCount());
+  }
+}
@@ -0,0 +1,146 @@
+package com.android.boot.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.Test;
+
+public class LevelPackTest {
+  // Gradle runs unit tests from the module directory.
+  private static final File ASSET = new File("src/main/assets/" + LevelPack.ASSET_PATH);
+  private static final float REFERENCE_WIDTH = 1920f;
+  private static final float REFERENCE_HEIGHT = 1080f;
+
+  private static String assetText() throws IOException {
+    return new String(Files.readAllBytes(ASSET.toPath()), StandardCharsets.UTF_8);
+  }
+
+  private static String write(LevelPack pack) throws IOException {
+    StringWriter out = new StringWriter();
+    pack.write(out);
+    return out.toString();
+  }
+
+  private static void assertRejected(String text, String expected) throws IOException {
+    try {
+      LevelPack.parse(new StringReader(text));
+      fail("accepted a pack that should fail with " + expected);
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains(expected));
+    }
+  }
+
+  @Test
+  public void campaignRoundTripsThroughLevels() throws IOException {
+    String text = assetText();
+    LevelPack pack = LevelPack.parse(new StringReader(text));
+    assertEquals(15, pack.size());
+    String body = text.substring(text.indexOf("tslp"));
+    assertEquals(body, write(pack));
+
+    LevelPack again = LevelPack.parse(new StringReader(write(pack)));
+    assertEquals(pack.size(), again.size());
+    for (int l = 0; l < pack.size(); l++) {
+      LevelPack.LevelData a = pack.get(l);
+      LevelPack.LevelData b = again.get(l);
+      assertEquals(a.difficulty, b.difficulty);
+      assertEquals(a.aiCount, b.aiCount);
+      assertEquals(a.nodes.size(), b.nodes.size());
+      for (int i = 0; i < a.nodes.size(); i++) {
+        LevelPack.LevelNode x = a.nodes.get(i);
+        LevelPack.LevelNode y = b.nodes.get(i);
+        assertEquals(Float.floatToIntBits(x.x), Float.floatToIntBits(y.x));
+        assertEquals(Float.floatToIntBits(x.y), Float.floatToIntBits(y.y));
+        assertEquals(Float.floatToIntBits(x.radius), Float.floatToIntBits(y.radius));
+        assertEquals(x.owner, y.owner);
+        assertEquals(x.units, y.units);
+        assertEquals(Float.floatToIntBits(x.growth), Float.floatToIntBits(y.growth));
+        assertArrayEquals(x.neighbors, y.neighbors);
+        assertArrayEquals(x.outline, y.outline, 0f);
+      }
+    }
+  }
+
+  // The links are baked with the rule GameEngine used to run on every level load: each node takes
+  // up to its three nearest nodes within 0.28 of the short side, and every link goes both ways.
+  @Test
+  public void campaignLinksFollowTheNeighbourRule() throws IOException {
+    LevelPack pack = LevelPack.parse(new StringReader(assetText()));
+    float maxDist = Math.min(REFERENCE_WIDTH, REFERENCE_HEIGHT) * 0.28f;
+    for (int l = 0; l < pack.size(); l++) {
+      LevelPack.LevelData level = pack.get(l);
+      int n = level.nodes.size();
+      boolean[][] links = new boolean[n][n];
+      for (int i = 0; i < n; i++) {
+        LevelPack.LevelNode a = level.nodes.get(i);
+        for (int k = 0; k < 3; k++) {
+          int best = -1;
+          float bestD = Float.MAX_VALUE;
+          for (int j = 0; j < n; j++) {
+            if (i == j || links[i][j]) {
+              continue;
+            }
+            LevelPack.LevelNode b = level.nodes.get(j);
+            float dx = (b.x - a.x) * REFERENCE_WIDTH;
+            float dy = (b.y - a.y) * REFERENCE_HEIGHT;
+            float d = (float) Math.sqrt(dx * dx + dy * dy);
+            if (d <= maxDist && d < bestD) {
+              bestD = d;
+              best = j;
+            }
+          }
+          if (best >= 0) {
+            links[i][best] = true;
+            links[best][i] = true;
+          }
+        }
+      }
+      for (int i = 0; i < n; i++) {
+        int count = 0;
+        for (int j = 0; j < n; j++) {
+          if (links[i][j]) {
+            count++;
+          }
+        }
+        int[] expected = new int[count];
+        count = 0;
+        for (int j = 0; j < n; j++) {
+          if (links[i][j]) {
+            expected[count++] = j;
+          }
+        }
+        assertArrayEquals("level " + (l + 1) + " node " + i, expected, level.nodes.get(i).neighbors);
+      }
+    }
+  }
+
+  @Test
+  public void rejectsOwnersWithoutAnAi() throws IOException {
+    String pack = "tslp 1 1\n"
+      + "\n"
+      + "level EASY 1 2\n"
+      + "node 0.2 0.5 0.06 1 24 2.2 | | 1 0 0 1 -1 0\n"
+      + "node 0.8 0.5 0.06 3 24 2.2 | | 1 0 0 1 -1 0\n";
+    assertRejected(pack, "line 5: owner 3 has no AI");
+    LevelPack.parse(new StringReader(pack.replace("level EASY 1 2", "level EASY 2 2")));
+  }
+
+  @Test
+  public void rejectsMalformedLinesWithTheirLineNumber() throws IOException {
+    String body = assetText();
+    body = body.substring(body.indexOf("tslp"));
+    assertRejected(body.replace("tslp 1", "tslp 2"), "line 1: unsupported version");
+    assertRejected(body.replaceFirst("level EASY", "level MEDIUM"), "line 3: unknown difficulty");
+    assertRejected(body.replaceFirst("(node [^|]*\\|)", "$1 99"), "node 0 has a bad neighbour 99");
+    assertRejected(body.replaceFirst("node 0\\.2 0\\.5", "node 1.2 0.5"), "line 4: position outside the map");
+    assertRejected(body.replaceFirst("\nnode ", "\nnode x "), "line 4:");
+  }
+}
@@ -0,0 +1,73 @@
+package com.android.boot.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.android.boot.entity.Prefecture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class MapPickIndexTest {
+  private static List<Prefecture> map(Random random, int count) {
+    List<Prefecture> list = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Prefecture pref = new Prefecture(random.nextFloat() * 900f, random.nextFloat() * 600f, 20f + random.nextFloat() * 50f);
+      pref.id = i;
+      pref.neighbors = new int[] {(i + 1) % count, (i + 7) % count};
+      list.add(pref);
+    }
+    return list;
+  }
+
+  @Test
+  public void pickMatchesFirstContainingPrefecture() {
+    Random random = new Random(18);
+    List<Prefecture> list = map(random, 120);
+    MapPickIndex index = new MapPickIndex();
+    index.build(list);
+    for (int q = 0; q < 5000; q++) {
+      float x = -50f + random.nextFloat() * 1000f;
+      float y = -50f + random.nextFloat() * 700f;
+      Prefecture expected = null;
+      for (Prefecture pref : list) {
+        if (pref.containsPoint(x, y)) {
+          expected = pref;
+          break;
+        }
+      }
+      assertSame(expected, index.pick(x, y));
+    }
+  }
+
+  @Test
+  public void neighborsMatchTheNeighborLists() {
+    List<Prefecture> list = map(new Random(19), 90);
+    MapPickIndex index = new MapPickIndex();
+    index.build(list);
+    for (Prefecture a : list) {
+      for (Prefecture b : list) {
+        boolean expected = b.id == a.neighbors[0] || b.id == a.neighbors[1];
+        assertTrue(index.covers(a, b));
+        assertEquals(expected, index.isNeighbor(a, b));
+      }
+    }
+  }
+
+  // A prefecture from another map can reuse an indexed id; either side being foreign must
+  // send the caller back to its neighbor list.
+  @Test
+  public void coversRejectsPrefecturesFromAnotherMap() {
+    List<Prefecture> indexed = map(new Random(20), 30);
+    List<Prefecture> other = map(new Random(21), 30);
+    MapPickIndex index = new MapPickIndex();
+    index.build(indexed);
+    assertFalse(index.covers(other.get(3), indexed.get(4)));
+    assertFalse(index.covers(indexed.get(3), other.get(4)));
+    index.clear();
+    assertFalse(index.covers(indexed.get(3), indexed.get(4)));
+  }
+}
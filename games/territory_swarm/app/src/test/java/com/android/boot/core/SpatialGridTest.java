@@ -0,0 +1,127 @@
+package com.android.boot.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class SpatialGridTest {
+  private static final int N = 300;
+  private static final float W = 400f;
+  private static final float H = 260f;
+
+  private final float[] xs = new float[N];
+  private final float[] ys = new float[N];
+  private final boolean[] alive = new boolean[N];
+  private final int[] side = new int[N];
+
+  // Same rule the battle sim's linear scan uses: strict "<", so ties keep the lowest index.
+  private int bruteNearest(float x, float y, int wantSide) {
+    int best = -1;
+    float bestD = Float.MAX_VALUE;
+    for (int i = 0; i < N; i++) {
+      if (!alive[i] || side[i] != wantSide) {
+        continue;
+      }
+      float dx = xs[i] - x;
+      float dy = ys[i] - y;
+      float d = dx * dx + dy * dy;
+      if (d < bestD) {
+        bestD = d;
+        best = i;
+      }
+    }
+    return best;
+  }
+
+  private void scatter(Random rnd, SpatialGrid grid, boolean move) {
+    for (int i = 0; i < N; i++) {
+      // Some points fall outside the bounds to exercise the border clamping.
+      xs[i] = rnd.nextFloat() * (W + 40f) - 20f;
+      ys[i] = rnd.nextFloat() * (H + 40f) - 20f;
+      if (rnd.nextInt(8) == 0) {
+        // Snap a few onto a coarse lattice so equal distances actually occur.
+        xs[i] = Math.round(xs[i] / 20f) * 20f;
+        ys[i] = Math.round(ys[i] / 20f) * 20f;
+      }
+      if (move) {
+        grid.move(i, xs[i], ys[i]);
+      } else {
+        grid.insert(i, xs[i], ys[i]);
+      }
+    }
+  }
+
+  @Test
+  public void nearestMatchesLinearScan() {
+    Random rnd = new Random(7);
+    SpatialGrid grid = new SpatialGrid();
+    for (float cell : new float[] {4f, 16.5f, 60f, 1000f}) {
+      grid.reset(0f, 0f, W, H, cell, N);
+      for (int i = 0; i < N; i++) {
+        alive[i] = rnd.nextInt(5) != 0;
+        side[i] = rnd.nextInt(2);
+      }
+      scatter(rnd, grid, false);
+      for (int round = 0; round < 4; round++) {
+        for (int q = 0; q < 400; q++) {
+          float x = rnd.nextFloat() * W;
+          float y = rnd.nextFloat() * H;
+          if (q % 10 == 0) {
+            x = Math.round(x / 20f) * 20f;
+            y = Math.round(y / 20f) * 20f;
+          }
+          int s = rnd.nextInt(2);
+          int got = grid.nearest(x, y, it -> alive[it] && side[it] == s);
+          assertEquals("cell " + cell + " query " + q, bruteNearest(x, y, s), got);
+        }
+        // Moving everything keeps the per-cell lists consistent.
+        scatter(rnd, grid, true);
+        for (int i = 0; i < N; i++) {
+          if (rnd.nextInt(10) == 0) {
+            alive[i] = false;
+            grid.remove(i);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void nearestWithNoCandidateReturnsMinusOne() {
+    SpatialGrid grid = new SpatialGrid();
+    grid.reset(0f, 0f, W, H, 16f, 4);
+    grid.insert(0, 10f, 10f);
+    assertEquals(-1, grid.nearest(5f, 5f, it -> false));
+  }
+
+  @Test
+  public void gatherCoversEveryItemInRange() {
+    Random rnd = new Random(11);
+    SpatialGrid grid = new SpatialGrid();
+    grid.reset(0f, 0f, W, H, 16.5f, N);
+    scatter(rnd, grid, false);
+    int[] out = new int[N];
+    for (int q = 0; q < 500; q++) {
+      float x = rnd.nextFloat() * W;
+      float y = rnd.nextFloat() * H;
+      float r = 2f + rnd.nextFloat() * 30f;
+      int n = grid.gather(x, y, r, out);
+      boolean[] seen = new boolean[N];
+      for (int k = 0; k < n; k++) {
+        if (k > 0) {
+          assertTrue("sorted", out[k - 1] < out[k]);
+        }
+        seen[out[k]] = true;
+      }
+      for (int i = 0; i < N; i++) {
+        float cx = Math.max(0f, Math.min(W - 0.001f, xs[i]));
+        float cy = Math.max(0f, Math.min(H - 0.001f, ys[i]));
+        if (Math.abs(cx - x) <= r && Math.abs(cy - y) <= r) {
+          assertTrue("item " + i + " missing from query " + q, seen[i]);
+        }
+      }
+    }
+  }
+}